@@ -30,6 +30,7 @@ public enum PhysicalOperatorTag {
     EXTENSION_OPERATOR,
     EXTERNAL_GROUP_BY,
     EXTERNAL_LOOKUP,
+    HASH_DISTINCT_BY,
     HASH_GROUP_BY,
     HASH_PARTITION_EXCHANGE,
     HASH_PARTITION_MERGE_EXCHANGE,
@@ -42,6 +43,7 @@ public enum PhysicalOperatorTag {
     INSERT_DELETE,
     LENGTH_PARTITIONED_INVERTED_INDEX_SEARCH,
     MATERIALIZE,
+    MERGE_JOIN,
     MICRO_PRE_CLUSTERED_GROUP_BY,
     NESTED_LOOP,
     NESTED_TUPLE_SOURCE,
@@ -71,13 +71,25 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
     private final int tableSize;
     private final long fileSize;
     private final int frameLimit;
+    private final boolean adaptivePreAggregation;
     private List<LogicalVariable> columnSet = new ArrayList<LogicalVariable>();
 
     public ExternalGroupByPOperator(List<Pair<LogicalVariable, Mutable<ILogicalExpression>>> gbyList, int frameLimit,
             int tableSize, long fileSize) {
+        this(gbyList, frameLimit, tableSize, fileSize, false);
+    }
+
+    /**
+     * @param adaptivePreAggregation
+     *            whether the group-by streams its input through when it does not reduce it, if it is the local
+     *            combiner of a global group-by
+     */
+    public ExternalGroupByPOperator(List<Pair<LogicalVariable, Mutable<ILogicalExpression>>> gbyList, int frameLimit,
+            int tableSize, long fileSize, boolean adaptivePreAggregation) {
         this.tableSize = tableSize;
         this.frameLimit = frameLimit;
         this.fileSize = fileSize;
+        this.adaptivePreAggregation = adaptivePreAggregation;
         computeColumnSet(gbyList);
     }
 
@@ -258,7 +270,8 @@ public class ExternalGroupByPOperator extends AbstractPhysicalOperator {
                 .variablesToAscNormalizedKeyComputerFactory(gbyCols, aggOpInputEnv, context);
         ExternalGroupOperatorDescriptor gbyOpDesc = new ExternalGroupOperatorDescriptor(spec, tableSize, fileSize,
                 keyAndDecFields, frameLimit, comparatorFactories, normalizedKeyFactory, aggregatorFactory, mergeFactory,
-                recordDescriptor, recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories));
+                recordDescriptor, recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories),
+                adaptivePreAggregation && gby.getExecutionMode() == ExecutionMode.LOCAL);
         contributeOpDesc(builder, gby, gbyOpDesc);
         ILogicalOperator src = op.getInputs().get(0).getValue();
         builder.contributeGraphEdge(src, 0, op, 0);
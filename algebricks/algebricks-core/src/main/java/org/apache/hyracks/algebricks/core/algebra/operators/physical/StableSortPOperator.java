@@ -81,7 +81,7 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
         IBinaryComparatorFactory[] comps = new IBinaryComparatorFactory[n];
 
         INormalizedKeyComputerFactoryProvider nkcfProvider = context.getNormalizedKeyComputerFactoryProvider();
-        INormalizedKeyComputerFactory nkcf = null;
+        INormalizedKeyComputerFactory[] nkcfs = new INormalizedKeyComputerFactory[n];
 
         IVariableTypeEnvironment env = context.getTypeEnvironment(op);
         int i = 0;
@@ -90,8 +90,8 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
             sortFields[i] = opSchema.findVariable(var);
             Object type = env.getVarType(var);
             OrderKind order = oc.getOrder();
-            if (i == 0 && nkcfProvider != null && type != null) {
-                nkcf = nkcfProvider.getNormalizedKeyComputerFactory(type, order == OrderKind.ASC);
+            if (nkcfProvider != null && type != null) {
+                nkcfs[i] = nkcfProvider.getNormalizedKeyComputerFactory(type, order == OrderKind.ASC);
             }
             IBinaryComparatorFactoryProvider bcfp = context.getBinaryComparatorFactoryProvider();
             comps[i] = bcfp.getBinaryComparatorFactory(type, oc.getOrder() == OrderKind.ASC);
@@ -101,7 +101,7 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
         // topK == -1 means that a topK value is not provided.
         if (topK == -1) {
             ExternalSortOperatorDescriptor sortOpDesc = new ExternalSortOperatorDescriptor(spec, maxNumberOfFrames,
-                    sortFields, nkcf, comps, recDescriptor);
+                    sortFields, nkcfs, comps, recDescriptor);
             contributeOpDesc(builder, (AbstractLogicalOperator) op, sortOpDesc);
             ILogicalOperator src = op.getInputs().get(0).getValue();
             builder.contributeGraphEdge(src, 0, op, 0);
@@ -109,7 +109,7 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
             // Since topK value is provided, topK optimization is possible.
             // We call topKSorter instead of calling ExternalSortOperator.
             TopKSorterOperatorDescriptor sortOpDesc = new TopKSorterOperatorDescriptor(spec, maxNumberOfFrames, topK,
-                    sortFields, nkcf, comps, recDescriptor);
+                    sortFields, nkcfs[0], comps, recDescriptor);
             contributeOpDesc(builder, (AbstractLogicalOperator) op, sortOpDesc);
             ILogicalOperator src = op.getInputs().get(0).getValue();
             builder.contributeGraphEdge(src, 0, op, 0);
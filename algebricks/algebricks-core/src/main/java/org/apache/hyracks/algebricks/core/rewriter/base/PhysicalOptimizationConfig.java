@@ -28,12 +28,16 @@ public class PhysicalOptimizationConfig {
     private static final String MAX_FRAMES_EXTERNAL_GROUP_BY = "MAX_FRAMES_EXTERNAL_GROUP_BY";
     private static final String MAX_FRAMES_LEFT_INPUT_HYBRID_HASH = "MAX_FRAMES_LEFT_INPUT_HYBRID_HASH";
     private static final String MAX_FRAMES_HYBRID_HASH = "MAX_FRAMES_HYBRID_HASH";
+    private static final String MAX_FRAMES_MERGE_JOIN = "MAX_FRAMES_MERGE_JOIN";
+    private static final String MAX_FRAMES_HASH_DISTINCT = "MAX_FRAMES_HASH_DISTINCT";
     private static final String FUDGE_FACTOR = "FUDGE_FACTOR";
     private static final String MAX_RECORDS_PER_FRAME = "MAX_RECORDS_PER_FRAME";
 
     private static final String DEFAULT_HASH_GROUP_TABLE_SIZE = "DEFAULT_HASH_GROUP_TABLE_SIZE";
     private static final String DEFAULT_EXTERNAL_GROUP_TABLE_SIZE = "DEFAULT_EXTERNAL_GROUP_TABLE_SIZE";
     private static final String DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE = "DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE";
+    private static final String ADAPTIVE_PRE_AGGREGATION = "ADAPTIVE_PRE_AGGREGATION";
+    private static final String HASH_DISTINCT = "HASH_DISTINCT";
 
     private Properties properties = new Properties();
 
@@ -91,6 +95,24 @@ public class PhysicalOptimizationConfig {
         setInt(MAX_FRAMES_HYBRID_HASH, frameLimit);
     }
 
+    public int getMaxFramesMergeJoin() {
+        int frameSize = getFrameSize();
+        return getInt(MAX_FRAMES_MERGE_JOIN, (int) (((long) 32 * MB) / frameSize));
+    }
+
+    public void setMaxFramesMergeJoin(int frameLimit) {
+        setInt(MAX_FRAMES_MERGE_JOIN, frameLimit);
+    }
+
+    public int getMaxFramesHashDistinct() {
+        int frameSize = getFrameSize();
+        return getInt(MAX_FRAMES_HASH_DISTINCT, (int) (((long) 32 * MB) / frameSize));
+    }
+
+    public void setMaxFramesHashDistinct(int frameLimit) {
+        setInt(MAX_FRAMES_HASH_DISTINCT, frameLimit);
+    }
+
     public int getMaxFramesExternalGroupBy() {
         int frameSize = getFrameSize();
         return getInt(MAX_FRAMES_EXTERNAL_GROUP_BY, (int) (((long) 256 * MB) / frameSize));
@@ -133,6 +155,29 @@ public class PhysicalOptimizationConfig {
         setInt(DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE, tableSize);
     }
 
+    /**
+     * Whether a local external group-by that combines the input of a global one may stream its input through when
+     * it does not reduce it.
+     */
+    public boolean isAdaptivePreAggregation() {
+        return getBoolean(ADAPTIVE_PRE_AGGREGATION, true);
+    }
+
+    public void setAdaptivePreAggregation(boolean adaptive) {
+        setBoolean(ADAPTIVE_PRE_AGGREGATION, adaptive);
+    }
+
+    /**
+     * Whether a distinct is computed by hashing its unsorted input instead of by sorting it.
+     */
+    public boolean isHashDistinct() {
+        return getBoolean(HASH_DISTINCT, false);
+    }
+
+    public void setHashDistinct(boolean hashDistinct) {
+        setBoolean(HASH_DISTINCT, hashDistinct);
+    }
+
     private void setInt(String property, int value) {
         properties.setProperty(property, Integer.toString(value));
     }
@@ -157,4 +202,16 @@ public class PhysicalOptimizationConfig {
             return Double.parseDouble(value);
     }
 
+    private void setBoolean(String property, boolean value) {
+        properties.setProperty(property, Boolean.toString(value));
+    }
+
+    private boolean getBoolean(String property, boolean defaultValue) {
+        String value = properties.getProperty(property);
+        if (value == null)
+            return defaultValue;
+        else
+            return Boolean.parseBoolean(value);
+    }
+
 }
@@ -50,12 +50,16 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperato
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator.IOrder;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator.IOrder.OrderKind;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.FDsAndEquivClassesVisitor;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.AbstractHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.AbstractJoinPOperator.JoinPartitioningType;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.AbstractStableSortPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.BroadcastPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.ExternalGroupByPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HashDistinctByPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.HashPartitionExchangePOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.HashPartitionMergeExchangePOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.InMemoryStableSortPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.MergeJoinPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.PreSortedDistinctByPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.PreclusteredGroupByPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.RandomMergeExchangePOperator;
@@ -225,6 +229,12 @@ public class EnforceStructuralPropertiesRule implements IAlgebraicRewriteRule {
             }
         }
 
+        if (setMergeJoinIfInputsSorted(op, required, childrenDomain, context)) {
+            changed = true;
+            pr = op.getRequiredPhysicalPropertiesForChildren(required, context);
+            reqdProperties = pr.getRequiredProperties();
+        }
+
         if (reqdProperties != null) {
             for (int k = 0; k < reqdProperties.length; k++) {
                 IPhysicalPropertiesVector pv = reqdProperties[k];
@@ -329,6 +339,44 @@ public class EnforceStructuralPropertiesRule implements IAlgebraicRewriteRule {
         return changed;
     }
 
+    /**
+     * Replaces a pairwise hash join by a merge join if its inputs already deliver the partitioning and the ascending
+     * order on the join keys that the merge join requires, so that the join neither hashes its inputs nor needs
+     * enforcers for them.
+     */
+    private boolean setMergeJoinIfInputsSorted(AbstractLogicalOperator op, IPhysicalPropertiesVector required,
+            INodeDomain childrenDomain, IOptimizationContext context) throws AlgebricksException {
+        PhysicalOperatorTag tag = op.getPhysicalOperator().getOperatorTag();
+        if (tag != PhysicalOperatorTag.HYBRID_HASH_JOIN && tag != PhysicalOperatorTag.IN_MEMORY_HASH_JOIN) {
+            return false;
+        }
+        AbstractHashJoinPOperator hashJoin = (AbstractHashJoinPOperator) op.getPhysicalOperator();
+        if (hashJoin.getPartitioningType() != JoinPartitioningType.PAIRWISE) {
+            return false;
+        }
+        MergeJoinPOperator mergeJoin = new MergeJoinPOperator(hashJoin.getKind(), JoinPartitioningType.PAIRWISE,
+                hashJoin.getKeysLeftBranch(), hashJoin.getKeysRightBranch(),
+                physicalOptimizationConfig.getMaxFramesMergeJoin());
+        IPhysicalPropertiesVector[] reqdProperties = mergeJoin.getRequiredPropertiesForChildren(op, required, context)
+                .getRequiredProperties();
+        for (int i = 0; i < op.getInputs().size(); i++) {
+            IPartitioningProperty pp = reqdProperties[i].getPartitioningProperty();
+            if (pp != null && pp.getNodeDomain() == null) {
+                pp.setNodeDomain(childrenDomain);
+            }
+            AbstractLogicalOperator child = (AbstractLogicalOperator) op.getInputs().get(i).getValue();
+            IPhysicalPropertiesVector diff = child.getDeliveredPhysicalProperties().getUnsatisfiedPropertiesFrom(
+                    reqdProperties[i], false, context.getEquivalenceClassMap(child), context.getFDList(child));
+            if (diff != null) {
+                return false;
+            }
+        }
+        AlgebricksConfig.ALGEBRICKS_LOGGER.fine(">>>> Replacing " + op.getPhysicalOperator() + " by " + mergeJoin
+                + " over sorted inputs.\n");
+        op.setPhysicalOperator(mergeJoin);
+        return true;
+    }
+
     private IPhysicalPropertiesVector newPropertiesDiff(AbstractLogicalOperator newChild,
             IPhysicalPropertiesVector required, boolean mayExpandPartitioningProperties, IOptimizationContext context)
                     throws AlgebricksException {
@@ -371,6 +419,12 @@ public class EnforceStructuralPropertiesRule implements IAlgebraicRewriteRule {
                 preSortedDistinct.setDistinctByColumns(d.getDistinctByVarList());
                 break;
             }
+            case HASH_DISTINCT_BY: {
+                DistinctOperator d = (DistinctOperator) op;
+                HashDistinctByPOperator hashDistinct = (HashDistinctByPOperator) pOp;
+                hashDistinct.setDistinctByColumns(d.getDistinctByVarList());
+                break;
+            }
         }
     }
 
@@ -19,6 +19,7 @@
 package org.apache.hyracks.api.application;
 
 import org.apache.hyracks.api.context.IHyracksRootContext;
+import org.apache.hyracks.api.io.IIOSchedulerCounters;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
 
@@ -77,4 +78,25 @@ public interface INCApplicationContext extends IApplicationContext {
      * @param handler
      */
     public void setStateDumpHandler(IStateDumpHandler handler);
+
+    /**
+     * Set the counters of the I/O scheduler of the node, which are reported with the heartbeats of the node.
+     *
+     * @param counters
+     */
+    public void setIOSchedulerCounters(IIOSchedulerCounters counters);
+
+    /**
+     * Gets the buffer cache implementation that applications should create at this node.
+     *
+     * @return the value of the -buffer-cache-type option of the Node Controller
+     */
+    public String getBufferCacheType();
+
+    /**
+     * Gets the page replacement policy of the buffer cache that applications should create at this node.
+     *
+     * @return the value of the -buffer-cache-replacement-policy option of the Node Controller
+     */
+    public String getBufferCacheReplacementPolicy();
 }
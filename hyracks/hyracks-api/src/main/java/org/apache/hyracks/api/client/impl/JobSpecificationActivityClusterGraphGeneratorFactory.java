@@ -79,6 +79,8 @@ public class JobSpecificationActivityClusterGraphGeneratorFactory implements IAc
         acg.setConnectorPolicyAssignmentPolicy(spec.getConnectorPolicyAssignmentPolicy());
         acg.setUseConnectorPolicyForScheduling(spec.isUseConnectorPolicyForScheduling());
         acg.setReportTaskDetails(spec.isReportTaskDetails());
+        acg.setCompressSpillFiles(spec.isCompressSpillFiles());
+        acg.setMemoryBrokerBudgetFrames(spec.getMemoryBrokerBudgetFrames());
         final Set<Constraint> constraints = new HashSet<Constraint>();
         final IConstraintAcceptor acceptor = new IConstraintAcceptor() {
             @Override
@@ -23,6 +23,7 @@ import org.apache.hyracks.api.io.IWorkspaceFileFactory;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.api.resources.IDeallocatableRegistry;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 
 public interface IHyracksJobletContext extends IWorkspaceFileFactory, IDeallocatableRegistry {
     public INCApplicationContext getApplicationContext();
@@ -36,4 +37,15 @@ public interface IHyracksJobletContext extends IWorkspaceFileFactory, IDeallocat
     public Class<?> loadClass(String className);
 
     public ClassLoader getClassLoader();
+
+    /**
+     * @return true if the operators of the job compress the frames of the run files they spill to the workspace
+     */
+    public boolean isCompressSpillFiles();
+
+    /**
+     * @return the broker of the memory the operators of the job share on this node, or null if the job gives each
+     *         operator its fixed memory
+     */
+    public IMemoryBroker getMemoryBroker();
 }
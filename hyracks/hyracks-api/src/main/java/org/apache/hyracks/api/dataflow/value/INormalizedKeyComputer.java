@@ -18,6 +18,36 @@
  */
 package org.apache.hyracks.api.dataflow.value;
 
+/**
+ * Computes normalized keys of a field: unsigned integers whose order agrees with the order of the field's values, so
+ * that two values whose normalized keys differ can be ordered without calling the field's comparator.
+ */
 public interface INormalizedKeyComputer {
     public int normalize(byte[] bytes, int start, int length);
+
+    /**
+     * @return the number of ints of the normalized key written by
+     *         {@link #normalize(byte[], int, int, int[], int)}
+     */
+    public default int getNormalizedKeyLength() {
+        return 1;
+    }
+
+    /**
+     * Writes a normalized key of {@link #getNormalizedKeyLength()} ints, to be compared as unsigned ints from the
+     * first to the last. Longer keys decide more comparisons than the key returned by
+     * {@link #normalize(byte[], int, int)}.
+     */
+    public default void normalize(byte[] bytes, int start, int length, int[] normalizedKey, int keyStart) {
+        normalizedKey[keyStart] = normalize(bytes, start, length);
+    }
+
+    /**
+     * @return true if equal normalized keys written by {@link #normalize(byte[], int, int, int[], int)} imply equal
+     *         values, so that neither this field nor the fields before it need to be compared, and the normalized key
+     *         of the next sort field can be appended
+     */
+    public default boolean isDecisive() {
+        return false;
+    }
 }
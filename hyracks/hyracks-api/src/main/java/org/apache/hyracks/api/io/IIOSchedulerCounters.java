@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.io;
+
+/**
+ * Counters of the scheduler of the background I/O operations of a node, which the node controller reports with its
+ * heartbeats once the application registered them with
+ * {@link org.apache.hyracks.api.application.INCApplicationContext#setIOSchedulerCounters(IIOSchedulerCounters)}.
+ */
+public interface IIOSchedulerCounters {
+    /**
+     * @return the number of operations waiting to be run
+     */
+    public int getQueueDepth();
+
+    /**
+     * @return the total time, in milliseconds, the operations were slowed down or paused by the scheduler
+     */
+    public long getThrottleTime();
+}
@@ -58,6 +58,10 @@ public class ActivityClusterGraph implements Serializable {
 
     private boolean reportTaskDetails;
 
+    private boolean compressSpillFiles;
+
+    private int memoryBrokerBudgetFrames;
+
     public ActivityClusterGraph() {
         version = 0;
         activityClusterMap = new HashMap<ActivityClusterId, ActivityCluster>();
@@ -152,6 +156,22 @@ public class ActivityClusterGraph implements Serializable {
         this.reportTaskDetails = reportTaskDetails;
     }
 
+    public boolean isCompressSpillFiles() {
+        return compressSpillFiles;
+    }
+
+    public void setCompressSpillFiles(boolean compressSpillFiles) {
+        this.compressSpillFiles = compressSpillFiles;
+    }
+
+    public int getMemoryBrokerBudgetFrames() {
+        return memoryBrokerBudgetFrames;
+    }
+
+    public void setMemoryBrokerBudgetFrames(int memoryBrokerBudgetFrames) {
+        this.memoryBrokerBudgetFrames = memoryBrokerBudgetFrames;
+    }
+
     public List<IConnectorDescriptor> getActivityInputs(ActivityId activityId) {
         ActivityCluster ac = activityMap.get(activityId);
         return ac.getActivityInputMap().get(activityId);
@@ -81,6 +81,10 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
 
     private boolean reportTaskDetails;
 
+    private boolean compressSpillFiles;
+
+    private int memoryBrokerBudgetFrames;
+
     private transient int operatorIdCounter;
 
     private transient int connectorIdCounter;
@@ -303,6 +307,27 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
         this.reportTaskDetails = reportTaskDetails;
     }
 
+    public boolean isCompressSpillFiles() {
+        return compressSpillFiles;
+    }
+
+    public void setCompressSpillFiles(boolean compressSpillFiles) {
+        this.compressSpillFiles = compressSpillFiles;
+    }
+
+    public int getMemoryBrokerBudgetFrames() {
+        return memoryBrokerBudgetFrames;
+    }
+
+    /**
+     * Makes the operators of the job on each node share the given number of frames through the memory broker of
+     * their joblet, see {@link org.apache.hyracks.api.context.IHyracksJobletContext#getMemoryBroker()}. The
+     * operators that do not use the broker, or a budget of 0 frames, keep the fixed memory of their descriptors.
+     */
+    public void setMemoryBrokerBudgetFrames(int memoryBrokerBudgetFrames) {
+        this.memoryBrokerBudgetFrames = memoryBrokerBudgetFrames;
+    }
+
     private <K, V> void insertIntoIndexedMap(Map<K, List<V>> map, K key, int index, V value) {
         List<V> vList = map.get(key);
         if (vList == null) {
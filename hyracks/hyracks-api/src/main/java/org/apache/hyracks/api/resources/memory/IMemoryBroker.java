@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.resources.memory;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Shares a memory budget, counted in frames, among the operators of a joblet. An operator acquires a grant before
+ * it allocates its memory and closes it once it is done with it, so that the frames go to the operators that run
+ * after it. The broker can revoke some of the frames of a grant for another operator. Revocation is cooperative: the
+ * holder of the grant checks {@link IMemoryGrant#getRevokedFrames()} when it is safe to, spills what it must and
+ * releases the frames.
+ */
+public interface IMemoryBroker {
+
+    /**
+     * Grants as many frames as are free, between minFrames and maxFrames. If fewer than minFrames frames are free,
+     * it revokes frames from the grants that hold more than their minimum and waits for them to be released. It
+     * waits for a bounded time only, after which it grants minFrames frames anyway, so that an operator whose
+     * grant is not released in time still runs, as it would have without the broker.
+     *
+     * @param consumer
+     *            the name of the consumer, for the logs
+     * @param minFrames
+     *            the frames the consumer cannot run without
+     * @param maxFrames
+     *            the frames the consumer would use at most
+     * @return the grant, which must be closed
+     * @throws HyracksDataException
+     *             if the thread is interrupted while it waits
+     */
+    default IMemoryGrant acquire(String consumer, int minFrames, int maxFrames) throws HyracksDataException {
+        return acquire(consumer, minFrames, maxFrames, true);
+    }
+
+    /**
+     * Like {@link #acquire(String, int, int)}, for a consumer that may not be able to release frames while it runs.
+     *
+     * @param revocable
+     *            whether the broker may revoke frames of the grant, see {@link IMemoryGrant#setRevocable(boolean)}
+     */
+    IMemoryGrant acquire(String consumer, int minFrames, int maxFrames, boolean revocable)
+            throws HyracksDataException;
+
+    /**
+     * @return the frames the broker shares
+     */
+    int getBudgetFrames();
+
+    /**
+     * @return the frames that are not granted, which is negative if the broker had to grant more than its budget
+     */
+    int getFreeFrames();
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.resources.memory;
+
+/**
+ * The frames an {@link IMemoryBroker} has granted to an operator.
+ */
+public interface IMemoryGrant {
+
+    /**
+     * @return the frames of the grant, including the ones that were revoked but not yet released
+     */
+    int getFrames();
+
+    /**
+     * @return the frames that the broker asked back and that the holder should release as soon as it can, by
+     *         spilling if needed
+     */
+    int getRevokedFrames();
+
+    /**
+     * Adds free frames to the grant, without revoking any. Nothing is added while other consumers wait for frames.
+     *
+     * @return the frames added, at most the given number
+     */
+    int grow(int frames);
+
+    /**
+     * Gives frames of the grant back to the broker. They count against the revoked frames first.
+     */
+    void release(int frames);
+
+    /**
+     * Tells whether the holder releases revoked frames. The frames of a grant that is not revocable are never
+     * revoked, and the ones that were revoked but not released are asked of the other grants instead.
+     */
+    void setRevocable(boolean revocable);
+
+    /**
+     * Gives all the frames of the grant back to the broker.
+     */
+    void close();
+}
@@ -133,6 +133,10 @@ public class NodeControllerState {
 
     private final long[] diskWrites;
 
+    private final int[] ioQueueDepth;
+
+    private final long[] ioThrottleTime;
+
     private int rrdPtr;
 
     private int lastHeartbeatDuration;
@@ -194,6 +198,8 @@ public class NodeControllerState {
 
         diskReads = new long[RRD_SIZE];
         diskWrites = new long[RRD_SIZE];
+        ioQueueDepth = new int[RRD_SIZE];
+        ioThrottleTime = new long[RRD_SIZE];
 
         rrdPtr = 0;
     }
@@ -232,6 +238,8 @@ public class NodeControllerState {
             ipcMessageBytesReceived[rrdPtr] = hbData.ipcMessageBytesReceived;
             diskReads[rrdPtr] = hbData.diskReads;
             diskWrites[rrdPtr] = hbData.diskWrites;
+            ioQueueDepth[rrdPtr] = hbData.ioQueueDepth;
+            ioThrottleTime[rrdPtr] = hbData.ioThrottleTime;
             rrdPtr = (rrdPtr + 1) % RRD_SIZE;
         }
     }
@@ -318,6 +326,8 @@ public class NodeControllerState {
         o.put("ipc-message-bytes-received", ipcMessageBytesReceived);
         o.put("disk-reads", diskReads);
         o.put("disk-writes", diskWrites);
+        o.put("io-queue-depth", ioQueueDepth);
+        o.put("io-throttle-time", ioThrottleTime);
 
         return o;
     }
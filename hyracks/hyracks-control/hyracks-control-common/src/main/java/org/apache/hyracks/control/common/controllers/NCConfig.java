@@ -77,6 +77,12 @@ public class NCConfig implements Serializable {
     @Option(name = "-iodevices", usage = "Comma separated list of IO Device mount points (default: One device in default temp folder)", required = false)
     public String ioDevices = System.getProperty("java.io.tmpdir");
 
+    @Option(name = "-io-engine", usage = "Engine performing asynchronous file IO: executor (one task per request) or vectored (bounded per-device queues, adjacent requests coalesced) (default: executor)")
+    public String ioEngine = "executor";
+
+    @Option(name = "-io-queue-depth", usage = "Maximum number of queued asynchronous IO requests per IO device for the vectored IO engine (default: 64)")
+    public int ioQueueDepth = 64;
+
     @Option(name = "-net-thread-count", usage = "Number of threads to use for Network I/O (default: 1)")
     public int nNetThreads = 1;
 
@@ -95,6 +101,12 @@ public class NCConfig implements Serializable {
     @Option(name = "-result-manager-memory", usage = "Memory usable for result caching at this Node Controller in bytes (default: -1 auto)")
     public int resultManagerMemory = -1;
 
+    @Option(name = "-buffer-cache-type", usage = "Buffer cache implementation used by applications: default or lock-free (default: default)")
+    public String bufferCacheType = "default";
+
+    @Option(name = "-buffer-cache-replacement-policy", usage = "Page replacement policy of the buffer cache used by applications: clock or 2q (default: clock)")
+    public String bufferCacheReplacementPolicy = "clock";
+
     @Option(name = "-app-nc-main-class", usage = "Application NC Main Class")
     public String appNCMainClass;
 
@@ -135,6 +147,10 @@ public class NCConfig implements Serializable {
         cList.add(String.valueOf(resultPublicPort));
         cList.add("-iodevices");
         cList.add(ioDevices);
+        cList.add("-io-engine");
+        cList.add(ioEngine);
+        cList.add("-io-queue-depth");
+        cList.add(String.valueOf(ioQueueDepth));
         cList.add("-net-thread-count");
         cList.add(String.valueOf(nNetThreads));
         cList.add("-net-buffer-count");
@@ -147,6 +163,10 @@ public class NCConfig implements Serializable {
         cList.add(String.valueOf(resultSweepThreshold));
         cList.add("-result-manager-memory");
         cList.add(String.valueOf(resultManagerMemory));
+        cList.add("-buffer-cache-type");
+        cList.add(bufferCacheType);
+        cList.add("-buffer-cache-replacement-policy");
+        cList.add(bufferCacheReplacementPolicy);
 
         if (appNCMainClass != null) {
             cList.add("-app-nc-main-class");
@@ -177,12 +197,16 @@ public class NCConfig implements Serializable {
         configuration.put("result-public-ip-address", resultPublicIPAddress);
         configuration.put("result-public-port", String.valueOf(resultPublicPort));
         configuration.put("iodevices", ioDevices);
+        configuration.put("io-engine", ioEngine);
+        configuration.put("io-queue-depth", String.valueOf(ioQueueDepth));
         configuration.put("net-thread-count", String.valueOf(nNetThreads));
         configuration.put("net-buffer-count", String.valueOf(nNetBuffers));
         configuration.put("max-memory", String.valueOf(maxMemory));
         configuration.put("result-time-to-live", String.valueOf(resultTTL));
         configuration.put("result-sweep-threshold", String.valueOf(resultSweepThreshold));
         configuration.put("result-manager-memory", String.valueOf(resultManagerMemory));
+        configuration.put("buffer-cache-type", bufferCacheType);
+        configuration.put("buffer-cache-replacement-policy", bufferCacheReplacementPolicy);
 
         if (appNCMainClass != null) {
             configuration.put("app-nc-main-class", appNCMainClass);
@@ -50,6 +50,7 @@ import org.apache.hyracks.api.job.profiling.counters.ICounter;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.api.partitions.PartitionId;
 import org.apache.hyracks.api.resources.IDeallocatable;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.control.common.deployment.DeploymentUtils;
 import org.apache.hyracks.control.common.job.PartitionRequest;
 import org.apache.hyracks.control.common.job.PartitionState;
@@ -61,6 +62,7 @@ import org.apache.hyracks.control.nc.io.IOManager;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 import org.apache.hyracks.control.nc.resources.DefaultDeallocatableRegistry;
 import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
 
 public class Joblet implements IHyracksJobletContext, ICounterContext {
     private static final Logger LOGGER = Logger.getLogger(Joblet.class.getName());
@@ -97,6 +99,8 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
 
     private final AtomicLong memoryAllocation;
 
+    private final IMemoryBroker memoryBroker;
+
     private JobStatus cleanupStatus;
 
     private boolean cleanupPending;
@@ -115,6 +119,8 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
         stateObjectMap = new HashMap<Object, IStateObject>();
         taskMap = new HashMap<TaskAttemptId, Task>();
         counterMap = new HashMap<String, Counter>();
+        memoryBroker = acg.getMemoryBrokerBudgetFrames() > 0 ? new MemoryBroker(acg.getMemoryBrokerBudgetFrames(),
+                MemoryBroker.DEFAULT_MAX_WAIT_MILLIS, this) : null;
         deallocatableRegistry = new DefaultDeallocatableRegistry();
         fileFactory = new WorkspaceFileFactory(this, (IOManager) appCtx.getRootContext().getIOManager());
         cleanupPending = false;
@@ -342,4 +348,14 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public boolean isCompressSpillFiles() {
+        return acg.isCompressSpillFiles();
+    }
+
+    @Override
+    public IMemoryBroker getMemoryBroker() {
+        return memoryBroker;
+    }
 }
@@ -49,6 +49,7 @@ import org.apache.hyracks.api.comm.NetworkAddress;
 import org.apache.hyracks.api.context.IHyracksRootContext;
 import org.apache.hyracks.api.dataset.IDatasetPartitionManager;
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.io.IIOSchedulerCounters;
 import org.apache.hyracks.api.io.IODeviceHandle;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
@@ -165,7 +166,8 @@ public class NodeControllerService implements IControllerService {
         ipc = new IPCSystem(new InetSocketAddress(ncConfig.clusterNetIPAddress, ncConfig.clusterNetPort), ipci,
                 new CCNCFunctions.SerializerDeserializer());
 
-        this.ctx = new RootHyracksContext(this, new IOManager(getDevices(ncConfig.ioDevices)));
+        this.ctx = new RootHyracksContext(this, new IOManager(getDevices(ncConfig.ioDevices),
+                ncConfig.ioEngine, ncConfig.ioQueueDepth));
         if (id == null) {
             throw new Exception("id not set");
         }
@@ -454,6 +456,12 @@ public class NodeControllerService implements IControllerService {
             hbData.diskReads = ioCounter.getReads();
             hbData.diskWrites = ioCounter.getWrites();
 
+            IIOSchedulerCounters ioSchedulerCounters = appCtx.getIOSchedulerCounters();
+            if (ioSchedulerCounters != null) {
+                hbData.ioQueueDepth = ioSchedulerCounters.getQueueDepth();
+                hbData.ioThrottleTime = ioSchedulerCounters.getThrottleTime();
+            }
+
             try {
                 cc.nodeHeartbeat(id, hbData);
             } catch (Exception e) {
@@ -25,6 +25,7 @@ import java.io.Serializable;
 import org.apache.hyracks.api.application.INCApplicationContext;
 import org.apache.hyracks.api.application.IStateDumpHandler;
 import org.apache.hyracks.api.context.IHyracksRootContext;
+import org.apache.hyracks.api.io.IIOSchedulerCounters;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
 import org.apache.hyracks.api.service.IControllerService;
@@ -40,6 +41,7 @@ public class NCApplicationContext extends ApplicationContext implements INCAppli
     private final MemoryManager memoryManager;
     private Object appObject;
     private IStateDumpHandler sdh;
+    private IIOSchedulerCounters ioSchedulerCounters;
     private final NodeControllerService ncs;
 
     public NCApplicationContext(NodeControllerService ncs, ServerContext serverCtx, IHyracksRootContext rootCtx,
@@ -83,6 +85,15 @@ public class NCApplicationContext extends ApplicationContext implements INCAppli
         return sdh;
     }
 
+    @Override
+    public void setIOSchedulerCounters(IIOSchedulerCounters counters) {
+        this.ioSchedulerCounters = counters;
+    }
+
+    public IIOSchedulerCounters getIOSchedulerCounters() {
+        return ioSchedulerCounters;
+    }
+
     @Override
     public IHyracksRootContext getRootContext() {
         return rootCtx;
@@ -107,4 +118,14 @@ public class NCApplicationContext extends ApplicationContext implements INCAppli
     public IControllerService getControllerService() {
         return ncs;
     }
+
+    @Override
+    public String getBufferCacheType() {
+        return ncs.getConfiguration().bufferCacheType;
+    }
+
+    @Override
+    public String getBufferCacheReplacementPolicy() {
+        return ncs.getConfiguration().bufferCacheReplacementPolicy;
+    }
 }
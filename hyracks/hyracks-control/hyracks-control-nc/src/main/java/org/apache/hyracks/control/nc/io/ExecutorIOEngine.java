@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.io;
+
+import java.util.concurrent.Executor;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Runs each request as its own task on an executor, with one positional file channel call per request.
+ */
+public class ExecutorIOEngine implements IIOEngine {
+    private final IOManager ioManager;
+    private final Executor executor;
+    private final IOCounters counters;
+
+    public ExecutorIOEngine(IOManager ioManager, Executor executor, IOCounters counters) {
+        this.ioManager = ioManager;
+        this.executor = executor;
+        this.counters = counters;
+    }
+
+    @Override
+    public void submit(final IORequest request) {
+        counters.requestQueued();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                counters.requestDequeued();
+                HyracksDataException hde = null;
+                int res = -1;
+                try {
+                    res = request.isWrite()
+                            ? ioManager.syncWrite(request.getFileHandle(), request.getOffset(), request.getData())
+                            : ioManager.syncRead(request.getFileHandle(), request.getOffset(), request.getData());
+                    counters.operationPerformed(1, Math.max(res, 0));
+                } catch (HyracksDataException e) {
+                    hde = e;
+                }
+                counters.requestCompleted(request, res);
+                request.complete(res, hde);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+    }
+}
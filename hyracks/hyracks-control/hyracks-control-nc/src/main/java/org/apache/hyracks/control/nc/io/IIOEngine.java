@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.io;
+
+/**
+ * Executes the asynchronous requests of an {@link IOManager}.
+ */
+public interface IIOEngine {
+    /**
+     * Queues a request. The request is completed, successfully or with an exception, once it has been performed.
+     * May block while the queue of the request's device is full.
+     *
+     * @param request
+     */
+    public void submit(IORequest request);
+
+    /**
+     * Stops accepting requests. Queued requests are still performed.
+     */
+    public void close();
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of the asynchronous requests performed by an {@link IOManager}.
+ * Latencies are measured from submission to completion and kept in a histogram with power-of-two microsecond
+ * buckets: bucket i counts the requests that took less than 2^i microseconds (and at least 2^(i-1)).
+ */
+public class IOCounters {
+    public static final int NUM_LATENCY_BUCKETS = 32;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong operations = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong coalescedBytes = new AtomicLong();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(NUM_LATENCY_BUCKETS);
+
+    public void requestQueued() {
+        long depth = queueDepth.incrementAndGet();
+        long max = maxQueueDepth.get();
+        while (depth > max && !maxQueueDepth.compareAndSet(max, depth)) {
+            max = maxQueueDepth.get();
+        }
+    }
+
+    public void requestDequeued() {
+        queueDepth.decrementAndGet();
+    }
+
+    /**
+     * Records one file system call that served {@code numRequests} requests transferring {@code numBytes} bytes
+     * in total.
+     */
+    public void operationPerformed(int numRequests, long numBytes) {
+        operations.incrementAndGet();
+        if (numRequests > 1) {
+            coalescedRequests.addAndGet(numRequests);
+            coalescedBytes.addAndGet(numBytes);
+        }
+    }
+
+    public void requestCompleted(IORequest request, int numBytes) {
+        requests.incrementAndGet();
+        if (numBytes > 0) {
+            bytes.addAndGet(numBytes);
+        }
+        long micros = (System.nanoTime() - request.getSubmitTime()) / 1000;
+        int bucket = micros <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+        latencyHistogram.incrementAndGet(Math.min(bucket, NUM_LATENCY_BUCKETS - 1));
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getOperations() {
+        return operations.get();
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests.get();
+    }
+
+    public long getCoalescedBytes() {
+        return coalescedBytes.get();
+    }
+
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[NUM_LATENCY_BUCKETS];
+        for (int i = 0; i < NUM_LATENCY_BUCKETS; i++) {
+            histogram[i] = latencyHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    /**
+     * @return an upper bound, in microseconds, of the given percentile (0-100) of the request latencies
+     */
+    public long getLatencyPercentile(double percentile) {
+        long[] histogram = getLatencyHistogram();
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < NUM_LATENCY_BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank && seen > 0) {
+                return 1L << i;
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        requests.set(0);
+        bytes.set(0);
+        operations.set(0);
+        coalescedRequests.set(0);
+        coalescedBytes.set(0);
+        maxQueueDepth.set(queueDepth.get());
+        for (int i = 0; i < NUM_LATENCY_BUCKETS; i++) {
+            latencyHistogram.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "requests: " + getRequests() + ", bytes: " + getBytes() + ", operations: " + getOperations()
+                + ", coalesced requests: " + getCoalescedRequests() + ", coalesced bytes: " + getCoalescedBytes()
+                + ", queue depth: " + getQueueDepth() + ", max queue depth: " + getMaxQueueDepth()
+                + ", latency p50: " + getLatencyPercentile(50) + "us, p99: " + getLatencyPercentile(99) + "us";
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.io;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Creates the engine named by the NC's -io-engine option, which performs the asynchronous requests of the
+ * IO manager: one executor task per request, or bounded per-device queues whose adjacent requests are
+ * coalesced into vectored calls.
+ */
+public class IOEngineFactory {
+    public static final String EXECUTOR = "executor";
+    public static final String VECTORED = "vectored";
+
+    private IOEngineFactory() {
+    }
+
+    public static IIOEngine createIOEngine(String type, IOManager ioManager, Executor executor, IOCounters counters,
+            int queueDepth) {
+        if (type == null || EXECUTOR.equals(type)) {
+            return new ExecutorIOEngine(ioManager, executor, counters);
+        } else if (VECTORED.equals(type)) {
+            return new VectoredIOEngine(ioManager, executor, counters, queueDepth);
+        }
+        throw new IllegalArgumentException("Unknown IO engine: " + type);
+    }
+}
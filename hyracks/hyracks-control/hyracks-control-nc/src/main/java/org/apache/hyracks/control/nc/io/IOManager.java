@@ -38,17 +38,32 @@ import org.apache.hyracks.api.io.IODeviceHandle;
 public class IOManager implements IIOManager {
     private static final String WORKSPACE_FILE_SUFFIX = ".waf";
     private final List<IODeviceHandle> ioDevices;
-    private Executor executor;
+    private final String ioEngineType;
+    private final int ioQueueDepth;
+    private final IOCounters counters;
+    private IIOEngine ioEngine;
     private final List<IODeviceHandle> workAreaIODevices;
     private int workAreaDeviceIndex;
 
     public IOManager(List<IODeviceHandle> devices, Executor executor) throws HyracksException {
-        this(devices);
-        this.executor = executor;
+        this(devices, executor, IOEngineFactory.EXECUTOR, VectoredIOEngine.DEFAULT_QUEUE_DEPTH);
+    }
+
+    public IOManager(List<IODeviceHandle> devices, Executor executor, String ioEngineType, int ioQueueDepth)
+            throws HyracksException {
+        this(devices, ioEngineType, ioQueueDepth);
+        setExecutor(executor);
     }
 
     public IOManager(List<IODeviceHandle> devices) throws HyracksException {
+        this(devices, IOEngineFactory.EXECUTOR, VectoredIOEngine.DEFAULT_QUEUE_DEPTH);
+    }
+
+    public IOManager(List<IODeviceHandle> devices, String ioEngineType, int ioQueueDepth) throws HyracksException {
         this.ioDevices = Collections.unmodifiableList(devices);
+        this.ioEngineType = ioEngineType;
+        this.ioQueueDepth = ioQueueDepth;
+        this.counters = new IOCounters();
         workAreaIODevices = new ArrayList<IODeviceHandle>();
         for (IODeviceHandle d : ioDevices) {
             if (d.getWorkAreaPath() != null) {
@@ -62,8 +77,19 @@ public class IOManager implements IIOManager {
         workAreaDeviceIndex = 0;
     }
 
+    @Override
     public void setExecutor(Executor executor) {
-        this.executor = executor;
+        if (ioEngine != null) {
+            ioEngine.close();
+        }
+        ioEngine = IOEngineFactory.createIOEngine(ioEngineType, this, executor, counters, ioQueueDepth);
+    }
+
+    /**
+     * @return the counters of the asynchronous requests performed by this IO manager
+     */
+    public IOCounters getCounters() {
+        return counters;
     }
 
     @Override
@@ -142,15 +168,15 @@ public class IOManager implements IIOManager {
 
     @Override
     public IIOFuture asyncWrite(IFileHandle fHandle, long offset, ByteBuffer data) {
-        AsyncWriteRequest req = new AsyncWriteRequest((FileHandle) fHandle, offset, data);
-        executor.execute(req);
+        IORequest req = new IORequest((FileHandle) fHandle, offset, data, true);
+        ioEngine.submit(req);
         return req;
     }
 
     @Override
     public IIOFuture asyncRead(IFileHandle fHandle, long offset, ByteBuffer data) {
-        AsyncReadRequest req = new AsyncReadRequest((FileHandle) fHandle, offset, data);
-        executor.execute(req);
+        IORequest req = new IORequest((FileHandle) fHandle, offset, data, false);
+        ioEngine.submit(req);
         return req;
     }
 
@@ -176,80 +202,6 @@ public class IOManager implements IIOManager {
         return dev.createFileReference(waPath + File.separator + waf.getName());
     }
 
-    private abstract class AsyncRequest implements IIOFuture, Runnable {
-        protected final FileHandle fHandle;
-        protected final long offset;
-        protected final ByteBuffer data;
-        private boolean complete;
-        private HyracksDataException exception;
-        private int result;
-
-        private AsyncRequest(FileHandle fHandle, long offset, ByteBuffer data) {
-            this.fHandle = fHandle;
-            this.offset = offset;
-            this.data = data;
-            complete = false;
-            exception = null;
-        }
-
-        @Override
-        public void run() {
-            HyracksDataException hde = null;
-            int res = -1;
-            try {
-                res = performOperation();
-            } catch (HyracksDataException e) {
-                hde = e;
-            }
-            synchronized (this) {
-                exception = hde;
-                result = res;
-                complete = true;
-                notifyAll();
-            }
-        }
-
-        protected abstract int performOperation() throws HyracksDataException;
-
-        @Override
-        public synchronized int synchronize() throws HyracksDataException, InterruptedException {
-            while (!complete) {
-                wait();
-            }
-            if (exception != null) {
-                throw exception;
-            }
-            return result;
-        }
-
-        @Override
-        public synchronized boolean isComplete() {
-            return complete;
-        }
-    }
-
-    private class AsyncReadRequest extends AsyncRequest {
-        private AsyncReadRequest(FileHandle fHandle, long offset, ByteBuffer data) {
-            super(fHandle, offset, data);
-        }
-
-        @Override
-        protected int performOperation() throws HyracksDataException {
-            return syncRead(fHandle, offset, data);
-        }
-    }
-
-    private class AsyncWriteRequest extends AsyncRequest {
-        private AsyncWriteRequest(FileHandle fHandle, long offset, ByteBuffer data) {
-            super(fHandle, offset, data);
-        }
-
-        @Override
-        protected int performOperation() throws HyracksDataException {
-            return syncWrite(fHandle, offset, data);
-        }
-    }
-
     @Override
     public void sync(IFileHandle fileHandle, boolean metadata) throws HyracksDataException {
         try {
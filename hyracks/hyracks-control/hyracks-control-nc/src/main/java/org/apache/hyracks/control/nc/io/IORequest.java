@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.io;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOFuture;
+
+/**
+ * An asynchronous read or write of one buffer at a file offset, as submitted to an {@link IIOEngine}.
+ */
+public class IORequest implements IIOFuture {
+    private final FileHandle fHandle;
+    private final long offset;
+    private final ByteBuffer data;
+    private final boolean write;
+    private final long submitTime;
+    private boolean complete;
+    private HyracksDataException exception;
+    private int result;
+
+    public IORequest(FileHandle fHandle, long offset, ByteBuffer data, boolean write) {
+        this.fHandle = fHandle;
+        this.offset = offset;
+        this.data = data;
+        this.write = write;
+        submitTime = System.nanoTime();
+        complete = false;
+        exception = null;
+    }
+
+    public FileHandle getFileHandle() {
+        return fHandle;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public ByteBuffer getData() {
+        return data;
+    }
+
+    public boolean isWrite() {
+        return write;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    public synchronized void complete(int result, HyracksDataException exception) {
+        this.exception = exception;
+        this.result = result;
+        complete = true;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized int synchronize() throws HyracksDataException, InterruptedException {
+        while (!complete) {
+            wait();
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+}
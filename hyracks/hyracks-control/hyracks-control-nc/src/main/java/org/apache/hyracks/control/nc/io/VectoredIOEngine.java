@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IODeviceHandle;
+
+/**
+ * Queues requests per IO device, each queue bounded by the configured queue depth and served by one worker.
+ * A worker takes all requests queued on its device at once, orders them by file and offset, and performs each
+ * run of adjacent reads (or writes) of a file with a single scattering read (or gathering write).
+ * A file belongs to exactly one device, so only its device's worker moves its channel position; the positional
+ * calls of the synchronous path do not use the position.
+ */
+public class VectoredIOEngine implements IIOEngine {
+    private static final Logger LOGGER = Logger.getLogger(VectoredIOEngine.class.getName());
+
+    public static final int DEFAULT_QUEUE_DEPTH = 64;
+
+    private static final IORequest CLOSE_REQUEST = new IORequest(null, -1, null, false);
+
+    private static final Comparator<IORequest> OFFSET_COMPARATOR = new Comparator<IORequest>() {
+        @Override
+        public int compare(IORequest r1, IORequest r2) {
+            return Long.compare(r1.getOffset(), r2.getOffset());
+        }
+    };
+
+    private final IOManager ioManager;
+    private final Executor executor;
+    private final IOCounters counters;
+    private final int queueDepth;
+    // files outside the IO devices are queued under the null key
+    private final Map<IODeviceHandle, DeviceQueue> deviceQueues;
+    private boolean closed;
+
+    public VectoredIOEngine(IOManager ioManager, Executor executor, IOCounters counters, int queueDepth) {
+        if (queueDepth <= 0) {
+            throw new IllegalArgumentException("Illegal IO queue depth: " + queueDepth);
+        }
+        this.ioManager = ioManager;
+        this.executor = executor;
+        this.counters = counters;
+        this.queueDepth = queueDepth;
+        deviceQueues = new HashMap<IODeviceHandle, DeviceQueue>();
+        closed = false;
+    }
+
+    @Override
+    public void submit(IORequest request) {
+        DeviceQueue queue = getDeviceQueue(request.getFileHandle().getFileReference().getDeviceHandle());
+        if (queue == null) {
+            // closed, perform the request in the caller
+            counters.requestQueued();
+            counters.requestDequeued();
+            perform(Collections.singletonList(request));
+            return;
+        }
+        counters.requestQueued();
+        try {
+            queue.requests.put(request);
+        } catch (InterruptedException e) {
+            counters.requestDequeued();
+            Thread.currentThread().interrupt();
+            request.complete(-1, new HyracksDataException(e));
+            return;
+        }
+        if (queue.stopped) {
+            // the worker may have exited before the request was queued
+            queue.performQueued();
+        }
+    }
+
+    private synchronized DeviceQueue getDeviceQueue(IODeviceHandle device) {
+        if (closed) {
+            return null;
+        }
+        DeviceQueue queue = deviceQueues.get(device);
+        if (queue == null) {
+            queue = new DeviceQueue(device);
+            deviceQueues.put(device, queue);
+            executor.execute(queue);
+        }
+        return queue;
+    }
+
+    @Override
+    public void close() {
+        List<DeviceQueue> queues;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queues = new ArrayList<DeviceQueue>(deviceQueues.values());
+        }
+        for (DeviceQueue queue : queues) {
+            try {
+                queue.requests.put(CLOSE_REQUEST);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private synchronized void retire(DeviceQueue queue) {
+        if (deviceQueues.get(queue.device) == queue) {
+            deviceQueues.remove(queue.device);
+        }
+    }
+
+    private class DeviceQueue implements Runnable {
+        private final IODeviceHandle device;
+        private final BlockingQueue<IORequest> requests = new ArrayBlockingQueue<IORequest>(queueDepth);
+        private volatile boolean stopped = false;
+
+        private DeviceQueue(IODeviceHandle device) {
+            this.device = device;
+        }
+
+        @Override
+        public void run() {
+            List<IORequest> batch = new ArrayList<IORequest>(queueDepth);
+            boolean stop = false;
+            while (!stop) {
+                try {
+                    batch.add(requests.take());
+                    requests.drainTo(batch, queueDepth);
+                } catch (InterruptedException e) {
+                    // the executor is shutting down
+                    stop = true;
+                }
+                if (batch.remove(CLOSE_REQUEST)) {
+                    stop = true;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    counters.requestDequeued();
+                }
+                perform(batch);
+                batch.clear();
+            }
+            retire(this);
+            stopped = true;
+            // submitters that raced with close() or the shutdown may still have queued requests
+            performQueued();
+        }
+
+        private void performQueued() {
+            List<IORequest> batch = new ArrayList<IORequest>();
+            requests.drainTo(batch);
+            batch.remove(CLOSE_REQUEST);
+            for (int i = 0; i < batch.size(); i++) {
+                counters.requestDequeued();
+            }
+            perform(batch);
+        }
+    }
+
+    private void perform(List<IORequest> batch) {
+        Map<FileHandle, List<IORequest>> files = new IdentityHashMap<FileHandle, List<IORequest>>();
+        for (IORequest request : batch) {
+            List<IORequest> fileRequests = files.get(request.getFileHandle());
+            if (fileRequests == null) {
+                fileRequests = new ArrayList<IORequest>();
+                files.put(request.getFileHandle(), fileRequests);
+            }
+            fileRequests.add(request);
+        }
+        List<IORequest> run = new ArrayList<IORequest>();
+        for (List<IORequest> fileRequests : files.values()) {
+            // stable, so that requests to the same offset are performed in submission order
+            Collections.sort(fileRequests, OFFSET_COMPARATOR);
+            long runEnd = -1;
+            for (IORequest request : fileRequests) {
+                if (!run.isEmpty() && (request.getOffset() != runEnd || request.isWrite() != run.get(0).isWrite())) {
+                    performRun(run);
+                    run.clear();
+                }
+                run.add(request);
+                runEnd = request.getOffset() + request.getData().remaining();
+            }
+            if (!run.isEmpty()) {
+                performRun(run);
+                run.clear();
+            }
+        }
+    }
+
+    private void performRun(List<IORequest> run) {
+        if (run.size() == 1) {
+            IORequest request = run.get(0);
+            HyracksDataException hde = null;
+            int res = -1;
+            try {
+                res = request.isWrite()
+                        ? ioManager.syncWrite(request.getFileHandle(), request.getOffset(), request.getData())
+                        : ioManager.syncRead(request.getFileHandle(), request.getOffset(), request.getData());
+                counters.operationPerformed(1, Math.max(res, 0));
+            } catch (HyracksDataException e) {
+                hde = e;
+            }
+            counters.requestCompleted(request, res);
+            request.complete(res, hde);
+            return;
+        }
+        int n = run.size();
+        ByteBuffer[] buffers = new ByteBuffer[n];
+        int[] startPositions = new int[n];
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            buffers[i] = run.get(i).getData();
+            startPositions[i] = buffers[i].position();
+            total += buffers[i].remaining();
+        }
+        IORequest first = run.get(0);
+        HyracksDataException hde = null;
+        boolean eof = false;
+        try {
+            FileChannel channel = first.getFileHandle().getFileChannel();
+            if (channel == null) {
+                throw new IOException("Trying to access a closed or deleted file.");
+            }
+            synchronized (channel) {
+                channel.position(first.getOffset());
+                long transferred = 0;
+                while (transferred < total) {
+                    long len = first.isWrite() ? channel.write(buffers) : channel.read(buffers);
+                    if (len < 0) {
+                        eof = true;
+                        break;
+                    }
+                    transferred += len;
+                }
+            }
+            counters.operationPerformed(n, total);
+        } catch (IOException e) {
+            hde = new HyracksDataException(e);
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "Vectored IO on " + first.getFileHandle().getFileReference() + " failed",
+                        e);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            IORequest request = run.get(i);
+            int res = buffers[i].position() - startPositions[i];
+            if (res == 0 && eof) {
+                res = -1;
+            }
+            counters.requestCompleted(request, res);
+            request.complete(res, hde);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
+
+/**
+ * The memory broker of a joblet. It keeps the grants in a list and serializes their changes on itself. The frames
+ * it grants, revokes and waits for are reported in the counters of the joblet.
+ */
+public class MemoryBroker implements IMemoryBroker {
+    private static final Logger LOGGER = Logger.getLogger(MemoryBroker.class.getName());
+
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 1000;
+
+    public static final String GRANTED_FRAMES_COUNTER = "memory-broker.granted-frames";
+    public static final String REVOKED_FRAMES_COUNTER = "memory-broker.revoked-frames";
+    public static final String WAITS_COUNTER = "memory-broker.waits";
+    public static final String WAIT_MILLIS_COUNTER = "memory-broker.wait-millis";
+    public static final String OVERCOMMITTED_FRAMES_COUNTER = "memory-broker.overcommitted-frames";
+
+    private final int budgetFrames;
+    private final long maxWaitMillis;
+    private final List<Grant> grants;
+    private int freeFrames;
+    private int waiters;
+
+    private final ICounter grantedFrames;
+    private final ICounter revokedFrames;
+    private final ICounter waits;
+    private final ICounter waitMillis;
+    private final ICounter overcommittedFrames;
+
+    /**
+     * @param maxWaitMillis
+     *            how long an acquisition waits for revoked frames before it takes its minimum anyway
+     */
+    public MemoryBroker(int budgetFrames, long maxWaitMillis, ICounterContext counterContext) {
+        this.budgetFrames = budgetFrames;
+        this.maxWaitMillis = maxWaitMillis;
+        grants = new ArrayList<>();
+        freeFrames = budgetFrames;
+        grantedFrames = counterContext.getCounter(GRANTED_FRAMES_COUNTER, true);
+        revokedFrames = counterContext.getCounter(REVOKED_FRAMES_COUNTER, true);
+        waits = counterContext.getCounter(WAITS_COUNTER, true);
+        waitMillis = counterContext.getCounter(WAIT_MILLIS_COUNTER, true);
+        overcommittedFrames = counterContext.getCounter(OVERCOMMITTED_FRAMES_COUNTER, true);
+    }
+
+    @Override
+    public synchronized IMemoryGrant acquire(String consumer, int minFrames, int maxFrames, boolean revocable)
+            throws HyracksDataException {
+        if (minFrames <= 0 || maxFrames < minFrames) {
+            throw new HyracksDataException(
+                    "Invalid memory request of " + consumer + ": " + minFrames + " to " + maxFrames + " frames");
+        }
+        if (freeFrames < minFrames) {
+            revoke(minFrames - freeFrames);
+            waitForFrames(minFrames);
+        }
+        int frames = Math.max(minFrames, Math.min(maxFrames, freeFrames));
+        if (frames > freeFrames) {
+            overcommittedFrames.update(frames - Math.max(freeFrames, 0));
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.warning("Granting " + frames + " frames to " + consumer + " with " + freeFrames
+                        + " free frames out of " + budgetFrames);
+            }
+        }
+        freeFrames -= frames;
+        grantedFrames.update(frames);
+        Grant grant = new Grant(consumer, minFrames, frames, revocable);
+        grants.add(grant);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Granted " + frames + " frames to " + consumer + ", " + freeFrames + " frames are free");
+        }
+        return grant;
+    }
+
+    /**
+     * Asks the grants with the most frames above their minimum to release the given number of frames.
+     */
+    private void revoke(int frames) {
+        List<Grant> candidates = new ArrayList<>(grants);
+        Collections.sort(candidates, (g0, g1) -> Integer.compare(g1.getSurplus(), g0.getSurplus()));
+        for (Grant grant : candidates) {
+            int revoked = Math.min(frames, grant.getSurplus());
+            if (revoked <= 0) {
+                break;
+            }
+            grant.revoked += revoked;
+            revokedFrames.update(revoked);
+            frames -= revoked;
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Revoking " + revoked + " frames from " + grant.consumer);
+            }
+        }
+    }
+
+    private void waitForFrames(int frames) throws HyracksDataException {
+        long start = System.currentTimeMillis();
+        long remaining = maxWaitMillis;
+        waits.update(1);
+        waiters++;
+        try {
+            while (freeFrames < frames && remaining > 0) {
+                wait(remaining);
+                remaining = maxWaitMillis - (System.currentTimeMillis() - start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyracksDataException(e);
+        } finally {
+            waiters--;
+            waitMillis.update(System.currentTimeMillis() - start);
+        }
+    }
+
+    @Override
+    public int getBudgetFrames() {
+        return budgetFrames;
+    }
+
+    @Override
+    public synchronized int getFreeFrames() {
+        return freeFrames;
+    }
+
+    private class Grant implements IMemoryGrant {
+        private final String consumer;
+        private final int minFrames;
+        private int frames;
+        private int revoked;
+        private boolean revocable;
+
+        private Grant(String consumer, int minFrames, int frames, boolean revocable) {
+            this.consumer = consumer;
+            this.minFrames = minFrames;
+            this.frames = frames;
+            this.revocable = revocable;
+        }
+
+        private int getSurplus() {
+            return revocable ? frames - revoked - minFrames : 0;
+        }
+
+        @Override
+        public int getFrames() {
+            synchronized (MemoryBroker.this) {
+                return frames;
+            }
+        }
+
+        @Override
+        public int getRevokedFrames() {
+            synchronized (MemoryBroker.this) {
+                return revoked;
+            }
+        }
+
+        @Override
+        public int grow(int frames) {
+            synchronized (MemoryBroker.this) {
+                if (waiters > 0 || revoked > 0) {
+                    return 0;
+                }
+                int added = Math.max(0, Math.min(frames, freeFrames));
+                this.frames += added;
+                freeFrames -= added;
+                grantedFrames.update(added);
+                return added;
+            }
+        }
+
+        @Override
+        public void release(int frames) {
+            synchronized (MemoryBroker.this) {
+                int released = Math.min(frames, this.frames);
+                this.frames -= released;
+                revoked = Math.max(0, revoked - released);
+                freeFrames += released;
+                MemoryBroker.this.notifyAll();
+            }
+        }
+
+        @Override
+        public void setRevocable(boolean revocable) {
+            synchronized (MemoryBroker.this) {
+                this.revocable = revocable;
+                if (!revocable && revoked > 0) {
+                    int unreleased = revoked;
+                    revoked = 0;
+                    revokedFrames.update(-unreleased);
+                    revoke(unreleased);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (MemoryBroker.this) {
+                release(frames);
+                grants.remove(this);
+            }
+        }
+    }
+}
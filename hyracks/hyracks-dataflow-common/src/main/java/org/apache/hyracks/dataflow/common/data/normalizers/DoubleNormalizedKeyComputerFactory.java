@@ -21,6 +21,7 @@ package org.apache.hyracks.dataflow.common.data.normalizers;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.LongPointable;
 import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
 
 public class DoubleNormalizedKeyComputerFactory implements INormalizedKeyComputerFactory {
@@ -41,6 +42,26 @@ public class DoubleNormalizedKeyComputerFactory implements INormalizedKeyCompute
                 }
             }
 
+            @Override
+            public int getNormalizedKeyLength() {
+                return 2;
+            }
+
+            @Override
+            public void normalize(byte[] bytes, int start, int length, int[] normalizedKey, int keyStart) {
+                long bits = LongPointable.getLong(bytes, start);
+                // -0.0 compares equal to 0.0
+                bits = bits == Long.MIN_VALUE ? 0 : bits;
+                bits = bits >= 0 ? bits ^ Long.MIN_VALUE : ~bits;
+                normalizedKey[keyStart] = (int) (bits >>> 32);
+                normalizedKey[keyStart + 1] = (int) bits;
+            }
+
+            @Override
+            public boolean isDecisive() {
+                return true;
+            }
+
         };
     }
 
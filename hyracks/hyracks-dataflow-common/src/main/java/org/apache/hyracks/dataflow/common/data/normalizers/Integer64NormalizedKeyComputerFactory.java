@@ -69,6 +69,23 @@ public class Integer64NormalizedKeyComputerFactory implements INormalizedKeyComp
                 return value ^ Integer.MIN_VALUE;
             }
 
+            @Override
+            public int getNormalizedKeyLength() {
+                return 2;
+            }
+
+            @Override
+            public void normalize(byte[] bytes, int start, int length, int[] normalizedKey, int keyStart) {
+                long value = LongPointable.getLong(bytes, start);
+                normalizedKey[keyStart] = getKey((int) (value >> 32));
+                normalizedKey[keyStart + 1] = (int) value;
+            }
+
+            @Override
+            public boolean isDecisive() {
+                return true;
+            }
+
         };
     }
 }
@@ -34,6 +34,11 @@ public class IntegerNormalizedKeyComputerFactory implements INormalizedKeyComput
                 int value = IntegerPointable.getInteger(bytes, start);
                 return value ^Integer.MIN_VALUE;
             }
+
+            @Override
+            public boolean isDecisive() {
+                return true;
+            }
         };
     }
 }
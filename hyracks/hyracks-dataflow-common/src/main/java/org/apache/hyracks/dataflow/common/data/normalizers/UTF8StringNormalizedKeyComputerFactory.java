@@ -32,6 +32,30 @@ public class UTF8StringNormalizedKeyComputerFactory implements INormalizedKeyCom
             public int normalize(byte[] bytes, int start, int length) {
                 return UTF8StringUtil.normalize(bytes, start);
             }
+
+            @Override
+            public int getNormalizedKeyLength() {
+                return 2;
+            }
+
+            @Override
+            public void normalize(byte[] bytes, int start, int length, int[] normalizedKey, int keyStart) {
+                // the first four characters, two per int
+                int len = UTF8StringUtil.getUTFLength(bytes, start);
+                int offset = start + UTF8StringUtil.getNumBytesToStoreLength(len);
+                int end = offset + len;
+                for (int i = 0; i < 2; ++i) {
+                    int nk = 0;
+                    for (int j = 0; j < 2; ++j) {
+                        nk <<= 16;
+                        if (offset < end) {
+                            nk |= UTF8StringUtil.charAt(bytes, offset) & 0xffff;
+                            offset += UTF8StringUtil.charSize(bytes, offset);
+                        }
+                    }
+                    normalizedKey[keyStart + i] = nk;
+                }
+            }
         };
     }
 }
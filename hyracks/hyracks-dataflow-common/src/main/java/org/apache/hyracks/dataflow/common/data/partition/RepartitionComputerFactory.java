@@ -41,7 +41,9 @@ public class RepartitionComputerFactory implements ITuplePartitionComputerFactor
 
             @Override
             public int partition(IFrameTupleAccessor accessor, int tIndex, int nParts) throws HyracksDataException {
-                return delegate.partition(accessor, tIndex, factor * nParts) / factor;
+                // a partition of the delegate's partitions, which saturate instead of overflowing for large nParts
+                int delegateParts = (int) Math.min((long) factor * nParts, Integer.MAX_VALUE);
+                return delegate.partition(accessor, tIndex, delegateParts) / factor;
             }
         };
     }
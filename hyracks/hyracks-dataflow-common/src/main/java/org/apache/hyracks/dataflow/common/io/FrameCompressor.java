@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.io;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A byte-oriented LZ77 compressor that writes the LZ4 block format: a sequence is a token byte with the literal length
+ * in its high and the match length in its low four bits, the literals, a two byte little-endian match offset and the
+ * extensions of the lengths. It trades compression ratio for speed, so that compressing a frame costs less than
+ * writing the bytes it saves.
+ * A compressor keeps its hash table between calls and must not be shared by threads; decompression is stateless.
+ */
+public class FrameCompressor {
+    private static final int MIN_MATCH = 4;
+    // the last match must start at least this many bytes before the end of the input
+    private static final int MF_LIMIT = 12;
+    // the last bytes of the input are always literals
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 12;
+    // the search step grows by one every 2^SKIP_STRENGTH positions without a match
+    private static final int SKIP_STRENGTH = 6;
+    private static final int RUN_MASK = 15;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    /**
+     * @return the largest number of bytes the compression of the given number of bytes can take
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses src[srcOff, srcOff + srcLen) into dest from destOff, which must have room for
+     * {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return the number of compressed bytes
+     */
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+        int srcEnd = srcOff + srcLen;
+        int matchLimit = srcEnd - LAST_LITERALS;
+        int mfLimit = srcEnd - MF_LIMIT;
+        int dOff = destOff;
+        int anchor = srcOff;
+        if (srcLen > MF_LIMIT) {
+            Arrays.fill(hashTable, -1);
+            int sOff = srcOff;
+            int searchMatchNb = 1 << SKIP_STRENGTH;
+            while (sOff < mfLimit) {
+                int sequence = readInt(src, sOff);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = sOff;
+                if (ref < 0 || sOff - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    sOff += searchMatchNb++ >>> SKIP_STRENGTH;
+                    continue;
+                }
+                searchMatchNb = 1 << SKIP_STRENGTH;
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    --sOff;
+                    --ref;
+                }
+                int matchLen = MIN_MATCH;
+                while (sOff + matchLen < matchLimit && src[sOff + matchLen] == src[ref + matchLen]) {
+                    ++matchLen;
+                }
+                dOff = writeSequence(src, anchor, sOff - anchor, sOff - ref, matchLen, dest, dOff);
+                sOff += matchLen;
+                anchor = sOff;
+            }
+        }
+        return writeLastLiterals(src, anchor, srcEnd - anchor, dest, dOff) - destOff;
+    }
+
+    /**
+     * Decompresses src[srcOff, srcOff + srcLen) into dest[destOff, destOff + destLen), which the decompressed bytes
+     * must fill exactly.
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen)
+            throws HyracksDataException {
+        int sOff = srcOff;
+        int srcEnd = srcOff + srcLen;
+        int dOff = destOff;
+        int destEnd = destOff + destLen;
+        try {
+            while (true) {
+                int token = src[sOff++] & 0xff;
+                int literalLen = token >>> 4;
+                if (literalLen == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xff;
+                        literalLen += b;
+                    } while (b == 255);
+                }
+                if (sOff + literalLen > srcEnd || dOff + literalLen > destEnd) {
+                    break;
+                }
+                System.arraycopy(src, sOff, dest, dOff, literalLen);
+                sOff += literalLen;
+                dOff += literalLen;
+                if (sOff == srcEnd) {
+                    // the last literals
+                    break;
+                }
+                int offset = (src[sOff] & 0xff) | ((src[sOff + 1] & 0xff) << 8);
+                sOff += 2;
+                int matchLen = token & RUN_MASK;
+                if (matchLen == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xff;
+                        matchLen += b;
+                    } while (b == 255);
+                }
+                matchLen += MIN_MATCH;
+                int ref = dOff - offset;
+                if (offset == 0 || ref < destOff || dOff + matchLen > destEnd) {
+                    break;
+                }
+                if (offset >= matchLen) {
+                    System.arraycopy(dest, ref, dest, dOff, matchLen);
+                } else {
+                    // the match overlaps the bytes it produces
+                    for (int i = 0; i < matchLen; ++i) {
+                        dest[dOff + i] = dest[ref + i];
+                    }
+                }
+                dOff += matchLen;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new HyracksDataException("Corrupted compressed frame");
+        }
+        if (sOff != srcEnd || dOff != destEnd) {
+            throw new HyracksDataException("Corrupted compressed frame");
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLen, int offset, int matchLen,
+            byte[] dest, int destOff) {
+        int tokenOff = destOff;
+        int dOff = destOff + 1;
+        int token;
+        if (literalLen >= RUN_MASK) {
+            token = RUN_MASK << 4;
+            dOff = writeLength(literalLen - RUN_MASK, dest, dOff);
+        } else {
+            token = literalLen << 4;
+        }
+        System.arraycopy(src, literalOff, dest, dOff, literalLen);
+        dOff += literalLen;
+        dest[dOff++] = (byte) offset;
+        dest[dOff++] = (byte) (offset >>> 8);
+        int matchLenCode = matchLen - MIN_MATCH;
+        if (matchLenCode >= RUN_MASK) {
+            token |= RUN_MASK;
+            dOff = writeLength(matchLenCode - RUN_MASK, dest, dOff);
+        } else {
+            token |= matchLenCode;
+        }
+        dest[tokenOff] = (byte) token;
+        return dOff;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalOff, int literalLen, byte[] dest, int destOff) {
+        int dOff = destOff;
+        if (literalLen >= RUN_MASK) {
+            dest[dOff++] = (byte) (RUN_MASK << 4);
+            dOff = writeLength(literalLen - RUN_MASK, dest, dOff);
+        } else {
+            dest[dOff++] = (byte) (literalLen << 4);
+        }
+        System.arraycopy(src, literalOff, dest, dOff, literalLen);
+        return dOff + literalLen;
+    }
+
+    private static int writeLength(int length, byte[] dest, int destOff) {
+        int dOff = destOff;
+        int remaining = length;
+        while (remaining >= 255) {
+            dest[dOff++] = (byte) 255;
+            remaining -= 255;
+        }
+        dest[dOff++] = (byte) remaining;
+        return dOff;
+    }
+
+    private static int readInt(byte[] src, int off) {
+        return ((src[off] & 0xff) << 24) | ((src[off + 1] & 0xff) << 16) | ((src[off + 2] & 0xff) << 8)
+                | (src[off + 3] & 0xff);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
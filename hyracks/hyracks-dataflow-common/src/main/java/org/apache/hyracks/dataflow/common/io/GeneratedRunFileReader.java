@@ -25,9 +25,9 @@ import org.apache.hyracks.api.io.IIOManager;
 public class GeneratedRunFileReader extends RunFileReader {
     private int maxFrameSize;
 
-    GeneratedRunFileReader(FileReference file, IIOManager ioManager, long size, boolean deleteAfterRead,
-            int maxFrameSize) {
-        super(file, ioManager, size, deleteAfterRead);
+    GeneratedRunFileReader(FileReference file, IIOManager ioManager, long size, long rawSize, boolean deleteAfterRead,
+            int maxFrameSize, RunFileCompression compression) {
+        super(file, ioManager, size, rawSize, deleteAfterRead, compression);
         this.maxFrameSize = maxFrameSize;
     }
 
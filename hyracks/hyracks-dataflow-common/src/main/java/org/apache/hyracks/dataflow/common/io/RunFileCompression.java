@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.io;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
+
+/**
+ * Turns on the compression of the frames of the run files a task spills and accounts for it in the profiling counters
+ * of the task: the bytes before and after compression, the compressed size in percent of the raw size and the time
+ * spent compressing and decompressing.
+ * All the instances of a task update the same counters, so they cover all the run files of the task.
+ */
+public class RunFileCompression {
+    public static final String RAW_BYTES_COUNTER = "spill.compression.raw-bytes";
+    public static final String COMPRESSED_BYTES_COUNTER = "spill.compression.compressed-bytes";
+    public static final String RATIO_COUNTER = "spill.compression.ratio-percent";
+    public static final String COMPRESS_TIME_COUNTER = "spill.compression.compress-time-ns";
+    public static final String DECOMPRESS_TIME_COUNTER = "spill.compression.decompress-time-ns";
+
+    private final ICounter rawBytes;
+    private final ICounter compressedBytes;
+    private final ICounter ratio;
+    private final ICounter compressTime;
+    private final ICounter decompressTime;
+
+    public RunFileCompression(ICounterContext counterContext) {
+        rawBytes = counterContext.getCounter(RAW_BYTES_COUNTER, true);
+        compressedBytes = counterContext.getCounter(COMPRESSED_BYTES_COUNTER, true);
+        ratio = counterContext.getCounter(RATIO_COUNTER, true);
+        compressTime = counterContext.getCounter(COMPRESS_TIME_COUNTER, true);
+        decompressTime = counterContext.getCounter(DECOMPRESS_TIME_COUNTER, true);
+    }
+
+    /**
+     * @return the compression of the run files of the task if its job compresses its spill files, or null
+     */
+    public static RunFileCompression create(IHyracksTaskContext ctx) {
+        return ctx.getJobletContext().isCompressSpillFiles() ? new RunFileCompression(ctx.getCounterContext())
+                : null;
+    }
+
+    void frameCompressed(int rawLength, int compressedLength, long nanos) {
+        // the instances of the task running in other threads share the counters, so the ratio is set from both byte
+        // counts at once
+        synchronized (ratio) {
+            long raw = rawBytes.update(rawLength);
+            long compressed = compressedBytes.update(compressedLength);
+            ratio.set(compressed * 100 / raw);
+        }
+        compressTime.update(nanos);
+    }
+
+    void frameDecompressed(long nanos) {
+        decompressTime.update(nanos);
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.hyracks.dataflow.common.io;
 
+import java.nio.ByteBuffer;
+
 import org.apache.commons.io.FileUtils;
 import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
@@ -25,37 +27,104 @@ import org.apache.hyracks.api.comm.IFrameReader;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOFuture;
 import org.apache.hyracks.api.io.IIOManager;
 
 public class RunFileReader implements IFrameReader {
+    // the compressed length and the length of a frame in front of its bytes in a compressed run file
+    static final int COMPRESSED_FRAME_HEADER_SIZE = 8;
+
     private final FileReference file;
     private IFileHandle handle;
     private final IIOManager ioManager;
     private final long size;
+    private final long rawSize;
     private long readPtr;
     private boolean deleteAfterClose;
+    // the size of each of the two read-ahead buffers, or 0 to read the frames synchronously
+    private int readAheadSize;
+    private ByteBuffer[] readAheadBuffers;
+    private IIOFuture[] readAheadFutures;
+    // the read-ahead buffer the frames are copied from while the other one is being filled
+    private int currentBuffer;
+    // the file offset of the next read-ahead request
+    private long readAheadPtr;
+    private final RunFileCompression compression;
+    private ByteBuffer compressedHeader;
+    private ByteBuffer compressedBuffer;
+    // whether the header of the next compressed frame has been read already
+    private boolean pendingFrame;
 
     public RunFileReader(FileReference file, IIOManager ioManager, long size, boolean deleteAfterRead) {
+        this(file, ioManager, size, deleteAfterRead, null);
+    }
+
+    /**
+     * @param compression
+     *            the compression the file was written with, or null if its frames are written as they are
+     */
+    public RunFileReader(FileReference file, IIOManager ioManager, long size, boolean deleteAfterRead,
+            RunFileCompression compression) {
+        this(file, ioManager, size, size, deleteAfterRead, compression);
+    }
+
+    /**
+     * @param rawSize
+     *            the number of bytes of the frames of the file before their compression
+     * @param compression
+     *            the compression the file was written with, or null if its frames are written as they are
+     */
+    public RunFileReader(FileReference file, IIOManager ioManager, long size, long rawSize, boolean deleteAfterRead,
+            RunFileCompression compression) {
         this.file = file;
         this.ioManager = ioManager;
         this.size = size;
+        this.rawSize = rawSize;
         this.deleteAfterClose = deleteAfterRead;
+        this.compression = compression;
+    }
+
+    /**
+     * Makes the reader read the file ahead asynchronously into two buffers of the given size, so that one buffer is
+     * filled while the frames are copied from the other one. Must be called before {@link #open()}.
+     *
+     * @param readAheadSize
+     *            the size of each read-ahead buffer, or 0 to read the frames synchronously
+     */
+    public void setReadAheadSize(int readAheadSize) {
+        this.readAheadSize = readAheadSize;
     }
 
     @Override
     public void open() throws HyracksDataException {
         handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_ONLY, null);
         readPtr = 0;
+        pendingFrame = false;
+        if (readAheadSize > 0) {
+            if (readAheadBuffers == null || readAheadBuffers[0].capacity() != readAheadSize) {
+                readAheadBuffers = new ByteBuffer[] { ByteBuffer.allocate(readAheadSize),
+                        ByteBuffer.allocate(readAheadSize) };
+                readAheadFutures = new IIOFuture[2];
+            }
+            readAheadPtr = 0;
+            currentBuffer = 0;
+            submitReadAhead(0);
+            submitReadAhead(1);
+        }
     }
 
     @Override
     public boolean nextFrame(IFrame frame) throws HyracksDataException {
-        if (readPtr >= size) {
+        if (readPtr >= size && !pendingFrame) {
             return false;
         }
         frame.reset();
+        if (compression != null) {
+            nextCompressedFrames(frame);
+            return true;
+        }
 
-        int readLength = ioManager.syncRead(handle, readPtr, frame.getBuffer());
+        int readLength = read(frame.getBuffer());
         if (readLength <= 0) {
             throw new HyracksDataException("Premature end of file");
         }
@@ -63,7 +132,7 @@ public class RunFileReader implements IFrameReader {
         frame.ensureFrameSize(frame.getMinSize() * FrameHelper.deserializeNumOfMinFrame(frame.getBuffer()));
         if (frame.getBuffer().hasRemaining()) {
             if (readPtr < size) {
-                readLength = ioManager.syncRead(handle, readPtr, frame.getBuffer());
+                readLength = read(frame.getBuffer());
                 if (readLength < 0) {
                     throw new HyracksDataException("Premature end of file");
                 }
@@ -77,8 +146,142 @@ public class RunFileReader implements IFrameReader {
         return true;
     }
 
+    /**
+     * Decompresses as many whole frames as fit into the frame after the data it kept. A frame larger than the free
+     * space grows the frame if it is empty, or waits for the next call otherwise.
+     */
+    private void nextCompressedFrames(IFrame frame) throws HyracksDataException {
+        if (compressedHeader == null) {
+            compressedHeader = ByteBuffer.allocate(COMPRESSED_FRAME_HEADER_SIZE);
+        }
+        ByteBuffer buffer = frame.getBuffer();
+        while (pendingFrame || readPtr < size) {
+            if (!pendingFrame) {
+                compressedHeader.clear();
+                readFully(compressedHeader);
+                pendingFrame = true;
+            }
+            int compressedLength = compressedHeader.getInt(0);
+            int length = compressedHeader.getInt(4);
+            if (length > buffer.remaining()) {
+                if (buffer.position() > 0) {
+                    break;
+                }
+                frame.ensureFrameSize(length);
+                buffer = frame.getBuffer();
+            }
+            if (compressedLength == length) {
+                // stored as it is
+                int limit = buffer.limit();
+                buffer.limit(buffer.position() + length);
+                readFully(buffer);
+                buffer.limit(limit);
+            } else {
+                if (compressedBuffer == null || compressedBuffer.capacity() < compressedLength) {
+                    compressedBuffer = ByteBuffer.allocate(compressedLength);
+                }
+                compressedBuffer.clear();
+                compressedBuffer.limit(compressedLength);
+                readFully(compressedBuffer);
+                long start = System.nanoTime();
+                FrameCompressor.decompress(compressedBuffer.array(), 0, compressedLength, buffer.array(),
+                        buffer.arrayOffset() + buffer.position(), length);
+                compression.frameDecompressed(System.nanoTime() - start);
+                buffer.position(buffer.position() + length);
+            }
+            pendingFrame = false;
+            if (!buffer.hasRemaining()) {
+                break;
+            }
+        }
+        if (buffer.hasRemaining()) {
+            FrameHelper.clearRemainingFrame(buffer, buffer.position());
+        }
+        buffer.flip();
+    }
+
+    private void readFully(ByteBuffer data) throws HyracksDataException {
+        while (data.hasRemaining()) {
+            int readLength = read(data);
+            if (readLength < 0) {
+                throw new HyracksDataException("Premature end of file");
+            }
+            readPtr += readLength;
+        }
+    }
+
+    private int read(ByteBuffer data) throws HyracksDataException {
+        if (readAheadSize <= 0) {
+            return ioManager.syncRead(handle, readPtr, data);
+        }
+        int n = 0;
+        while (data.hasRemaining()) {
+            ByteBuffer buffer = readAheadBuffers[currentBuffer];
+            if (readAheadFutures[currentBuffer] != null) {
+                waitForReadAhead(currentBuffer);
+            }
+            if (!buffer.hasRemaining()) {
+                if (buffer.limit() == 0) {
+                    // the end of the file
+                    break;
+                }
+                // refill the drained buffer behind the other one, which becomes the current one
+                submitReadAhead(currentBuffer);
+                currentBuffer = 1 - currentBuffer;
+                continue;
+            }
+            int len = Math.min(data.remaining(), buffer.remaining());
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + len);
+            data.put(buffer);
+            buffer.limit(limit);
+            n += len;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    private void submitReadAhead(int index) {
+        ByteBuffer buffer = readAheadBuffers[index];
+        buffer.clear();
+        if (readAheadPtr >= size) {
+            buffer.limit(0);
+            return;
+        }
+        int len = (int) Math.min(readAheadSize, size - readAheadPtr);
+        buffer.limit(len);
+        readAheadFutures[index] = ioManager.asyncRead(handle, readAheadPtr, buffer);
+        readAheadPtr += len;
+    }
+
+    private void waitForReadAhead(int index) throws HyracksDataException {
+        try {
+            readAheadFutures[index].synchronize();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyracksDataException(e);
+        } finally {
+            readAheadFutures[index] = null;
+        }
+        readAheadBuffers[index].flip();
+    }
+
     @Override
     public void close() throws HyracksDataException {
+        if (readAheadFutures != null) {
+            // the pending reads must not outlive the file handle
+            for (int i = 0; i < readAheadFutures.length; ++i) {
+                if (readAheadFutures[i] != null) {
+                    try {
+                        waitForReadAhead(i);
+                    } catch (HyracksDataException e) {
+                        // the data is not needed anymore
+                    }
+                }
+            }
+            readAheadBuffers = null;
+            readAheadFutures = null;
+        }
+        compressedBuffer = null;
         ioManager.close(handle);
         if (deleteAfterClose) {
             FileUtils.deleteQuietly(file.getFile());
@@ -88,4 +291,11 @@ public class RunFileReader implements IFrameReader {
     public long getFileSize() {
         return size;
     }
+
+    /**
+     * @return the number of bytes of the frames of the file once read, see {@link RunFileWriter#getRawSize()}
+     */
+    public long getRawSize() {
+        return rawSize;
+    }
 }
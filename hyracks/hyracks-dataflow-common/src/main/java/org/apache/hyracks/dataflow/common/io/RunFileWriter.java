@@ -29,15 +29,29 @@ import org.apache.hyracks.api.io.IIOManager;
 public class RunFileWriter implements IFrameWriter {
     private final FileReference file;
     private final IIOManager ioManager;
+    private final RunFileCompression compression;
+    private FrameCompressor compressor;
+    private ByteBuffer compressedBuffer;
     private boolean failed;
 
     private IFileHandle handle;
     private long size;
+    // the bytes of the frames written, before their compression
+    private long rawSize;
     private int maxOutputFrameSize;
 
     public RunFileWriter(FileReference file, IIOManager ioManager) {
+        this(file, ioManager, null);
+    }
+
+    /**
+     * @param compression
+     *            the compression of the frames, or null to write them as they are
+     */
+    public RunFileWriter(FileReference file, IIOManager ioManager, RunFileCompression compression) {
         this.file = file;
         this.ioManager = ioManager;
+        this.compression = compression;
     }
 
     @Override
@@ -45,6 +59,7 @@ public class RunFileWriter implements IFrameWriter {
         handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_WRITE,
                 IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
         size = 0;
+        rawSize = 0;
         failed = false;
         maxOutputFrameSize = 0;
     }
@@ -57,9 +72,48 @@ public class RunFileWriter implements IFrameWriter {
 
     @Override
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (compression != null) {
+            writeCompressed(buffer);
+            return;
+        }
         int writen = ioManager.syncWrite(handle, size, buffer);
         maxOutputFrameSize = Math.max(writen, maxOutputFrameSize);
         size += writen;
+        rawSize += writen;
+    }
+
+    /**
+     * Writes the frame as its compressed length, its length and its compressed bytes, or its bytes as they are if
+     * they do not compress, which the equal lengths tell.
+     */
+    private void writeCompressed(ByteBuffer buffer) throws HyracksDataException {
+        int length = buffer.remaining();
+        int capacity = RunFileReader.COMPRESSED_FRAME_HEADER_SIZE + FrameCompressor.maxCompressedLength(length);
+        if (compressedBuffer == null || compressedBuffer.capacity() < capacity) {
+            compressedBuffer = ByteBuffer.allocate(capacity);
+        }
+        if (compressor == null) {
+            compressor = new FrameCompressor();
+        }
+        byte[] data = compressedBuffer.array();
+        long start = System.nanoTime();
+        int compressedLength = compressor.compress(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                data, RunFileReader.COMPRESSED_FRAME_HEADER_SIZE);
+        if (compressedLength >= length) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + buffer.position(), data,
+                    RunFileReader.COMPRESSED_FRAME_HEADER_SIZE, length);
+            compressedLength = length;
+        }
+        compression.frameCompressed(length, compressedLength, System.nanoTime() - start);
+        buffer.position(buffer.limit());
+        compressedBuffer.clear();
+        compressedBuffer.putInt(compressedLength);
+        compressedBuffer.putInt(length);
+        compressedBuffer.position(0);
+        compressedBuffer.limit(RunFileReader.COMPRESSED_FRAME_HEADER_SIZE + compressedLength);
+        size += ioManager.syncWrite(handle, size, compressedBuffer);
+        rawSize += length;
+        maxOutputFrameSize = Math.max(length, maxOutputFrameSize);
     }
 
     @Override
@@ -77,18 +131,30 @@ public class RunFileWriter implements IFrameWriter {
         return size;
     }
 
+    /**
+     * @return the number of bytes of the frames written, which is the memory they take once read back, while
+     *         {@link #getFileSize()} is the size on disk and is smaller when the frames are compressed
+     */
+    public long getRawSize() {
+        return rawSize;
+    }
+
+    public RunFileCompression getCompression() {
+        return compression;
+    }
+
     public GeneratedRunFileReader createReader() throws HyracksDataException {
         if (failed) {
             throw new HyracksDataException("createReader() called on a failed RunFileWriter");
         }
-        return new GeneratedRunFileReader(file, ioManager, size, false, maxOutputFrameSize);
+        return new GeneratedRunFileReader(file, ioManager, size, rawSize, false, maxOutputFrameSize, compression);
     }
 
     public GeneratedRunFileReader createDeleteOnCloseReader() throws HyracksDataException {
         if (failed) {
             throw new HyracksDataException("createReader() called on a failed RunFileWriter");
         }
-        return new GeneratedRunFileReader(file, ioManager, size, true, maxOutputFrameSize);
+        return new GeneratedRunFileReader(file, ioManager, size, rawSize, true, maxOutputFrameSize, compression);
     }
 
     @Override
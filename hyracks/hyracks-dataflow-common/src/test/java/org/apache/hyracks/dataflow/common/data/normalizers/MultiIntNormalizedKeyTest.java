@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.data.normalizers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Random;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.LongPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.Integer64SerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.junit.Test;
+
+/**
+ * Checks that the normalized keys written into int arrays agree with the comparators of their types.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class MultiIntNormalizedKeyTest {
+
+    private static final int NUM_VALUES = 2000;
+
+    Random random = new Random();
+
+    @Test
+    public void testInteger() throws HyracksDataException {
+        Object[] values = new Object[NUM_VALUES];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = i % 2 == 0 ? random.nextInt() : random.nextInt(100) - 50;
+        }
+        assertConsistentKeys(new IntegerNormalizedKeyComputerFactory(), IntegerSerializerDeserializer.INSTANCE,
+                PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator(), values, 1,
+                true);
+    }
+
+    @Test
+    public void testInteger64() throws HyracksDataException {
+        Object[] values = new Object[NUM_VALUES];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = i % 2 == 0 ? random.nextLong() : (long) (random.nextInt(100) - 50);
+        }
+        values[0] = Long.MIN_VALUE;
+        values[1] = Long.MAX_VALUE;
+        assertConsistentKeys(new Integer64NormalizedKeyComputerFactory(), Integer64SerializerDeserializer.INSTANCE,
+                PointableBinaryComparatorFactory.of(LongPointable.FACTORY).createBinaryComparator(), values, 2, true);
+    }
+
+    @Test
+    public void testDouble() throws HyracksDataException {
+        Object[] values = new Object[NUM_VALUES];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = i % 2 == 0 ? random.nextGaussian() * 1e6 : (double) (random.nextInt(100) - 50);
+        }
+        values[0] = 0.0;
+        values[1] = -0.0;
+        values[2] = Double.NEGATIVE_INFINITY;
+        values[3] = Double.POSITIVE_INFINITY;
+        assertConsistentKeys(new DoubleNormalizedKeyComputerFactory(), DoubleSerializerDeserializer.INSTANCE,
+                PointableBinaryComparatorFactory.of(DoublePointable.FACTORY).createBinaryComparator(), values, 2,
+                true);
+    }
+
+    @Test
+    public void testUTF8String() throws HyracksDataException {
+        Object[] values = new Object[NUM_VALUES];
+        for (int i = 0; i < values.length; ++i) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; ++j) {
+                // mostly a few ascii letters, so that many strings share a prefix, and some multi-byte characters
+                sb.append(random.nextInt(10) == 0 ? (char) (random.nextInt(0xd000) + 1)
+                        : (char) ('a' + random.nextInt(3)));
+            }
+            values[i] = sb.toString();
+        }
+        assertConsistentKeys(new UTF8StringNormalizedKeyComputerFactory(), new UTF8StringSerializerDeserializer(),
+                PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY).createBinaryComparator(), values, 2,
+                false);
+    }
+
+    private void assertConsistentKeys(INormalizedKeyComputerFactory factory, ISerializerDeserializer serde,
+            IBinaryComparator comparator, Object[] values, int keyLength, boolean decisive)
+                    throws HyracksDataException {
+        INormalizedKeyComputer computer = factory.createNormalizedKeyComputer();
+        assertEquals(keyLength, computer.getNormalizedKeyLength());
+        assertEquals(decisive, computer.isDecisive());
+
+        byte[][] bytes = new byte[values.length][];
+        int[] keys = new int[values.length * keyLength];
+        for (int i = 0; i < values.length; ++i) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            serde.serialize(values[i], new DataOutputStream(bos));
+            bytes[i] = bos.toByteArray();
+            computer.normalize(bytes[i], 0, bytes[i].length, keys, i * keyLength);
+        }
+        for (int i = 0; i < values.length; ++i) {
+            // the special values are set in pairs at the start
+            int j = i % 2 == 0 ? i + 1 : random.nextInt(values.length);
+            int keyCmp = compareKeys(keys, i * keyLength, j * keyLength, keyLength);
+            int cmp = Integer.signum(comparator.compare(bytes[i], 0, bytes[i].length, bytes[j], 0, bytes[j].length));
+            if (keyCmp != 0 || decisive) {
+                assertEquals(values[i] + " vs " + values[j], cmp, keyCmp);
+            }
+        }
+        // the longer key decides every comparison of different values that the single int key decides
+        for (int i = 0; i < values.length; ++i) {
+            int j = random.nextInt(values.length);
+            int n1 = computer.normalize(bytes[i], 0, bytes[i].length);
+            int n2 = computer.normalize(bytes[j], 0, bytes[j].length);
+            if (n1 != n2 && comparator.compare(bytes[i], 0, bytes[i].length, bytes[j], 0, bytes[j].length) != 0) {
+                assertTrue(compareKeys(keys, i * keyLength, j * keyLength, keyLength) != 0);
+            }
+        }
+    }
+
+    private static int compareKeys(int[] keys, int start1, int start2, int keyLength) {
+        for (int k = 0; k < keyLength; ++k) {
+            int v1 = keys[start1 + k];
+            int v2 = keys[start2 + k];
+            if (v1 != v2) {
+                return ((((long) v1) & 0xffffffffL) < (((long) v2) & 0xffffffffL)) ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Random;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.control.common.job.profiling.counters.Counter;
+import org.apache.hyracks.control.nc.io.IOManager;
+import org.junit.Test;
+
+public class FrameCompressorTest {
+    private static final int FRAME_SIZE = 32768;
+
+    @Test
+    public void testIncompressibleFrame() throws HyracksDataException {
+        byte[] frame = new byte[FRAME_SIZE];
+        new Random(1).nextBytes(frame);
+        int compressedLength = roundTrip(frame);
+        assertTrue(compressedLength <= FrameCompressor.maxCompressedLength(frame.length));
+    }
+
+    @Test
+    public void testEmptyFrame() throws HyracksDataException {
+        roundTrip(new byte[0]);
+    }
+
+    @Test
+    public void testFrameLargerThanInitialFrameSize() throws HyracksDataException {
+        // repeats of a random record, some of them further apart than the compressor looks back
+        byte[] record = new byte[100];
+        new Random(2).nextBytes(record);
+        byte[] frame = new byte[4 * FRAME_SIZE];
+        for (int i = 0; i < frame.length; i += record.length) {
+            System.arraycopy(record, 0, frame, i, Math.min(record.length, frame.length - i));
+            if (i % (2 * FRAME_SIZE) == 0) {
+                frame[i] ^= 1;
+            }
+        }
+        int compressedLength = roundTrip(frame);
+        assertTrue(compressedLength < frame.length / 10);
+    }
+
+    @Test
+    public void testRawSizeOfCompressedRunFile() throws HyracksException {
+        File dir = new File(System.getProperty("java.io.tmpdir"));
+        IOManager ioManager = new IOManager(Collections.singletonList(new IODeviceHandle(dir, ".")));
+        FileReference file = ioManager.createWorkspaceFile(FrameCompressorTest.class.getSimpleName());
+        RunFileCompression compression = new RunFileCompression((name, create) -> new Counter(name));
+        RunFileWriter writer = new RunFileWriter(file, ioManager, compression);
+        try {
+            writer.open();
+            writer.nextFrame(ByteBuffer.wrap(new byte[FRAME_SIZE]));
+            writer.nextFrame(ByteBuffer.wrap(new byte[2 * FRAME_SIZE]));
+            writer.close();
+            // the memory the frames take once read back, not their size on disk
+            assertEquals(3 * FRAME_SIZE, writer.getRawSize());
+            assertTrue(writer.getFileSize() < FRAME_SIZE);
+            assertEquals(writer.getRawSize(), writer.createReader().getRawSize());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static int roundTrip(byte[] frame) throws HyracksDataException {
+        byte[] compressed = new byte[FrameCompressor.maxCompressedLength(frame.length)];
+        int compressedLength = new FrameCompressor().compress(frame, 0, frame.length, compressed, 0);
+        byte[] decompressed = new byte[frame.length];
+        FrameCompressor.decompress(compressed, 0, compressedLength, decompressed, 0, decompressed.length);
+        assertArrayEquals(frame, decompressed);
+        return compressedLength;
+    }
+}
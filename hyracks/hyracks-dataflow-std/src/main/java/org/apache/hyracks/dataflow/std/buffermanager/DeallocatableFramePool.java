@@ -29,7 +29,7 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 public class DeallocatableFramePool implements IDeallocatableFramePool {
 
     private final IHyracksFrameMgrContext ctx;
-    private final int memBudget;
+    private int memBudget;
     private int allocated;
     private LinkedList<ByteBuffer> buffers;
 
@@ -109,6 +109,17 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
         }
     }
 
+    @Override
+    public void setMemoryBudgetBytes(int memBudgetInBytes) {
+        this.memBudget = memBudgetInBytes;
+        for (Iterator<ByteBuffer> iter = buffers.iterator(); allocated > memBudget && iter.hasNext(); ) {
+            ByteBuffer buffer = iter.next();
+            iter.remove();
+            ctx.deallocateFrames(buffer.capacity());
+            allocated -= buffer.capacity();
+        }
+    }
+
     @Override
     public void reset() {
         allocated = 0;
@@ -25,4 +25,10 @@ public interface IDeallocatableFramePool extends IFramePool {
 
     void deAllocateBuffer(ByteBuffer buffer);
 
+    /**
+     * Changes the memory budget of the pool. The frames in use must fit in the new budget, the free frames that do
+     * not are given up.
+     */
+    void setMemoryBudgetBytes(int memBudgetInBytes);
+
 }
@@ -108,4 +108,11 @@ public interface IPartitionedTupleBufferManager {
      */
     void clearPartition(int partition) throws HyracksDataException;
 
+    /**
+     * Changes the memory budget of the manager. The frames of the partitions must fit in the new budget.
+     *
+     * @param memBudgetInBytes
+     */
+    void setMemoryBudgetBytes(int memBudgetInBytes);
+
 }
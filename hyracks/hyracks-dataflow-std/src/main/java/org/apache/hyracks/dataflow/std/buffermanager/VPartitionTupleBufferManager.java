@@ -202,6 +202,11 @@ public class VPartitionTupleBufferManager implements IPartitionedTupleBufferMana
         return partitionArray[partition].getNumFrames() - 1;
     }
 
+    @Override
+    public void setMemoryBudgetBytes(int memBudgetInBytes) {
+        framePool.setMemoryBudgetBytes(memBudgetInBytes);
+    }
+
     @Override
     public void close() {
         framePool.close();
@@ -34,7 +34,7 @@ public class VariableFramePool implements IFramePool {
 
     private final IHyracksFrameMgrContext ctx;
     private final int minFrameSize;
-    private final int memBudget;
+    private int memBudget;
 
     private int allocateMem;
     private ArrayList<ByteBuffer> buffers; // the unused slots were sorted by size increasingly.
@@ -72,6 +72,15 @@ public class VariableFramePool implements IFramePool {
         return memBudget;
     }
 
+    /**
+     * Changes the memory budget of the pool. None of its frames may be in use, as after {@link #reset()}, since the
+     * pool gives all of them up to stay within the new budget.
+     */
+    public void setMemoryBudgetBytes(int memBudgetInBytes) {
+        close();
+        this.memBudget = memBudgetInBytes;
+    }
+
     @Override
     public ByteBuffer allocateFrame(int frameSize) throws HyracksDataException {
         int frameId = findExistingFrame(frameSize);
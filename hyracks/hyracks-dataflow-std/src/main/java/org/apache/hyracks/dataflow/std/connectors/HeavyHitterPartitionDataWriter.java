@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.connectors;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.IPartitionWriterFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.std.connectors.MToNHeavyHitterPartitioningConnectorDescriptor.HeavyHitterPolicy;
+
+/**
+ * Partitions the tuples of the heavy hitter keys by a {@link HeavyHitterPolicy} and the others by their partition.
+ */
+public class HeavyHitterPartitionDataWriter extends PartitionDataWriter {
+    public static final String HEAVY_HITTER_TUPLES_COUNTER = "connector.heavy-hitter.tuples";
+
+    private final int[] heavyHitterHashes;
+    private final HeavyHitterPolicy policy;
+    private final ICounter heavyHitterTuples;
+    private int nextPartition;
+    private int frameHeavyHitterTuples;
+
+    /**
+     * @param heavyHitterHashes
+     *            the sorted hash values of the heavy hitter keys, as partitions of Integer.MAX_VALUE partitions
+     */
+    public HeavyHitterPartitionDataWriter(IHyracksTaskContext ctx, int consumerPartitionCount,
+            IPartitionWriterFactory pwFactory, RecordDescriptor recordDescriptor, ITuplePartitionComputer tpc,
+            int[] heavyHitterHashes, HeavyHitterPolicy policy, int producerIndex) throws HyracksDataException {
+        super(ctx, consumerPartitionCount, pwFactory, recordDescriptor, tpc);
+        this.heavyHitterHashes = heavyHitterHashes;
+        this.policy = policy;
+        this.heavyHitterTuples = ctx.getCounterContext().getCounter(HEAVY_HITTER_TUPLES_COUNTER, true);
+        // the producers start the round robin at different partitions
+        this.nextPartition = producerIndex % consumerPartitionCount;
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        frameHeavyHitterTuples = 0;
+        super.nextFrame(buffer);
+        if (frameHeavyHitterTuples > 0) {
+            heavyHitterTuples.update(frameHeavyHitterTuples);
+        }
+    }
+
+    @Override
+    protected void partitionTuple(FrameTupleAccessor tupleAccessor, int tIndex) throws HyracksDataException {
+        int hash = tpc.partition(tupleAccessor, tIndex, Integer.MAX_VALUE);
+        if (Arrays.binarySearch(heavyHitterHashes, hash) < 0) {
+            appendToPartition(hash % consumerPartitionCount, tupleAccessor, tIndex);
+            return;
+        }
+        frameHeavyHitterTuples++;
+        switch (policy) {
+            case SPLIT:
+                appendToPartition(nextPartition, tupleAccessor, tIndex);
+                nextPartition = (nextPartition + 1) % consumerPartitionCount;
+                break;
+            case REPLICATE:
+                for (int i = 0; i < consumerPartitionCount; ++i) {
+                    appendToPartition(i, tupleAccessor, tIndex);
+                }
+                break;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.connectors;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.IPartitionWriterFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IConnectorDescriptorRegistry;
+
+/**
+ * A hash partitioning connector that does not send all the tuples of a heavy hitter key to one consumer.
+ * The heavy hitter keys are given by their hash values, i.e. their partitions of Integer.MAX_VALUE partitions by the
+ * partition computer, and the other tuples go to their hash value modulo the number of consumers.
+ * To join two inputs whose keys are skewed, partition both with this connector and the same heavy hitters, one with
+ * {@link HeavyHitterPolicy#SPLIT} and the other with {@link HeavyHitterPolicy#REPLICATE}, so that every pair of
+ * tuples of a heavy hitter key meets in exactly one consumer. For an outer join, the outer input must be the split
+ * one.
+ */
+public class MToNHeavyHitterPartitioningConnectorDescriptor extends MToNPartitioningConnectorDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    public enum HeavyHitterPolicy {
+        /**
+         * Sends the tuples of the heavy hitter keys to the consumers in turn
+         */
+        SPLIT,
+        /**
+         * Sends the tuples of the heavy hitter keys to all the consumers
+         */
+        REPLICATE
+    }
+
+    private final int[] heavyHitterHashes;
+    private final HeavyHitterPolicy policy;
+
+    public MToNHeavyHitterPartitioningConnectorDescriptor(IConnectorDescriptorRegistry spec,
+            ITuplePartitionComputerFactory tpcf, int[] heavyHitterHashes, HeavyHitterPolicy policy) {
+        super(spec, tpcf);
+        this.heavyHitterHashes = Arrays.copyOf(heavyHitterHashes, heavyHitterHashes.length);
+        Arrays.sort(this.heavyHitterHashes);
+        this.policy = policy;
+    }
+
+    @Override
+    public IFrameWriter createPartitioner(IHyracksTaskContext ctx, RecordDescriptor recordDesc,
+            IPartitionWriterFactory edwFactory, int index, int nProducerPartitions, int nConsumerPartitions)
+                    throws HyracksDataException {
+        return new HeavyHitterPartitionDataWriter(ctx, nConsumerPartitions, edwFactory, recordDesc,
+                tpcf.createPartitioner(), heavyHitterHashes, policy, index);
+    }
+}
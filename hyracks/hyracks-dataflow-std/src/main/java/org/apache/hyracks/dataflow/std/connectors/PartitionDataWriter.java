@@ -33,12 +33,12 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 
 public class PartitionDataWriter implements IFrameWriter {
-    private final int consumerPartitionCount;
+    protected final int consumerPartitionCount;
     private final IFrameWriter[] pWriters;
     private final boolean[] isOpen;
     private final FrameTupleAppender[] appenders;
     private final FrameTupleAccessor tupleAccessor;
-    private final ITuplePartitionComputer tpc;
+    protected final ITuplePartitionComputer tpc;
     private final IHyracksTaskContext ctx;
     private boolean allocatedFrame = false;
 
@@ -114,11 +114,22 @@ public class PartitionDataWriter implements IFrameWriter {
         tupleAccessor.reset(buffer);
         int tupleCount = tupleAccessor.getTupleCount();
         for (int i = 0; i < tupleCount; ++i) {
-            int h = tpc.partition(tupleAccessor, i, consumerPartitionCount);
-            FrameUtils.appendToWriter(pWriters[h], appenders[h], tupleAccessor, i);
+            partitionTuple(tupleAccessor, i);
         }
     }
 
+    /**
+     * Sends a tuple to the consumer partitions it belongs to.
+     */
+    protected void partitionTuple(FrameTupleAccessor tupleAccessor, int tIndex) throws HyracksDataException {
+        appendToPartition(tpc.partition(tupleAccessor, tIndex, consumerPartitionCount), tupleAccessor, tIndex);
+    }
+
+    protected void appendToPartition(int partition, FrameTupleAccessor tupleAccessor, int tIndex)
+            throws HyracksDataException {
+        FrameUtils.appendToWriter(pWriters[partition], appenders[partition], tupleAccessor, tIndex);
+    }
+
     private void allocateFrames() throws HyracksDataException {
         for (int i = 0; i < appenders.length; ++i) {
             appenders[i].reset(new VSizeFrame(ctx), true);
@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.distinct;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFamily;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
+import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
+import org.apache.hyracks.dataflow.std.buffermanager.PreferToSpillFullyOccupiedFramePolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
+import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.TuplePointer;
+import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
+
+/**
+ * Eliminates the duplicates of the key fields with a hash table, outputting the first tuple of every key as soon as it
+ * is inserted. The tuples are kept in hash partitions; when the memory is full a partition is spilled: its tuples,
+ * which have been output, go to an "emitted" run and the later tuples of the partition go to a "pending" run. After the
+ * input, every spilled partition is processed recursively with the next hash seed, by loading its emitted run without
+ * output and then its pending run as the input.
+ */
+public class HashDistinct {
+    public static final String SPILLED_PARTITIONS_COUNTER = "distinct.hash.spilled-partitions";
+    public static final int MIN_MEMORY_FRAMES = 4;
+    public static final int MAX_LEVEL = 20;
+    private static final int MAX_PARTITIONS = 64;
+
+    private final IHyracksTaskContext ctx;
+    private final int[] projectFields;
+    private final ITuplePartitionComputerFamily tpcFamily;
+    private final FrameTuplePairComparator comparator;
+    private final int tableSize;
+    private final int numPartitions;
+    private final int entriesPerPartition;
+    private final ICounter spilledPartitions;
+
+    private final ISerializableTable table;
+    private final BitSet spilledSet;
+    private final VPartitionTupleBufferManager bufferManager;
+    private final ITuplePointerAccessor bufferAccessor;
+    private final PreferToSpillFullyOccupiedFramePolicy spillPolicy;
+    private final TuplePointer pointer = new TuplePointer();
+    private final FrameTupleAccessor inAccessor;
+    private final FrameTupleAccessor runAccessor;
+    private final IFrame runFrame;
+    private final FrameTupleAppender appender;
+
+    private final RunFileWriter[] emittedRuns;
+    private final RunFileWriter[] pendingRuns;
+    private final Deque<SpilledPartition> spilledPartitionStack = new ArrayDeque<>();
+    private int level;
+    private ITuplePartitionComputer tpc;
+    private boolean emitting;
+
+    /**
+     * @param projectFields
+     *            the fields of the output tuples, or null to output the input tuples as they are
+     */
+    public HashDistinct(IHyracksTaskContext ctx, RecordDescriptor inRecordDesc, int[] keyFields,
+            IBinaryHashFunctionFamily[] hashFunctionFamilies, IBinaryComparator[] comparators, int framesLimit,
+            int tableSize, int[] projectFields) throws HyracksDataException {
+        if (framesLimit < MIN_MEMORY_FRAMES) {
+            throw new HyracksDataException("Not enough memory is available for Hash Distinct");
+        }
+        this.ctx = ctx;
+        this.projectFields = projectFields;
+        this.tpcFamily = new FieldHashPartitionComputerFamily(keyFields, hashFunctionFamilies);
+        this.comparator = new FrameTuplePairComparator(keyFields, keyFields, comparators);
+        this.spilledPartitions = ctx.getCounterContext().getCounter(SPILLED_PARTITIONS_COUNTER, true);
+
+        // one frame each for the output and for reading a run, the rest keeps the tuples
+        int memoryFrames = framesLimit - 2;
+        this.numPartitions = Math.max(2, Math.min(MAX_PARTITIONS, memoryFrames / 2));
+        this.tableSize = Math.max(tableSize, numPartitions);
+        this.entriesPerPartition = (int) Math.ceil(1.0 * this.tableSize / numPartitions);
+        this.table = new SerializableHashTable(this.tableSize, ctx);
+        this.spilledSet = new BitSet(numPartitions);
+        this.bufferManager = new VPartitionTupleBufferManager(ctx,
+                PreferToSpillFullyOccupiedFramePolicy.createAtMostOneFrameForSpilledPartitionConstrain(spilledSet),
+                numPartitions, memoryFrames * ctx.getInitialFrameSize());
+        this.bufferAccessor = bufferManager.getTupleAccessor(inRecordDesc);
+        this.spillPolicy = new PreferToSpillFullyOccupiedFramePolicy(bufferManager, spilledSet,
+                ctx.getInitialFrameSize());
+        this.inAccessor = new FrameTupleAccessor(inRecordDesc);
+        this.runAccessor = new FrameTupleAccessor(inRecordDesc);
+        this.runFrame = new VSizeFrame(ctx);
+        this.appender = new FrameTupleAppender(new VSizeFrame(ctx));
+        this.emittedRuns = new RunFileWriter[numPartitions];
+        this.pendingRuns = new RunFileWriter[numPartitions];
+        this.tpc = tpcFamily.createPartitioner(0);
+        this.emitting = true;
+    }
+
+    public void insert(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
+        inAccessor.reset(buffer);
+        int tupleCount = inAccessor.getTupleCount();
+        for (int i = 0; i < tupleCount; ++i) {
+            insert(inAccessor, i, writer);
+        }
+    }
+
+    public void flush(IFrameWriter writer) throws HyracksDataException {
+        appender.flush(writer);
+    }
+
+    /**
+     * Outputs the remaining distinct tuples of the spilled partitions.
+     */
+    public void complete(IFrameWriter writer) throws HyracksDataException {
+        completeLevel();
+        while (!spilledPartitionStack.isEmpty()) {
+            SpilledPartition partition = spilledPartitionStack.pop();
+            try {
+                if (partition.level > MAX_LEVEL) {
+                    throw new HyracksDataException("Hash Distinct could not partition its input to fit into memory in "
+                            + MAX_LEVEL + " levels");
+                }
+                startLevel(partition.level);
+                emitting = false;
+                insertRun(partition.emittedRun, writer);
+                flushSpilledPartitions(emittedRuns);
+                emitting = true;
+                insertRun(partition.pendingRun, writer);
+            } finally {
+                // the runs are deleted once they have been read
+                deleteRun(partition.emittedRun);
+                deleteRun(partition.pendingRun);
+            }
+            completeLevel();
+        }
+        appender.write(writer, true);
+    }
+
+    public void close() throws HyracksDataException {
+        table.close();
+        bufferManager.close();
+        for (int pid = 0; pid < numPartitions; pid++) {
+            closeAndDeleteRun(emittedRuns[pid]);
+            closeAndDeleteRun(pendingRuns[pid]);
+        }
+        while (!spilledPartitionStack.isEmpty()) {
+            SpilledPartition partition = spilledPartitionStack.pop();
+            deleteRun(partition.emittedRun);
+            deleteRun(partition.pendingRun);
+        }
+    }
+
+    private void insert(IFrameTupleAccessor accessor, int tIndex, IFrameWriter writer) throws HyracksDataException {
+        int hash = tpc.partition(accessor, tIndex, Integer.MAX_VALUE);
+        int entryInHashTable = hash % tableSize;
+        int pid = entryInHashTable / entriesPerPartition;
+        if (!spilledSet.get(pid) && contains(accessor, tIndex, entryInHashTable, hash)) {
+            return;
+        }
+        while (!bufferManager.insertTuple(pid, accessor, tIndex, pointer)) {
+            int victim = spillPolicy.selectVictimPartition(pid);
+            if (victim < 0) {
+                throw new HyracksDataException("The tuple is too large to fit into the memory of Hash Distinct");
+            }
+            spill(victim);
+        }
+        if (spilledSet.get(pid)) {
+            // the tuple is buffered for the run of its partition
+            return;
+        }
+        table.insert(entryInHashTable, hash, pointer);
+        if (emitting) {
+            if (projectFields == null) {
+                FrameUtils.appendToWriter(writer, appender, accessor, tIndex);
+            } else {
+                FrameUtils.appendProjectionToWriter(writer, appender, accessor, tIndex, projectFields);
+            }
+        }
+    }
+
+    private boolean contains(IFrameTupleAccessor accessor, int tIndex, int entryInHashTable, int hash)
+            throws HyracksDataException {
+        for (int i = 0; table.getTuplePointer(entryInHashTable, hash, i, pointer); i++) {
+            bufferAccessor.reset(pointer);
+            if (comparator.compare(accessor, tIndex, bufferAccessor) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Spills the tuples of an in-memory partition, which have all been output, to its emitted run, or the buffered
+     * tuples of a spilled partition to the run of the tuples being inserted.
+     */
+    private void spill(int pid) throws HyracksDataException {
+        if (spilledSet.get(pid)) {
+            bufferManager.flushPartition(pid, getOrCreateRun(emitting ? pendingRuns : emittedRuns, pid));
+        } else {
+            bufferManager.flushPartition(pid, getOrCreateRun(emittedRuns, pid));
+            int lastEntry = Math.min(tableSize, (pid + 1) * entriesPerPartition);
+            for (int entry = pid * entriesPerPartition; entry < lastEntry; entry++) {
+                table.delete(entry);
+            }
+            spilledSet.set(pid);
+            spilledPartitions.update(1);
+        }
+        bufferManager.clearPartition(pid);
+    }
+
+    private void flushSpilledPartitions(RunFileWriter[] runs) throws HyracksDataException {
+        for (int pid = spilledSet.nextSetBit(0); pid >= 0; pid = spilledSet.nextSetBit(pid + 1)) {
+            if (bufferManager.getNumTuples(pid) > 0) {
+                bufferManager.flushPartition(pid, getOrCreateRun(runs, pid));
+                bufferManager.clearPartition(pid);
+            }
+        }
+    }
+
+    private RunFileWriter getOrCreateRun(RunFileWriter[] runs, int pid) throws HyracksDataException {
+        if (runs[pid] == null) {
+            runs[pid] = new RunFileWriter(
+                    ctx.getJobletContext().createManagedWorkspaceFile(HashDistinct.class.getSimpleName()),
+                    ctx.getIOManager(), RunFileCompression.create(ctx));
+            runs[pid].open();
+        }
+        return runs[pid];
+    }
+
+    /**
+     * Closes the runs of the spilled partitions of the current level and pushes the partitions that have pending
+     * tuples for the next level. The partitions whose tuples have all been output already are dropped.
+     */
+    private void completeLevel() throws HyracksDataException {
+        flushSpilledPartitions(pendingRuns);
+        for (int pid = spilledSet.nextSetBit(0); pid >= 0; pid = spilledSet.nextSetBit(pid + 1)) {
+            if (emittedRuns[pid] != null) {
+                emittedRuns[pid].close();
+            }
+            if (pendingRuns[pid] != null) {
+                pendingRuns[pid].close();
+                spilledPartitionStack.push(new SpilledPartition(level + 1, emittedRuns[pid], pendingRuns[pid]));
+            } else {
+                deleteRun(emittedRuns[pid]);
+            }
+            emittedRuns[pid] = null;
+            pendingRuns[pid] = null;
+        }
+    }
+
+    private void startLevel(int newLevel) throws HyracksDataException {
+        bufferManager.reset();
+        table.reset();
+        spilledSet.clear();
+        level = newLevel;
+        tpc = tpcFamily.createPartitioner(newLevel);
+    }
+
+    private void insertRun(RunFileWriter run, IFrameWriter writer) throws HyracksDataException {
+        if (run == null) {
+            return;
+        }
+        GeneratedRunFileReader reader = run.createDeleteOnCloseReader();
+        reader.open();
+        try {
+            while (reader.nextFrame(runFrame)) {
+                runAccessor.reset(runFrame.getBuffer());
+                int tupleCount = runAccessor.getTupleCount();
+                for (int i = 0; i < tupleCount; ++i) {
+                    insert(runAccessor, i, writer);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void closeAndDeleteRun(RunFileWriter run) throws HyracksDataException {
+        if (run != null) {
+            run.close();
+            run.getFileReference().delete();
+        }
+    }
+
+    private static void deleteRun(RunFileWriter run) {
+        if (run != null) {
+            run.getFileReference().delete();
+        }
+    }
+
+    private static class SpilledPartition {
+        private final int level;
+        private final RunFileWriter emittedRun;
+        private final RunFileWriter pendingRun;
+
+        SpilledPartition(int level, RunFileWriter emittedRun, RunFileWriter pendingRun) {
+            this.level = level;
+            this.emittedRun = emittedRun;
+            this.pendingRun = pendingRun;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.distinct;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.dataflow.std.base.AbstractSingleActivityOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+
+/**
+ * Outputs the first tuple of every distinct value of the key fields, without requiring its input to be sorted and
+ * without waiting for the end of its input, see {@link HashDistinct}. The input tuples can be projected on output.
+ */
+public class HashDistinctOperatorDescriptor extends AbstractSingleActivityOperatorDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    private final int framesLimit;
+    private final int tableSize;
+    private final int[] keyFields;
+    private final IBinaryHashFunctionFamily[] hashFunctionFamilies;
+    private final IBinaryComparatorFactory[] comparatorFactories;
+    private final int[] projectFields;
+
+    /**
+     * @param projectFields
+     *            the input fields of the output tuples, or null to output the input tuples as they are
+     */
+    public HashDistinctOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int tableSize,
+            int[] keyFields, IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            IBinaryComparatorFactory[] comparatorFactories, int[] projectFields, RecordDescriptor recordDescriptor) {
+        super(spec, 1, 1);
+        this.framesLimit = framesLimit;
+        this.tableSize = tableSize;
+        this.keyFields = keyFields;
+        this.hashFunctionFamilies = hashFunctionFamilies;
+        this.comparatorFactories = comparatorFactories;
+        this.projectFields = projectFields;
+        recordDescriptors[0] = recordDescriptor;
+    }
+
+    public HashDistinctOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int tableSize,
+            int[] keyFields, IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor) {
+        this(spec, framesLimit, tableSize, keyFields, hashFunctionFamilies, comparatorFactories, null,
+                recordDescriptor);
+    }
+
+    @Override
+    public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+            IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions)
+            throws HyracksDataException {
+        final RecordDescriptor inRecordDesc = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
+        final IBinaryComparator[] comparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        return new AbstractUnaryInputUnaryOutputOperatorNodePushable() {
+            private HashDistinct distinct;
+            private boolean failed;
+
+            @Override
+            public void open() throws HyracksDataException {
+                distinct = new HashDistinct(ctx, inRecordDesc, keyFields, hashFunctionFamilies, comparators,
+                        framesLimit, tableSize, projectFields);
+                writer.open();
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                distinct.insert(buffer, writer);
+            }
+
+            @Override
+            public void fail() throws HyracksDataException {
+                failed = true;
+                writer.fail();
+            }
+
+            @Override
+            public void close() throws HyracksDataException {
+                try {
+                    if (!failed) {
+                        distinct.complete(writer);
+                    }
+                } catch (HyracksDataException e) {
+                    writer.fail();
+                    throw e;
+                } finally {
+                    try {
+                        distinct.close();
+                    } finally {
+                        writer.close();
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws HyracksDataException {
+                distinct.flush(writer);
+            }
+        };
+    }
+}
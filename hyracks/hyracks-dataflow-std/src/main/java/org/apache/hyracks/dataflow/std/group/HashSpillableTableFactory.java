@@ -19,6 +19,7 @@
 
 package org.apache.hyracks.dataflow.std.group;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -41,7 +42,7 @@ import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
 import org.apache.hyracks.dataflow.std.buffermanager.PreferToSpillFullyOccupiedFramePolicy;
 import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
-import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableTableType;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
 
@@ -51,9 +52,20 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
     private static final double FUDGE_FACTOR = 1.1;
     private static final long serialVersionUID = 1L;
     private final IBinaryHashFunctionFamily[] hashFunctionFamilies;
+    private final SerializableTableType tableType;
 
     public HashSpillableTableFactory(IBinaryHashFunctionFamily[] hashFunctionFamilies) {
+        this(hashFunctionFamilies, SerializableTableType.CHAINED);
+    }
+
+    /**
+     * @param tableType
+     *            the layout of the table of the pointers to the aggregate states
+     */
+    public HashSpillableTableFactory(IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            SerializableTableType tableType) {
         this.hashFunctionFamilies = hashFunctionFamilies;
+        this.tableType = tableType;
     }
 
     @Override
@@ -96,7 +108,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
         final ArrayTupleBuilder outputTupleBuilder = new ArrayTupleBuilder(outRecordDescriptor.getFields().length);
 
-        final ISerializableTable hashTableForTuplePointer = new SerializableHashTable(tableSize, ctx);
+        final ISerializableTable hashTableForTuplePointer = tableType.createTable(tableSize, ctx);
 
         return new ISpillableTable() {
 
@@ -113,6 +125,11 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             private final FrameTupleAppender outputAppender = new FrameTupleAppender(new VSizeFrame(ctx));
 
+            private long numOfCreatedGroups = 0;
+
+            private int[] batchTIndexes = new int[0];
+            private TuplePointer[] batchPointers = new TuplePointer[0];
+
             @Override
             public void close() throws HyracksDataException {
                 hashTableForTuplePointer.close();
@@ -141,22 +158,70 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             @Override
             public boolean insert(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
-                int entryInHashTable = tpc.partition(accessor, tIndex, tableSize);
-                for (int i = 0; i < hashTableForTuplePointer.getTupleCount(entryInHashTable); i++) {
-                    hashTableForTuplePointer.getTuplePointer(entryInHashTable, i, pointer);
+                int hash = tpc.partition(accessor, tIndex, Integer.MAX_VALUE);
+                int entryInHashTable = hash % tableSize;
+                if (findGroup(accessor, tIndex, entryInHashTable, hash)) {
+                    aggregateExistingTuple(accessor, tIndex, bufferAccessor, pointer.tupleIndex);
+                    return true;
+                }
+
+                return insertNewAggregateEntry(entryInHashTable, hash, accessor, tIndex);
+            }
+
+            @Override
+            public int insertBatch(IFrameTupleAccessor accessor, int fromTIndex) throws HyracksDataException {
+                int tupleCount = accessor.getTupleCount();
+                ensureBatchCapacity(tupleCount - fromTIndex);
+                int batchSize = 0;
+                int tIndex = fromTIndex;
+                // the tuples of existing groups are aggregated together at the end, which is safe since inserting new
+                // groups only appends to the buffers and never moves the existing state tuples
+                for (; tIndex < tupleCount; tIndex++) {
+                    int hash = tpc.partition(accessor, tIndex, Integer.MAX_VALUE);
+                    int entryInHashTable = hash % tableSize;
+                    if (findGroup(accessor, tIndex, entryInHashTable, hash)) {
+                        batchTIndexes[batchSize] = tIndex;
+                        batchPointers[batchSize].reset(pointer);
+                        batchSize++;
+                    } else if (!insertNewAggregateEntry(entryInHashTable, hash, accessor, tIndex)) {
+                        break;
+                    }
+                }
+                if (batchSize > 0) {
+                    aggregator.aggregate(accessor, batchTIndexes, batchSize, bufferAccessor, batchPointers,
+                            aggregateState);
+                }
+                return tIndex;
+            }
+
+            private void ensureBatchCapacity(int numOfTuples) {
+                if (batchTIndexes.length < numOfTuples) {
+                    batchTIndexes = new int[numOfTuples];
+                    int oldLength = batchPointers.length;
+                    batchPointers = Arrays.copyOf(batchPointers, numOfTuples);
+                    for (int i = oldLength; i < numOfTuples; i++) {
+                        batchPointers[i] = new TuplePointer();
+                    }
+                }
+            }
+
+            /**
+             * Look the group of the tuple up and leave {@link #pointer} at its state tuple if it is found.
+             */
+            private boolean findGroup(IFrameTupleAccessor accessor, int tIndex, int entryInHashTable, int hash)
+                    throws HyracksDataException {
+                for (int i = 0; hashTableForTuplePointer.getTuplePointer(entryInHashTable, hash, i, pointer); i++) {
                     bufferAccessor.reset(pointer);
                     int c = ftpcInputCompareToAggregate.compare(accessor, tIndex, bufferAccessor);
                     if (c == 0) {
-                        aggregateExistingTuple(accessor, tIndex, bufferAccessor, pointer.tupleIndex);
                         return true;
                     }
                 }
-
-                return insertNewAggregateEntry(entryInHashTable, accessor, tIndex);
+                return false;
             }
 
-            private boolean insertNewAggregateEntry(int entryInHashTable, IFrameTupleAccessor accessor, int tIndex)
-                    throws HyracksDataException {
+            private boolean insertNewAggregateEntry(int entryInHashTable, int hash, IFrameTupleAccessor accessor,
+                    int tIndex) throws HyracksDataException {
                 initStateTupleBuilder(accessor, tIndex);
                 int pid = getPartition(entryInHashTable);
 
@@ -164,7 +229,8 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                         stateTupleBuilder.getFieldEndOffsets(), 0, stateTupleBuilder.getSize(), pointer)) {
                     return false;
                 }
-                hashTableForTuplePointer.insert(entryInHashTable, pointer);
+                hashTableForTuplePointer.insert(entryInHashTable, hash, pointer);
+                numOfCreatedGroups++;
                 return true;
             }
 
@@ -229,9 +295,14 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 return bufferManager.getNumPartitions();
             }
 
+            @Override
+            public long getNumOfCreatedGroups() {
+                return numOfCreatedGroups;
+            }
+
             @Override
             public int findVictimPartition(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
-                int entryInHashTable = tpc.partition(accessor, tIndex, tableSize);
+                int entryInHashTable = tpc.partition(accessor, tIndex, Integer.MAX_VALUE) % tableSize;
                 int partition = getPartition(entryInHashTable);
                 return spillPolicy.selectVictimPartition(partition);
             }
@@ -21,6 +21,8 @@ package org.apache.hyracks.dataflow.std.group;
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
+import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 
 public interface IAggregatorDescriptor {
 
@@ -68,6 +70,54 @@ public interface IAggregatorDescriptor {
     void aggregate(IFrameTupleAccessor accessor, int tIndex, IFrameTupleAccessor stateAccessor, int stateTupleIndex,
             AggregateState state) throws HyracksDataException;
 
+    /**
+     * Aggregate a batch of tuples of the same frame that belong to the same group into a state that is maintained as
+     * java objects, as if {@link #aggregate(IFrameTupleAccessor, int, IFrameTupleAccessor, int, AggregateState)} was
+     * called for each of them in order with no state accessor.
+     *
+     * @param accessor
+     * @param tIndexes
+     *            The selection vector of the tuples to aggregate.
+     * @param numOfTuples
+     *            The number of tuples at the start of {@code tIndexes} to aggregate.
+     * @param state
+     *            The aggregate state.
+     * @throws HyracksDataException
+     */
+    default void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, AggregateState state)
+            throws HyracksDataException {
+        for (int i = 0; i < numOfTuples; i++) {
+            aggregate(accessor, tIndexes[i], null, 0, state);
+        }
+    }
+
+    /**
+     * Aggregate a batch of tuples of the same frame into the state tuples they belong to, as if
+     * {@link #aggregate(IFrameTupleAccessor, int, IFrameTupleAccessor, int, AggregateState)} was called for each of
+     * them in order. The state tuple of the tuple {@code tIndexes[i]} is the one {@code statePointers[i]} points to.
+     *
+     * @param accessor
+     * @param tIndexes
+     *            The selection vector of the tuples to aggregate.
+     * @param numOfTuples
+     *            The number of tuples at the start of {@code tIndexes} to aggregate.
+     * @param stateAccessor
+     *            The accessor of the buffers containing the state tuples.
+     * @param statePointers
+     *            The pointers to the state tuples.
+     * @param state
+     *            The aggregate state.
+     * @throws HyracksDataException
+     */
+    default void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples,
+            ITuplePointerAccessor stateAccessor, TuplePointer[] statePointers, AggregateState state)
+            throws HyracksDataException {
+        for (int i = 0; i < numOfTuples; i++) {
+            stateAccessor.reset(statePointers[i]);
+            aggregate(accessor, tIndexes[i], stateAccessor, statePointers[i].tupleIndex, state);
+        }
+    }
+
     /**
      * Output the partial aggregation result.
      *
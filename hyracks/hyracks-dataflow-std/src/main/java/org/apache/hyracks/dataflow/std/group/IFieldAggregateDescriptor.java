@@ -80,6 +80,55 @@ public interface IFieldAggregateDescriptor {
     public void aggregate(IFrameTupleAccessor accessor, int tIndex, byte[] data, int offset, AggregateState state)
             throws HyracksDataException;
 
+    /**
+     * Aggregate the values of a batch of tuples of the same frame into a single state, as if
+     * {@link #aggregate(IFrameTupleAccessor, int, byte[], int, AggregateState)} was called for each of them in order.
+     * Aggregators over primitive fields should override it with a loop that accumulates the values locally and updates
+     * the state once.
+     *
+     * @param accessor
+     * @param tIndexes
+     *            The selection vector of the tuples to aggregate.
+     * @param numOfTuples
+     *            The number of tuples at the start of {@code tIndexes} to aggregate.
+     * @param data
+     *            The buffer containing the state, if frame-based-state is used, or null otherwise.
+     * @param offset
+     * @param state
+     *            The aggregate state.
+     * @throws HyracksDataException
+     */
+    default void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[] data, int offset,
+            AggregateState state) throws HyracksDataException {
+        for (int i = 0; i < numOfTuples; i++) {
+            aggregate(accessor, tIndexes[i], data, offset, state);
+        }
+    }
+
+    /**
+     * Aggregate the values of a batch of tuples of the same frame into the binary state of each of them, which for the
+     * tuple {@code tIndexes[i]} is at {@code offsets[i]} in {@code data[i]}. Only used if frame-based-state is used.
+     *
+     * @param accessor
+     * @param tIndexes
+     *            The selection vector of the tuples to aggregate.
+     * @param numOfTuples
+     *            The number of tuples at the start of {@code tIndexes} to aggregate.
+     * @param data
+     *            The buffers containing the states.
+     * @param offsets
+     *            The offsets of the states in their buffers.
+     * @param state
+     *            The aggregate state.
+     * @throws HyracksDataException
+     */
+    default void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[][] data,
+            int[] offsets, AggregateState state) throws HyracksDataException {
+        for (int i = 0; i < numOfTuples; i++) {
+            aggregate(accessor, tIndexes[i], data[i], offsets[i], state);
+        }
+    }
+
     /**
      * Output the partial aggregation result.
      *
@@ -47,6 +47,24 @@ public interface ISpillableTable {
      */
     boolean insert(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException;
 
+    /**
+     * Insert the tuples of the frame from {@code fromTIndex} on, in order, until one of them does not fit into the
+     * table. The table can aggregate the tuples of the existing groups as a batch.
+     * @param accessor
+     * @param fromTIndex
+     * @return the index of the first tuple that was not inserted, or the tuple count if all of them were inserted
+     * @throws HyracksDataException
+     */
+    default int insertBatch(IFrameTupleAccessor accessor, int fromTIndex) throws HyracksDataException {
+        int tupleCount = accessor.getTupleCount();
+        for (int i = fromTIndex; i < tupleCount; i++) {
+            if (!insert(accessor, i)) {
+                return i;
+            }
+        }
+        return tupleCount;
+    }
+
     /**
      * Flush the certain partition to writer, and return the numOfTuples that have been flushed
      * @param partition
@@ -70,4 +88,10 @@ public interface ISpillableTable {
      * @param tIndex
      */
     int findVictimPartition(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException;
+
+    /**
+     * Get the number of groups that have been created by {@link #insert(IFrameTupleAccessor, int)} so far, including
+     * the ones that have been flushed and cleared since.
+     */
+    long getNumOfCreatedGroups();
 }
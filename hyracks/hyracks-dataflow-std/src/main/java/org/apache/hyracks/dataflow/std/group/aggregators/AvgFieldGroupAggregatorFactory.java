@@ -155,6 +155,49 @@ public class AvgFieldGroupAggregatorFactory implements IFieldAggregateDescriptor
                 }
             }
 
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[] data,
+                    int offset, AggregateState state) throws HyracksDataException {
+                byte[] array = accessor.getBuffer().array();
+                int fieldSlotsLength = accessor.getFieldSlotsLength();
+                int sum = 0;
+                for (int i = 0; i < numOfTuples; i++) {
+                    int tIndex = tIndexes[i];
+                    sum += IntegerPointable.getInteger(array, accessor.getTupleStartOffset(tIndex) + fieldSlotsLength
+                            + accessor.getFieldStartOffset(tIndex, aggField));
+                }
+                if (!useObjectState) {
+                    IntegerPointable.setInteger(data, offset, IntegerPointable.getInteger(data, offset) + sum);
+                    IntegerPointable.setInteger(data, offset + 4,
+                            IntegerPointable.getInteger(data, offset + 4) + numOfTuples);
+                } else {
+                    Integer[] fields = (Integer[]) state.state;
+                    state.state = new Integer[] { fields[0] + sum, fields[1] + numOfTuples };
+                }
+            }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[][] data,
+                    int[] offsets, AggregateState state) throws HyracksDataException {
+                if (useObjectState) {
+                    aggregate(accessor, tIndexes, numOfTuples, null, 0, state);
+                    return;
+                }
+                byte[] array = accessor.getBuffer().array();
+                int fieldSlotsLength = accessor.getFieldSlotsLength();
+                for (int i = 0; i < numOfTuples; i++) {
+                    int tIndex = tIndexes[i];
+                    int value = IntegerPointable.getInteger(array, accessor.getTupleStartOffset(tIndex)
+                            + fieldSlotsLength + accessor.getFieldStartOffset(tIndex, aggField));
+                    byte[] stateData = data[i];
+                    int stateOffset = offsets[i];
+                    IntegerPointable.setInteger(stateData, stateOffset,
+                            IntegerPointable.getInteger(stateData, stateOffset) + value);
+                    IntegerPointable.setInteger(stateData, stateOffset + 4,
+                            IntegerPointable.getInteger(stateData, stateOffset + 4) + 1);
+                }
+            }
+
             @Override
             public boolean needsObjectState() {
                 return useObjectState;
@@ -140,6 +140,29 @@ public class CountFieldAggregatorFactory implements IFieldAggregateDescriptorFac
                     state.state = count;
                 }
             }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[] data,
+                    int offset, AggregateState state) throws HyracksDataException {
+                if (!useObjectState) {
+                    IntegerPointable.setInteger(data, offset, IntegerPointable.getInteger(data, offset) + numOfTuples);
+                } else {
+                    state.state = (Integer) state.state + numOfTuples;
+                }
+            }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[][] data,
+                    int[] offsets, AggregateState state) throws HyracksDataException {
+                if (useObjectState) {
+                    aggregate(accessor, tIndexes, numOfTuples, null, 0, state);
+                    return;
+                }
+                for (int i = 0; i < numOfTuples; i++) {
+                    IntegerPointable.setInteger(data[i], offsets[i], IntegerPointable.getInteger(data[i], offsets[i])
+                            + 1);
+                }
+            }
         };
     }
 
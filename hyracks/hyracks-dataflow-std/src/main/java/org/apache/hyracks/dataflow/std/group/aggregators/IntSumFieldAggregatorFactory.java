@@ -154,6 +154,42 @@ public class IntSumFieldAggregatorFactory implements IFieldAggregateDescriptorFa
                     state.state = sum;
                 }
             }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[] data,
+                    int offset, AggregateState state) throws HyracksDataException {
+                byte[] array = accessor.getBuffer().array();
+                int fieldSlotsLength = accessor.getFieldSlotsLength();
+                int sum = 0;
+                for (int i = 0; i < numOfTuples; i++) {
+                    int tIndex = tIndexes[i];
+                    sum += IntegerPointable.getInteger(array, accessor.getTupleStartOffset(tIndex) + fieldSlotsLength
+                            + accessor.getFieldStartOffset(tIndex, aggField));
+                }
+                if (!useObjectState) {
+                    IntegerPointable.setInteger(data, offset, IntegerPointable.getInteger(data, offset) + sum);
+                } else {
+                    state.state = (Integer) state.state + sum;
+                }
+            }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples, byte[][] data,
+                    int[] offsets, AggregateState state) throws HyracksDataException {
+                if (useObjectState) {
+                    aggregate(accessor, tIndexes, numOfTuples, null, 0, state);
+                    return;
+                }
+                byte[] array = accessor.getBuffer().array();
+                int fieldSlotsLength = accessor.getFieldSlotsLength();
+                for (int i = 0; i < numOfTuples; i++) {
+                    int tIndex = tIndexes[i];
+                    int value = IntegerPointable.getInteger(array, accessor.getTupleStartOffset(tIndex)
+                            + fieldSlotsLength + accessor.getFieldStartOffset(tIndex, aggField));
+                    IntegerPointable.setInteger(data[i], offsets[i], IntegerPointable.getInteger(data[i], offsets[i])
+                            + value);
+                }
+            }
         };
     }
 
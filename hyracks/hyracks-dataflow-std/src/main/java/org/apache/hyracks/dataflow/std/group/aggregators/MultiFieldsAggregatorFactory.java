@@ -25,12 +25,14 @@ import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
 import org.apache.hyracks.dataflow.std.group.AbstractAccumulatingAggregatorDescriptorFactory;
 import org.apache.hyracks.dataflow.std.group.AggregateState;
 import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
 import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
 import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptor;
 import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 
 public class MultiFieldsAggregatorFactory extends AbstractAccumulatingAggregatorDescriptorFactory {
 
@@ -72,6 +74,9 @@ public class MultiFieldsAggregatorFactory extends AbstractAccumulatingAggregator
 
         return new IAggregatorDescriptor() {
 
+            private byte[][] batchStateBuffers = new byte[0][];
+            private final int[][] batchStateOffsets = new int[aggregators.length][0];
+
             @Override
             public void reset() {
                 for (int i = 0; i < aggregators.length; i++) {
@@ -168,6 +173,56 @@ public class MultiFieldsAggregatorFactory extends AbstractAccumulatingAggregator
                     }
                 }
             }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples,
+                    AggregateState state) throws HyracksDataException {
+                for (int i = 0; i < aggregators.length; i++) {
+                    aggregators[i].aggregate(accessor, tIndexes, numOfTuples, null, 0,
+                            ((AggregateState[]) state.state)[i]);
+                }
+            }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int[] tIndexes, int numOfTuples,
+                    ITuplePointerAccessor stateAccessor, TuplePointer[] statePointers, AggregateState state)
+                    throws HyracksDataException {
+                ensureBatchCapacity(numOfTuples);
+                // locate the binary states of all the tuples first, so that each field is aggregated in one call
+                for (int t = 0; t < numOfTuples; t++) {
+                    stateAccessor.reset(statePointers[t]);
+                    int stateTupleIndex = statePointers[t].tupleIndex;
+                    int stateTupleOffset = stateAccessor.getTupleStartOffset(stateTupleIndex)
+                            + stateAccessor.getFieldSlotsLength();
+                    batchStateBuffers[t] = stateAccessor.getBuffer().array();
+                    int fieldIndex = 0;
+                    for (int i = 0; i < aggregators.length; i++) {
+                        if (aggregators[i].needsBinaryState()) {
+                            batchStateOffsets[i][t] = stateTupleOffset
+                                    + stateAccessor.getFieldStartOffset(stateTupleIndex, keys.length + fieldIndex);
+                            fieldIndex++;
+                        }
+                    }
+                }
+                for (int i = 0; i < aggregators.length; i++) {
+                    if (aggregators[i].needsBinaryState()) {
+                        aggregators[i].aggregate(accessor, tIndexes, numOfTuples, batchStateBuffers,
+                                batchStateOffsets[i], ((AggregateState[]) state.state)[i]);
+                    } else {
+                        aggregators[i].aggregate(accessor, tIndexes, numOfTuples, null, 0,
+                                ((AggregateState[]) state.state)[i]);
+                    }
+                }
+            }
+
+            private void ensureBatchCapacity(int numOfTuples) {
+                if (batchStateBuffers.length < numOfTuples) {
+                    batchStateBuffers = new byte[numOfTuples][];
+                    for (int i = 0; i < aggregators.length; i++) {
+                        batchStateOffsets[i] = new int[numOfTuples];
+                    }
+                }
+            }
         };
     }
 }
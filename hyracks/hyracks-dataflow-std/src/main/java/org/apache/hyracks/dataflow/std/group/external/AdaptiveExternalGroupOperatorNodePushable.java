@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.external;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.AggregateState;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+
+/**
+ * The build and write phases of an external group-by in a single activity, for a group-by that pre-aggregates its
+ * input for another group-by on the same keys. It watches how many groups the frames of a sliding window create: when
+ * almost every tuple creates a group, the hash table does not reduce the input and would only spill it, so the
+ * following frames are streamed to the output as one partial aggregate per tuple. While streaming, one frame out of
+ * {@link #PROBE_INTERVAL} is still aggregated to measure the ratio again, and the table is used again once it reduces
+ * the input. The groups of the table are written at the end, like in {@link ExternalGroupWriteOperatorNodePushable},
+ * so a key can be output more than once and the group-by that consumes the output must merge them.
+ */
+public class AdaptiveExternalGroupOperatorNodePushable extends AbstractUnaryInputUnaryOutputOperatorNodePushable
+        implements IRunFileWriterGenerator {
+    public static final String BYPASSED_TUPLES_COUNTER = "group.external.bypassed-tuples";
+    public static final String MODE_SWITCHES_COUNTER = "group.external.mode-switches";
+    // the number of aggregated frames over which the ratio of created groups to tuples is measured
+    public static final int WINDOW_FRAMES = 8;
+    public static final int PROBE_INTERVAL = 8;
+    public static final double BYPASS_RATIO = 0.9;
+    public static final double RESUME_RATIO = 0.7;
+
+    private final IHyracksTaskContext ctx;
+    private final int[] keyFields;
+    private final IBinaryComparator[] comparators;
+    private final INormalizedKeyComputer firstNormalizerComputer;
+    private final IAggregatorDescriptorFactory aggregatorFactory;
+    private final int framesLimit;
+    private final ISpillableTableFactory spillableTableFactory;
+    private final RecordDescriptor inRecordDescriptor;
+    private final RecordDescriptor outRecordDescriptor;
+    private final int tableSize;
+    private final long fileSize;
+    private final ExternalGroupWriteOperatorNodePushable groupWriter;
+
+    private final FrameTupleAccessor inAccessor;
+    private IMemoryGrant memoryGrant;
+    private int frames;
+    private ISpillableTable table;
+    private RunFileWriter[] runFileWriters;
+    private ExternalHashGroupBy externalGroupBy;
+
+    private final long[] windowTuples = new long[WINDOW_FRAMES];
+    private final long[] windowGroups = new long[WINDOW_FRAMES];
+    private int windowSize;
+    private int windowPosition;
+    private boolean bypassing;
+    private int framesSinceProbe;
+
+    private IAggregatorDescriptor bypassAggregator;
+    private AggregateState bypassState;
+    private ArrayTupleBuilder stateTupleBuilder;
+    private ArrayTupleBuilder outputTupleBuilder;
+    private VSizeFrame stateFrame;
+    private FrameTupleAppender stateAppender;
+    private FrameTupleAccessor stateAccessor;
+    private FrameTupleAppender outputAppender;
+
+    private ICounter bypassedTuples;
+    private ICounter modeSwitches;
+    private boolean isFailed = false;
+
+    public AdaptiveExternalGroupOperatorNodePushable(IHyracksTaskContext ctx, Object stateId, int tableSize,
+            long fileSize, int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory aggregatorFactory,
+            IAggregatorDescriptorFactory mergeAggregatorFactory, RecordDescriptor inRecordDescriptor,
+            RecordDescriptor partialRecordDescriptor, RecordDescriptor outRecordDescriptor,
+            ISpillableTableFactory spillableTableFactory) {
+        this.ctx = ctx;
+        this.framesLimit = framesLimit;
+        this.aggregatorFactory = aggregatorFactory;
+        this.keyFields = keyFields;
+        this.comparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        this.firstNormalizerComputer = firstNormalizerFactory == null ? null
+                : firstNormalizerFactory.createNormalizedKeyComputer();
+        this.spillableTableFactory = spillableTableFactory;
+        this.inRecordDescriptor = inRecordDescriptor;
+        this.outRecordDescriptor = outRecordDescriptor;
+        this.tableSize = tableSize;
+        this.fileSize = fileSize;
+        this.inAccessor = new FrameTupleAccessor(inRecordDescriptor);
+        this.groupWriter = new ExternalGroupWriteOperatorNodePushable(ctx, stateId, spillableTableFactory,
+                partialRecordDescriptor, outRecordDescriptor, framesLimit, keyFields, firstNormalizerFactory,
+                comparatorFactories, mergeAggregatorFactory);
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        IMemoryBroker memoryBroker = ctx.getJobletContext().getMemoryBroker();
+        // the table keeps its frames until its groups are written, so they cannot be revoked
+        memoryGrant = memoryBroker == null ? null
+                : memoryBroker.acquire(getDisplayName(),
+                        Math.min(ExternalGroupOperatorDescriptor.MIN_FRAMES, framesLimit), framesLimit, false);
+        frames = memoryGrant == null ? framesLimit : memoryGrant.getFrames();
+        table = spillableTableFactory.buildSpillableTable(ctx, tableSize, fileSize, keyFields, comparators,
+                firstNormalizerComputer, aggregatorFactory, inRecordDescriptor, outRecordDescriptor, frames, 0);
+        runFileWriters = new RunFileWriter[table.getNumPartitions()];
+        externalGroupBy = new ExternalHashGroupBy(this, table, runFileWriters, inRecordDescriptor);
+
+        int[] stateKeyFields = new int[keyFields.length];
+        for (int i = 0; i < stateKeyFields.length; i++) {
+            stateKeyFields[i] = i;
+        }
+        bypassAggregator = aggregatorFactory.createAggregator(ctx, inRecordDescriptor, outRecordDescriptor, keyFields,
+                stateKeyFields, null);
+        bypassState = bypassAggregator.createAggregateStates();
+        stateTupleBuilder = new ArrayTupleBuilder(outRecordDescriptor.getFieldCount());
+        outputTupleBuilder = new ArrayTupleBuilder(outRecordDescriptor.getFieldCount());
+        stateFrame = new VSizeFrame(ctx);
+        stateAppender = new FrameTupleAppender(stateFrame, true);
+        stateAccessor = new FrameTupleAccessor(outRecordDescriptor);
+        outputAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+
+        bypassedTuples = ctx.getCounterContext().getCounter(BYPASSED_TUPLES_COUNTER, true);
+        modeSwitches = ctx.getCounterContext().getCounter(MODE_SWITCHES_COUNTER, true);
+        writer.open();
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (bypassing && ++framesSinceProbe < PROBE_INTERVAL) {
+            bypass(buffer);
+            return;
+        }
+        framesSinceProbe = 0;
+        inAccessor.reset(buffer);
+        int tupleCount = inAccessor.getTupleCount();
+        long groupsBefore = table.getNumOfCreatedGroups();
+        externalGroupBy.insert(buffer);
+        if (tupleCount > 0) {
+            observe(tupleCount, table.getNumOfCreatedGroups() - groupsBefore);
+        }
+    }
+
+    /**
+     * Adds an aggregated frame to the window, and switches between aggregating and streaming once the window is full.
+     */
+    private void observe(long tuples, long groups) {
+        windowTuples[windowPosition] = tuples;
+        windowGroups[windowPosition] = groups;
+        windowPosition = (windowPosition + 1) % WINDOW_FRAMES;
+        if (windowSize < WINDOW_FRAMES) {
+            windowSize++;
+        }
+        if (windowSize < WINDOW_FRAMES) {
+            return;
+        }
+        long sumTuples = 0;
+        long sumGroups = 0;
+        for (int i = 0; i < WINDOW_FRAMES; i++) {
+            sumTuples += windowTuples[i];
+            sumGroups += windowGroups[i];
+        }
+        double ratio = (double) sumGroups / sumTuples;
+        if (bypassing ? ratio < RESUME_RATIO : ratio > BYPASS_RATIO) {
+            bypassing = !bypassing;
+            windowSize = 0;
+            windowPosition = 0;
+            modeSwitches.update(1);
+        }
+    }
+
+    private void bypass(ByteBuffer buffer) throws HyracksDataException {
+        inAccessor.reset(buffer);
+        int tupleCount = inAccessor.getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            stateTupleBuilder.reset();
+            for (int k = 0; k < keyFields.length; k++) {
+                stateTupleBuilder.addField(inAccessor, i, keyFields[k]);
+            }
+            bypassAggregator.init(stateTupleBuilder, inAccessor, i, bypassState);
+            if (!stateAppender.append(stateTupleBuilder.getFieldEndOffsets(), stateTupleBuilder.getByteArray(), 0,
+                    stateTupleBuilder.getSize())) {
+                flushBypassedStates();
+                if (!stateAppender.append(stateTupleBuilder.getFieldEndOffsets(), stateTupleBuilder.getByteArray(), 0,
+                        stateTupleBuilder.getSize())) {
+                    throw new HyracksDataException("The aggregate state is too large to be fit into a frame.");
+                }
+            }
+        }
+        flushBypassedStates();
+        bypassedTuples.update(tupleCount);
+    }
+
+    private void flushBypassedStates() throws HyracksDataException {
+        stateAccessor.reset(stateFrame.getBuffer());
+        int stateCount = stateAccessor.getTupleCount();
+        for (int j = 0; j < stateCount; j++) {
+            outputTupleBuilder.reset();
+            for (int k = 0; k < keyFields.length; k++) {
+                outputTupleBuilder.addField(stateAccessor, j, k);
+            }
+            if (bypassAggregator.outputFinalResult(outputTupleBuilder, stateAccessor, j, bypassState)
+                    && !outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                            outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                outputAppender.write(writer, true);
+                if (!outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                        outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                    throw new HyracksDataException("The output item is too large to be fit into a frame.");
+                }
+            }
+        }
+        stateAppender.reset(stateFrame, true);
+        // the states of the streamed tuples are not needed any more
+        bypassState = bypassAggregator.createAggregateStates();
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        isFailed = true;
+        writer.fail();
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (isFailed) {
+                for (RunFileWriter run : runFileWriters) {
+                    if (run != null) {
+                        run.getFileReference().delete();
+                    }
+                }
+                table.close();
+            } else {
+                outputAppender.write(writer, true);
+                externalGroupBy.flushSpilledPartitions();
+                groupWriter.writeGroups(table, runFileWriters, externalGroupBy.getSpilledNumTuples(), writer,
+                        frames);
+            }
+        } finally {
+            bypassAggregator.close();
+            table = null;
+            externalGroupBy = null;
+            if (memoryGrant != null) {
+                memoryGrant.close();
+                memoryGrant = null;
+            }
+            writer.close();
+        }
+    }
+
+    @Override
+    public RunFileWriter getRunFileWriter() throws HyracksDataException {
+        FileReference file = ctx.getJobletContext()
+                .createManagedWorkspaceFile(ExternalGroupOperatorDescriptor.class.getSimpleName());
+        return new RunFileWriter(file, ctx.getIOManager(), RunFileCompression.create(ctx));
+    }
+}
@@ -30,6 +30,9 @@ import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
@@ -83,9 +86,15 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
     @Override
     public void open() throws HyracksDataException {
         state = new ExternalGroupState(ctx.getJobletContext().getJobId(), stateId);
+        IMemoryBroker memoryBroker = ctx.getJobletContext().getMemoryBroker();
+        // the table keeps its frames until the write activity is done with them, so they cannot be revoked
+        IMemoryGrant memoryGrant = memoryBroker == null ? null
+                : memoryBroker.acquire(getDisplayName(),
+                        Math.min(ExternalGroupOperatorDescriptor.MIN_FRAMES, framesLimit), framesLimit, false);
+        state.setMemoryGrant(memoryGrant);
         ISpillableTable table = spillableTableFactory.buildSpillableTable(ctx, tableSize, fileSize, keyFields,
                 comparators, firstNormalizerComputer, aggregatorFactory, inRecordDescriptor, outRecordDescriptor,
-                framesLimit, 0);
+                memoryGrant == null ? framesLimit : memoryGrant.getFrames(), 0);
         RunFileWriter[] runFileWriters = new RunFileWriter[table.getNumPartitions()];
         this.externalGroupBy = new ExternalHashGroupBy(this, table, runFileWriters, inRecordDescriptor);
 
@@ -113,6 +122,9 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
                     run.getFileReference().delete();
                 }
             }
+            if (state.getMemoryGrant() != null) {
+                state.getMemoryGrant().close();
+            }
         } else {
             externalGroupBy.flushSpilledPartitions();
             ctx.setStateObject(state);
@@ -136,6 +148,6 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
     public RunFileWriter getRunFileWriter() throws HyracksDataException {
         FileReference file = ctx.getJobletContext()
                 .createManagedWorkspaceFile(ExternalGroupOperatorDescriptor.class.getSimpleName());
-        return new RunFileWriter(file, ctx.getIOManager());
+        return new RunFileWriter(file, ctx.getIOManager(), RunFileCompression.create(ctx));
     }
 }
@@ -43,6 +43,10 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
 
     private static final int MERGE_ACTIVITY_ID = 1;
 
+    // the frames a group-by asks the memory broker for at least: 1 for input records, and 1 for output aggregation
+    // results
+    static final int MIN_FRAMES = 2;
+
     private static final long serialVersionUID = 1L;
     private final int[] keyFields;
     private final IBinaryComparatorFactory[] comparatorFactories;
@@ -57,12 +61,29 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
     private final RecordDescriptor outRecDesc;
     private final int tableSize;
     private final long fileSize;
+    private final boolean adaptive;
 
     public ExternalGroupOperatorDescriptor(IOperatorDescriptorRegistry spec, int inputSizeInTuple, long inputFileSize,
             int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
             INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory partialAggregatorFactory,
             IAggregatorDescriptorFactory intermediateAggregateFactory, RecordDescriptor partialAggRecordDesc,
             RecordDescriptor outRecordDesc, ISpillableTableFactory spillableTableFactory) {
+        this(spec, inputSizeInTuple, inputFileSize, keyFields, framesLimit, comparatorFactories, firstNormalizerFactory,
+                partialAggregatorFactory, intermediateAggregateFactory, partialAggRecordDesc, outRecordDesc,
+                spillableTableFactory, false);
+    }
+
+    /**
+     * @param adaptive
+     *            whether the group-by may stream its input to the output as partial aggregates when the hash table
+     *            does not reduce it, see {@link AdaptiveExternalGroupOperatorNodePushable}. The output can then have
+     *            several tuples per key, so this is only for a group-by that pre-aggregates the input of another one.
+     */
+    public ExternalGroupOperatorDescriptor(IOperatorDescriptorRegistry spec, int inputSizeInTuple, long inputFileSize,
+            int[] keyFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory partialAggregatorFactory,
+            IAggregatorDescriptorFactory intermediateAggregateFactory, RecordDescriptor partialAggRecordDesc,
+            RecordDescriptor outRecordDesc, ISpillableTableFactory spillableTableFactory, boolean adaptive) {
         super(spec, 1, 1);
         this.framesLimit = framesLimit;
         if (framesLimit <= 1) {
@@ -89,6 +110,7 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         recordDescriptors[0] = outRecordDesc;
         this.tableSize = inputSizeInTuple;
         this.fileSize = inputFileSize;
+        this.adaptive = adaptive;
     }
 
     /*
@@ -100,6 +122,14 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
      */
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
+        if (adaptive) {
+            AdaptiveAggregateActivity adaptiveAct = new AdaptiveAggregateActivity(
+                    new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
+            builder.addActivity(this, adaptiveAct);
+            builder.addSourceEdge(0, adaptiveAct, 0);
+            builder.addTargetEdge(0, adaptiveAct, 0);
+            return;
+        }
         AggregateActivity aggregateAct = new AggregateActivity(new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
         MergeActivity mergeAct = new MergeActivity(new ActivityId(odId, MERGE_ACTIVITY_ID));
 
@@ -130,6 +160,25 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         }
     }
 
+    private class AdaptiveAggregateActivity extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public AdaptiveAggregateActivity(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                final IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                        throws HyracksDataException {
+            return new AdaptiveExternalGroupOperatorNodePushable(ctx, new TaskId(getActivityId(), partition),
+                    tableSize, fileSize, keyFields, framesLimit, comparatorFactories, firstNormalizerFactory,
+                    partialAggregatorFactory, intermediateAggregateFactory,
+                    recordDescProvider.getInputRecordDescriptor(getActivityId(), 0), partialRecDesc,
+                    recordDescriptors[0], spillableTableFactory);
+        }
+    }
+
     private class MergeActivity extends AbstractActivityNode {
         private static final long serialVersionUID = 1L;
 
@@ -23,6 +23,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
 import org.apache.hyracks.dataflow.std.group.ISpillableTable;
@@ -32,6 +33,7 @@ public class ExternalGroupState extends AbstractStateObject {
     private RunFileWriter[] runs;
     private ISpillableTable gTable;
     private int[] spilledNumTuples;
+    private IMemoryGrant memoryGrant;
 
     ExternalGroupState(JobId jobId, Object id) {
         super(jobId, id);
@@ -70,4 +72,15 @@ public class ExternalGroupState extends AbstractStateObject {
     public int[] getSpilledNumTuples() {
         return spilledNumTuples;
     }
+
+    public void setMemoryGrant(IMemoryGrant memoryGrant) {
+        this.memoryGrant = memoryGrant;
+    }
+
+    /**
+     * @return the frames of the table and of the passes over its spilled partitions, or null without a memory broker
+     */
+    public IMemoryGrant getMemoryGrant() {
+        return memoryGrant;
+    }
 }
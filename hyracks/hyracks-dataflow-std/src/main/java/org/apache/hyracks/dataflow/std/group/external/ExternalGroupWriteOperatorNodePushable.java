@@ -32,6 +32,8 @@ import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
 import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputSourceOperatorNodePushable;
@@ -91,20 +93,42 @@ public class ExternalGroupWriteOperatorNodePushable extends AbstractUnaryOutputS
         ISpillableTable table = aggState.getSpillableTable();
         RunFileWriter[] partitionRuns = aggState.getRuns();
         int[] numberOfTuples = aggState.getSpilledNumTuples();
+        IMemoryGrant memoryGrant = aggState.getMemoryGrant();
         try {
             writer.open();
-            doPass(table, partitionRuns, numberOfTuples, writer, 1); // level 0 use used at build stage.
+            doPass(table, partitionRuns, numberOfTuples, writer, 1,
+                    memoryGrant == null ? frameLimit : memoryGrant.getFrames()); // level 0 use used at build stage.
         } catch (Exception e) {
             generatedRuns.forEach(run -> run.getFileReference().delete());
             writer.fail();
             throw new HyracksDataException(e);
         } finally {
-            writer.close();
+            try {
+                writer.close();
+            } finally {
+                if (memoryGrant != null) {
+                    memoryGrant.close();
+                }
+            }
         }
     }
 
-    private void doPass(ISpillableTable table, RunFileWriter[] runs, int[] numOfTuples, IFrameWriter writer, int level)
-            throws HyracksDataException {
+    /**
+     * Writes the groups that a build phase left in the table and in the runs of its spilled partitions to an open
+     * writer, for the operators that build and write the groups in the same activity.
+     */
+    void writeGroups(ISpillableTable table, RunFileWriter[] partitionRuns, int[] numberOfTuples, IFrameWriter writer,
+            int framesLimit) throws HyracksDataException {
+        try {
+            doPass(table, partitionRuns, numberOfTuples, writer, 1, framesLimit);
+        } catch (HyracksDataException e) {
+            generatedRuns.forEach(run -> run.getFileReference().delete());
+            throw e;
+        }
+    }
+
+    private void doPass(ISpillableTable table, RunFileWriter[] runs, int[] numOfTuples, IFrameWriter writer, int level,
+            int framesLimit) throws HyracksDataException {
         assert table.getNumPartitions() == runs.length;
         for (int i = 0; i < runs.length; i++) {
             if (runs[i] == null) {
@@ -116,8 +140,8 @@ public class ExternalGroupWriteOperatorNodePushable extends AbstractUnaryOutputS
         for (int i = 0; i < runs.length; i++) {
             if (runs[i] != null) {
                 ISpillableTable partitionTable = spillableTableFactory.buildSpillableTable(ctx, numOfTuples[i],
-                        runs[i].getFileSize(), mergeGroupFields, groupByComparators, nmkComputer,
-                        mergeAggregatorFactory, partialAggRecordDesc, outRecordDesc, frameLimit, level);
+                        runs[i].getRawSize(), mergeGroupFields, groupByComparators, nmkComputer,
+                        mergeAggregatorFactory, partialAggRecordDesc, outRecordDesc, framesLimit, level);
                 RunFileWriter[] runFileWriters = new RunFileWriter[partitionTable.getNumPartitions()];
                 int[] sizeInTuplesNextLevel = buildGroup(runs[i].createDeleteOnCloseReader(), partitionTable,
                         runFileWriters);
@@ -137,7 +161,7 @@ public class ExternalGroupWriteOperatorNodePushable extends AbstractUnaryOutputS
                     LOGGER.fine("level " + level + ":" + "build with " + numOfTuples.length + " partitions"
                             + ", spilled " + numOfSpilledPart + " partitions");
                 }
-                doPass(partitionTable, runFileWriters, sizeInTuplesNextLevel, writer, level + 1);
+                doPass(partitionTable, runFileWriters, sizeInTuplesNextLevel, writer, level + 1, framesLimit);
             }
         }
     }
@@ -162,6 +186,6 @@ public class ExternalGroupWriteOperatorNodePushable extends AbstractUnaryOutputS
     public RunFileWriter getRunFileWriter() throws HyracksDataException {
         FileReference newRun = ctx.getJobletContext()
                 .createManagedWorkspaceFile(ExternalGroupOperatorDescriptor.class.getSimpleName());
-        return new RunFileWriter(newRun, ctx.getIOManager());
+        return new RunFileWriter(newRun, ctx.getIOManager(), RunFileCompression.create(ctx));
     }
 }
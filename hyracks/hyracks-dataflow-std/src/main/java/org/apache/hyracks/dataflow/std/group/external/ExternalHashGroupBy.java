@@ -49,17 +49,17 @@ public class ExternalHashGroupBy {
     public void insert(ByteBuffer buffer) throws HyracksDataException {
         accessor.reset(buffer);
         int tupleCount = accessor.getTupleCount();
-        for (int i = 0; i < tupleCount; i++) {
-            if (!table.insert(accessor, i)) {
-                do {
-                    int partition = table.findVictimPartition(accessor, i);
-                    if (partition < 0) {
-                        throw new HyracksDataException("Failed to insert a new buffer into the aggregate operator!");
-                    }
-                    RunFileWriter writer = getPartitionWriterOrCreateOneIfNotExist(partition);
-                    flushPartitionToRun(partition, writer);
-                } while (!table.insert(accessor, i));
-            }
+        int i = table.insertBatch(accessor, 0);
+        while (i < tupleCount) {
+            do {
+                int partition = table.findVictimPartition(accessor, i);
+                if (partition < 0) {
+                    throw new HyracksDataException("Failed to insert a new buffer into the aggregate operator!");
+                }
+                RunFileWriter writer = getPartitionWriterOrCreateOneIfNotExist(partition);
+                flushPartitionToRun(partition, writer);
+            } while (!table.insert(accessor, i));
+            i = table.insertBatch(accessor, i + 1);
         }
     }
 
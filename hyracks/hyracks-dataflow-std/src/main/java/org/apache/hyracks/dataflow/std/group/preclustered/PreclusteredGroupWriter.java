@@ -53,6 +53,10 @@ public class PreclusteredGroupWriter implements IFrameWriter {
 
     private boolean isFailed = false;
 
+    // the selection vector of the tuples of the current frame that are still to be aggregated into the current group
+    private int[] batchTIndexes = new int[0];
+    private int batchSize;
+
     public PreclusteredGroupWriter(IHyracksTaskContext ctx, int[] groupFields, IBinaryComparator[] comparators,
             IAggregatorDescriptorFactory aggregatorFactory, RecordDescriptor inRecordDesc,
             RecordDescriptor outRecordDesc, IFrameWriter writer, boolean outputPartial) throws HyracksDataException {
@@ -91,6 +95,9 @@ public class PreclusteredGroupWriter implements IFrameWriter {
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
         inFrameAccessor.reset(buffer);
         int nTuples = inFrameAccessor.getTupleCount();
+        if (batchTIndexes.length < nTuples) {
+            batchTIndexes = new int[nTuples];
+        }
         for (int i = 0; i < nTuples; ++i) {
             if (first) {
 
@@ -111,6 +118,7 @@ public class PreclusteredGroupWriter implements IFrameWriter {
 
             }
         }
+        aggregateBatch();
         copyFrame.ensureFrameSize(buffer.capacity());
         FrameUtils.copyAndFlip(buffer, copyFrame.getBuffer());
         copyFrameAccessor.reset(copyFrame.getBuffer());
@@ -119,6 +127,7 @@ public class PreclusteredGroupWriter implements IFrameWriter {
     private void switchGroupIfRequired(FrameTupleAccessor prevTupleAccessor, int prevTupleIndex,
             FrameTupleAccessor currTupleAccessor, int currTupleIndex) throws HyracksDataException {
         if (!sameGroup(prevTupleAccessor, prevTupleIndex, currTupleAccessor, currTupleIndex)) {
+            aggregateBatch();
             writeOutput(prevTupleAccessor, prevTupleIndex);
 
             tupleBuilder.reset();
@@ -127,7 +136,14 @@ public class PreclusteredGroupWriter implements IFrameWriter {
             }
             aggregator.init(tupleBuilder, currTupleAccessor, currTupleIndex, aggregateState);
         } else {
-            aggregator.aggregate(currTupleAccessor, currTupleIndex, null, 0, aggregateState);
+            batchTIndexes[batchSize++] = currTupleIndex;
+        }
+    }
+
+    private void aggregateBatch() throws HyracksDataException {
+        if (batchSize > 0) {
+            aggregator.aggregate(inFrameAccessor, batchTIndexes, batchSize, aggregateState);
+            batchSize = 0;
         }
     }
 
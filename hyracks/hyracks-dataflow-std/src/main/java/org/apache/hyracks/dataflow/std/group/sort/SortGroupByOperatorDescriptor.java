@@ -104,7 +104,7 @@ public class SortGroupByOperatorDescriptor extends AbstractSorterOperatorDescrip
         return new AbstractSorterOperatorDescriptor.SortActivity(id) {
             @Override
             protected AbstractSortRunGenerator getRunGenerator(IHyracksTaskContext ctx,
-                    IRecordDescriptorProvider recordDescriptorProvider) throws HyracksDataException {
+                    IRecordDescriptorProvider recordDescriptorProvider, int framesLimit) throws HyracksDataException {
                 return new ExternalSortGroupByRunGenerator(ctx, sortFields,
                         recordDescriptorProvider.getInputRecordDescriptor(this.getActivityId(), 0), framesLimit,
                         groupFields, firstKeyNormalizerFactory, comparatorFactories, partialAggregatorFactory,
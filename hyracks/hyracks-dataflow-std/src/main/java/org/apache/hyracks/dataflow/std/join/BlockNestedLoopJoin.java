@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.INullWriter;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluator;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparator;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.BufferInfo;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+
+/**
+ * A block nested loop join that keeps as much of the inner input in memory as the budget allows, and joins blocks of
+ * the outer input with it. Unlike {@link NestedLoopJoin}, an inner input that fits in memory is never written to
+ * disk, and a spilled inner input is read once per block of the outer input rather than once per outer frame.
+ * If the inner input does not fit, half of the budget keeps its first frames and the other half holds the outer
+ * blocks, so that the spilled inner frames are read as few times as the cached ones allow.
+ * The outer frames of a block are split among several threads, each with its own comparator, predicate evaluator and
+ * output frame.
+ */
+public class BlockNestedLoopJoin {
+    // the degree of parallelism that stands for the number of processors of the node the join runs on
+    public static final int DEFAULT_PARALLELISM = 0;
+    public static final String BLOCKS_COUNTER = "join.bnl.blocks";
+    public static final String BLOCK_TIME_COUNTER = "join.bnl.block-time-ns";
+    public static final String MAX_BLOCK_TIME_COUNTER = "join.bnl.max-block-time-ns";
+    public static final String SPILLED_INNER_FRAMES_COUNTER = "join.bnl.spilled-inner-frames";
+
+    private final IHyracksTaskContext ctx;
+    private final boolean isLeftOuter;
+    private final ArrayTupleBuilder nullTupleBuilder;
+    private final int innerBudget;
+    private final int outerBudget;
+    private final List<ByteBuffer> innerFrames = new ArrayList<>();
+    private int innerBytes;
+    private RunFileWriter runFileWriter;
+    private final IFrame runFrame;
+    private VariableFrameMemoryManager outerBufferMngr;
+    private final List<BitSet> outerMatches = new ArrayList<>();
+
+    private final BlockJoinWorker[] workers;
+    private final SynchronizedFrameWriter outputWriter = new SynchronizedFrameWriter();
+    private ForkJoinPool pool;
+
+    private final ICounter blocks;
+    private final ICounter blockTime;
+    private final ICounter maxBlockTime;
+    private final ICounter spilledInnerFrames;
+
+    /**
+     * @param memSize
+     *            the number of frames for the inner input, the outer blocks, the output of each thread and the reading
+     *            of a spilled inner input
+     * @param parallelism
+     *            the maximum number of threads that join a block, or {@link #DEFAULT_PARALLELISM} to use as many as
+     *            there are available processors. It is lowered so that each thread gets at least one frame of the
+     *            outer block.
+     */
+    public BlockNestedLoopJoin(IHyracksTaskContext ctx, RecordDescriptor outerRd, RecordDescriptor innerRd,
+            ITuplePairComparatorFactory comparatorFactory, IPredicateEvaluatorFactory predEvalFactory, int memSize,
+            int parallelism, boolean isLeftOuter, INullWriter[] nullWriters1) throws HyracksDataException {
+        if (memSize < 4) {
+            throw new HyracksDataException("Not enough memory is available for Block Nested Loop Join");
+        }
+        this.ctx = ctx;
+        this.isLeftOuter = isLeftOuter;
+        int numWorkers = Math.max(1, Math.min(parallelism > 0 ? parallelism
+                : Runtime.getRuntime().availableProcessors(), (memSize - 1) / 3));
+        int budget = memSize - 1 - numWorkers;
+        this.outerBudget = budget;
+        this.innerBudget = budget - numWorkers;
+        this.runFrame = new VSizeFrame(ctx);
+
+        workers = new BlockJoinWorker[numWorkers];
+        for (int i = 0; i < numWorkers; ++i) {
+            workers[i] = new BlockJoinWorker(new FrameTupleAccessor(outerRd), new FrameTupleAccessor(innerRd),
+                    comparatorFactory.createTuplePairComparator(ctx),
+                    predEvalFactory == null ? null : predEvalFactory.createPredicateEvaluator());
+        }
+
+        if (isLeftOuter) {
+            int innerFieldCount = innerRd.getFieldCount();
+            nullTupleBuilder = new ArrayTupleBuilder(innerFieldCount);
+            DataOutput out = nullTupleBuilder.getDataOutput();
+            for (int i = 0; i < innerFieldCount; i++) {
+                nullWriters1[i].writeNull(out);
+                nullTupleBuilder.addFieldEndOffset();
+            }
+        } else {
+            nullTupleBuilder = null;
+        }
+
+        blocks = ctx.getCounterContext().getCounter(BLOCKS_COUNTER, true);
+        blockTime = ctx.getCounterContext().getCounter(BLOCK_TIME_COUNTER, true);
+        maxBlockTime = ctx.getCounterContext().getCounter(MAX_BLOCK_TIME_COUNTER, true);
+        spilledInnerFrames = ctx.getCounterContext().getCounter(SPILLED_INNER_FRAMES_COUNTER, true);
+    }
+
+    public void cache(ByteBuffer buffer) throws HyracksDataException {
+        int frameSize = ctx.getInitialFrameSize();
+        if (runFileWriter == null && innerBytes + buffer.capacity() <= innerBudget * frameSize) {
+            ByteBuffer copyBuffer = ctx.allocateFrame(buffer.capacity());
+            FrameUtils.copyAndFlip(buffer, copyBuffer);
+            innerFrames.add(copyBuffer);
+            innerBytes += copyBuffer.capacity();
+            return;
+        }
+        if (runFileWriter == null) {
+            runFileWriter = new RunFileWriter(ctx.getJobletContext().createManagedWorkspaceFile(
+                    BlockNestedLoopJoin.class.getSimpleName()), ctx.getIOManager(), RunFileCompression.create(ctx));
+            runFileWriter.open();
+            // the inner input does not fit: keep half of the budget for the outer blocks
+            int keep = 0;
+            int keptBytes = 0;
+            while (keep < innerFrames.size() && keptBytes + innerFrames.get(keep).capacity() <= outerBudget
+                    * frameSize / 2) {
+                keptBytes += innerFrames.get(keep++).capacity();
+            }
+            while (innerFrames.size() > keep) {
+                ByteBuffer spilled = innerFrames.remove(keep);
+                spill(spilled);
+                innerBytes -= spilled.capacity();
+                ctx.deallocateFrames(spilled.capacity());
+            }
+        }
+        spill(buffer);
+    }
+
+    private void spill(ByteBuffer buffer) throws HyracksDataException {
+        buffer.position(0);
+        runFileWriter.nextFrame(buffer);
+        spilledInnerFrames.update(1);
+    }
+
+    public void closeCache() throws HyracksDataException {
+        if (runFileWriter != null) {
+            runFileWriter.close();
+        }
+        int frameSize = ctx.getInitialFrameSize();
+        int outerBytes = outerBudget * frameSize - innerBytes;
+        outerBufferMngr = new VariableFrameMemoryManager(new VariableFramePool(ctx, outerBytes),
+                FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT,
+                        outerBytes / frameSize));
+    }
+
+    public void join(ByteBuffer outerBuffer, IFrameWriter writer) throws HyracksDataException {
+        if (outerBufferMngr.insertFrame(outerBuffer) < 0) {
+            joinBlock(writer);
+            outerBufferMngr.reset();
+            if (outerBufferMngr.insertFrame(outerBuffer) < 0) {
+                throw new HyracksDataException("The given outer frame of size:" + outerBuffer.capacity()
+                        + " is too big to cache in the buffer. Please choose a larger buffer memory size");
+            }
+        }
+    }
+
+    public void closeJoin(IFrameWriter writer) throws HyracksDataException {
+        try {
+            if (outerBufferMngr.getNumFrames() > 0) {
+                joinBlock(writer);
+            }
+            for (BlockJoinWorker worker : workers) {
+                worker.appender.write(writer, true);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Releases the cached inner frames, the outer block, the spilled inner input and the threads.
+     */
+    public void close() {
+        for (ByteBuffer buffer : innerFrames) {
+            ctx.deallocateFrames(buffer.capacity());
+        }
+        innerFrames.clear();
+        innerBytes = 0;
+        if (outerBufferMngr != null) {
+            outerBufferMngr.close();
+        }
+        if (runFileWriter != null) {
+            runFileWriter.getFileReference().delete();
+            runFileWriter = null;
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private void joinBlock(IFrameWriter writer) throws HyracksDataException {
+        long start = System.nanoTime();
+        outputWriter.setWriter(writer);
+        int numOuterFrames = outerBufferMngr.getNumFrames();
+        if (isLeftOuter) {
+            while (outerMatches.size() < numOuterFrames) {
+                outerMatches.add(new BitSet());
+            }
+            for (int i = 0; i < numOuterFrames; ++i) {
+                outerMatches.get(i).clear();
+            }
+        }
+        int numTasks = Math.min(workers.length, numOuterFrames);
+        runInParallel(numTasks, (worker, from, to) -> {
+            for (ByteBuffer innerBuffer : innerFrames) {
+                worker.joinFrames(from, to, innerBuffer, 0, innerBuffer.capacity());
+            }
+        });
+        if (runFileWriter != null) {
+            RunFileReader runFileReader = runFileWriter.createReader();
+            runFileReader.open();
+            try {
+                while (runFileReader.nextFrame(runFrame)) {
+                    ByteBuffer innerBuffer = runFrame.getBuffer();
+                    runInParallel(numTasks,
+                            (worker, from, to) -> worker.joinFrames(from, to, innerBuffer, 0, innerBuffer.capacity()));
+                }
+            } finally {
+                runFileReader.close();
+            }
+        }
+        if (isLeftOuter) {
+            runInParallel(numTasks, (worker, from, to) -> worker.appendUnmatched(from, to));
+        }
+        long elapsed = System.nanoTime() - start;
+        blocks.update(1);
+        blockTime.update(elapsed);
+        if (elapsed > maxBlockTime.get()) {
+            maxBlockTime.set(elapsed);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockTask {
+        /**
+         * Runs on the outer frames of the block from (inclusive) to (exclusive).
+         */
+        void run(BlockJoinWorker worker, int from, int to) throws HyracksDataException;
+    }
+
+    private void runInParallel(int numTasks, BlockTask task) throws HyracksDataException {
+        int numOuterFrames = outerBufferMngr.getNumFrames();
+        if (numTasks == 1) {
+            task.run(workers[0], 0, numOuterFrames);
+            return;
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(workers.length);
+        }
+        List<Callable<Void>> callables = new ArrayList<>(numTasks);
+        for (int i = 0; i < numTasks; ++i) {
+            BlockJoinWorker worker = workers[i];
+            int from = (int) ((long) numOuterFrames * i / numTasks);
+            int to = (int) ((long) numOuterFrames * (i + 1) / numTasks);
+            callables.add(() -> {
+                task.run(worker, from, to);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(callables)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyracksDataException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof HyracksDataException ? (HyracksDataException) e.getCause()
+                    : new HyracksDataException(e.getCause());
+        }
+    }
+
+    /**
+     * The state of one thread of the join. The outer frames of a block are split among the threads, so each outer
+     * tuple and its match flag belong to a single thread.
+     */
+    private class BlockJoinWorker {
+        private final FrameTupleAccessor accessorOuter;
+        private final FrameTupleAccessor accessorInner;
+        private final ITuplePairComparator tpComparator;
+        private final IPredicateEvaluator predEvaluator;
+        private final FrameTupleAppender appender;
+        private final BufferInfo outerInfo = new BufferInfo(null, -1, -1);
+
+        BlockJoinWorker(FrameTupleAccessor accessorOuter, FrameTupleAccessor accessorInner,
+                ITuplePairComparator tpComparator, IPredicateEvaluator predEvaluator) throws HyracksDataException {
+            this.accessorOuter = accessorOuter;
+            this.accessorInner = accessorInner;
+            this.tpComparator = tpComparator;
+            this.predEvaluator = predEvaluator;
+            this.appender = new FrameTupleAppender(new VSizeFrame(ctx));
+        }
+
+        void joinFrames(int from, int to, ByteBuffer innerBuffer, int innerStart, int innerLength)
+                throws HyracksDataException {
+            accessorInner.reset(innerBuffer, innerStart, innerLength);
+            int tupleCount1 = accessorInner.getTupleCount();
+            for (int f = from; f < to; ++f) {
+                outerBufferMngr.getFrame(f, outerInfo);
+                accessorOuter.reset(outerInfo.getBuffer(), outerInfo.getStartOffset(), outerInfo.getLength());
+                BitSet matches = isLeftOuter ? outerMatches.get(f) : null;
+                int tupleCount0 = accessorOuter.getTupleCount();
+                for (int i = 0; i < tupleCount0; ++i) {
+                    for (int j = 0; j < tupleCount1; ++j) {
+                        if (tpComparator.compare(accessorOuter, i, accessorInner, j) == 0 && (predEvaluator == null
+                                || predEvaluator.evaluate(accessorOuter, i, accessorInner, j))) {
+                            if (matches != null) {
+                                matches.set(i);
+                            }
+                            FrameUtils.appendConcatToWriter(outputWriter, appender, accessorOuter, i, accessorInner,
+                                    j);
+                        }
+                    }
+                }
+            }
+        }
+
+        void appendUnmatched(int from, int to) throws HyracksDataException {
+            final int[] ntFieldEndOffsets = nullTupleBuilder.getFieldEndOffsets();
+            final byte[] ntByteArray = nullTupleBuilder.getByteArray();
+            final int ntSize = nullTupleBuilder.getSize();
+            for (int f = from; f < to; ++f) {
+                outerBufferMngr.getFrame(f, outerInfo);
+                accessorOuter.reset(outerInfo.getBuffer(), outerInfo.getStartOffset(), outerInfo.getLength());
+                BitSet matches = outerMatches.get(f);
+                int tupleCount0 = accessorOuter.getTupleCount();
+                for (int i = matches.nextClearBit(0); i < tupleCount0; i = matches.nextClearBit(i + 1)) {
+                    FrameUtils.appendConcatToWriter(outputWriter, appender, accessorOuter, i, ntFieldEndOffsets,
+                            ntByteArray, 0, ntSize);
+                }
+            }
+        }
+    }
+}
@@ -57,7 +57,16 @@ public class InMemoryHashJoin {
     private final TuplePointer storedTuplePointer;
     private final boolean reverseOutputOrder; //Should we reverse the order of tuples, we are writing in output
     private final IPredicateEvaluator predEvaluator;
+    private final int[] probeEntries = new int[PROBE_BATCH_SIZE];
+    private final int[] probeHashes = new int[PROBE_BATCH_SIZE];
+    private final int[] candidateFrameIndexes = new int[PROBE_BATCH_SIZE];
+    private final int[] candidateTupleIndexes = new int[PROBE_BATCH_SIZE];
 
+    // the number of probe tuples whose table lookups are issued together
+    private static final int PROBE_BATCH_SIZE = 16;
+    // the number of partitions whose partition of a key is kept as its hash value in the table; the partitioners
+    // may multiply it (see RepartitionComputerFactory), so it stays far below Integer.MAX_VALUE
+    private static final int HASH_PARTITIONS = 1 << 16;
     private static final Logger LOGGER = Logger.getLogger(InMemoryHashJoin.class.getName());
 
     public InMemoryHashJoin(IHyracksTaskContext ctx, int tableSize, FrameTupleAccessor accessorProbe,
@@ -109,47 +118,81 @@ public class InMemoryHashJoin {
         int tCount = accessorBuild.getTupleCount();
         for (int i = 0; i < tCount; ++i) {
             int entry = tpcBuild.partition(accessorBuild, i, tableSize);
+            int hash = tpcBuild.partition(accessorBuild, i, HASH_PARTITIONS);
             storedTuplePointer.frameIndex = bIndex;
             storedTuplePointer.tupleIndex = i;
-            table.insert(entry, storedTuplePointer);
+            table.insert(entry, hash, storedTuplePointer);
         }
     }
 
     void join(IFrameTupleAccessor accessorProbe, int tid, IFrameWriter writer) throws HyracksDataException {
         this.accessorProbe = accessorProbe;
-        boolean matchFound = false;
         if (tableSize != 0) {
             int entry = tpcProbe.partition(accessorProbe, tid, tableSize);
-            int offset = 0;
-            do {
-                table.getTuplePointer(entry, offset++, storedTuplePointer);
-                if (storedTuplePointer.frameIndex < 0)
-                    break;
-                int bIndex = storedTuplePointer.frameIndex;
-                int tIndex = storedTuplePointer.tupleIndex;
-                accessorBuild.reset(buffers.get(bIndex));
-                int c = tpComparator.compare(accessorProbe, tid, accessorBuild, tIndex);
-                if (c == 0) {
-                    boolean predEval = evaluatePredicate(tid, tIndex);
-                    if (predEval) {
-                        matchFound = true;
-                        appendToResult(tid, tIndex, writer);
-                    }
-                }
-            } while (true);
-        }
-        if (!matchFound && isLeftOuter) {
-            FrameUtils.appendConcatToWriter(writer, appender, accessorProbe, tid,
-                    nullTupleBuild.getFieldEndOffsets(), nullTupleBuild.getByteArray(), 0,
-                    nullTupleBuild.getSize());
+            int hash = tpcProbe.partition(accessorProbe, tid, HASH_PARTITIONS);
+            table.getTuplePointer(entry, hash, 0, storedTuplePointer);
+            join(tid, entry, hash, storedTuplePointer.frameIndex, storedTuplePointer.tupleIndex, writer);
+        } else {
+            join(tid, 0, 0, -1, -1, writer);
         }
     }
 
     public void join(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
         accessorProbe.reset(buffer);
         int tupleCount0 = accessorProbe.getTupleCount();
-        for (int i = 0; i < tupleCount0; ++i) {
-            join(accessorProbe, i, writer);
+        for (int start = 0; start < tupleCount0; start += PROBE_BATCH_SIZE) {
+            int end = Math.min(tupleCount0, start + PROBE_BATCH_SIZE);
+            if (tableSize != 0) {
+                // look up the first candidate of every tuple of the batch before comparing any key, so that the
+                // lookups, which do not depend on each other, wait for their cache misses together
+                for (int i = start; i < end; ++i) {
+                    probeEntries[i - start] = tpcProbe.partition(accessorProbe, i, tableSize);
+                    probeHashes[i - start] = tpcProbe.partition(accessorProbe, i, HASH_PARTITIONS);
+                }
+                for (int i = start; i < end; ++i) {
+                    table.getTuplePointer(probeEntries[i - start], probeHashes[i - start], 0, storedTuplePointer);
+                    candidateFrameIndexes[i - start] = storedTuplePointer.frameIndex;
+                    candidateTupleIndexes[i - start] = storedTuplePointer.tupleIndex;
+                }
+                for (int i = start; i < end; ++i) {
+                    join(i, probeEntries[i - start], probeHashes[i - start], candidateFrameIndexes[i - start],
+                            candidateTupleIndexes[i - start], writer);
+                }
+            } else {
+                for (int i = start; i < end; ++i) {
+                    join(i, 0, 0, -1, -1, writer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins a probe tuple with the build tuples of its entry, starting from the first candidate found in the table.
+     */
+    private void join(int tid, int entry, int hash, int firstFrameIndex, int firstTupleIndex, IFrameWriter writer)
+            throws HyracksDataException {
+        boolean matchFound = false;
+        int bIndex = firstFrameIndex;
+        int tIndex = firstTupleIndex;
+        int offset = 1;
+        while (bIndex >= 0) {
+            accessorBuild.reset(buffers.get(bIndex));
+            int c = tpComparator.compare(accessorProbe, tid, accessorBuild, tIndex);
+            if (c == 0) {
+                boolean predEval = evaluatePredicate(tid, tIndex);
+                if (predEval) {
+                    matchFound = true;
+                    appendToResult(tid, tIndex, writer);
+                }
+            }
+            table.getTuplePointer(entry, hash, offset++, storedTuplePointer);
+            bIndex = storedTuplePointer.frameIndex;
+            tIndex = storedTuplePointer.tupleIndex;
+        }
+        if (!matchFound && isLeftOuter) {
+            FrameUtils.appendConcatToWriter(writer, appender, accessorProbe, tid,
+                    nullTupleBuild.getFieldEndOffsets(), nullTupleBuild.getByteArray(), 0,
+                    nullTupleBuild.getSize());
         }
     }
 
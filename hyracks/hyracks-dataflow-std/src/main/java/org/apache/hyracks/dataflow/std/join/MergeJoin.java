@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameReader;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.INullWriter;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluator;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
+
+/**
+ * Joins a left input and a right input that are both sorted on their join keys in the order of the comparator.
+ * The left frames are pushed to {@link #join(ByteBuffer, IFrameWriter)} and the right frames are pulled from a reader
+ * as far as the current left key. The right tuples with the key of the current left tuple form a group that is kept
+ * for the following left tuples with the same key, so that many-to-many keys join without reading the right input
+ * again. A group takes at most memSize - 3 frames; the rest of it is spilled to a run file.
+ */
+public class MergeJoin {
+    public static final String SPILLED_GROUPS_COUNTER = "join.merge.spilled-groups";
+    public static final int MIN_MEMORY_FRAMES = 4;
+
+    private final IHyracksTaskContext ctx;
+    private final FrameTupleAccessor accessorLeft;
+    private final FrameTupleAccessor accessorRight;
+    private final FrameTupleAccessor accessorGroup;
+    private final IFrameReader rightReader;
+    private final FrameTuplePairComparator comparatorLeft2Right;
+    private final IPredicateEvaluator predEvaluator;
+    private final boolean isLeftOuter;
+    private final ArrayTupleBuilder nullTupleBuilder;
+    private final FrameTupleAppender appender;
+    private final ICounter spilledGroups;
+
+    private final IFrame rightFrame;
+    private int rightTupleIndex;
+    private int rightTupleCount;
+    private boolean rightExhausted;
+
+    private final int groupMemSize;
+    private final List<IFrame> groupFrames = new ArrayList<>();
+    private final FrameTupleAppender groupAppender;
+    private int groupFrameCount;
+    private int groupTupleCount;
+    private final IFrame runFrame;
+    private final FrameTupleAppender runAppender;
+    private RunFileWriter groupRunWriter;
+    private boolean groupRunClosed;
+
+    public MergeJoin(IHyracksTaskContext ctx, RecordDescriptor leftRd, RecordDescriptor rightRd,
+            IFrameReader rightReader, FrameTuplePairComparator comparatorLeft2Right, int memSize,
+            IPredicateEvaluator predEval, boolean isLeftOuter, INullWriter[] nullWriters1)
+                    throws HyracksDataException {
+        if (memSize < MIN_MEMORY_FRAMES) {
+            throw new HyracksDataException("Not enough memory is available for Merge Join");
+        }
+        this.ctx = ctx;
+        this.accessorLeft = new FrameTupleAccessor(leftRd);
+        this.accessorRight = new FrameTupleAccessor(rightRd);
+        this.accessorGroup = new FrameTupleAccessor(rightRd);
+        this.rightReader = rightReader;
+        this.comparatorLeft2Right = comparatorLeft2Right;
+        this.predEvaluator = predEval;
+        this.isLeftOuter = isLeftOuter;
+        this.appender = new FrameTupleAppender(new VSizeFrame(ctx));
+        this.spilledGroups = ctx.getCounterContext().getCounter(SPILLED_GROUPS_COUNTER, true);
+
+        // one frame each for the output, the right input and the run of a spilled group
+        this.rightFrame = new VSizeFrame(ctx);
+        this.runFrame = new VSizeFrame(ctx);
+        this.runAppender = new FrameTupleAppender();
+        this.groupMemSize = memSize - 3;
+        this.groupFrames.add(new VSizeFrame(ctx));
+        this.groupAppender = new FrameTupleAppender(groupFrames.get(0), true);
+        this.groupFrameCount = 1;
+
+        if (isLeftOuter) {
+            int innerFieldCount = rightRd.getFieldCount();
+            nullTupleBuilder = new ArrayTupleBuilder(innerFieldCount);
+            DataOutput out = nullTupleBuilder.getDataOutput();
+            for (int i = 0; i < innerFieldCount; i++) {
+                nullWriters1[i].writeNull(out);
+                nullTupleBuilder.addFieldEndOffset();
+            }
+        } else {
+            nullTupleBuilder = null;
+        }
+    }
+
+    public void join(ByteBuffer leftBuffer, IFrameWriter writer) throws HyracksDataException {
+        accessorLeft.reset(leftBuffer);
+        int tupleCount = accessorLeft.getTupleCount();
+        for (int i = 0; i < tupleCount; ++i) {
+            if (groupTupleCount == 0 || compareToGroup(i) != 0) {
+                clearGroup();
+                collectGroup(i);
+            }
+            joinGroup(i, writer);
+        }
+    }
+
+    public void completeJoin(IFrameWriter writer) throws HyracksDataException {
+        appender.write(writer, true);
+    }
+
+    public void close() throws HyracksDataException {
+        clearGroup();
+    }
+
+    private int compareToGroup(int leftTupleIndex) throws HyracksDataException {
+        // the first tuple of a group is always in the first group frame
+        accessorGroup.reset(groupFrames.get(0).getBuffer());
+        return comparatorLeft2Right.compare(accessorLeft, leftTupleIndex, accessorGroup, 0);
+    }
+
+    /**
+     * Skips the right tuples that are smaller than the left tuple and collects the ones that are equal to it.
+     */
+    private void collectGroup(int leftTupleIndex) throws HyracksDataException {
+        while (nextRightTuple()) {
+            int c = comparatorLeft2Right.compare(accessorLeft, leftTupleIndex, accessorRight, rightTupleIndex);
+            if (c < 0) {
+                break;
+            }
+            if (c == 0) {
+                addToGroup(accessorRight, rightTupleIndex);
+            }
+            rightTupleIndex++;
+        }
+    }
+
+    private boolean nextRightTuple() throws HyracksDataException {
+        while (rightTupleIndex >= rightTupleCount) {
+            if (rightExhausted || !rightReader.nextFrame(rightFrame)) {
+                rightExhausted = true;
+                return false;
+            }
+            accessorRight.reset(rightFrame.getBuffer());
+            rightTupleIndex = 0;
+            rightTupleCount = accessorRight.getTupleCount();
+        }
+        return true;
+    }
+
+    private void addToGroup(FrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
+        groupTupleCount++;
+        if (groupRunWriter == null) {
+            if (groupAppender.append(accessor, tIndex)) {
+                return;
+            }
+            if (groupFrameCount < groupMemSize) {
+                if (groupFrameCount == groupFrames.size()) {
+                    groupFrames.add(new VSizeFrame(ctx));
+                }
+                groupAppender.reset(groupFrames.get(groupFrameCount++), true);
+                if (!groupAppender.append(accessor, tIndex)) {
+                    throw new HyracksDataException("The given tuple is too big to cache in the merge join group");
+                }
+                return;
+            }
+            groupRunWriter = new RunFileWriter(
+                    ctx.getJobletContext().createManagedWorkspaceFile(MergeJoin.class.getSimpleName()),
+                    ctx.getIOManager(), RunFileCompression.create(ctx));
+            groupRunWriter.open();
+            groupRunClosed = false;
+            runAppender.reset(runFrame, true);
+            spilledGroups.update(1);
+        }
+        FrameUtils.appendToWriter(groupRunWriter, runAppender, accessor, tIndex);
+    }
+
+    private void joinGroup(int leftTupleIndex, IFrameWriter writer) throws HyracksDataException {
+        boolean matchFound = false;
+        if (groupTupleCount > 0) {
+            for (int f = 0; f < groupFrameCount; ++f) {
+                accessorGroup.reset(groupFrames.get(f).getBuffer());
+                matchFound |= joinGroupFrame(leftTupleIndex, writer);
+            }
+            if (groupRunWriter != null) {
+                closeGroupRun();
+                RunFileReader reader = groupRunWriter.createReader();
+                reader.open();
+                try {
+                    while (reader.nextFrame(runFrame)) {
+                        accessorGroup.reset(runFrame.getBuffer());
+                        matchFound |= joinGroupFrame(leftTupleIndex, writer);
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        }
+        if (!matchFound && isLeftOuter) {
+            final int[] ntFieldEndOffsets = nullTupleBuilder.getFieldEndOffsets();
+            final byte[] ntByteArray = nullTupleBuilder.getByteArray();
+            final int ntSize = nullTupleBuilder.getSize();
+            FrameUtils.appendConcatToWriter(writer, appender, accessorLeft, leftTupleIndex, ntFieldEndOffsets,
+                    ntByteArray, 0, ntSize);
+        }
+    }
+
+    private boolean joinGroupFrame(int leftTupleIndex, IFrameWriter writer) throws HyracksDataException {
+        boolean matchFound = false;
+        int tupleCount = accessorGroup.getTupleCount();
+        for (int j = 0; j < tupleCount; ++j) {
+            if (predEvaluator == null || predEvaluator.evaluate(accessorLeft, leftTupleIndex, accessorGroup, j)) {
+                matchFound = true;
+                FrameUtils.appendConcatToWriter(writer, appender, accessorLeft, leftTupleIndex, accessorGroup, j);
+            }
+        }
+        return matchFound;
+    }
+
+    private void closeGroupRun() throws HyracksDataException {
+        if (!groupRunClosed) {
+            runAppender.write(groupRunWriter, true);
+            groupRunWriter.close();
+            groupRunClosed = true;
+        }
+    }
+
+    private void clearGroup() throws HyracksDataException {
+        groupTupleCount = 0;
+        groupFrameCount = 1;
+        groupAppender.reset(groupFrames.get(0), true);
+        if (groupRunWriter != null) {
+            if (!groupRunClosed) {
+                groupRunWriter.close();
+                groupRunClosed = true;
+            }
+            groupRunWriter.getFileReference().delete();
+            groupRunWriter = null;
+        }
+    }
+}
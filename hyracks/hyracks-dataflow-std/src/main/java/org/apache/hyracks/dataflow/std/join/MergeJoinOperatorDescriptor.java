@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameReader;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.IActivity;
+import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INullWriter;
+import org.apache.hyracks.api.dataflow.value.INullWriterFactory;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluator;
+import org.apache.hyracks.api.dataflow.value.IPredicateEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.std.base.AbstractActivityNode;
+import org.apache.hyracks.dataflow.std.base.AbstractOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
+
+/**
+ * Joins two inputs that are both sorted on their join keys in the order of the comparators, without blocking on
+ * either of them. The left input (0) drives the join and pulls the frames of the right input (1) as far as its
+ * current key, so both inputs are consumed at the same time by a single activity.
+ * Supports inner and left outer joins; the right tuples of a key are kept in memSizeInFrames - 3 frames and the
+ * rest of them is spilled, see {@link MergeJoin}.
+ */
+public class MergeJoinOperatorDescriptor extends AbstractOperatorDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    private final int memSizeInFrames;
+    private final int[] keys0;
+    private final int[] keys1;
+    private final IBinaryComparatorFactory[] comparatorFactories;
+    private final IPredicateEvaluatorFactory predEvaluatorFactory;
+    private final boolean isLeftOuter;
+    private final INullWriterFactory[] nullWriterFactories1;
+
+    public MergeJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memSizeInFrames, int[] keys0,
+            int[] keys1, IBinaryComparatorFactory[] comparatorFactories, IPredicateEvaluatorFactory predEvalFactory,
+            RecordDescriptor recordDescriptor, boolean isLeftOuter, INullWriterFactory[] nullWriterFactories1) {
+        super(spec, 2, 1);
+        this.memSizeInFrames = memSizeInFrames;
+        this.keys0 = keys0;
+        this.keys1 = keys1;
+        this.comparatorFactories = comparatorFactories;
+        this.predEvaluatorFactory = predEvalFactory;
+        recordDescriptors[0] = recordDescriptor;
+        this.isLeftOuter = isLeftOuter;
+        this.nullWriterFactories1 = nullWriterFactories1;
+    }
+
+    public MergeJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memSizeInFrames, int[] keys0,
+            int[] keys1, IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor) {
+        this(spec, memSizeInFrames, keys0, keys1, comparatorFactories, null, recordDescriptor, false, null);
+    }
+
+    @Override
+    public void contributeActivities(IActivityGraphBuilder builder) {
+        IActivity mergeJoinActivity = new MergeJoinActivityNode(new ActivityId(getOperatorId(), 0));
+        builder.addActivity(this, mergeJoinActivity);
+        builder.addSourceEdge(0, mergeJoinActivity, 0);
+        builder.addSourceEdge(1, mergeJoinActivity, 1);
+        builder.addTargetEdge(0, mergeJoinActivity, 0);
+    }
+
+    private class MergeJoinActivityNode extends AbstractActivityNode {
+        private static final long serialVersionUID = 1L;
+
+        public MergeJoinActivityNode(ActivityId id) {
+            super(id);
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions)
+                        throws HyracksDataException {
+            RecordDescriptor rd0 = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
+            RecordDescriptor rd1 = recordDescProvider.getInputRecordDescriptor(getActivityId(), 1);
+            IBinaryComparator[] comparators = new IBinaryComparator[comparatorFactories.length];
+            for (int i = 0; i < comparatorFactories.length; ++i) {
+                comparators[i] = comparatorFactories[i].createBinaryComparator();
+            }
+            INullWriter[] nullWriters1 = isLeftOuter ? new INullWriter[nullWriterFactories1.length] : null;
+            if (isLeftOuter) {
+                for (int i = 0; i < nullWriterFactories1.length; i++) {
+                    nullWriters1[i] = nullWriterFactories1[i].createNullWriter();
+                }
+            }
+            IPredicateEvaluator predEvaluator = (predEvaluatorFactory == null ? null
+                    : predEvaluatorFactory.createPredicateEvaluator());
+            return new MergeJoinOperatorNodePushable(ctx, rd0, rd1,
+                    new FrameTuplePairComparator(keys0, keys1, comparators), memSizeInFrames, predEvaluator,
+                    isLeftOuter, nullWriters1);
+        }
+    }
+
+    /**
+     * The left input runs the join in its own thread. The right input hands its frames over one by one and waits
+     * until the join has copied them, or until the left input is done, after which its frames are dropped.
+     */
+    public static class MergeJoinOperatorNodePushable extends AbstractUnaryOutputOperatorNodePushable {
+        private final MergeJoin joiner;
+
+        private ByteBuffer pendingRightFrame;
+        private boolean rightClosed;
+        private boolean rightFailed;
+        private boolean leftDone;
+
+        public MergeJoinOperatorNodePushable(IHyracksTaskContext ctx, RecordDescriptor rd0, RecordDescriptor rd1,
+                FrameTuplePairComparator comparator, int memSizeInFrames, IPredicateEvaluator predEvaluator,
+                boolean isLeftOuter, INullWriter[] nullWriters1) throws HyracksDataException {
+            joiner = new MergeJoin(ctx, rd0, rd1, new RightFrameReader(), comparator, memSizeInFrames,
+                    predEvaluator, isLeftOuter, nullWriters1);
+        }
+
+        @Override
+        public int getInputArity() {
+            return 2;
+        }
+
+        @Override
+        public IFrameWriter getInputFrameWriter(int index) {
+            return index == 0 ? new LeftFrameWriter() : new RightFrameWriter();
+        }
+
+        private void waitOrHyracksException() throws HyracksDataException {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new HyracksDataException(e);
+            }
+        }
+
+        private synchronized void setLeftDone() {
+            leftDone = true;
+            notifyAll();
+        }
+
+        private class LeftFrameWriter implements IFrameWriter {
+            private boolean failed;
+
+            @Override
+            public void open() throws HyracksDataException {
+                writer.open();
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                joiner.join(buffer, writer);
+            }
+
+            @Override
+            public void fail() throws HyracksDataException {
+                failed = true;
+                setLeftDone();
+                writer.fail();
+            }
+
+            @Override
+            public void close() throws HyracksDataException {
+                try {
+                    if (!failed) {
+                        joiner.completeJoin(writer);
+                    }
+                } finally {
+                    try {
+                        joiner.close();
+                    } finally {
+                        setLeftDone();
+                        writer.close();
+                    }
+                }
+            }
+        }
+
+        private class RightFrameWriter implements IFrameWriter {
+            @Override
+            public void open() throws HyracksDataException {
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                synchronized (MergeJoinOperatorNodePushable.this) {
+                    while (pendingRightFrame != null && !leftDone) {
+                        waitOrHyracksException();
+                    }
+                    if (leftDone) {
+                        return;
+                    }
+                    pendingRightFrame = buffer;
+                    MergeJoinOperatorNodePushable.this.notifyAll();
+                    while (pendingRightFrame != null && !leftDone) {
+                        waitOrHyracksException();
+                    }
+                }
+            }
+
+            @Override
+            public void fail() throws HyracksDataException {
+                synchronized (MergeJoinOperatorNodePushable.this) {
+                    rightFailed = true;
+                    MergeJoinOperatorNodePushable.this.notifyAll();
+                }
+            }
+
+            @Override
+            public void close() throws HyracksDataException {
+                synchronized (MergeJoinOperatorNodePushable.this) {
+                    rightClosed = true;
+                    MergeJoinOperatorNodePushable.this.notifyAll();
+                }
+            }
+        }
+
+        private class RightFrameReader implements IFrameReader {
+            @Override
+            public void open() throws HyracksDataException {
+            }
+
+            @Override
+            public boolean nextFrame(IFrame frame) throws HyracksDataException {
+                synchronized (MergeJoinOperatorNodePushable.this) {
+                    while (pendingRightFrame == null && !rightClosed && !rightFailed) {
+                        waitOrHyracksException();
+                    }
+                    if (rightFailed) {
+                        throw new HyracksDataException("The right input of the merge join failed");
+                    }
+                    if (pendingRightFrame == null) {
+                        return false;
+                    }
+                    frame.ensureFrameSize(pendingRightFrame.capacity());
+                    FrameUtils.copyAndFlip(pendingRightFrame, frame.getBuffer());
+                    pendingRightFrame = null;
+                    MergeJoinOperatorNodePushable.this.notifyAll();
+                    return true;
+                }
+            }
+
+            @Override
+            public void close() throws HyracksDataException {
+            }
+        }
+    }
+}
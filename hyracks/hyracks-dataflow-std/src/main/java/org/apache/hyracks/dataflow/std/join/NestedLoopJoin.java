@@ -20,6 +20,7 @@ package org.apache.hyracks.dataflow.std.join;
 
 import java.io.DataOutput;
 import java.nio.ByteBuffer;
+import java.util.BitSet;
 
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameWriter;
@@ -57,6 +58,8 @@ public class NestedLoopJoin {
     private final IPredicateEvaluator predEvaluator;
     private boolean isReversed; //Added for handling correct calling for predicate-evaluator upon recursive calls (in OptimizedHybridHashJoin) that cause role-reversal
     private BufferInfo tempInfo = new BufferInfo(null, -1, -1);
+    // the buffered outer tuples that matched an inner tuple, numbered across the buffered outer frames
+    private final BitSet outerMatches;
 
     public NestedLoopJoin(IHyracksTaskContext ctx, FrameTupleAccessor accessorOuter, FrameTupleAccessor accessorInner,
             ITuplePairComparator comparatorsOuter2Inner, int memSize, IPredicateEvaluator predEval, boolean isLeftOuter,
@@ -87,8 +90,10 @@ public class NestedLoopJoin {
                 nullWriters1[i].writeNull(out);
                 nullTupleBuilder.addFieldEndOffset();
             }
+            outerMatches = new BitSet();
         } else {
             nullTupleBuilder = null;
+            outerMatches = null;
         }
 
         FileReference file = ctx.getJobletContext()
@@ -103,15 +108,7 @@ public class NestedLoopJoin {
 
     public void join(ByteBuffer outerBuffer, IFrameWriter writer) throws HyracksDataException {
         if (outerBufferMngr.insertFrame(outerBuffer) < 0) {
-            runFileReader = runFileWriter.createReader();
-            runFileReader.open();
-            while (runFileReader.nextFrame(innerBuffer)) {
-                for (int i = 0; i < outerBufferMngr.getNumFrames(); i++) {
-                    blockJoin(outerBufferMngr.getFrame(i, tempInfo), innerBuffer.getBuffer(), writer);
-                }
-            }
-            runFileReader.close();
-            outerBufferMngr.reset();
+            joinBufferedOuterFrames(runFileWriter.createReader(), writer);
             if (outerBufferMngr.insertFrame(outerBuffer) < 0) {
                 throw new HyracksDataException("The given outer frame of size:" + outerBuffer.capacity()
                         + " is too big to cache in the buffer. Please choose a larger buffer memory size");
@@ -119,32 +116,71 @@ public class NestedLoopJoin {
         }
     }
 
-    private void blockJoin(BufferInfo outerBufferInfo, ByteBuffer innerBuffer, IFrameWriter writer)
-            throws HyracksDataException {
+    /**
+     * Joins the buffered outer frames with every cached inner frame, and then, for a left outer join, outputs the
+     * buffered outer tuples that matched no inner tuple of any of the inner frames.
+     */
+    private void joinBufferedOuterFrames(RunFileReader innerReader, IFrameWriter writer) throws HyracksDataException {
+        runFileReader = innerReader;
+        runFileReader.open();
+        while (runFileReader.nextFrame(innerBuffer)) {
+            int outerTupleIndex = 0;
+            for (int i = 0; i < outerBufferMngr.getNumFrames(); i++) {
+                outerTupleIndex += blockJoin(outerBufferMngr.getFrame(i, tempInfo), outerTupleIndex,
+                        innerBuffer.getBuffer(), writer);
+            }
+        }
+        runFileReader.close();
+        if (isLeftOuter) {
+            appendUnmatchedOuterTuples(writer);
+        }
+        outerBufferMngr.reset();
+    }
+
+    /**
+     * @return the number of tuples of the outer frame
+     */
+    private int blockJoin(BufferInfo outerBufferInfo, int firstOuterTupleIndex, ByteBuffer innerBuffer,
+            IFrameWriter writer) throws HyracksDataException {
         accessorOuter.reset(outerBufferInfo.getBuffer(), outerBufferInfo.getStartOffset(), outerBufferInfo.getLength());
         accessorInner.reset(innerBuffer);
         int tupleCount0 = accessorOuter.getTupleCount();
         int tupleCount1 = accessorInner.getTupleCount();
 
         for (int i = 0; i < tupleCount0; ++i) {
-            boolean matchFound = false;
             for (int j = 0; j < tupleCount1; ++j) {
                 int c = compare(accessorOuter, i, accessorInner, j);
                 boolean prdEval = evaluatePredicate(i, j);
                 if (c == 0 && prdEval) {
-                    matchFound = true;
+                    if (isLeftOuter) {
+                        outerMatches.set(firstOuterTupleIndex + i);
+                    }
                     appendToResults(i, j, writer);
                 }
             }
+        }
+        return tupleCount0;
+    }
 
-            if (!matchFound && isLeftOuter) {
-                final int[] ntFieldEndOffsets = nullTupleBuilder.getFieldEndOffsets();
-                final byte[] ntByteArray = nullTupleBuilder.getByteArray();
-                final int ntSize = nullTupleBuilder.getSize();
-                FrameUtils.appendConcatToWriter(writer, appender, accessorOuter, i, ntFieldEndOffsets, ntByteArray, 0,
-                        ntSize);
+    private void appendUnmatchedOuterTuples(IFrameWriter writer) throws HyracksDataException {
+        final int[] ntFieldEndOffsets = nullTupleBuilder.getFieldEndOffsets();
+        final byte[] ntByteArray = nullTupleBuilder.getByteArray();
+        final int ntSize = nullTupleBuilder.getSize();
+        int outerTupleIndex = 0;
+        for (int i = 0; i < outerBufferMngr.getNumFrames(); i++) {
+            BufferInfo outerBufferInfo = outerBufferMngr.getFrame(i, tempInfo);
+            accessorOuter.reset(outerBufferInfo.getBuffer(), outerBufferInfo.getStartOffset(),
+                    outerBufferInfo.getLength());
+            int tupleCount0 = accessorOuter.getTupleCount();
+            for (int j = 0; j < tupleCount0; ++j) {
+                if (!outerMatches.get(outerTupleIndex + j)) {
+                    FrameUtils.appendConcatToWriter(writer, appender, accessorOuter, j, ntFieldEndOffsets,
+                            ntByteArray, 0, ntSize);
+                }
             }
+            outerTupleIndex += tupleCount0;
         }
+        outerMatches.clear();
     }
 
     private boolean evaluatePredicate(int tIx1, int tIx2) {
@@ -175,15 +211,7 @@ public class NestedLoopJoin {
     }
 
     public void closeJoin(IFrameWriter writer) throws HyracksDataException {
-        runFileReader = runFileWriter.createDeleteOnCloseReader();
-        runFileReader.open();
-        while (runFileReader.nextFrame(innerBuffer)) {
-            for (int i = 0; i < outerBufferMngr.getNumFrames(); i++) {
-                blockJoin(outerBufferMngr.getFrame(i, tempInfo), innerBuffer.getBuffer(), writer);
-            }
-        }
-        runFileReader.close();
-        outerBufferMngr.reset();
+        joinBufferedOuterFrames(runFileWriter.createDeleteOnCloseReader(), writer);
 
         appender.write(writer, true);
     }
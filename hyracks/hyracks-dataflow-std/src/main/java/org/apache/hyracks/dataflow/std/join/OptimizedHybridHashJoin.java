@@ -19,7 +19,10 @@
 package org.apache.hyracks.dataflow.std.join;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.List;
 
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameWriter;
@@ -33,15 +36,21 @@ import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
 import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.buffermanager.IPartitionedTupleBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.PreferToSpillFullyOccupiedFramePolicy;
 import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
+import org.apache.hyracks.dataflow.std.structures.BlockedBloomFilter;
+import org.apache.hyracks.dataflow.std.structures.HeavyHitterSketch;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
-import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableTableType;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
 
@@ -51,6 +60,26 @@ import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
  */
 public class OptimizedHybridHashJoin {
 
+    public static final String BLOOM_FILTER_ELIMINATED_TUPLES_COUNTER = "join.bloom-filter.eliminated-tuples";
+    private static final int BLOOM_FILTER_BITS_PER_KEY = 12;
+    // the bloom filter takes 1 / BLOOM_FILTER_MEMORY_FRACTION of the join memory
+    private static final int BLOOM_FILTER_MEMORY_FRACTION = 16;
+    // the bloom filter is given up once it holds this many times the keys it is sized for, as it then rules out too
+    // few probe tuples to pay for its lookups
+    private static final int BLOOM_FILTER_MAX_LOAD = 4;
+
+    public static final String SKEW_HOT_KEYS_COUNTER = "join.skew.hot-keys";
+    public static final String SKEW_HOT_BUILD_TUPLES_COUNTER = "join.skew.hot-build-tuples";
+    public static final String SKEW_HOT_PROBE_TUPLES_COUNTER = "join.skew.hot-probe-tuples";
+    public static final String SKEW_SAVED_SPILL_BYTES_COUNTER = "join.skew.saved-spill-bytes";
+    // the number of build tuples sampled for hot keys before any build tuple is partitioned
+    private static final int SKEW_SAMPLE_TUPLES = 1 << 14;
+    private static final int SKEW_SKETCH_SIZE = 128;
+    // a key is hot if it is at least this part of the sample
+    private static final double SKEW_HOT_KEY_FREQUENCY = 0.01;
+    // the sample and the build tuples of the hot keys take at most 1 / SKEW_MEMORY_FRACTION of the join memory
+    private static final int SKEW_MEMORY_FRACTION = 8;
+
     // Used for special probe BigObject which can not be held into the Join memory
     private FrameTupleAppender bigProbeFrameAppender;
 
@@ -60,6 +89,7 @@ public class OptimizedHybridHashJoin {
     }
 
     private IHyracksTaskContext ctx;
+    private TaskCounters taskCounters;
 
     private final String buildRelName;
     private final String probeRelName;
@@ -85,6 +115,7 @@ public class OptimizedHybridHashJoin {
     private final BitSet spilledStatus; //0=resident, 1=spilled
     private final int numOfPartitions;
     private final int memForJoin;
+    private int memForPartitions;
     private InMemoryHashJoin inMemJoiner; //Used for joining resident partitions
 
     private IPartitionedTupleBufferManager bufferManager;
@@ -93,6 +124,8 @@ public class OptimizedHybridHashJoin {
     private final FrameTupleAccessor accessorBuild;
     private final FrameTupleAccessor accessorProbe;
 
+    private SerializableTableType tableType = SerializableTableType.CHAINED;
+
     private boolean isReversed; //Added for handling correct calling for predicate-evaluator upon recursive calls that cause role-reversal
 
     // stats information
@@ -102,6 +135,34 @@ public class OptimizedHybridHashJoin {
                                                        // we mainly use it to match the corresponding function signature.
     private int[] probePSizeInTups;
 
+    // a bloom filter over the build keys, which drops the probe tuples that match no build tuple
+    private ITuplePartitionComputer buildBloomHpc;
+    private ITuplePartitionComputer probeBloomHpc;
+    private int memForBloomFilter;
+    private int bloomFilterCapacity;
+    private int numBuildKeys;
+    // the filter that the build tuples are added to, which is used by the probe once the build is closed
+    private BlockedBloomFilter buildBloomFilter;
+    private BlockedBloomFilter bloomFilter;
+    private ICounter bloomFilterEliminatedTuples;
+
+    // the build tuples of the keys that are hot in a sample of the build side, which are joined in memory
+    private ITuplePartitionComputer buildSkewHpc;
+    private ITuplePartitionComputer probeSkewHpc;
+    private int memForSkew;
+    private HeavyHitterSketch skewSketch;
+    private List<ByteBuffer> skewSampleFrames;
+    private int[] hotKeyHashes;
+    private List<ByteBuffer> hotBuildFrames;
+    private FrameTupleAppender hotBuildAppender;
+    private IFrameWriter hotBuildFrameCollector;
+    private int hotBuildTupleCount;
+    private InMemoryHashJoin hotJoiner;
+    private ICounter hotKeysCounter;
+    private ICounter hotBuildTuplesCounter;
+    private ICounter hotProbeTuplesCounter;
+    private ICounter savedSpillBytesCounter;
+
     public OptimizedHybridHashJoin(IHyracksTaskContext ctx, int memForJoin, int numOfPartitions, String probeRelName,
             String buildRelName, int[] probeKeys, int[] buildKeys, IBinaryComparator[] comparators,
             RecordDescriptor probeRd, RecordDescriptor buildRd, ITuplePartitionComputer probeHpc,
@@ -141,27 +202,215 @@ public class OptimizedHybridHashJoin {
     }
 
     public void initBuild() throws HyracksDataException {
+        spilledStatus.clear();
+        buildPSizeInTups = new int[numOfPartitions];
+        bloomFilter = null;
+        if (buildBloomHpc != null) {
+            buildBloomFilter = new BlockedBloomFilter(bloomFilterCapacity, BLOOM_FILTER_BITS_PER_KEY);
+            numBuildKeys = 0;
+        }
+        hotKeyHashes = null;
+        hotJoiner = null;
+        if (buildSkewHpc != null) {
+            // the partitions get their memory once the sample tells whether some of it is needed for hot keys
+            bufferManager = null;
+            skewSketch = new HeavyHitterSketch(SKEW_SKETCH_SIZE);
+            skewSampleFrames = new ArrayList<>();
+        } else {
+            createBufferManager(memForJoin - memForBloomFilter);
+        }
+    }
+
+    private void createBufferManager(int memForPartitions) throws HyracksDataException {
+        this.memForPartitions = memForPartitions;
         bufferManager = new VPartitionTupleBufferManager(ctx,
                 PreferToSpillFullyOccupiedFramePolicy.createAtMostOneFrameForSpilledPartitionConstrain(spilledStatus),
-                numOfPartitions, memForJoin * ctx.getInitialFrameSize());
+                numOfPartitions, memForPartitions * ctx.getInitialFrameSize());
         spillPolicy = new PreferToSpillFullyOccupiedFramePolicy(bufferManager, spilledStatus,
                 ctx.getInitialFrameSize());
-        spilledStatus.clear();
-        buildPSizeInTups = new int[numOfPartitions];
+    }
+
+    /**
+     * Makes the join build a bloom filter over the build keys and drop the probe tuples that it rules out before
+     * they are spilled or looked up in the hash table. The filter takes 1 / 16 of the join memory, and is given up if
+     * the build side has many more keys than it is sized for. It is ignored by left outer joins, which output every
+     * probe tuple, and if the join has less than 16 frames. Must be called before {@link #initBuild()}.
+     *
+     * @param probeBloomHpc
+     *            computes the hash values of the probe keys, as a partition of Integer.MAX_VALUE partitions
+     * @param buildBloomHpc
+     *            computes the hash values of the build keys, which must be equal to the ones of equal probe keys
+     */
+    public void enableBloomFilter(ITuplePartitionComputer probeBloomHpc, ITuplePartitionComputer buildBloomHpc) {
+        memForBloomFilter = isLeftOuter ? 0 : memForJoin / BLOOM_FILTER_MEMORY_FRACTION;
+        if (memForBloomFilter < 1) {
+            return;
+        }
+        bloomFilterCapacity = (int) Math.min(Integer.MAX_VALUE,
+                (long) memForBloomFilter * ctx.getInitialFrameSize() * Byte.SIZE / BLOOM_FILTER_BITS_PER_KEY);
+        this.probeBloomHpc = probeBloomHpc;
+        this.buildBloomHpc = buildBloomHpc;
+        bloomFilterEliminatedTuples = getTaskCounters().bloomFilterEliminatedTuples;
+    }
+
+    /**
+     * Makes the join sample the first build tuples for hot keys before it partitions any, keep the build tuples of
+     * the hot keys in memory apart from the partitions and join the probe tuples of the hot keys with them right
+     * away, so that the hot keys neither make their partitions spill nor get spilled with them. The hot build tuples
+     * take at most 1 / 8 of the join memory, more hot build tuples turn the skew handling off before the probe
+     * starts. It is ignored if the join has less than 16 frames. Must be called before {@link #initBuild()}.
+     *
+     * @param probeSkewHpc
+     *            computes the hash values of the probe keys, as a partition of Integer.MAX_VALUE partitions
+     * @param buildSkewHpc
+     *            computes the hash values of the build keys, which must be equal to the ones of equal probe keys
+     */
+    public void enableSkewHandling(ITuplePartitionComputer probeSkewHpc, ITuplePartitionComputer buildSkewHpc) {
+        memForSkew = memForJoin / SKEW_MEMORY_FRACTION;
+        if (memForSkew < 2) {
+            return;
+        }
+        this.probeSkewHpc = probeSkewHpc;
+        this.buildSkewHpc = buildSkewHpc;
+        TaskCounters counters = getTaskCounters();
+        hotKeysCounter = counters.hotKeys;
+        hotBuildTuplesCounter = counters.hotBuildTuples;
+        hotProbeTuplesCounter = counters.hotProbeTuples;
+        savedSpillBytesCounter = counters.savedSpillBytes;
     }
 
     public void build(ByteBuffer buffer) throws HyracksDataException {
+        if (skewSampleFrames != null) {
+            sampleBuildFrame(buffer);
+            return;
+        }
         accessorBuild.reset(buffer);
         int tupleCount = accessorBuild.getTupleCount();
 
         for (int i = 0; i < tupleCount; ++i) {
-            int pid = buildHpc.partition(accessorBuild, i, numOfPartitions);
-            processTuple(i, pid);
-            buildPSizeInTups[pid]++;
+            buildTuple(buffer, i);
         }
 
     }
 
+    private void buildTuple(ByteBuffer buffer, int i) throws HyracksDataException {
+        if (hotKeyHashes != null && isHotKey(buildSkewHpc.partition(accessorBuild, i, Integer.MAX_VALUE))) {
+            FrameUtils.appendToWriter(hotBuildFrameCollector, hotBuildAppender, accessorBuild, i);
+            hotBuildTupleCount++;
+            if (hotBuildFrames.size() >= memForSkew) {
+                stopSkewHandling();
+                accessorBuild.reset(buffer);
+            }
+            return;
+        }
+        int pid = buildHpc.partition(accessorBuild, i, numOfPartitions);
+        processTuple(i, pid);
+        buildPSizeInTups[pid]++;
+        if (buildBloomFilter != null) {
+            addBuildKey(buildBloomHpc.partition(accessorBuild, i, Integer.MAX_VALUE));
+        }
+    }
+
+    private boolean isHotKey(int hash) {
+        return Arrays.binarySearch(hotKeyHashes, hash) >= 0;
+    }
+
+    private void sampleBuildFrame(ByteBuffer buffer) throws HyracksDataException {
+        ByteBuffer copyBuffer = ctx.allocateFrame(buffer.capacity());
+        FrameUtils.copyAndFlip(buffer, copyBuffer);
+        skewSampleFrames.add(copyBuffer);
+        accessorBuild.reset(copyBuffer);
+        int tupleCount = accessorBuild.getTupleCount();
+        for (int i = 0; i < tupleCount; ++i) {
+            skewSketch.offer(buildSkewHpc.partition(accessorBuild, i, Integer.MAX_VALUE));
+        }
+        // the sample takes at most half of the skew memory, so that it fits with the hot tuples it holds
+        if (skewSketch.getNumOffered() >= SKEW_SAMPLE_TUPLES || skewSampleFrames.size() >= memForSkew / 2) {
+            endSkewSampling();
+        }
+    }
+
+    /**
+     * Picks the hot keys of the sample and builds the sampled tuples.
+     */
+    private void endSkewSampling() throws HyracksDataException {
+        List<ByteBuffer> sampleFrames = skewSampleFrames;
+        skewSampleFrames = null;
+        int minCount = Math.max(2, (int) (skewSketch.getNumOffered() * SKEW_HOT_KEY_FREQUENCY));
+        int[] hotKeys = skewSketch.getHeavyHitters(minCount);
+        skewSketch = null;
+        if (hotKeys.length > 0) {
+            Arrays.sort(hotKeys);
+            hotKeyHashes = hotKeys;
+            hotKeysCounter.update(hotKeys.length);
+            hotBuildFrames = new ArrayList<>();
+            hotBuildAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+            hotBuildFrameCollector = new IFrameWriter() {
+                @Override
+                public void open() throws HyracksDataException {
+
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    ByteBuffer copyBuffer = ctx.allocateFrame(buffer.capacity());
+                    FrameUtils.copyAndFlip(buffer, copyBuffer);
+                    hotBuildFrames.add(copyBuffer);
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+
+                }
+            };
+            hotBuildTupleCount = 0;
+            createBufferManager(memForJoin - memForBloomFilter - memForSkew);
+        } else {
+            createBufferManager(memForJoin - memForBloomFilter);
+        }
+        for (ByteBuffer frame : sampleFrames) {
+            accessorBuild.reset(frame);
+            int tupleCount = accessorBuild.getTupleCount();
+            for (int i = 0; i < tupleCount; ++i) {
+                buildTuple(frame, i);
+            }
+            ctx.deallocateFrames(frame.capacity());
+        }
+    }
+
+    /**
+     * Partitions the build tuples of the hot keys like the others once they take more memory than the skew handling
+     * may use.
+     */
+    private void stopSkewHandling() throws HyracksDataException {
+        hotBuildAppender.write(hotBuildFrameCollector, true);
+        hotKeyHashes = null;
+        hotBuildAppender = null;
+        hotBuildFrameCollector = null;
+        for (ByteBuffer frame : hotBuildFrames) {
+            accessorBuild.reset(frame);
+            int tupleCount = accessorBuild.getTupleCount();
+            for (int i = 0; i < tupleCount; ++i) {
+                buildTuple(frame, i);
+            }
+            ctx.deallocateFrames(frame.capacity());
+        }
+        hotBuildFrames = null;
+    }
+
+    private void addBuildKey(int hash) {
+        if (++numBuildKeys > bloomFilterCapacity * (long) BLOOM_FILTER_MAX_LOAD) {
+            buildBloomFilter = null;
+            return;
+        }
+        buildBloomFilter.add(hash);
+    }
+
     private void processTuple(int tid, int pid) throws HyracksDataException {
         while (!bufferManager.insertTuple(pid, accessorBuild, tid, tempPtr)) {
             selectAndSpillVictim(pid);
@@ -184,6 +433,41 @@ public class OptimizedHybridHashJoin {
         spilledStatus.set(pid);
     }
 
+    /**
+     * Gives up frames of the partitions between two build frames, spilling the largest partitions until the others
+     * fit in the frames left. The partitions keep a frame each, and nothing is given up while the build samples for
+     * hot keys.
+     *
+     * @return the frames given up, at most the given number
+     */
+    public int releaseMemory(int frames) throws HyracksDataException {
+        if (bufferManager == null) {
+            return 0;
+        }
+        int released = Math.min(frames, memForPartitions - numOfPartitions);
+        if (released <= 0) {
+            return 0;
+        }
+        memForPartitions -= released;
+        int budget = memForPartitions * ctx.getInitialFrameSize();
+        int used = 0;
+        for (int pid = 0; pid < numOfPartitions; pid++) {
+            used += bufferManager.getPhysicalSize(pid);
+        }
+        while (used > budget) {
+            int victim = 0;
+            for (int pid = 1; pid < numOfPartitions; pid++) {
+                if (bufferManager.getPhysicalSize(pid) > bufferManager.getPhysicalSize(victim)) {
+                    victim = pid;
+                }
+            }
+            used -= bufferManager.getPhysicalSize(victim);
+            spillPartition(victim);
+        }
+        bufferManager.setMemoryBudgetBytes(budget);
+        return released;
+    }
+
     private RunFileWriter getSpillWriterOrCreateNewOneIfNotExist(int pid, SIDE whichSide) throws HyracksDataException {
         RunFileWriter[] runFileWriters = null;
         String refName = null;
@@ -200,7 +484,7 @@ public class OptimizedHybridHashJoin {
         RunFileWriter writer = runFileWriters[pid];
         if (writer == null) {
             FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(refName);
-            writer = new RunFileWriter(file, ctx.getIOManager());
+            writer = new RunFileWriter(file, ctx.getIOManager(), getTaskCounters().compression);
             writer.open();
             runFileWriters[pid] = writer;
         }
@@ -208,6 +492,12 @@ public class OptimizedHybridHashJoin {
     }
 
     public void closeBuild() throws HyracksDataException {
+        if (skewSampleFrames != null) {
+            endSkewSampling();
+        }
+        if (hotKeyHashes != null) {
+            createHotJoiner();
+        }
 
         closeAllSpilledPartitions(SIDE.BUILD);
 
@@ -222,6 +512,8 @@ public class OptimizedHybridHashJoin {
 
         createInMemoryJoiner(inMemTupCount);
         cacheInMemJoin();
+        bloomFilter = buildBloomFilter;
+        buildBloomFilter = null;
     }
 
     /**
@@ -257,7 +549,7 @@ public class OptimizedHybridHashJoin {
 
     private void bringBackSpilledPartitionIfHasMoreMemory() throws HyracksDataException {
         // we need number of |spilledPartitions| buffers to store the probe data
-        int freeSpace = (memForJoin - spilledStatus.cardinality()) * ctx.getInitialFrameSize();
+        int freeSpace = (memForPartitions - spilledStatus.cardinality()) * ctx.getInitialFrameSize();
         for (int p = spilledStatus.nextClearBit(0); p >= 0
                 && p < numOfPartitions; p = spilledStatus.nextClearBit(p + 1)) {
             freeSpace -= bufferManager.getPhysicalSize(p);
@@ -273,7 +565,8 @@ public class OptimizedHybridHashJoin {
     }
 
     private boolean loadPartitionInMem(int pid, RunFileWriter wr) throws HyracksDataException {
-        RunFileReader r = wr.createDeleteOnCloseReader();
+        // the file is kept until the whole partition is in memory, since it stays spilled otherwise
+        RunFileReader r = wr.createReader();
         r.open();
         if (reloadBuffer == null) {
             reloadBuffer = new VSizeFrame(ctx);
@@ -291,6 +584,7 @@ public class OptimizedHybridHashJoin {
         }
 
         r.close();
+        wr.getFileReference().delete();
         spilledStatus.set(pid, false);
         buildRFWriters[pid] = null;
         return true;
@@ -298,8 +592,8 @@ public class OptimizedHybridHashJoin {
 
     private int selectPartitionsToReload(int freeSpace, int pid) {
         for (int i = spilledStatus.nextSetBit(pid); i >= 0; i = spilledStatus.nextSetBit(i + 1)) {
-            assert buildRFWriters[i].getFileSize() > 0 : "How comes a spilled partition have size 0?";
-            if (freeSpace >= buildRFWriters[i].getFileSize()) {
+            assert buildRFWriters[i].getRawSize() > 0 : "How comes a spilled partition have size 0?";
+            if (freeSpace >= buildRFWriters[i].getRawSize()) {
                 return i;
             }
         }
@@ -307,13 +601,29 @@ public class OptimizedHybridHashJoin {
     }
 
     private void createInMemoryJoiner(int inMemTupCount) throws HyracksDataException {
-        ISerializableTable table = new SerializableHashTable(inMemTupCount, ctx);
+        ISerializableTable table = tableType.createTable(inMemTupCount, ctx);
         this.inMemJoiner = new InMemoryHashJoin(ctx, inMemTupCount, new FrameTupleAccessor(probeRd), probeHpc,
                 new FrameTupleAccessor(buildRd), buildHpc,
                 new FrameTuplePairComparator(probeKeys, buildKeys, comparators), isLeftOuter, nullWriters, table,
                 predEvaluator, isReversed);
     }
 
+    private void createHotJoiner() throws HyracksDataException {
+        hotBuildAppender.write(hotBuildFrameCollector, true);
+        hotBuildAppender = null;
+        hotBuildFrameCollector = null;
+        ISerializableTable table = tableType.createTable(hotBuildTupleCount, ctx);
+        hotJoiner = new InMemoryHashJoin(ctx, hotBuildTupleCount, new FrameTupleAccessor(probeRd), probeHpc,
+                new FrameTupleAccessor(buildRd), buildHpc,
+                new FrameTuplePairComparator(probeKeys, buildKeys, comparators), isLeftOuter, nullWriters, table,
+                predEvaluator, isReversed);
+        for (ByteBuffer frame : hotBuildFrames) {
+            hotJoiner.build(frame);
+        }
+        hotBuildFrames = null;
+        hotBuildTuplesCounter.update(hotBuildTupleCount);
+    }
+
     private void cacheInMemJoin() throws HyracksDataException {
 
         for (int pid = 0; pid < numOfPartitions; pid++) {
@@ -354,11 +664,32 @@ public class OptimizedHybridHashJoin {
         accessorProbe.reset(buffer);
         int tupleCount = accessorProbe.getTupleCount();
 
-        if (isBuildRelAllInMemory()) {
+        boolean allInMemory = isBuildRelAllInMemory();
+        if (allInMemory && bloomFilter == null && hotJoiner == null) {
             inMemJoiner.join(buffer, writer);
             return;
         }
+        int eliminatedTuples = 0;
+        int hotProbeTuples = 0;
+        long savedSpillBytes = 0;
         for (int i = 0; i < tupleCount; ++i) {
+            if (hotJoiner != null && isHotKey(probeSkewHpc.partition(accessorProbe, i, Integer.MAX_VALUE))) {
+                hotJoiner.join(accessorProbe, i, writer);
+                hotProbeTuples++;
+                if (!allInMemory && spilledStatus.get(probeHpc.partition(accessorProbe, i, numOfPartitions))) {
+                    savedSpillBytes += accessorProbe.getTupleEndOffset(i) - accessorProbe.getTupleStartOffset(i);
+                }
+                continue;
+            }
+            if (bloomFilter != null
+                    && !bloomFilter.mightContain(probeBloomHpc.partition(accessorProbe, i, Integer.MAX_VALUE))) {
+                eliminatedTuples++;
+                continue;
+            }
+            if (allInMemory) {
+                inMemJoiner.join(accessorProbe, i, writer);
+                continue;
+            }
             int pid = probeHpc.partition(accessorProbe, i, numOfPartitions);
 
             if (buildPSizeInTups[pid] > 0 || isLeftOuter) { //Tuple has potential match from previous phase
@@ -382,7 +713,13 @@ public class OptimizedHybridHashJoin {
                 probePSizeInTups[pid]++;
             }
         }
-
+        if (eliminatedTuples > 0) {
+            bloomFilterEliminatedTuples.update(eliminatedTuples);
+        }
+        if (hotProbeTuples > 0) {
+            hotProbeTuplesCounter.update(hotProbeTuples);
+            savedSpillBytesCounter.update(savedSpillBytes);
+        }
     }
 
     private void flushBigProbeObjectToDisk(int pid, FrameTupleAccessor accessorProbe, int i)
@@ -404,6 +741,11 @@ public class OptimizedHybridHashJoin {
     public void closeProbe(IFrameWriter writer) throws HyracksDataException {
         //We do NOT join the spilled partitions here, that decision is made at the descriptor level (which join technique to use)
         inMemJoiner.closeJoin(writer);
+        if (hotJoiner != null) {
+            hotJoiner.closeJoin(writer);
+            hotJoiner = null;
+            hotKeyHashes = null;
+        }
         closeAllSpilledPartitions(SIDE.PROBE);
         bufferManager = null;
     }
@@ -462,4 +804,51 @@ public class OptimizedHybridHashJoin {
     public void setIsReversed(boolean b) {
         this.isReversed = b;
     }
+
+    /**
+     * Makes the join update the given counters instead of looking them up in the counter context of its task, which
+     * a join running in another thread than its task must not use. Must be called before
+     * {@link #enableBloomFilter(ITuplePartitionComputer, ITuplePartitionComputer)},
+     * {@link #enableSkewHandling(ITuplePartitionComputer, ITuplePartitionComputer)} and {@link #initBuild()}.
+     */
+    public void setTaskCounters(TaskCounters taskCounters) {
+        this.taskCounters = taskCounters;
+    }
+
+    private TaskCounters getTaskCounters() {
+        if (taskCounters == null) {
+            taskCounters = new TaskCounters(ctx);
+        }
+        return taskCounters;
+    }
+
+    /**
+     * Sets the layout of the hash table of the in-memory partitions.
+     */
+    public void setTableType(SerializableTableType tableType) {
+        this.tableType = tableType;
+    }
+
+    /**
+     * The counters of a task that its joins update and the compression of their run files, looked up once on the
+     * thread of the task so that they can be shared by joins running in other threads.
+     */
+    public static class TaskCounters {
+        private final ICounter bloomFilterEliminatedTuples;
+        private final ICounter hotKeys;
+        private final ICounter hotBuildTuples;
+        private final ICounter hotProbeTuples;
+        private final ICounter savedSpillBytes;
+        private final RunFileCompression compression;
+
+        public TaskCounters(IHyracksTaskContext ctx) {
+            ICounterContext counterContext = ctx.getCounterContext();
+            bloomFilterEliminatedTuples = counterContext.getCounter(BLOOM_FILTER_ELIMINATED_TUPLES_COUNTER, true);
+            hotKeys = counterContext.getCounter(SKEW_HOT_KEYS_COUNTER, true);
+            hotBuildTuples = counterContext.getCounter(SKEW_HOT_BUILD_TUPLES_COUNTER, true);
+            hotProbeTuples = counterContext.getCounter(SKEW_HOT_PROBE_TUPLES_COUNTER, true);
+            savedSpillBytes = counterContext.getCounter(SKEW_SAVED_SPILL_BYTES_COUNTER, true);
+            compression = RunFileCompression.create(ctx);
+        }
+    }
 }
@@ -22,11 +22,20 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.ActivityId;
@@ -48,6 +57,8 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
@@ -60,7 +71,7 @@ import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
-import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableTableType;
 import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
 
 /**
@@ -111,6 +122,12 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
     private static final String PROBE_REL = "RelR";
     private static final String BUILD_REL = "RelS";
+    // the seed of the hash functions of the bloom filters, apart from the ones of the partitioning levels
+    private static final int BLOOM_FILTER_HASH_SEED = 1 << 16;
+    private static final int SKEW_HASH_SEED = 1 << 17;
+    // the parallelism that stands for the number of processors of the node the join runs on
+    public static final int AVAILABLE_PROCESSORS_PARALLELISM = 0;
+    public static final int MIN_FRAMES_PER_SPILLED_PARTITION_JOINER = 8;
 
     private final int frameLimit;
     private final int inputsize0;
@@ -126,6 +143,11 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
     private final boolean isLeftOuter;
     private final INullWriterFactory[] nullWriterFactories1;
 
+    private boolean useBloomFilter = true;
+    private boolean useSkewHandling = true;
+    private SerializableTableType tableType = SerializableTableType.CHAINED;
+    private int spilledPartitionParallelism = 1;
+
     //Flags added for test purpose
     private static boolean skipInMemoryHJ = false;
     private static boolean forceNLJ = false;
@@ -212,6 +234,7 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
         private int memForJoin;
         private int numOfPartitions;
         private OptimizedHybridHashJoin hybridHJ;
+        private IMemoryGrant memoryGrant;
 
         public BuildAndPartitionTaskState() {
         }
@@ -276,15 +299,30 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                 @Override
                 public void open() throws HyracksDataException {
-                    if (frameLimit <= 2) { //Dedicated buffers: One buffer to read and one buffer for output
+                    int frames = frameLimit;
+                    IMemoryBroker memoryBroker = ctx.getJobletContext().getMemoryBroker();
+                    if (memoryBroker != null) {
+                        state.memoryGrant = memoryBroker.acquire(getDisplayName(),
+                                Math.min(MIN_FRAMES_PER_SPILLED_PARTITION_JOINER, frameLimit), frameLimit);
+                        frames = state.memoryGrant.getFrames();
+                    }
+                    if (frames <= 2) { //Dedicated buffers: One buffer to read and one buffer for output
                         throw new HyracksDataException("not enough memory for Hybrid Hash Join");
                     }
-                    state.memForJoin = frameLimit - 2;
+                    state.memForJoin = frames - 2;
                     state.numOfPartitions = getNumberOfPartitions(state.memForJoin, inputsize0, fudgeFactor,
                             nPartitions);
                     state.hybridHJ = new OptimizedHybridHashJoin(ctx, state.memForJoin, state.numOfPartitions,
                             PROBE_REL, BUILD_REL, probeKeys, buildKeys, comparators, probeRd, buildRd, probeHpc,
                             buildHpc, predEvaluator, isLeftOuter, nullWriterFactories1);
+                    state.hybridHJ.setTableType(tableType);
+                    if (useBloomFilter) {
+                        state.hybridHJ.enableBloomFilter(createBloomFilterHpc(probeKeys),
+                                createBloomFilterHpc(buildKeys));
+                    }
+                    if (useSkewHandling) {
+                        state.hybridHJ.enableSkewHandling(createSkewHpc(probeKeys), createSkewHpc(buildKeys));
+                    }
 
                     state.hybridHJ.initBuild();
                     if (LOGGER.isLoggable(Level.FINE)) {
@@ -296,6 +334,11 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                 @Override
                 public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
                     state.hybridHJ.build(buffer);
+                    if (state.memoryGrant != null && state.memoryGrant.getRevokedFrames() > 0) {
+                        int released = state.hybridHJ.releaseMemory(state.memoryGrant.getRevokedFrames());
+                        state.memForJoin -= released;
+                        state.memoryGrant.release(released);
+                    }
                 }
 
                 @Override
@@ -303,7 +346,14 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                     state.hybridHJ.closeBuild();
                     if (isFailed){
                         state.hybridHJ.clearBuildTempFiles();
+                        if (state.memoryGrant != null) {
+                            state.memoryGrant.close();
+                        }
                     } else {
+                        if (state.memoryGrant != null) {
+                            // the hash table of the resident partitions keeps its frames until the probe is done
+                            state.memoryGrant.setRevocable(false);
+                        }
                         ctx.setStateObject(state);
                         if (LOGGER.isLoggable(Level.FINE)) {
                             LOGGER.fine("OptimizedHybridHashJoin closed its build phase");
@@ -327,7 +377,8 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
      * joined with the build side residents (through formerly created HybridHashJoin in the build phase)
      * and spilled partitions get written to run files. During the close() call, pairs of spilled partition
      * (build side spilled partition and its corresponding probe side spilled partition) join, by applying
-     * Hybrid Hash Join recursively on them.
+     * Hybrid Hash Join recursively on them. The pairs are independent, so they can be joined by several threads
+     * that split the memory of the join (see setSpilledPartitionParallelism).
      */
     private class ProbeAndJoinActivityNode extends AbstractActivityNode {
 
@@ -347,37 +398,9 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
             final RecordDescriptor buildRd = recordDescProvider.getInputRecordDescriptor(buildAid, 0);
             final RecordDescriptor probeRd = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
-            final IBinaryComparator[] comparators = new IBinaryComparator[comparatorFactories.length];
-            final ITuplePairComparator nljComparatorProbe2Build = tuplePairComparatorFactoryProbe2Build
-                    .createTuplePairComparator(ctx);
-            final ITuplePairComparator nljComparatorBuild2Probe = tuplePairComparatorFactoryBuild2Probe
-                    .createTuplePairComparator(ctx);
-            final IPredicateEvaluator predEvaluator = (predEvaluatorFactory == null ? null : predEvaluatorFactory
-                    .createPredicateEvaluator());
-
-            for (int i = 0; i < comparatorFactories.length; i++) {
-                comparators[i] = comparatorFactories[i].createBinaryComparator();
-            }
-
-            final INullWriter[] nullWriters1 = isLeftOuter ? new INullWriter[nullWriterFactories1.length] : null;
-            final ArrayTupleBuilder nullTupleBuild = isLeftOuter ?
-                    new ArrayTupleBuilder(buildRd.getFieldCount()) :
-                    null;
-            if (isLeftOuter) {
-                DataOutput out = nullTupleBuild.getDataOutput();
-                for (int i = 0; i < nullWriterFactories1.length; i++) {
-                    nullWriters1[i] = nullWriterFactories1[i].createNullWriter();
-                    nullWriters1[i].writeNull(out);
-                    nullTupleBuild.addFieldEndOffset();
-                }
-            }
 
             IOperatorNodePushable op = new AbstractUnaryInputUnaryOutputOperatorNodePushable() {
                 private BuildAndPartitionTaskState state;
-                private IFrame rPartbuff = new VSizeFrame(ctx);
-
-                private FrameTupleAppender nullResultAppender = null;
-                private FrameTupleAccessor probeTupleAccessor;
 
                 @Override
                 public void open() throws HyracksDataException {
@@ -408,314 +431,522 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                         state.hybridHJ.closeProbe(writer);
 
                         BitSet partitionStatus = state.hybridHJ.getPartitionStatus();
-
-                        rPartbuff.reset();
-                        for (int pid = partitionStatus.nextSetBit(0); pid >= 0; pid = partitionStatus.nextSetBit(pid + 1)) {
-
-                            RunFileReader bReader = state.hybridHJ.getBuildRFReader(pid);
-                            RunFileReader pReader = state.hybridHJ.getProbeRFReader(pid);
-
-                            if (bReader == null || pReader == null) {
-                                if (isLeftOuter && pReader != null) {
-                                    appendNullToProbeTuples(pReader);
-                                }
-                                continue;
+                        int frames = state.memForJoin + 2;
+                        if (state.memoryGrant != null && !partitionStatus.isEmpty()) {
+                            // the spilled partitions get back the frames the build could not have, if the other
+                            // operators released them since
+                            state.memoryGrant.grow(frameLimit - state.memoryGrant.getFrames());
+                            frames = state.memoryGrant.getFrames();
+                        }
+                        int numWorkers = getNumberOfSpilledPartitionJoiners(frames, partitionStatus.cardinality());
+                        if (numWorkers <= 1) {
+                            SpilledPartitionJoiner joiner = new SpilledPartitionJoiner(ctx, nPartitions, buildRd,
+                                    probeRd, frames - 2, writer);
+                            for (int pid = partitionStatus.nextSetBit(0); pid >= 0; pid = partitionStatus
+                                    .nextSetBit(pid + 1)) {
+                                joiner.joinSpilledPartition(state.hybridHJ, pid);
                             }
-                            int bSize = state.hybridHJ.getBuildPartitionSizeInTup(pid);
-                            int pSize = state.hybridHJ.getProbePartitionSizeInTup(pid);
-                            joinPartitionPair(bReader, pReader, bSize, pSize, 1);
+                        } else {
+                            joinSpilledPartitionsInParallel(numWorkers, frames);
                         }
                     } finally {
-                        writer.close();
+                        try {
+                            writer.close();
+                        } finally {
+                            if (state.memoryGrant != null) {
+                                state.memoryGrant.close();
+                            }
+                        }
                     }
                     if (LOGGER.isLoggable(Level.FINE)) {
                         LOGGER.fine("OptimizedHybridHashJoin closed its probe phase");
                     }
                 }
 
-                //The buildSideReader should be always the original buildSideReader, so should the probeSideReader
-                private void joinPartitionPair(RunFileReader buildSideReader, RunFileReader probeSideReader,
-                        int buildSizeInTuple, int probeSizeInTuple, int level)
-                        throws HyracksDataException {
-                    ITuplePartitionComputer probeHpc = new FieldHashPartitionComputerFamily(probeKeys,
-                            hashFunctionGeneratorFactories).createPartitioner(level);
-                    ITuplePartitionComputer buildHpc = new FieldHashPartitionComputerFamily(buildKeys,
-                            hashFunctionGeneratorFactories).createPartitioner(level);
-
-                    long buildPartSize = buildSideReader.getFileSize() / ctx.getInitialFrameSize();
-                    long probePartSize = probeSideReader.getFileSize() / ctx.getInitialFrameSize();
-                    int beforeMax = Math.max(buildSizeInTuple, probeSizeInTuple);
-
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        LOGGER.fine(
-                                "\n>>>Joining Partition Pairs (thread_id " + Thread.currentThread().getId() + ") (pid "
-                                        + ") - (level " + level + ")"
-                                        + " - BuildSize:\t" + buildPartSize + "\tProbeSize:\t" + probePartSize
-                                        + " - MemForJoin "
-                                        + (state.memForJoin)
-                                        + "  - LeftOuter is " + isLeftOuter);
+                /**
+                 * Joins the spilled partition pairs with threads that each take an equal share of the frames of the
+                 * join and push their full output frames to the writer one at a time. The largest pairs are taken
+                 * first, so that a large pair does not start last.
+                 */
+                private void joinSpilledPartitionsInParallel(int numWorkers, int frames) throws HyracksDataException {
+                    final OptimizedHybridHashJoin hybridHJ = state.hybridHJ;
+                    BitSet partitionStatus = hybridHJ.getPartitionStatus();
+                    List<Integer> pids = new ArrayList<>(partitionStatus.cardinality());
+                    for (int pid = partitionStatus.nextSetBit(0); pid >= 0; pid = partitionStatus.nextSetBit(pid + 1)) {
+                        pids.add(pid);
                     }
-
-                    //Apply in-Mem HJ if possible
-                    if (!skipInMemoryHJ && ((buildPartSize < state.memForJoin)
-                            || (probePartSize < state.memForJoin && !isLeftOuter))) {
-                        int tabSize = -1;
-                        if (!forceRR && (isLeftOuter || (buildPartSize
-                                < probePartSize))) { //Case 1.1 - InMemHJ (wout Role-Reversal)
-                            if (LOGGER.isLoggable(Level.FINE)) {
-                                LOGGER.fine("\t>>>Case 1.1 (IsLeftOuter || buildSize<probe) AND ApplyInMemHJ - [Level "
-                                        + level + "]");
+                    Collections.sort(pids, (pid0, pid1) -> Long.compare(getPairSizeInTup(hybridHJ, pid1),
+                            getPairSizeInTup(hybridHJ, pid0)));
+
+                    // each thread needs a frame to read the runs and a frame for its output
+                    int memForWorker = frames / numWorkers - 2;
+                    SynchronizedFrameWriter outputWriter = new SynchronizedFrameWriter(writer);
+                    AtomicInteger nextPid = new AtomicInteger();
+                    List<Callable<Void>> callables = new ArrayList<>(numWorkers);
+                    for (int i = 0; i < numWorkers; ++i) {
+                        SpilledPartitionJoiner joiner = new SpilledPartitionJoiner(ctx, nPartitions, buildRd,
+                                probeRd, memForWorker, outputWriter);
+                        callables.add(() -> {
+                            for (int next = nextPid.getAndIncrement(); next < pids.size(); next = nextPid
+                                    .getAndIncrement()) {
+                                joiner.joinSpilledPartition(hybridHJ, pids.get(next));
                             }
-                            tabSize = buildSizeInTuple;
-                            if (tabSize == 0) {
-                                throw new HyracksDataException(
-                                        "Trying to join an empty partition. Invalid table size for inMemoryHashJoin.");
-                            }
-                            //Build Side is smaller
-                            applyInMemHashJoin(buildKeys, probeKeys, tabSize, buildRd, probeRd, buildHpc,
-                                    probeHpc, buildSideReader, probeSideReader); // checked-confirmed
-                        } else { //Case 1.2 - InMemHJ with Role Reversal
-                            if (LOGGER.isLoggable(Level.FINE)) {
-                                LOGGER.fine(
-                                        "\t>>>Case 1.2. (NoIsLeftOuter || probe<build) AND ApplyInMemHJ WITH RoleReversal - [Level "
-                                                + level + "]");
-                            }
-                            tabSize = probeSizeInTuple;
-                            if (tabSize == 0) {
-                                throw new HyracksDataException(
-                                        "Trying to join an empty partition. Invalid table size for inMemoryHashJoin.");
-                            }
-                            //Probe Side is smaller
-                            applyInMemHashJoin(probeKeys, buildKeys, tabSize, probeRd, buildRd, probeHpc,
-                                    buildHpc, probeSideReader, buildSideReader); // checked-confirmed
-                        }
+                            return null;
+                        });
                     }
-                    //Apply (Recursive) HHJ
-                    else {
-                        if (LOGGER.isLoggable(Level.FINE)) {
-                            LOGGER.fine("\t>>>Case 2. ApplyRecursiveHHJ - [Level " + level + "]");
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine("OptimizedHybridHashJoin is joining " + pids.size() + " spilled partitions with "
+                                + numWorkers + " threads using " + memForWorker + " frames each.");
+                    }
+                    ForkJoinPool pool = new ForkJoinPool(numWorkers);
+                    try {
+                        for (Future<Void> future : pool.invokeAll(callables)) {
+                            future.get();
                         }
-                        if (!forceRR && (isLeftOuter
-                                || buildPartSize < probePartSize)) { //Case 2.1 - Recursive HHJ (wout Role-Reversal)
-                            if (LOGGER.isLoggable(Level.FINE)) {
-                                LOGGER.fine("\t\t>>>Case 2.1 - RecursiveHHJ WITH (isLeftOuter || build<probe) - [Level "
-                                        + level + "]");
-                            }
-                            applyHybridHashJoin((int) buildPartSize, PROBE_REL, BUILD_REL, probeKeys, buildKeys,
-                                    probeRd, buildRd, probeHpc, buildHpc, probeSideReader, buildSideReader, level,
-                                    beforeMax);
-
-                        } else { //Case 2.2 - Recursive HHJ (with Role-Reversal)
-                            if (LOGGER.isLoggable(Level.FINE)) {
-                                LOGGER.fine(
-                                        "\t\t>>>Case 2.2. - RecursiveHHJ WITH RoleReversal - [Level " + level + "]");
-                            }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new HyracksDataException(e);
+                    } catch (ExecutionException e) {
+                        throw e.getCause() instanceof HyracksDataException ? (HyracksDataException) e.getCause()
+                                : new HyracksDataException(e.getCause());
+                    } finally {
+                        pool.shutdown();
+                    }
+                }
+            };
+            return op;
+        }
+    }
 
-                            applyHybridHashJoin((int) probePartSize, BUILD_REL, PROBE_REL, buildKeys, probeKeys,
-                                    buildRd, probeRd, buildHpc, probeHpc, buildSideReader, probeSideReader, level,
-                                    beforeMax);
+    /**
+     * Returns how many threads join the spilled partition pairs: at most the configured parallelism and the number
+     * of pairs, and few enough for each thread to get {@link #MIN_FRAMES_PER_SPILLED_PARTITION_JOINER} frames.
+     */
+    private int getNumberOfSpilledPartitionJoiners(int frames, int numSpilledPartitions) {
+        int parallelism = spilledPartitionParallelism > 0 ? spilledPartitionParallelism
+                : Runtime.getRuntime().availableProcessors();
+        return Math.min(Math.min(parallelism, numSpilledPartitions),
+                frames / MIN_FRAMES_PER_SPILLED_PARTITION_JOINER);
+    }
 
-                        }
-                    }
+    private static long getPairSizeInTup(OptimizedHybridHashJoin hybridHJ, int pid) {
+        return (long) hybridHJ.getBuildPartitionSizeInTup(pid) + hybridHJ.getProbePartitionSizeInTup(pid);
+    }
+
+    /**
+     * Joins spilled partition pairs within a given memory, applying Hybrid Hash Join recursively on them. It has its
+     * own comparators, predicate evaluator and frames, so that several joiners can run in different threads.
+     */
+    private class SpilledPartitionJoiner {
+        private final IHyracksTaskContext ctx;
+        private final int nPartitions;
+        private final RecordDescriptor buildRd;
+        private final RecordDescriptor probeRd;
+        private final int memForJoin;
+        private final IFrameWriter writer;
+
+        private final IBinaryComparator[] comparators;
+        private final ITuplePairComparator nljComparatorProbe2Build;
+        private final ITuplePairComparator nljComparatorBuild2Probe;
+        private final IPredicateEvaluator predEvaluator;
+        private final INullWriter[] nullWriters1;
+        private final ArrayTupleBuilder nullTupleBuild;
+
+        private final OptimizedHybridHashJoin.TaskCounters taskCounters;
+
+        private final IFrame rPartbuff;
+        private FrameTupleAppender nullResultAppender = null;
+        private FrameTupleAccessor probeTupleAccessor;
+
+        SpilledPartitionJoiner(IHyracksTaskContext ctx, int nPartitions, RecordDescriptor buildRd,
+                RecordDescriptor probeRd, int memForJoin, IFrameWriter writer) throws HyracksDataException {
+            this.ctx = ctx;
+            this.nPartitions = nPartitions;
+            this.buildRd = buildRd;
+            this.probeRd = probeRd;
+            this.memForJoin = memForJoin;
+            this.writer = writer;
+
+            comparators = new IBinaryComparator[comparatorFactories.length];
+            for (int i = 0; i < comparatorFactories.length; i++) {
+                comparators[i] = comparatorFactories[i].createBinaryComparator();
+            }
+            nljComparatorProbe2Build = tuplePairComparatorFactoryProbe2Build.createTuplePairComparator(ctx);
+            nljComparatorBuild2Probe = tuplePairComparatorFactoryBuild2Probe.createTuplePairComparator(ctx);
+            predEvaluator = (predEvaluatorFactory == null ? null : predEvaluatorFactory.createPredicateEvaluator());
+
+            nullWriters1 = isLeftOuter ? new INullWriter[nullWriterFactories1.length] : null;
+            nullTupleBuild = isLeftOuter ? new ArrayTupleBuilder(buildRd.getFieldCount()) : null;
+            if (isLeftOuter) {
+                DataOutput out = nullTupleBuild.getDataOutput();
+                for (int i = 0; i < nullWriterFactories1.length; i++) {
+                    nullWriters1[i] = nullWriterFactories1[i].createNullWriter();
+                    nullWriters1[i].writeNull(out);
+                    nullTupleBuild.addFieldEndOffset();
                 }
+            }
+            // the joiner is created on the thread of the task, but may join in another thread
+            taskCounters = new OptimizedHybridHashJoin.TaskCounters(ctx);
+            rPartbuff = new VSizeFrame(ctx);
+        }
 
-                private void applyHybridHashJoin(int tableSize,
-                        final String PROBE_REL, final String BUILD_REL,
-                        final int[] probeKeys, final int[] buildKeys,
-                        final RecordDescriptor probeRd, final RecordDescriptor buildRd,
-                        final ITuplePartitionComputer probeHpc, final ITuplePartitionComputer buildHpc,
-                        RunFileReader probeSideReader, RunFileReader buildSideReader,
-                        final int level, final long beforeMax)
-                        throws HyracksDataException {
+        void joinSpilledPartition(OptimizedHybridHashJoin hybridHJ, int pid) throws HyracksDataException {
+            RunFileReader bReader = hybridHJ.getBuildRFReader(pid);
+            RunFileReader pReader = hybridHJ.getProbeRFReader(pid);
 
-                    boolean isReversed = probeKeys == OptimizedHybridHashJoinOperatorDescriptor.this.buildKeys
-                            && buildKeys == OptimizedHybridHashJoinOperatorDescriptor.this.probeKeys;
+            if (bReader == null || pReader == null) {
+                if (isLeftOuter && pReader != null) {
+                    appendNullToProbeTuples(pReader);
+                }
+                return;
+            }
+            int bSize = hybridHJ.getBuildPartitionSizeInTup(pid);
+            int pSize = hybridHJ.getProbePartitionSizeInTup(pid);
+            joinPartitionPair(bReader, pReader, bSize, pSize, 1);
+        }
 
-                    assert isLeftOuter ? !isReversed : true : "LeftOut Join can not reverse roles";
+        //The buildSideReader should be always the original buildSideReader, so should the probeSideReader
+        private void joinPartitionPair(RunFileReader buildSideReader, RunFileReader probeSideReader,
+                int buildSizeInTuple, int probeSizeInTuple, int level)
+                throws HyracksDataException {
+            ITuplePartitionComputer probeHpc = new FieldHashPartitionComputerFamily(probeKeys,
+                    hashFunctionGeneratorFactories).createPartitioner(level);
+            ITuplePartitionComputer buildHpc = new FieldHashPartitionComputerFamily(buildKeys,
+                    hashFunctionGeneratorFactories).createPartitioner(level);
+
+            long buildPartSize = buildSideReader.getRawSize() / ctx.getInitialFrameSize();
+            long probePartSize = probeSideReader.getRawSize() / ctx.getInitialFrameSize();
+            int beforeMax = Math.max(buildSizeInTuple, probeSizeInTuple);
+
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(
+                        "\n>>>Joining Partition Pairs (thread_id " + Thread.currentThread().getId() + ") (pid "
+                                + ") - (level " + level + ")"
+                                + " - BuildSize:\t" + buildPartSize + "\tProbeSize:\t" + probePartSize
+                                + " - MemForJoin "
+                                + (memForJoin)
+                                + "  - LeftOuter is " + isLeftOuter);
+            }
 
-                    OptimizedHybridHashJoin rHHj;
-                    int n = getNumberOfPartitions(state.memForJoin, tableSize, fudgeFactor,
-                            nPartitions);
-                    rHHj = new OptimizedHybridHashJoin(ctx, state.memForJoin, n, PROBE_REL, BUILD_REL,
-                            probeKeys, buildKeys, comparators, probeRd, buildRd, probeHpc, buildHpc,
-                            predEvaluator, isLeftOuter, nullWriterFactories1); //checked-confirmed
-
-                    rHHj.setIsReversed(isReversed);
-                    buildSideReader.open();
-                    rHHj.initBuild();
-                    rPartbuff.reset();
-                    while (buildSideReader.nextFrame(rPartbuff)) {
-                        rHHj.build(rPartbuff.getBuffer());
+            //Apply in-Mem HJ if possible
+            if (!skipInMemoryHJ && ((buildPartSize < memForJoin)
+                    || (probePartSize < memForJoin && !isLeftOuter))) {
+                int tabSize = -1;
+                if (!forceRR && (isLeftOuter || (buildPartSize
+                        < probePartSize))) { //Case 1.1 - InMemHJ (wout Role-Reversal)
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine("\t>>>Case 1.1 (IsLeftOuter || buildSize<probe) AND ApplyInMemHJ - [Level "
+                                + level + "]");
+                    }
+                    tabSize = buildSizeInTuple;
+                    if (tabSize == 0) {
+                        throw new HyracksDataException(
+                                "Trying to join an empty partition. Invalid table size for inMemoryHashJoin.");
+                    }
+                    //Build Side is smaller
+                    applyInMemHashJoin(buildKeys, probeKeys, tabSize, buildRd, probeRd, buildHpc,
+                            probeHpc, buildSideReader, probeSideReader); // checked-confirmed
+                } else { //Case 1.2 - InMemHJ with Role Reversal
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine(
+                                "\t>>>Case 1.2. (NoIsLeftOuter || probe<build) AND ApplyInMemHJ WITH RoleReversal - [Level "
+                                        + level + "]");
+                    }
+                    tabSize = probeSizeInTuple;
+                    if (tabSize == 0) {
+                        throw new HyracksDataException(
+                                "Trying to join an empty partition. Invalid table size for inMemoryHashJoin.");
                     }
-                    rHHj.closeBuild();
-                    buildSideReader.close();
-
-                    probeSideReader.open();
-                    rHHj.initProbe();
-                    rPartbuff.reset();
-                    while (probeSideReader.nextFrame(rPartbuff)) {
-                        rHHj.probe(rPartbuff.getBuffer(), writer);
+                    //Probe Side is smaller
+                    applyInMemHashJoin(probeKeys, buildKeys, tabSize, probeRd, buildRd, probeHpc,
+                            buildHpc, probeSideReader, buildSideReader); // checked-confirmed
+                }
+            }
+            //Apply (Recursive) HHJ
+            else {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("\t>>>Case 2. ApplyRecursiveHHJ - [Level " + level + "]");
+                }
+                if (!forceRR && (isLeftOuter
+                        || buildPartSize < probePartSize)) { //Case 2.1 - Recursive HHJ (wout Role-Reversal)
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine("\t\t>>>Case 2.1 - RecursiveHHJ WITH (isLeftOuter || build<probe) - [Level "
+                                + level + "]");
                     }
-                    rHHj.closeProbe(writer);
-                    probeSideReader.close();
+                    applyHybridHashJoin((int) buildPartSize, PROBE_REL, BUILD_REL, probeKeys, buildKeys,
+                            probeRd, buildRd, probeHpc, buildHpc, probeSideReader, buildSideReader, level,
+                            beforeMax);
 
-                    int maxAfterBuildSize = rHHj.getMaxBuildPartitionSize();
-                    int maxAfterProbeSize = rHHj.getMaxProbePartitionSize();
-                    int afterMax = Math.max(maxAfterBuildSize, maxAfterProbeSize);
+                } else { //Case 2.2 - Recursive HHJ (with Role-Reversal)
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine(
+                                "\t\t>>>Case 2.2. - RecursiveHHJ WITH RoleReversal - [Level " + level + "]");
+                    }
 
-                    BitSet rPStatus = rHHj.getPartitionStatus();
-                    if (!forceNLJ && (afterMax < (NLJ_SWITCH_THRESHOLD
-                            * beforeMax))) { //Case 2.1.1 - Keep applying HHJ
-                        if (LOGGER.isLoggable(Level.FINE)) {
-                            LOGGER.fine(
-                                    "\t\t>>>Case 2.1.1 - KEEP APPLYING RecursiveHHJ WITH (isLeftOuter || build<probe) - [Level "
-                                            + level + "]");
-                        }
-                        for (int rPid = rPStatus.nextSetBit(0); rPid >= 0; rPid = rPStatus.nextSetBit(rPid + 1)) {
-                            RunFileReader rbrfw = rHHj.getBuildRFReader(rPid);
-                            RunFileReader rprfw = rHHj.getProbeRFReader(rPid);
-                            int rbSizeInTuple = rHHj.getBuildPartitionSizeInTup(rPid);
-                            int rpSizeInTuple = rHHj.getProbePartitionSizeInTup(rPid);
-
-                            if (rbrfw == null || rprfw == null) {
-                                if (isLeftOuter && rprfw != null) { // if outer join, we don't reverse
-                                    appendNullToProbeTuples(rprfw);
-                                }
-                                continue;
-                            }
+                    applyHybridHashJoin((int) probePartSize, BUILD_REL, PROBE_REL, buildKeys, probeKeys,
+                            buildRd, probeRd, buildHpc, probeHpc, buildSideReader, probeSideReader, level,
+                            beforeMax);
 
-                            if (isReversed) {
-                                joinPartitionPair(rprfw, rbrfw, rpSizeInTuple, rbSizeInTuple, level + 1);
-                            } else {
-                                joinPartitionPair(rbrfw, rprfw, rbSizeInTuple, rpSizeInTuple, level + 1);
-                            }
-                        }
+                }
+            }
+        }
 
-                    } else { //Case 2.1.2 - Switch to NLJ
-                        if (LOGGER.isLoggable(Level.FINE)) {
-                            LOGGER.fine(
-                                    "\t\t>>>Case 2.1.2 - SWITCHED to NLJ RecursiveHHJ WITH (isLeftOuter || build<probe) - [Level "
-                                            + level + "]");
+        private void applyHybridHashJoin(int tableSize,
+                final String PROBE_REL, final String BUILD_REL,
+                final int[] probeKeys, final int[] buildKeys,
+                final RecordDescriptor probeRd, final RecordDescriptor buildRd,
+                final ITuplePartitionComputer probeHpc, final ITuplePartitionComputer buildHpc,
+                RunFileReader probeSideReader, RunFileReader buildSideReader,
+                final int level, final long beforeMax)
+                throws HyracksDataException {
+
+            boolean isReversed = probeKeys == OptimizedHybridHashJoinOperatorDescriptor.this.buildKeys
+                    && buildKeys == OptimizedHybridHashJoinOperatorDescriptor.this.probeKeys;
+
+            assert isLeftOuter ? !isReversed : true : "LeftOut Join can not reverse roles";
+
+            OptimizedHybridHashJoin rHHj;
+            int n = getNumberOfPartitions(memForJoin, tableSize, fudgeFactor,
+                    nPartitions);
+            rHHj = new OptimizedHybridHashJoin(ctx, memForJoin, n, PROBE_REL, BUILD_REL,
+                    probeKeys, buildKeys, comparators, probeRd, buildRd, probeHpc, buildHpc,
+                    predEvaluator, isLeftOuter, nullWriterFactories1); //checked-confirmed
+
+            rHHj.setIsReversed(isReversed);
+            rHHj.setTableType(tableType);
+            rHHj.setTaskCounters(taskCounters);
+            if (useBloomFilter) {
+                rHHj.enableBloomFilter(createBloomFilterHpc(probeKeys), createBloomFilterHpc(buildKeys));
+            }
+            if (useSkewHandling) {
+                rHHj.enableSkewHandling(createSkewHpc(probeKeys), createSkewHpc(buildKeys));
+            }
+            buildSideReader.open();
+            rHHj.initBuild();
+            rPartbuff.reset();
+            while (buildSideReader.nextFrame(rPartbuff)) {
+                rHHj.build(rPartbuff.getBuffer());
+            }
+            rHHj.closeBuild();
+            buildSideReader.close();
+
+            probeSideReader.open();
+            rHHj.initProbe();
+            rPartbuff.reset();
+            while (probeSideReader.nextFrame(rPartbuff)) {
+                rHHj.probe(rPartbuff.getBuffer(), writer);
+            }
+            rHHj.closeProbe(writer);
+            probeSideReader.close();
+
+            int maxAfterBuildSize = rHHj.getMaxBuildPartitionSize();
+            int maxAfterProbeSize = rHHj.getMaxProbePartitionSize();
+            int afterMax = Math.max(maxAfterBuildSize, maxAfterProbeSize);
+
+            BitSet rPStatus = rHHj.getPartitionStatus();
+            if (!forceNLJ && (afterMax < (NLJ_SWITCH_THRESHOLD
+                    * beforeMax))) { //Case 2.1.1 - Keep applying HHJ
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine(
+                            "\t\t>>>Case 2.1.1 - KEEP APPLYING RecursiveHHJ WITH (isLeftOuter || build<probe) - [Level "
+                                    + level + "]");
+                }
+                for (int rPid = rPStatus.nextSetBit(0); rPid >= 0; rPid = rPStatus.nextSetBit(rPid + 1)) {
+                    RunFileReader rbrfw = rHHj.getBuildRFReader(rPid);
+                    RunFileReader rprfw = rHHj.getProbeRFReader(rPid);
+                    int rbSizeInTuple = rHHj.getBuildPartitionSizeInTup(rPid);
+                    int rpSizeInTuple = rHHj.getProbePartitionSizeInTup(rPid);
+
+                    if (rbrfw == null || rprfw == null) {
+                        if (isLeftOuter && rprfw != null) { // if outer join, we don't reverse
+                            appendNullToProbeTuples(rprfw);
                         }
-                        for (int rPid = rPStatus.nextSetBit(0); rPid >= 0; rPid = rPStatus.nextSetBit(rPid + 1)) {
-                            RunFileReader rbrfw = rHHj.getBuildRFReader(rPid);
-                            RunFileReader rprfw = rHHj.getProbeRFReader(rPid);
-
-                            if (rbrfw == null || rprfw == null) {
-                                if (isLeftOuter && rprfw != null) { // if outer join, we don't reverse
-                                    appendNullToProbeTuples(rprfw);
-                                }
-                                continue;
-                            }
+                        continue;
+                    }
 
-                            int buildSideInTups = rHHj.getBuildPartitionSizeInTup(rPid);
-                            int probeSideInTups = rHHj.getProbePartitionSizeInTup(rPid);
-                            // NLJ order is outer + inner, the order is reversed from the other joins
-                            if (isLeftOuter || probeSideInTups < buildSideInTups) {
-                                applyNestedLoopJoin(probeRd, buildRd, frameLimit, rprfw, rbrfw); //checked-modified
-                            } else {
-                                applyNestedLoopJoin(buildRd, probeRd, frameLimit, rbrfw, rprfw); //checked-modified
-                            }
-                        }
+                    if (isReversed) {
+                        joinPartitionPair(rprfw, rbrfw, rpSizeInTuple, rbSizeInTuple, level + 1);
+                    } else {
+                        joinPartitionPair(rbrfw, rprfw, rbSizeInTuple, rpSizeInTuple, level + 1);
                     }
                 }
 
-                private void appendNullToProbeTuples(RunFileReader probReader) throws HyracksDataException {
-                    if (nullResultAppender == null) {
-                        nullResultAppender = new FrameTupleAppender(new VSizeFrame(ctx));
-                    }
-                    if (probeTupleAccessor == null) {
-                        probeTupleAccessor = new FrameTupleAccessor(probeRd);
-                    }
-                    probReader.open();
-                    while (probReader.nextFrame(rPartbuff)) {
-                        probeTupleAccessor.reset(rPartbuff.getBuffer());
-                        for (int tid = 0; tid < probeTupleAccessor.getTupleCount(); tid++) {
-                            FrameUtils.appendConcatToWriter(writer, nullResultAppender, probeTupleAccessor, tid,
-                                    nullTupleBuild.getFieldEndOffsets(), nullTupleBuild.getByteArray(), 0,
-                                    nullTupleBuild.getSize());
+            } else { //Case 2.1.2 - Switch to NLJ
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine(
+                            "\t\t>>>Case 2.1.2 - SWITCHED to NLJ RecursiveHHJ WITH (isLeftOuter || build<probe) - [Level "
+                                    + level + "]");
+                }
+                for (int rPid = rPStatus.nextSetBit(0); rPid >= 0; rPid = rPStatus.nextSetBit(rPid + 1)) {
+                    RunFileReader rbrfw = rHHj.getBuildRFReader(rPid);
+                    RunFileReader rprfw = rHHj.getProbeRFReader(rPid);
+
+                    if (rbrfw == null || rprfw == null) {
+                        if (isLeftOuter && rprfw != null) { // if outer join, we don't reverse
+                            appendNullToProbeTuples(rprfw);
                         }
+                        continue;
                     }
-                    probReader.close();
-                    nullResultAppender.write(writer, true);
-                }
 
-                private void applyInMemHashJoin(int[] bKeys, int[] pKeys, int tabSize, RecordDescriptor buildRDesc,
-                        RecordDescriptor probeRDesc, ITuplePartitionComputer hpcRepBuild,
-                        ITuplePartitionComputer hpcRepProbe, RunFileReader bReader, RunFileReader pReader)
-                        throws HyracksDataException {
-                    boolean isReversed = pKeys == OptimizedHybridHashJoinOperatorDescriptor.this.buildKeys
-                            && bKeys == OptimizedHybridHashJoinOperatorDescriptor.this.probeKeys;
-
-                    assert isLeftOuter ? !isReversed : true : "LeftOut Join can not reverse roles";
-
-                    ISerializableTable table = new SerializableHashTable(tabSize, ctx);
-                    InMemoryHashJoin joiner = new InMemoryHashJoin(ctx, tabSize, new FrameTupleAccessor(probeRDesc),
-                            hpcRepProbe, new FrameTupleAccessor(buildRDesc), hpcRepBuild,
-                            new FrameTuplePairComparator(pKeys, bKeys, comparators), isLeftOuter, nullWriters1, table,
-                            predEvaluator, isReversed);
-
-                    bReader.open();
-                    rPartbuff.reset();
-                    while (bReader.nextFrame(rPartbuff)) {
-                        //We need to allocate a copyBuffer, because this buffer gets added to the buffers list in the InMemoryHashJoin
-                        ByteBuffer copyBuffer = ctx.allocateFrame(rPartbuff.getFrameSize());
-                        FrameUtils.copyAndFlip(rPartbuff.getBuffer(), copyBuffer);
-                        joiner.build(copyBuffer);
-                        rPartbuff.reset();
+                    int buildSideInTups = rHHj.getBuildPartitionSizeInTup(rPid);
+                    int probeSideInTups = rHHj.getProbePartitionSizeInTup(rPid);
+                    if (isReversed) { // the build side of rHHj holds the probe tuples, and the other way around
+                        RunFileReader reader = rbrfw;
+                        rbrfw = rprfw;
+                        rprfw = reader;
+                        int sizeInTups = buildSideInTups;
+                        buildSideInTups = probeSideInTups;
+                        probeSideInTups = sizeInTups;
                     }
-                    bReader.close();
-                    rPartbuff.reset();
-                    //probe
-                    pReader.open();
-                    while (pReader.nextFrame(rPartbuff)) {
-                        joiner.join(rPartbuff.getBuffer(), writer);
-                        rPartbuff.reset();
+                    // NLJ order is outer + inner, the order is reversed from the other joins
+                    // (the nested loop join takes the frames for its input and output on top of the memory for join)
+                    if (isLeftOuter || probeSideInTups < buildSideInTups) {
+                        applyNestedLoopJoin(probeRd, buildRd, memForJoin + 2, rprfw, rbrfw, false); //checked-modified
+                    } else {
+                        applyNestedLoopJoin(buildRd, probeRd, memForJoin + 2, rbrfw, rprfw, true); //checked-modified
                     }
-                    pReader.close();
-                    joiner.closeJoin(writer);
                 }
+            }
+        }
 
-                private void applyNestedLoopJoin(RecordDescriptor outerRd, RecordDescriptor innerRd, int memorySize,
-                        RunFileReader outerReader, RunFileReader innerReader)
-                        throws HyracksDataException {
-                    // The nested loop join result is outer + inner. All the other operator is probe + build. Hence the reverse relation is different
-                    boolean isReversed = outerRd == buildRd && innerRd == probeRd;
-                    assert isLeftOuter ? !isReversed : true : "LeftOut Join can not reverse roles";
-                    ITuplePairComparator nljComptorOuterInner = isReversed ?
-                            nljComparatorBuild2Probe :
-                            nljComparatorProbe2Build;
-                    NestedLoopJoin nlj = new NestedLoopJoin(ctx,
-                            new FrameTupleAccessor(outerRd),
-                            new FrameTupleAccessor(innerRd), nljComptorOuterInner, memorySize,
-                            predEvaluator, isLeftOuter, nullWriters1);
-                    nlj.setIsReversed(isReversed);
-
-                    IFrame cacheBuff = new VSizeFrame(ctx);
-                    innerReader.open();
-                    while (innerReader.nextFrame(cacheBuff)) {
-                        nlj.cache(cacheBuff.getBuffer());
-                        cacheBuff.reset();
-                    }
-                    nlj.closeCache();
+        private void appendNullToProbeTuples(RunFileReader probReader) throws HyracksDataException {
+            if (nullResultAppender == null) {
+                nullResultAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+            }
+            if (probeTupleAccessor == null) {
+                probeTupleAccessor = new FrameTupleAccessor(probeRd);
+            }
+            probReader.open();
+            while (probReader.nextFrame(rPartbuff)) {
+                probeTupleAccessor.reset(rPartbuff.getBuffer());
+                for (int tid = 0; tid < probeTupleAccessor.getTupleCount(); tid++) {
+                    FrameUtils.appendConcatToWriter(writer, nullResultAppender, probeTupleAccessor, tid,
+                            nullTupleBuild.getFieldEndOffsets(), nullTupleBuild.getByteArray(), 0,
+                            nullTupleBuild.getSize());
+                }
+            }
+            probReader.close();
+            nullResultAppender.write(writer, true);
+        }
 
-                    IFrame joinBuff = new VSizeFrame(ctx);
-                    outerReader.open();
+        private void applyInMemHashJoin(int[] bKeys, int[] pKeys, int tabSize, RecordDescriptor buildRDesc,
+                RecordDescriptor probeRDesc, ITuplePartitionComputer hpcRepBuild,
+                ITuplePartitionComputer hpcRepProbe, RunFileReader bReader, RunFileReader pReader)
+                throws HyracksDataException {
+            boolean isReversed = pKeys == OptimizedHybridHashJoinOperatorDescriptor.this.buildKeys
+                    && bKeys == OptimizedHybridHashJoinOperatorDescriptor.this.probeKeys;
+
+            assert isLeftOuter ? !isReversed : true : "LeftOut Join can not reverse roles";
+
+            ISerializableTable table = tableType.createTable(tabSize, ctx);
+            InMemoryHashJoin joiner = new InMemoryHashJoin(ctx, tabSize, new FrameTupleAccessor(probeRDesc),
+                    hpcRepProbe, new FrameTupleAccessor(buildRDesc), hpcRepBuild,
+                    new FrameTuplePairComparator(pKeys, bKeys, comparators), isLeftOuter, nullWriters1, table,
+                    predEvaluator, isReversed);
+
+            bReader.open();
+            rPartbuff.reset();
+            while (bReader.nextFrame(rPartbuff)) {
+                //We need to allocate a copyBuffer, because this buffer gets added to the buffers list in the InMemoryHashJoin
+                ByteBuffer copyBuffer = ctx.allocateFrame(rPartbuff.getFrameSize());
+                FrameUtils.copyAndFlip(rPartbuff.getBuffer(), copyBuffer);
+                joiner.build(copyBuffer);
+                rPartbuff.reset();
+            }
+            bReader.close();
+            rPartbuff.reset();
+            //probe
+            pReader.open();
+            while (pReader.nextFrame(rPartbuff)) {
+                joiner.join(rPartbuff.getBuffer(), writer);
+                rPartbuff.reset();
+            }
+            pReader.close();
+            joiner.closeJoin(writer);
+        }
 
-                    while (outerReader.nextFrame(joinBuff)) {
-                        nlj.join(joinBuff.getBuffer(), writer);
-                        joinBuff.reset();
-                    }
+        private void applyNestedLoopJoin(RecordDescriptor outerRd, RecordDescriptor innerRd, int memorySize,
+                RunFileReader outerReader, RunFileReader innerReader, boolean isReversed)
+                throws HyracksDataException {
+            // The nested loop join result is outer + inner. All the other operator is probe + build. Hence the reverse relation is different
+            // (it is given by the caller, since both inputs can share one record descriptor, e.g. in a self join)
+            assert isLeftOuter ? !isReversed : true : "LeftOut Join can not reverse roles";
+            ITuplePairComparator nljComptorOuterInner = isReversed ?
+                    nljComparatorBuild2Probe :
+                    nljComparatorProbe2Build;
+            NestedLoopJoin nlj = new NestedLoopJoin(ctx,
+                    new FrameTupleAccessor(outerRd),
+                    new FrameTupleAccessor(innerRd), nljComptorOuterInner, memorySize,
+                    predEvaluator, isLeftOuter, nullWriters1);
+            nlj.setIsReversed(isReversed);
+
+            IFrame cacheBuff = new VSizeFrame(ctx);
+            innerReader.open();
+            while (innerReader.nextFrame(cacheBuff)) {
+                nlj.cache(cacheBuff.getBuffer());
+                cacheBuff.reset();
+            }
+            nlj.closeCache();
 
-                    nlj.closeJoin(writer);
-                    outerReader.close();
-                    innerReader.close();
-                }
-            };
-            return op;
+            IFrame joinBuff = new VSizeFrame(ctx);
+            outerReader.open();
+
+            while (outerReader.nextFrame(joinBuff)) {
+                nlj.join(joinBuff.getBuffer(), writer);
+                joinBuff.reset();
+            }
+
+            nlj.closeJoin(writer);
+            outerReader.close();
+            innerReader.close();
         }
     }
 
+    private ITuplePartitionComputer createBloomFilterHpc(int[] keys) {
+        return new FieldHashPartitionComputerFamily(keys, hashFunctionGeneratorFactories)
+                .createPartitioner(BLOOM_FILTER_HASH_SEED);
+    }
+
+    private ITuplePartitionComputer createSkewHpc(int[] keys) {
+        return new FieldHashPartitionComputerFamily(keys, hashFunctionGeneratorFactories)
+                .createPartitioner(SKEW_HASH_SEED);
+    }
+
+    /**
+     * Sets whether inner joins drop the probe tuples that a bloom filter over the build keys rules out before they
+     * are partitioned. It is on by default.
+     */
+    public void setUseBloomFilter(boolean useBloomFilter) {
+        this.useBloomFilter = useBloomFilter;
+    }
+
+    /**
+     * Sets whether the joins sample their build side for hot keys and join the probe tuples of the hot keys in memory
+     * instead of partitioning them. It is on by default.
+     */
+    public void setUseSkewHandling(boolean useSkewHandling) {
+        this.useSkewHandling = useSkewHandling;
+    }
+
+    /**
+     * Sets the layout of the hash tables of the in-memory partitions, {@link SerializableTableType#CHAINED} by
+     * default.
+     */
+    public void setTableType(SerializableTableType tableType) {
+        this.tableType = tableType;
+    }
+
+    /**
+     * Sets the maximum number of threads that join the pairs of spilled partitions after the probe input, or
+     * {@link #AVAILABLE_PROCESSORS_PARALLELISM} to use as many as there are available processors. The threads split
+     * the frames of the join, so fewer are used if each one would get less than
+     * {@link #MIN_FRAMES_PER_SPILLED_PARTITION_JOINER} frames. It is 1 by default: the pairs are joined one at a time
+     * by the task thread with all the frames.
+     */
+    public void setSpilledPartitionParallelism(int spilledPartitionParallelism) {
+        this.spilledPartitionParallelism = spilledPartitionParallelism;
+    }
+
     public void setSkipInMemHJ(boolean b) {
         skipInMemoryHJ = b;
     }
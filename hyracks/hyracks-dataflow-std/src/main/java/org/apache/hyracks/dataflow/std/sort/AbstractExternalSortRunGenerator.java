@@ -36,7 +36,8 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
 
     protected final IHyracksTaskContext ctx;
     protected final IFrameSorter frameSorter;
-    protected final int maxSortFrames;
+    protected int maxSortFrames;
+    private final VariableFramePool framePool;
 
     public AbstractExternalSortRunGenerator(IHyracksTaskContext ctx, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
@@ -57,18 +58,43 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDesc, Algorithm alg, EnumFreeSlotPolicy policy, int framesLimit, int outputLimit)
                     throws HyracksDataException {
+        this(ctx, sortFields,
+                firstKeyNormalizerFactory == null ? null
+                        : new INormalizedKeyComputerFactory[] { firstKeyNormalizerFactory },
+                comparatorFactories, recordDesc, alg, policy, framesLimit, outputLimit);
+    }
+
+    public AbstractExternalSortRunGenerator(IHyracksTaskContext ctx, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDesc, Algorithm alg, EnumFreeSlotPolicy policy, int framesLimit, int outputLimit)
+                    throws HyracksDataException {
+        this(ctx, sortFields, keyNormalizerFactories, comparatorFactories, recordDesc, alg, policy, framesLimit,
+                outputLimit, FrameSorterParallelMergeSort.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param sortParallelism
+     *            the number of threads that sort the in-memory frames if alg is {@link Algorithm#PARALLEL_MERGE_SORT}
+     */
+    public AbstractExternalSortRunGenerator(IHyracksTaskContext ctx, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDesc, Algorithm alg, EnumFreeSlotPolicy policy, int framesLimit, int outputLimit,
+            int sortParallelism) throws HyracksDataException {
         super();
         this.ctx = ctx;
         maxSortFrames = framesLimit - 1;
 
         IFrameFreeSlotPolicy freeSlotPolicy = FrameFreeSlotPolicyFactory.createFreeSlotPolicy(policy, maxSortFrames);
-        IFrameBufferManager bufferManager = new VariableFrameMemoryManager(
-                new VariableFramePool(ctx, maxSortFrames * ctx.getInitialFrameSize()), freeSlotPolicy);
+        framePool = new VariableFramePool(ctx, maxSortFrames * ctx.getInitialFrameSize());
+        IFrameBufferManager bufferManager = new VariableFrameMemoryManager(framePool, freeSlotPolicy);
         if (alg == Algorithm.MERGE_SORT) {
-            frameSorter = new FrameSorterMergeSort(ctx, bufferManager, sortFields, firstKeyNormalizerFactory,
+            frameSorter = new FrameSorterMergeSort(ctx, bufferManager, sortFields, keyNormalizerFactories,
                     comparatorFactories, recordDesc, outputLimit);
+        } else if (alg == Algorithm.PARALLEL_MERGE_SORT) {
+            frameSorter = new FrameSorterParallelMergeSort(ctx, bufferManager, sortFields, keyNormalizerFactories,
+                    comparatorFactories, recordDesc, outputLimit, sortParallelism);
         } else {
-            frameSorter = new FrameSorterQuickSort(ctx, bufferManager, sortFields, firstKeyNormalizerFactory,
+            frameSorter = new FrameSorterQuickSort(ctx, bufferManager, sortFields, keyNormalizerFactories,
                     comparatorFactories, recordDesc, outputLimit);
         }
     }
@@ -83,6 +109,25 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
         }
     }
 
+    /**
+     * Keeps at least one frame to sort.
+     */
+    @Override
+    public int releaseMemory(int frames) throws HyracksDataException {
+        int released = Math.min(frames, maxSortFrames - 1);
+        if (released <= 0) {
+            return 0;
+        }
+        if (frameSorter.hasRemaining()) {
+            flushFramesToRun();
+        } else {
+            frameSorter.reset();
+        }
+        maxSortFrames -= released;
+        framePool.setMemoryBudgetBytes(maxSortFrames * ctx.getInitialFrameSize());
+        return released;
+    }
+
     @Override
     public ISorter getSorter() {
         return frameSorter;
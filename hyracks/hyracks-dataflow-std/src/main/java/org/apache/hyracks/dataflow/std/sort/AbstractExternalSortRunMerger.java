@@ -55,6 +55,9 @@ public abstract class AbstractExternalSortRunMerger {
     private VSizeFrame outputFrame;
     private ISorter sorter;
 
+    // the frame the run is merged from and the two buffers it is read ahead into
+    private static final int READ_AHEAD_BUFFERS_PER_RUN = 3;
+
     private static final Logger LOGGER = Logger.getLogger(AbstractExternalSortRunMerger.class.getName());
 
     public AbstractExternalSortRunMerger(IHyracksTaskContext ctx, ISorter sorter, List<GeneratedRunFileReader> runs,
@@ -111,8 +114,18 @@ public abstract class AbstractExternalSortRunMerger {
 
                 while (true) {
 
-                    int unUsed = selectPartialRuns(maxMergeWidth * ctx.getInitialFrameSize(), runs, partialRuns,
-                            currentGenerationRunAvailable, stop);
+                    int budget = maxMergeWidth * ctx.getInitialFrameSize();
+                    // each run read ahead takes two more buffers of its frame size, which is only worth it if the
+                    // remaining runs of this generation still fit in one merge
+                    boolean readAhead = getRemainingRunsSize(runs, currentGenerationRunAvailable,
+                            stop) <= budget / READ_AHEAD_BUFFERS_PER_RUN;
+                    if (readAhead) {
+                        budget /= READ_AHEAD_BUFFERS_PER_RUN;
+                    }
+                    int unUsed = selectPartialRuns(budget, runs, partialRuns, currentGenerationRunAvailable, stop);
+                    for (GeneratedRunFileReader run : partialRuns) {
+                        run.setReadAheadSize(readAhead ? run.getMaxFrameSize() : 0);
+                    }
                     prepareFrames(unUsed, inFrames, partialRuns);
 
                     if (!currentGenerationRunAvailable.isEmpty() || stop < runs.size()) {
@@ -169,6 +182,14 @@ public abstract class AbstractExternalSortRunMerger {
         }
     }
 
+    private static int getRemainingRunsSize(List<GeneratedRunFileReader> runs, BitSet runAvailable, int stop) {
+        int size = 0;
+        for (int i = runAvailable.nextSetBit(0); i >= 0 && i < stop; i = runAvailable.nextSetBit(i + 1)) {
+            size += runs.get(i).getMaxFrameSize();
+        }
+        return size;
+    }
+
     private static int selectPartialRuns(int budget, List<GeneratedRunFileReader> runs,
             List<GeneratedRunFileReader> partialRuns, BitSet runAvailable, int stop) {
         partialRuns.clear();
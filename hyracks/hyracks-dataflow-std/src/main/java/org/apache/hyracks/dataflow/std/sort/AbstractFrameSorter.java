@@ -44,15 +44,24 @@ import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 public abstract class AbstractFrameSorter implements IFrameSorter {
 
     protected Logger LOGGER = Logger.getLogger(AbstractFrameSorter.class.getName());
-    static final int PTR_SIZE = 4;
     static final int ID_FRAMEID = 0;
     static final int ID_TUPLE_START = 1;
     static final int ID_TUPLE_END = 2;
     static final int ID_NORMAL_KEY = 3;
+    // the maximum length of the normalized key of a tuple, in ints
+    static final int MAX_NORMALIZED_KEY_LENGTH = 4;
 
     protected final int[] sortFields;
+    protected final IBinaryComparatorFactory[] comparatorFactories;
+    protected final RecordDescriptor recordDescriptor;
     protected final IBinaryComparator[] comparators;
-    protected final INormalizedKeyComputer nkc;
+    // the normalized key computers of the leading sort fields that make up the normalized key
+    protected final INormalizedKeyComputer[] nkcs;
+    // the number of leading sort fields whose order is fully decided by the normalized key
+    protected final int decidedFields;
+    protected final int normalizedKeyLength;
+    // the number of ints of a tuple reference: the frame id, the tuple start and end, and the normalized key
+    protected final int ptrSize;
     protected final IFrameBufferManager bufferManager;
     protected final FrameTupleAccessor inputTupleAccessor;
     protected final IFrameTupleAppender outputAppender;
@@ -62,7 +71,7 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     protected int[] tPointers;
     protected int tupleCount;
 
-    private FrameTupleAccessor fta2;
+    private final TupleReferenceComparator tupleComparator;
     private BufferInfo info = new BufferInfo(null, -1, -1);
 
     public AbstractFrameSorter(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
@@ -76,18 +85,53 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDescriptor, int outputLimit)
             throws HyracksDataException {
+        this(ctx, bufferManager, sortFields,
+                firstKeyNormalizerFactory == null ? null
+                        : new INormalizedKeyComputerFactory[] { firstKeyNormalizerFactory },
+                comparatorFactories, recordDescriptor, outputLimit);
+    }
+
+    /**
+     * @param keyNormalizerFactories
+     *            the normalized key computer factories of the sort fields, or null. The normalized keys of the leading
+     *            sort fields are concatenated as long as the keys before are decisive and the whole key fits in
+     *            {@link #MAX_NORMALIZED_KEY_LENGTH} ints, and stored next to the tuple references.
+     */
+    public AbstractFrameSorter(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int outputLimit) throws HyracksDataException {
         this.bufferManager = bufferManager;
         this.sortFields = sortFields;
-        this.nkc = firstKeyNormalizerFactory == null ? null : firstKeyNormalizerFactory.createNormalizedKeyComputer();
-        this.comparators = new IBinaryComparator[comparatorFactories.length];
-        for (int i = 0; i < comparatorFactories.length; ++i) {
-            comparators[i] = comparatorFactories[i].createBinaryComparator();
+        this.comparatorFactories = comparatorFactories;
+        this.recordDescriptor = recordDescriptor;
+        int numKeyFields = 0;
+        int keyLength = 0;
+        int numDecidedFields = 0;
+        INormalizedKeyComputer[] keyComputers = new INormalizedKeyComputer[sortFields.length];
+        while (keyNormalizerFactories != null && numKeyFields < keyNormalizerFactories.length
+                && numKeyFields < sortFields.length && keyNormalizerFactories[numKeyFields] != null) {
+            INormalizedKeyComputer keyComputer = keyNormalizerFactories[numKeyFields].createNormalizedKeyComputer();
+            if (keyLength + keyComputer.getNormalizedKeyLength() > MAX_NORMALIZED_KEY_LENGTH) {
+                break;
+            }
+            keyComputers[numKeyFields++] = keyComputer;
+            keyLength += keyComputer.getNormalizedKeyLength();
+            if (!keyComputer.isDecisive()) {
+                break;
+            }
+            numDecidedFields++;
         }
+        this.nkcs = new INormalizedKeyComputer[numKeyFields];
+        System.arraycopy(keyComputers, 0, nkcs, 0, numKeyFields);
+        this.normalizedKeyLength = keyLength;
+        this.decidedFields = numDecidedFields;
+        this.ptrSize = ID_NORMAL_KEY + keyLength;
+        this.tupleComparator = new TupleReferenceComparator();
+        this.comparators = tupleComparator.comparators;
         this.inputTupleAccessor = new FrameTupleAccessor(recordDescriptor);
         this.outputAppender = new FrameTupleAppender();
         this.outputFrame = new VSizeFrame(ctx);
         this.outputLimit = outputLimit;
-        this.fta2 = new FrameTupleAccessor(recordDescriptor);
     }
 
     @Override
@@ -116,11 +160,10 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
             inputTupleAccessor.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
             tupleCount += inputTupleAccessor.getTupleCount();
         }
-        if (tPointers == null || tPointers.length < tupleCount * PTR_SIZE) {
-            tPointers = new int[tupleCount * PTR_SIZE];
+        if (tPointers == null || tPointers.length < tupleCount * ptrSize) {
+            tPointers = new int[tupleCount * ptrSize];
         }
         int ptr = 0;
-        int sfIdx = sortFields[0];
         for (int i = 0; i < bufferManager.getNumFrames(); ++i) {
             bufferManager.getFrame(i, info);
             inputTupleAccessor.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
@@ -129,14 +172,18 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
             for (int j = 0; j < tCount; ++j) {
                 int tStart = inputTupleAccessor.getTupleStartOffset(j);
                 int tEnd = inputTupleAccessor.getTupleEndOffset(j);
-                tPointers[ptr * PTR_SIZE + ID_FRAMEID] = i;
-                tPointers[ptr * PTR_SIZE + ID_TUPLE_START] = tStart;
-                tPointers[ptr * PTR_SIZE + ID_TUPLE_END] = tEnd;
-                int f0StartRel = inputTupleAccessor.getFieldStartOffset(j, sfIdx);
-                int f0EndRel = inputTupleAccessor.getFieldEndOffset(j, sfIdx);
-                int f0Start = f0StartRel + tStart + inputTupleAccessor.getFieldSlotsLength();
-                tPointers[ptr * PTR_SIZE + ID_NORMAL_KEY] =
-                        nkc == null ? 0 : nkc.normalize(array, f0Start, f0EndRel - f0StartRel);
+                tPointers[ptr * ptrSize + ID_FRAMEID] = i;
+                tPointers[ptr * ptrSize + ID_TUPLE_START] = tStart;
+                tPointers[ptr * ptrSize + ID_TUPLE_END] = tEnd;
+                int keyStart = ptr * ptrSize + ID_NORMAL_KEY;
+                for (int k = 0; k < nkcs.length; ++k) {
+                    int sfIdx = sortFields[k];
+                    int fStartRel = inputTupleAccessor.getFieldStartOffset(j, sfIdx);
+                    int fEndRel = inputTupleAccessor.getFieldEndOffset(j, sfIdx);
+                    int fStart = fStartRel + tStart + inputTupleAccessor.getFieldSlotsLength();
+                    nkcs[k].normalize(array, fStart, fEndRel - fStartRel, tPointers, keyStart);
+                    keyStart += nkcs[k].getNormalizedKeyLength();
+                }
                 ++ptr;
             }
         }
@@ -164,9 +211,9 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         int limit = Math.min(tupleCount, outputLimit);
         int io = 0;
         for (int ptr = 0; ptr < limit; ++ptr) {
-            int i = tPointers[ptr * PTR_SIZE + ID_FRAMEID];
-            int tStart = tPointers[ptr * PTR_SIZE + ID_TUPLE_START];
-            int tEnd = tPointers[ptr * PTR_SIZE + ID_TUPLE_END];
+            int i = tPointers[ptr * ptrSize + ID_FRAMEID];
+            int tStart = tPointers[ptr * ptrSize + ID_TUPLE_START];
+            int tEnd = tPointers[ptr * ptrSize + ID_TUPLE_END];
             bufferManager.getFrame(i, info);
             inputTupleAccessor.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
             int flushed = FrameUtils.appendToWriter(writer, outputAppender, inputTupleAccessor, tStart, tEnd);
@@ -185,42 +232,72 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     }
 
     protected final int compare(int tp1, int tp2) throws HyracksDataException {
-        int i1 = tPointers[tp1 * 4];
-        int j1 = tPointers[tp1 * 4 + 1];
-        int v1 = tPointers[tp1 * 4 + 3];
+        return tupleComparator.compare(tPointers, tp1, tPointers, tp2);
+    }
 
-        int tp2i = tPointers[tp2 * 4];
-        int tp2j = tPointers[tp2 * 4 + 1];
-        int tp2v = tPointers[tp2 * 4 + 3];
+    /**
+     * Compares tuple references by their normalized keys first and then by the sort fields the keys do not decide.
+     * The comparators and accessors are not thread-safe, so each thread that sorts concurrently creates its own.
+     */
+    protected class TupleReferenceComparator {
+        private final IBinaryComparator[] comparators;
+        private final FrameTupleAccessor fta1;
+        private final FrameTupleAccessor fta2;
+        private final BufferInfo info = new BufferInfo(null, -1, -1);
 
-        if (v1 != tp2v) {
-            return ((((long) v1) & 0xffffffffL) < (((long) tp2v) & 0xffffffffL)) ? -1 : 1;
+        protected TupleReferenceComparator() {
+            comparators = new IBinaryComparator[comparatorFactories.length];
+            for (int i = 0; i < comparatorFactories.length; ++i) {
+                comparators[i] = comparatorFactories[i].createBinaryComparator();
+            }
+            fta1 = new FrameTupleAccessor(recordDescriptor);
+            fta2 = new FrameTupleAccessor(recordDescriptor);
         }
-        int i2 = tp2i;
-        int j2 = tp2j;
-        bufferManager.getFrame(i1, info);
-        byte[] b1 = info.getBuffer().array();
-        inputTupleAccessor.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
-
-        bufferManager.getFrame(i2, info);
-        byte[] b2 = info.getBuffer().array();
-        fta2.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
-        for (int f = 0; f < comparators.length; ++f) {
-            int fIdx = sortFields[f];
-            int f1Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b1, j1 + (fIdx - 1) * 4);
-            int f1End = IntSerDeUtils.getInt(b1, j1 + fIdx * 4);
-            int s1 = j1 + inputTupleAccessor.getFieldSlotsLength() + f1Start;
-            int l1 = f1End - f1Start;
-            int f2Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b2, j2 + (fIdx - 1) * 4);
-            int f2End = IntSerDeUtils.getInt(b2, j2 + fIdx * 4);
-            int s2 = j2 + fta2.getFieldSlotsLength() + f2Start;
-            int l2 = f2End - f2Start;
-            int c = comparators[f].compare(b1, s1, l1, b2, s2, l2);
-            if (c != 0) {
-                return c;
+
+        /**
+         * Compares the tuple reference at index tp1 of pointers1 with the one at index tp2 of pointers2.
+         */
+        public int compare(int[] pointers1, int tp1, int[] pointers2, int tp2) throws HyracksDataException {
+            int p1 = tp1 * ptrSize;
+            int p2 = tp2 * ptrSize;
+            for (int k = ID_NORMAL_KEY; k < ptrSize; ++k) {
+                int v1 = pointers1[p1 + k];
+                int v2 = pointers2[p2 + k];
+                if (v1 != v2) {
+                    return ((((long) v1) & 0xffffffffL) < (((long) v2) & 0xffffffffL)) ? -1 : 1;
+                }
+            }
+            if (decidedFields >= comparators.length) {
+                return 0;
+            }
+            int i1 = pointers1[p1 + ID_FRAMEID];
+            int j1 = pointers1[p1 + ID_TUPLE_START];
+            int i2 = pointers2[p2 + ID_FRAMEID];
+            int j2 = pointers2[p2 + ID_TUPLE_START];
+            bufferManager.getFrame(i1, info);
+            byte[] b1 = info.getBuffer().array();
+            fta1.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
+
+            bufferManager.getFrame(i2, info);
+            byte[] b2 = info.getBuffer().array();
+            fta2.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
+            for (int f = decidedFields; f < comparators.length; ++f) {
+                int fIdx = sortFields[f];
+                int f1Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b1, j1 + (fIdx - 1) * 4);
+                int f1End = IntSerDeUtils.getInt(b1, j1 + fIdx * 4);
+                int s1 = j1 + fta1.getFieldSlotsLength() + f1Start;
+                int l1 = f1End - f1Start;
+                int f2Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b2, j2 + (fIdx - 1) * 4);
+                int f2End = IntSerDeUtils.getInt(b2, j2 + fIdx * 4);
+                int s2 = j2 + fta2.getFieldSlotsLength() + f2Start;
+                int l2 = f2End - f2Start;
+                int c = comparators[f].compare(b1, s1, l1, b2, s2, l2);
+                if (c != 0) {
+                    return c;
+                }
             }
+            return 0;
         }
-        return 0;
     }
 
     @Override
@@ -70,6 +70,16 @@ public abstract class AbstractSortRunGenerator implements IRunGenerator {
         getSorter().reset();
     }
 
+    /**
+     * Gives back up to the given number of frames of the sort memory, spilling the frames in memory to a run if
+     * needed.
+     *
+     * @return the frames given back, which is 0 if the run generator cannot lower its memory
+     */
+    public int releaseMemory(int frames) throws HyracksDataException {
+        return 0;
+    }
+
     @Override
     public void fail() throws HyracksDataException {
     }
@@ -42,6 +42,8 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
 import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
 import org.apache.hyracks.dataflow.std.base.AbstractActivityNode;
 import org.apache.hyracks.dataflow.std.base.AbstractOperatorDescriptor;
@@ -58,18 +60,35 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
     protected static final int SORT_ACTIVITY_ID = 0;
     protected static final int MERGE_ACTIVITY_ID = 1;
 
+    // the frames the sort needs from the memory broker: one to sort and one for the input, and for the merge, the
+    // output and two runs at least
+    private static final int MIN_SORT_FRAMES = 2;
+    private static final int MIN_MERGE_FRAMES = 3;
+
     protected final int[] sortFields;
     protected final INormalizedKeyComputerFactory firstKeyNormalizerFactory;
+    protected final INormalizedKeyComputerFactory[] keyNormalizerFactories;
     protected final IBinaryComparatorFactory[] comparatorFactories;
     protected final int framesLimit;
 
     public AbstractSorterOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDescriptor) {
+        this(spec, framesLimit, sortFields,
+                firstKeyNormalizerFactory == null ? null
+                        : new INormalizedKeyComputerFactory[] { firstKeyNormalizerFactory },
+                comparatorFactories, recordDescriptor);
+    }
+
+    public AbstractSorterOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor) {
         super(spec, 1, 1);
         this.framesLimit = framesLimit;
         this.sortFields = sortFields;
-        this.firstKeyNormalizerFactory = firstKeyNormalizerFactory;
+        this.keyNormalizerFactories = keyNormalizerFactories;
+        this.firstKeyNormalizerFactory = keyNormalizerFactories == null || keyNormalizerFactories.length == 0 ? null
+                : keyNormalizerFactories[0];
         this.comparatorFactories = comparatorFactories;
         recordDescriptors[0] = recordDescriptor;
     }
@@ -95,6 +114,8 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
     public static class SortTaskState extends AbstractStateObject {
         public List<GeneratedRunFileReader> generatedRunFileReaders;
         public ISorter sorter;
+        // the memory of the sorter, if it still holds the sorted frames
+        public IMemoryGrant memoryGrant;
 
         public SortTaskState(JobId jobId, TaskId taskId) {
             super(jobId, taskId);
@@ -119,32 +140,56 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
         }
 
         protected abstract AbstractSortRunGenerator getRunGenerator(IHyracksTaskContext ctx,
-                IRecordDescriptorProvider recordDescProvider) throws HyracksDataException;
+                IRecordDescriptorProvider recordDescProvider, int framesLimit) throws HyracksDataException;
 
         @Override
         public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
                 final IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions) {
             IOperatorNodePushable op = new AbstractUnaryInputSinkOperatorNodePushable() {
                 private AbstractSortRunGenerator runGen;
+                private IMemoryGrant memoryGrant;
+                private boolean failed;
 
                 @Override
                 public void open() throws HyracksDataException {
-                    runGen = getRunGenerator(ctx, recordDescProvider);
+                    IMemoryBroker memoryBroker = ctx.getJobletContext().getMemoryBroker();
+                    memoryGrant = memoryBroker == null ? null
+                            : memoryBroker.acquire(getDisplayName(), Math.min(MIN_SORT_FRAMES, framesLimit),
+                                    framesLimit);
+                    runGen = getRunGenerator(ctx, recordDescProvider,
+                            memoryGrant == null ? framesLimit : memoryGrant.getFrames());
                     runGen.open();
                 }
 
                 @Override
                 public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
                     runGen.nextFrame(buffer);
+                    if (memoryGrant != null && memoryGrant.getRevokedFrames() > 0) {
+                        memoryGrant.release(runGen.releaseMemory(memoryGrant.getRevokedFrames()));
+                    }
                 }
 
                 @Override
                 public void close() throws HyracksDataException {
+                    if (failed) {
+                        // the memory was released by fail()
+                        return;
+                    }
                     SortTaskState state = new SortTaskState(ctx.getJobletContext().getJobId(),
                             new TaskId(getActivityId(), partition));
                     runGen.close();
                     state.generatedRunFileReaders = runGen.getRuns();
-                    state.sorter = runGen.getSorter();
+                    if (runGen.getRuns().isEmpty()) {
+                        state.sorter = runGen.getSorter();
+                        state.memoryGrant = memoryGrant;
+                        if (memoryGrant != null) {
+                            // the sorted frames are kept until the merge writes them
+                            memoryGrant.setRevocable(false);
+                        }
+                    } else {
+                        // everything is in the runs, so the other operators can use the memory until the merge
+                        releaseMemory();
+                    }
                     if (LOGGER.isLoggable(Level.INFO)) {
                         LOGGER.info("InitialNumberOfRuns:" + runGen.getRuns().size());
                     }
@@ -153,7 +198,27 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
 
                 @Override
                 public void fail() throws HyracksDataException {
-                    runGen.fail();
+                    failed = true;
+                    try {
+                        if (runGen != null) {
+                            runGen.fail();
+                        }
+                    } finally {
+                        releaseMemory();
+                    }
+                }
+
+                private void releaseMemory() throws HyracksDataException {
+                    try {
+                        if (runGen != null && runGen.getSorter() != null) {
+                            runGen.getSorter().close();
+                        }
+                    } finally {
+                        if (memoryGrant != null) {
+                            memoryGrant.close();
+                            memoryGrant = null;
+                        }
+                    }
                 }
             };
             return op;
@@ -189,9 +254,23 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
                     }
                     INormalizedKeyComputer nmkComputer = firstKeyNormalizerFactory == null ? null
                             : firstKeyNormalizerFactory.createNormalizedKeyComputer();
-                    AbstractExternalSortRunMerger merger = getSortRunMerger(ctx, recordDescProvider, writer, sorter,
-                            runs, comparators, nmkComputer, framesLimit);
-                    merger.process();
+                    IMemoryGrant memoryGrant = state.memoryGrant;
+                    IMemoryBroker memoryBroker = ctx.getJobletContext().getMemoryBroker();
+                    if (!runs.isEmpty() && memoryBroker != null) {
+                        // the merge holds its frames until it is done
+                        memoryGrant = memoryBroker.acquire(getDisplayName(), Math.min(MIN_MERGE_FRAMES, framesLimit),
+                                framesLimit, false);
+                    }
+                    try {
+                        AbstractExternalSortRunMerger merger = getSortRunMerger(ctx, recordDescProvider, writer,
+                                sorter, runs, comparators, nmkComputer,
+                                memoryGrant == null ? framesLimit : memoryGrant.getFrames());
+                        merger.process();
+                    } finally {
+                        if (memoryGrant != null) {
+                            memoryGrant.close();
+                        }
+                    }
                 }
             };
             return op;
@@ -21,5 +21,6 @@ package org.apache.hyracks.dataflow.std.sort;
 
 public enum Algorithm {
     QUICK_SORT,
-    MERGE_SORT
+    MERGE_SORT,
+    PARALLEL_MERGE_SORT
 }
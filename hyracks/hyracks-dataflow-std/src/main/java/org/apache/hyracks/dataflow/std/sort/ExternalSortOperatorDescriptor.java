@@ -41,6 +41,7 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
     private Algorithm alg = Algorithm.MERGE_SORT;
     private EnumFreeSlotPolicy policy = EnumFreeSlotPolicy.LAST_FIT;
     private final int outputLimit;
+    private int sortParallelism = FrameSorterParallelMergeSort.DEFAULT_PARALLELISM;
 
     public ExternalSortOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
@@ -51,7 +52,8 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
 
     public ExternalSortOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
             IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor) {
-        this(spec, framesLimit, sortFields, null, comparatorFactories, recordDescriptor);
+        this(spec, framesLimit, sortFields, (INormalizedKeyComputerFactory) null, comparatorFactories,
+                recordDescriptor);
     }
 
     public ExternalSortOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
@@ -61,14 +63,43 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
                 Algorithm.MERGE_SORT, EnumFreeSlotPolicy.LAST_FIT);
     }
 
+    /**
+     * @param keyNormalizerFactories
+     *            the normalized key computer factories of the sort fields; the normalized keys of the leading fields
+     *            are combined into the key the runs are sorted on
+     */
+    public ExternalSortOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor) {
+        this(spec, framesLimit, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor,
+                Algorithm.MERGE_SORT, FrameSorterParallelMergeSort.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param sortParallelism
+     *            the number of threads that sort each memory budget if alg is {@link Algorithm#PARALLEL_MERGE_SORT},
+     *            or {@link FrameSorterParallelMergeSort#DEFAULT_PARALLELISM} to use all processors of the node
+     */
+    public ExternalSortOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, Algorithm alg, int sortParallelism) {
+        super(spec, framesLimit, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor);
+        if (framesLimit <= 1) {
+            throw new IllegalStateException();// minimum of 2 fames (1 in,1 out)
+        }
+        this.alg = alg;
+        this.outputLimit = Integer.MAX_VALUE;
+        this.sortParallelism = sortParallelism;
+    }
+
     @Override
     public AbstractSorterOperatorDescriptor.SortActivity getSortActivity(ActivityId id) {
         return new AbstractSorterOperatorDescriptor.SortActivity(id) {
             @Override
             protected AbstractSortRunGenerator getRunGenerator(IHyracksTaskContext ctx,
-                    IRecordDescriptorProvider recordDescProvider) throws HyracksDataException {
-                return new ExternalSortRunGenerator(ctx, sortFields, firstKeyNormalizerFactory, comparatorFactories,
-                        recordDescriptors[0], alg, policy, framesLimit, outputLimit);
+                    IRecordDescriptorProvider recordDescProvider, int framesLimit) throws HyracksDataException {
+                return new ExternalSortRunGenerator(ctx, sortFields, keyNormalizerFactories, comparatorFactories,
+                        recordDescriptors[0], alg, policy, framesLimit, outputLimit, sortParallelism);
             }
         };
     }
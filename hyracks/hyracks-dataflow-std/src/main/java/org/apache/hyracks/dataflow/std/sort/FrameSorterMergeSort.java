@@ -43,6 +43,13 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
                 outputLimit);
     }
 
+    public FrameSorterMergeSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int outputLimit) throws HyracksDataException {
+        super(ctx, bufferManager, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor,
+                outputLimit);
+    }
+
     @Override
     void sortTupleReferences() throws HyracksDataException {
         if (tPointersTemp == null || tPointersTemp.length < tPointers.length) {
@@ -68,7 +75,7 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
                 if (next < end) {
                     merge(i, next, step, Math.min(step, end - next));
                 } else {
-                    System.arraycopy(tPointers, i * 4, tPointersTemp, i * 4, (end - i) * 4);
+                    System.arraycopy(tPointers, i * ptrSize, tPointersTemp, i * ptrSize, (end - i) * ptrSize);
                 }
             }
             /** prepare next phase merge */
@@ -101,19 +108,18 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
         }
         if (pos1 <= end1) {
             int rest = end1 - pos1 + 1;
-            System.arraycopy(tPointers, pos1 * 4, tPointersTemp, targetPos * 4, rest * 4);
+            System.arraycopy(tPointers, pos1 * ptrSize, tPointersTemp, targetPos * ptrSize, rest * ptrSize);
         }
         if (pos2 <= end2) {
             int rest = end2 - pos2 + 1;
-            System.arraycopy(tPointers, pos2 * 4, tPointersTemp, targetPos * 4, rest * 4);
+            System.arraycopy(tPointers, pos2 * ptrSize, tPointersTemp, targetPos * ptrSize, rest * ptrSize);
         }
     }
 
     private void copy(int src, int dest) {
-        tPointersTemp[dest * 4] = tPointers[src * 4];
-        tPointersTemp[dest * 4 + 1] = tPointers[src * 4 + 1];
-        tPointersTemp[dest * 4 + 2] = tPointers[src * 4 + 2];
-        tPointersTemp[dest * 4 + 3] = tPointers[src * 4 + 3];
+        for (int i = 0; i < ptrSize; ++i) {
+            tPointersTemp[dest * ptrSize + i] = tPointers[src * ptrSize + i];
+        }
     }
 
 }
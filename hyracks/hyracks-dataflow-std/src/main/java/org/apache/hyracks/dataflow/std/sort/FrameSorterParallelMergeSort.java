@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.dataflow.std.sort;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
+
+/**
+ * A stable merge sort of the tuple references that splits them into as many ranges as the degree of parallelism,
+ * sorts the ranges concurrently in a {@link ForkJoinPool} and then merges the sorted ranges pairwise, splitting each
+ * merge again across the threads of the ranges it combines.
+ * The frames are only read while sorting, so the threads share the buffer manager, but each range has its own
+ * {@link TupleReferenceComparator}.
+ */
+public class FrameSorterParallelMergeSort extends AbstractFrameSorter {
+
+    // the degree of parallelism that stands for the number of processors of the node the sort runs on
+    public static final int DEFAULT_PARALLELISM = 0;
+    // ranges with fewer tuples are sorted and merged by the calling thread
+    static final int MIN_TUPLES_PER_TASK = 8192;
+
+    private final int parallelism;
+    private ForkJoinPool pool;
+    private TupleReferenceComparator[] rangeComparators;
+    private int[] tPointersTemp;
+
+    public FrameSorterParallelMergeSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
+            INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int parallelism) throws HyracksDataException {
+        this(ctx, bufferManager, sortFields,
+                firstKeyNormalizerFactory == null ? null
+                        : new INormalizedKeyComputerFactory[] { firstKeyNormalizerFactory },
+                comparatorFactories, recordDescriptor, Integer.MAX_VALUE, parallelism);
+    }
+
+    /**
+     * @param parallelism
+     *            the maximum number of threads that sort concurrently, or {@link #DEFAULT_PARALLELISM} to use as many
+     *            as there are available processors
+     */
+    public FrameSorterParallelMergeSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int outputLimit, int parallelism) throws HyracksDataException {
+        super(ctx, bufferManager, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor,
+                outputLimit);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    void sortTupleReferences() throws HyracksDataException {
+        if (tPointersTemp == null || tPointersTemp.length < tPointers.length) {
+            tPointersTemp = new int[tPointers.length];
+        }
+        int numRanges = Math.max(1, Math.min(parallelism, tupleCount / MIN_TUPLES_PER_TASK));
+        if (rangeComparators == null || rangeComparators.length < numRanges) {
+            rangeComparators = new TupleReferenceComparator[numRanges];
+            for (int i = 0; i < numRanges; ++i) {
+                rangeComparators[i] = new TupleReferenceComparator();
+            }
+        }
+        if (numRanges == 1) {
+            sortRange(rangeComparators[0], 0, tupleCount);
+            return;
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        try {
+            pool.invoke(new SortTask(0, numRanges, 0, tupleCount));
+        } catch (RuntimeException e) {
+            // the pool may rethrow a copy of the exception of the failed task, which keeps the original as its cause
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof HyracksDataException)) {
+                cause = cause.getCause();
+            }
+            throw cause == null ? new HyracksDataException(e) : (HyracksDataException) cause;
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        tPointersTemp = null;
+        rangeComparators = null;
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Sorts the tuple references from start (inclusive) to end (exclusive) bottom-up, leaving them in tPointers.
+     */
+    private void sortRange(TupleReferenceComparator comparator, int start, int end) throws HyracksDataException {
+        int[] src = tPointers;
+        int[] dest = tPointersTemp;
+        int length = end - start;
+        for (int step = 1; step < length; step *= 2) {
+            for (int i = start; i < end; i += 2 * step) {
+                int next = Math.min(i + step, end);
+                merge(comparator, src, i, next, next, Math.min(next + step, end), dest, i);
+            }
+            int[] tmp = src;
+            src = dest;
+            dest = tmp;
+        }
+        if (src != tPointers) {
+            System.arraycopy(src, start * ptrSize, tPointers, start * ptrSize, length * ptrSize);
+        }
+    }
+
+    /**
+     * Merges the sorted runs [start1, end1) and [start2, end2) of src into dest from the given position. The first run
+     * must precede the second in the input so that equal tuples keep their order.
+     */
+    private void merge(TupleReferenceComparator comparator, int[] src, int start1, int end1, int start2, int end2,
+            int[] dest, int targetPos) throws HyracksDataException {
+        int pos1 = start1;
+        int pos2 = start2;
+        int target = targetPos * ptrSize;
+        while (pos1 < end1 && pos2 < end2) {
+            int pos = comparator.compare(src, pos1, src, pos2) <= 0 ? pos1++ : pos2++;
+            System.arraycopy(src, pos * ptrSize, dest, target, ptrSize);
+            target += ptrSize;
+        }
+        if (pos1 < end1) {
+            System.arraycopy(src, pos1 * ptrSize, dest, target, (end1 - pos1) * ptrSize);
+            target += (end1 - pos1) * ptrSize;
+        }
+        if (pos2 < end2) {
+            System.arraycopy(src, pos2 * ptrSize, dest, target, (end2 - pos2) * ptrSize);
+        }
+    }
+
+    /**
+     * Sorts a range of tuple references with the range comparators from firstRange on, one per thread.
+     */
+    private class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstRange;
+        private final int numRanges;
+        private final int start;
+        private final int end;
+
+        SortTask(int firstRange, int numRanges, int start, int end) {
+            this.firstRange = firstRange;
+            this.numRanges = numRanges;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (numRanges == 1) {
+                    sortRange(rangeComparators[firstRange], start, end);
+                    return;
+                }
+                int leftRanges = numRanges / 2;
+                int mid = start + (int) ((long) (end - start) * leftRanges / numRanges);
+                invokeAll(new SortTask(firstRange, leftRanges, start, mid),
+                        new SortTask(firstRange + leftRanges, numRanges - leftRanges, mid, end));
+                if (rangeComparators[firstRange].compare(tPointers, mid - 1, tPointers, mid) > 0) {
+                    new MergeTask(firstRange, numRanges, start, mid, mid, end, start).compute();
+                }
+            } catch (HyracksDataException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted runs of tPointers through tPointersTemp back into tPointers. A merge that spans several range
+     * comparators is split at the middle of its longer run into two independent merges.
+     */
+    private class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstRange;
+        private final int numRanges;
+        private final int start1;
+        private final int end1;
+        private final int start2;
+        private final int end2;
+        private final int targetPos;
+
+        MergeTask(int firstRange, int numRanges, int start1, int end1, int start2, int end2, int targetPos) {
+            this.firstRange = firstRange;
+            this.numRanges = numRanges;
+            this.start1 = start1;
+            this.end1 = end1;
+            this.start2 = start2;
+            this.end2 = end2;
+            this.targetPos = targetPos;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                TupleReferenceComparator comparator = rangeComparators[firstRange];
+                int length = end1 - start1 + end2 - start2;
+                if (numRanges == 1 || length < 2 * MIN_TUPLES_PER_TASK) {
+                    merge(comparator, tPointers, start1, end1, start2, end2, tPointersTemp, targetPos);
+                    System.arraycopy(tPointersTemp, targetPos * ptrSize, tPointers, targetPos * ptrSize,
+                            length * ptrSize);
+                    return;
+                }
+                int split1;
+                int split2;
+                if (end1 - start1 >= end2 - start2) {
+                    // the tuples of the second run that are equal to the split tuple go after it
+                    split1 = (start1 + end1) >>> 1;
+                    split2 = search(comparator, split1, start2, end2, false);
+                } else {
+                    // the tuples of the first run that are equal to the split tuple go before it
+                    split2 = (start2 + end2) >>> 1;
+                    split1 = search(comparator, split2, start1, end1, true);
+                }
+                int leftRanges = numRanges / 2;
+                invokeAll(new MergeTask(firstRange, leftRanges, start1, split1, start2, split2, targetPos),
+                        new MergeTask(firstRange + leftRanges, numRanges - leftRanges, split1, end1, split2, end2,
+                                targetPos + (split1 - start1) + (split2 - start2)));
+            } catch (HyracksDataException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return the first position in [start, end) whose tuple is greater than the one at key, or greater than or
+         *         equal to it if inclusive is false
+         */
+        private int search(TupleReferenceComparator comparator, int key, int start, int end, boolean inclusive)
+                throws HyracksDataException {
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = comparator.compare(tPointers, mid, tPointers, key);
+                if (cmp < 0 || (inclusive && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
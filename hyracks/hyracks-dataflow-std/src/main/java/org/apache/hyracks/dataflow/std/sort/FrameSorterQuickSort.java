@@ -41,13 +41,23 @@ public class FrameSorterQuickSort extends AbstractFrameSorter {
                 outputLimit);
     }
 
+    public FrameSorterQuickSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
+            INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int outputLimit) throws HyracksDataException {
+        super(ctx, bufferManager, sortFields, keyNormalizerFactories, comparatorFactories, recordDescriptor,
+                outputLimit);
+    }
+
     @Override
     void sortTupleReferences() throws HyracksDataException {
         sort(0, tupleCount);
     }
 
     void sort(int offset, int length) throws HyracksDataException {
-        int m = offset + (length >> 1);
+        // the partitioning swaps the tuples equal to the pivot to the front, so the pivot is kept at the offset where
+        // it is swapped with itself only
+        int m = offset;
+        swap(tPointers, m, offset + (length >> 1));
 
         int a = offset;
         int b = a;
@@ -95,10 +105,10 @@ public class FrameSorterQuickSort extends AbstractFrameSorter {
     }
 
     private void swap(int x[], int a, int b) {
-        for (int i = 0; i < 4; ++i) {
-            int t = x[a * 4 + i];
-            x[a * 4 + i] = x[b * 4 + i];
-            x[b * 4 + i] = t;
+        for (int i = 0; i < ptrSize; ++i) {
+            int t = x[a * ptrSize + i];
+            x[a * ptrSize + i] = x[b * ptrSize + i];
+            x[b * ptrSize + i] = t;
         }
     }
 
@@ -55,6 +55,8 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
     private final int[] sortFields;
     private INormalizedKeyComputerFactory firstKeyNormalizerFactory;
     private IBinaryComparatorFactory[] comparatorFactories;
+    private final Algorithm alg;
+    private final int sortParallelism;
 
     public InMemorySortOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] sortFields,
             IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor) {
@@ -64,10 +66,24 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
     public InMemorySortOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDescriptor) {
+        this(spec, sortFields, firstKeyNormalizerFactory, comparatorFactories, recordDescriptor, Algorithm.MERGE_SORT,
+                FrameSorterParallelMergeSort.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param sortParallelism
+     *            the number of threads that sort the frames if alg is {@link Algorithm#PARALLEL_MERGE_SORT}, or
+     *            {@link FrameSorterParallelMergeSort#DEFAULT_PARALLELISM} to use all processors of the node
+     */
+    public InMemorySortOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] sortFields,
+            INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, Algorithm alg, int sortParallelism) {
         super(spec, 1, 1);
         this.sortFields = sortFields;
         this.firstKeyNormalizerFactory = firstKeyNormalizerFactory;
         this.comparatorFactories = comparatorFactories;
+        this.alg = alg;
+        this.sortParallelism = sortParallelism;
         recordDescriptors[0] = recordDescriptor;
     }
 
@@ -86,7 +102,7 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
     }
 
     private static class SortTaskState extends AbstractStateObject {
-        private FrameSorterMergeSort frameSorter;
+        private AbstractFrameSorter frameSorter;
 
         private SortTaskState(JobId jobId, TaskId taskId) {
             super(jobId, taskId);
@@ -123,8 +139,16 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
                             new VariableFramePool(ctx, VariableFramePool.UNLIMITED_MEMORY),
                             FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT));
 
-                    state.frameSorter = new FrameSorterMergeSort(ctx, frameBufferManager, sortFields,
-                            firstKeyNormalizerFactory, comparatorFactories, recordDescriptors[0]);
+                    if (alg == Algorithm.PARALLEL_MERGE_SORT) {
+                        state.frameSorter = new FrameSorterParallelMergeSort(ctx, frameBufferManager, sortFields,
+                                firstKeyNormalizerFactory, comparatorFactories, recordDescriptors[0], sortParallelism);
+                    } else if (alg == Algorithm.QUICK_SORT) {
+                        state.frameSorter = new FrameSorterQuickSort(ctx, frameBufferManager, sortFields,
+                                firstKeyNormalizerFactory, comparatorFactories, recordDescriptors[0]);
+                    } else {
+                        state.frameSorter = new FrameSorterMergeSort(ctx, frameBufferManager, sortFields,
+                                firstKeyNormalizerFactory, comparatorFactories, recordDescriptors[0]);
+                    }
                     state.frameSorter.reset();
                 }
 
@@ -169,6 +193,7 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
                         SortTaskState state = (SortTaskState) ctx.getStateObject(
                                 new TaskId(new ActivityId(getOperatorId(), SORT_ACTIVITY_ID), partition));
                         state.frameSorter.flush(writer);
+                        state.frameSorter.close();
                     } catch (Throwable th) {
                         writer.fail();
                         throw new HyracksDataException(th);
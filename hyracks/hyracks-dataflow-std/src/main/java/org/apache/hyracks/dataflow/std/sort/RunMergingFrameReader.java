@@ -18,7 +18,6 @@
  */
 package org.apache.hyracks.dataflow.std.sort;
 
-import java.util.Comparator;
 import java.util.List;
 
 import org.apache.hyracks.api.comm.IFrame;
@@ -31,8 +30,7 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.std.sort.util.GroupFrameAccessor;
-import org.apache.hyracks.dataflow.std.util.ReferenceEntry;
-import org.apache.hyracks.dataflow.std.util.ReferencedPriorityQueue;
+import org.apache.hyracks.dataflow.std.sort.util.LoserTree;
 
 public class RunMergingFrameReader implements IFrameReader {
     private final IHyracksTaskContext ctx;
@@ -45,7 +43,7 @@ public class RunMergingFrameReader implements IFrameReader {
     private final int topK;
     private int tupleCount;
     private FrameTupleAppender outFrameAppender;
-    private ReferencedPriorityQueue topTuples;
+    private LoserTree topTuples;
     private int[] tupleIndexes;
     private IFrameTupleAccessor[] tupleAccessors;
 
@@ -73,34 +71,31 @@ public class RunMergingFrameReader implements IFrameReader {
         tupleCount = 0;
         tupleAccessors = new IFrameTupleAccessor[runCursors.size()];
         outFrameAppender = new FrameTupleAppender();
-        Comparator<ReferenceEntry> comparator = createEntryComparator(comparators);
-        topTuples = new ReferencedPriorityQueue(runCursors.size(), comparator, sortFields, nmkComputer);
+        topTuples = new LoserTree(runCursors.size(), sortFields, comparators, nmkComputer);
         tupleIndexes = new int[runCursors.size()];
-        for (int i = 0; i < runCursors.size(); i++) {
-            tupleIndexes[i] = 0;
-            int runIndex = topTuples.peek().getRunid();
+        for (int runIndex = 0; runIndex < runCursors.size(); runIndex++) {
+            tupleIndexes[runIndex] = 0;
             runCursors.get(runIndex).open();
             if (runCursors.get(runIndex).nextFrame(inFrames.get(runIndex))) {
                 tupleAccessors[runIndex] = new GroupFrameAccessor(ctx.getInitialFrameSize(), recordDesc);
                 tupleAccessors[runIndex].reset(inFrames.get(runIndex).getBuffer());
-                setNextTopTuple(runIndex, tupleIndexes, runCursors, inFrames, tupleAccessors, topTuples);
+            }
+            if (hasNextTuple(runIndex, tupleIndexes, runCursors, inFrames, tupleAccessors)) {
+                topTuples.setHead(runIndex, tupleAccessors[runIndex], tupleIndexes[runIndex]);
             } else {
                 closeRun(runIndex, runCursors, tupleAccessors);
-                topTuples.pop();
+                topTuples.setExhausted(runIndex);
             }
         }
+        topTuples.initialize();
     }
 
     @Override
     public boolean nextFrame(IFrame outFrame) throws HyracksDataException {
         outFrameAppender.reset(outFrame, true);
-        while (!topTuples.areRunsExhausted() && tupleCount < topK) {
-            ReferenceEntry top = topTuples.peek();
-            int runIndex = top.getRunid();
-            IFrameTupleAccessor fta = top.getAccessor();
-            int tupleIndex = top.getTupleIndex();
-
-            if (!outFrameAppender.append(fta, tupleIndex)) {
+        int runIndex;
+        while ((runIndex = topTuples.getWinner()) >= 0 && tupleCount < topK) {
+            if (!outFrameAppender.append(tupleAccessors[runIndex], tupleIndexes[runIndex])) {
                 return true;
             } else {
                 tupleCount++;
@@ -123,13 +118,13 @@ public class RunMergingFrameReader implements IFrameReader {
     }
 
     private static void setNextTopTuple(int runIndex, int[] tupleIndexes, List<? extends IFrameReader> runCursors,
-            List<? extends IFrame> inFrames, IFrameTupleAccessor[] tupleAccessors, ReferencedPriorityQueue topTuples)
+            List<? extends IFrame> inFrames, IFrameTupleAccessor[] tupleAccessors, LoserTree topTuples)
             throws HyracksDataException {
         boolean exists = hasNextTuple(runIndex, tupleIndexes, runCursors, inFrames, tupleAccessors);
         if (exists) {
-            topTuples.popAndReplace(tupleAccessors[runIndex], tupleIndexes[runIndex]);
+            topTuples.replaceWinner(tupleAccessors[runIndex], tupleIndexes[runIndex]);
         } else {
-            topTuples.pop();
+            topTuples.removeWinner();
             closeRun(runIndex, runCursors, tupleAccessors);
         }
     }
@@ -161,39 +156,4 @@ public class RunMergingFrameReader implements IFrameReader {
             tupleAccessors[index] = null;
         }
     }
-
-    private Comparator<ReferenceEntry> createEntryComparator(final IBinaryComparator[] comparators) {
-        return new Comparator<ReferenceEntry>() {
-            public int compare(ReferenceEntry tp1, ReferenceEntry tp2) {
-                int nmk1 = tp1.getNormalizedKey();
-                int nmk2 = tp2.getNormalizedKey();
-                if (nmk1 != nmk2) {
-                    return ((((long) nmk1) & 0xffffffffL) < (((long) nmk2) & 0xffffffffL)) ? -1 : 1;
-                }
-                IFrameTupleAccessor fta1 = tp1.getAccessor();
-                IFrameTupleAccessor fta2 = tp2.getAccessor();
-                byte[] b1 = fta1.getBuffer().array();
-                byte[] b2 = fta2.getBuffer().array();
-                int[] tPointers1 = tp1.getTPointers();
-                int[] tPointers2 = tp2.getTPointers();
-
-                for (int f = 0; f < sortFields.length; ++f) {
-                    int c;
-                    try {
-                        c = comparators[f].compare(b1, tPointers1[2 * f + 1], tPointers1[2 * f + 2], b2,
-                                tPointers2[2 * f + 1], tPointers2[2 * f + 2]);
-                        if (c != 0) {
-                            return c;
-                        }
-                    } catch (HyracksDataException e) {
-                        throw new IllegalArgumentException(e);
-                    }
-
-                }
-                int runid1 = tp1.getRunid();
-                int runid2 = tp2.getRunid();
-                return runid1 < runid2 ? -1 : (runid1 == runid2 ? 0 : 1);
-            }
-        };
-    }
 }
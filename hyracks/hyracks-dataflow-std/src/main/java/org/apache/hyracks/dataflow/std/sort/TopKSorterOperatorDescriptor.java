@@ -49,7 +49,7 @@ public class TopKSorterOperatorDescriptor extends AbstractSorterOperatorDescript
         return new SortActivity(id) {
             @Override
             protected AbstractSortRunGenerator getRunGenerator(IHyracksTaskContext ctx,
-                    IRecordDescriptorProvider recordDescProvider) {
+                    IRecordDescriptorProvider recordDescProvider, int framesLimit) {
                 return new HybridTopKSortRunGenerator(ctx, framesLimit, topK, sortFields, firstKeyNormalizerFactory,
                         comparatorFactories, recordDescriptors[0]);
 
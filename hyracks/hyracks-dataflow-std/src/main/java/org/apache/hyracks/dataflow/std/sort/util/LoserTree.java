@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort.util;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A tournament tree of losers over the head tuples of sorted runs, to merge the runs in order.
+ * The normalized key and the sort field offsets of each head tuple are computed once, when the tuple becomes the head
+ * of its run, and kept in flat arrays indexed by run, so a replay after the winner is replaced compares the cached
+ * keys along one leaf-to-root path and only calls the comparators on equal keys.
+ * Ties are broken by the run index, so the tuples of the earlier runs are merged first.
+ */
+public class LoserTree {
+    // the index of a run that loses to no run, used while the tree is built
+    private static final int MIN_RUN = -1;
+
+    private final int numRuns;
+    private final int[] sortFields;
+    private final IBinaryComparator[] comparators;
+    private final INormalizedKeyComputer nmkComputer;
+    private final int keyLength;
+    // the number of leading sort fields whose order is fully decided by the normalized key
+    private final int decidedFields;
+
+    // losers[0] is the winner, losers[1 .. numRuns - 1] are the losers of the inner nodes
+    private final int[] losers;
+    private final IFrameTupleAccessor[] accessors;
+    private final boolean[] exhausted;
+    private final int[] keys;
+    // the absolute start offset and the length of each sort field of each head tuple
+    private final int[] fieldPointers;
+    private int numActiveRuns;
+
+    public LoserTree(int numRuns, int[] sortFields, IBinaryComparator[] comparators,
+            INormalizedKeyComputer nmkComputer) {
+        if (numRuns < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.numRuns = numRuns;
+        this.sortFields = sortFields;
+        this.comparators = comparators;
+        this.nmkComputer = nmkComputer;
+        this.keyLength = nmkComputer == null ? 0 : nmkComputer.getNormalizedKeyLength();
+        this.decidedFields = nmkComputer != null && nmkComputer.isDecisive() ? 1 : 0;
+        this.losers = new int[numRuns];
+        this.accessors = new IFrameTupleAccessor[numRuns];
+        this.exhausted = new boolean[numRuns];
+        this.keys = new int[numRuns * keyLength];
+        this.fieldPointers = new int[numRuns * 2 * sortFields.length];
+        this.numActiveRuns = numRuns;
+    }
+
+    /**
+     * Sets the head tuple of a run before {@link #initialize()}.
+     */
+    public void setHead(int run, IFrameTupleAccessor accessor, int tupleIndex) {
+        accessors[run] = accessor;
+        exhausted[run] = false;
+        cacheHead(run, tupleIndex);
+    }
+
+    /**
+     * Marks a run that has no tuples before {@link #initialize()}.
+     */
+    public void setExhausted(int run) {
+        accessors[run] = null;
+        exhausted[run] = true;
+    }
+
+    /**
+     * Plays the initial tournament once the heads of all runs are set.
+     */
+    public void initialize() throws HyracksDataException {
+        numActiveRuns = 0;
+        for (int run = 0; run < numRuns; ++run) {
+            if (!exhausted[run]) {
+                numActiveRuns++;
+            }
+        }
+        for (int i = 0; i < numRuns; ++i) {
+            losers[i] = MIN_RUN;
+        }
+        // every run pushes the minimal run one level up, so the tree holds no minimal run after the last one
+        for (int run = numRuns - 1; run >= 0; --run) {
+            replay(run);
+        }
+    }
+
+    /**
+     * @return the run whose head tuple is the smallest, or -1 if all runs are exhausted
+     */
+    public int getWinner() {
+        return numActiveRuns > 0 ? losers[0] : -1;
+    }
+
+    /**
+     * Replaces the head tuple of the winner by the next tuple of its run and plays its path again.
+     */
+    public void replaceWinner(IFrameTupleAccessor accessor, int tupleIndex) throws HyracksDataException {
+        int run = losers[0];
+        accessors[run] = accessor;
+        cacheHead(run, tupleIndex);
+        replay(run);
+    }
+
+    /**
+     * Removes the winner once its run is exhausted and plays its path again.
+     */
+    public void removeWinner() throws HyracksDataException {
+        int run = losers[0];
+        accessors[run] = null;
+        exhausted[run] = true;
+        numActiveRuns--;
+        replay(run);
+    }
+
+    private void replay(int run) throws HyracksDataException {
+        int winner = run;
+        for (int node = (run + numRuns) >> 1; node > 0; node >>= 1) {
+            if (less(losers[node], winner)) {
+                int tmp = losers[node];
+                losers[node] = winner;
+                winner = tmp;
+            }
+        }
+        losers[0] = winner;
+    }
+
+    private boolean less(int run1, int run2) throws HyracksDataException {
+        if (run1 == MIN_RUN || run2 == MIN_RUN) {
+            return run1 == MIN_RUN && run2 != MIN_RUN;
+        }
+        if (exhausted[run1] || exhausted[run2]) {
+            return exhausted[run2] && (!exhausted[run1] || run1 < run2);
+        }
+        int k1 = run1 * keyLength;
+        int k2 = run2 * keyLength;
+        for (int k = 0; k < keyLength; ++k) {
+            int v1 = keys[k1 + k];
+            int v2 = keys[k2 + k];
+            if (v1 != v2) {
+                return (((long) v1) & 0xffffffffL) < (((long) v2) & 0xffffffffL);
+            }
+        }
+        byte[] b1 = accessors[run1].getBuffer().array();
+        byte[] b2 = accessors[run2].getBuffer().array();
+        int p1 = run1 * 2 * sortFields.length;
+        int p2 = run2 * 2 * sortFields.length;
+        for (int f = decidedFields; f < sortFields.length; ++f) {
+            int c = comparators[f].compare(b1, fieldPointers[p1 + 2 * f], fieldPointers[p1 + 2 * f + 1], b2,
+                    fieldPointers[p2 + 2 * f], fieldPointers[p2 + 2 * f + 1]);
+            if (c != 0) {
+                return c < 0;
+            }
+        }
+        return run1 < run2;
+    }
+
+    private void cacheHead(int run, int tupleIndex) {
+        IFrameTupleAccessor fta = accessors[run];
+        int p = run * 2 * sortFields.length;
+        for (int f = 0; f < sortFields.length; ++f) {
+            fieldPointers[p + 2 * f] = fta.getAbsoluteFieldStartOffset(tupleIndex, sortFields[f]);
+            fieldPointers[p + 2 * f + 1] = fta.getFieldLength(tupleIndex, sortFields[f]);
+        }
+        if (keyLength > 0) {
+            nmkComputer.normalize(fta.getBuffer().array(), fieldPointers[p], fieldPointers[p + 1], keys,
+                    run * keyLength);
+        }
+    }
+}
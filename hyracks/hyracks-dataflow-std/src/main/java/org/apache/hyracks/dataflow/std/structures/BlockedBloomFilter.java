@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.io.Serializable;
+
+/**
+ * An in-memory bloom filter over the hash values of keys, which sets all the bits of a key in one 64-byte block, so
+ * that a lookup touches one cache line.
+ * The block and the bits of a key are taken from two 64-bit mixes of its hash value, so the hash values may be
+ * correlated, such as the ones of the tuples of a hash join partition.
+ */
+public class BlockedBloomFilter implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // the bits of a block, 2^BLOCK_BITS_LOG
+    private static final int BLOCK_BITS_LOG = 9;
+    private static final int BLOCK_LONGS = (1 << BLOCK_BITS_LOG) / Long.SIZE;
+    private static final int NUM_HASHES = 6;
+
+    private final long[] bits;
+    private final int numBlocks;
+
+    /**
+     * @param numKeys
+     *            the number of keys the filter is sized for
+     * @param bitsPerKey
+     *            the number of bits per key, 12 bits give a false positive rate below one percent
+     */
+    public BlockedBloomFilter(int numKeys, int bitsPerKey) {
+        long numBits = Math.max(1L, (long) numKeys) * bitsPerKey;
+        numBlocks = (int) Math.max(1L, Math.min(Integer.MAX_VALUE / BLOCK_LONGS, (numBits + 511) >>> BLOCK_BITS_LOG));
+        bits = new long[numBlocks * BLOCK_LONGS];
+    }
+
+    public void add(int hash) {
+        int block = block(hash) * BLOCK_LONGS;
+        long mix = mix(hash);
+        for (int i = 0; i < NUM_HASHES; ++i) {
+            int bit = (int) (mix >>> (i * BLOCK_BITS_LOG)) & ((1 << BLOCK_BITS_LOG) - 1);
+            bits[block + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if no key with the hash value was added, true if one may have been
+     */
+    public boolean mightContain(int hash) {
+        int block = block(hash) * BLOCK_LONGS;
+        long mix = mix(hash);
+        for (int i = 0; i < NUM_HASHES; ++i) {
+            int bit = (int) (mix >>> (i * BLOCK_BITS_LOG)) & ((1 << BLOCK_BITS_LOG) - 1);
+            if ((bits[block + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the size of the filter in bytes
+     */
+    public int getSize() {
+        return bits.length * Long.BYTES;
+    }
+
+    private int block(int hash) {
+        // a second mix, independent of the bit positions, scaled to the number of blocks
+        return (int) (((mix(~hash) >>> 32) * numBlocks) >>> 32);
+    }
+
+    private static long mix(int hash) {
+        long h = (hash & 0xffffffffL) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
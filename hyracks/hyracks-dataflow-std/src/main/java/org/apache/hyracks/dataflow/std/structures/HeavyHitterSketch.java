@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.util.Arrays;
+
+/**
+ * Finds the most frequent values of a stream with a fixed number of counters (the Misra-Gries summary): a value
+ * without a counter takes a free one, or decrements all of them if there is none.
+ * Every value that occurs more than n / (capacity + 1) times in a stream of n values keeps a counter, whose count
+ * underestimates its frequency by at most n / (capacity + 1).
+ */
+public class HeavyHitterSketch {
+    private final int[] values;
+    private final int[] counts;
+    private int size;
+    private int numOffered;
+
+    public HeavyHitterSketch(int capacity) {
+        values = new int[capacity];
+        counts = new int[capacity];
+    }
+
+    public void offer(int value) {
+        numOffered++;
+        for (int i = 0; i < size; ++i) {
+            if (values[i] == value) {
+                counts[i]++;
+                return;
+            }
+        }
+        if (size < values.length) {
+            values[size] = value;
+            counts[size] = 1;
+            size++;
+            return;
+        }
+        int newSize = 0;
+        for (int i = 0; i < size; ++i) {
+            if (counts[i] > 1) {
+                values[newSize] = values[i];
+                counts[newSize] = counts[i] - 1;
+                newSize++;
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * @return the number of values offered
+     */
+    public int getNumOffered() {
+        return numOffered;
+    }
+
+    /**
+     * @return the values whose count is at least minCount
+     */
+    public int[] getHeavyHitters(int minCount) {
+        int[] heavyHitters = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; ++i) {
+            if (counts[i] >= minCount) {
+                heavyHitters[n++] = values[i];
+            }
+        }
+        return Arrays.copyOf(heavyHitters, n);
+    }
+
+    public void reset() {
+        size = 0;
+        numOffered = 0;
+    }
+}
@@ -24,10 +24,26 @@ public interface ISerializableTable {
 
     void insert(int entry, TuplePointer tuplePointer) throws HyracksDataException;
 
+    /**
+     * Inserts a tuple pointer with the full hash value of its key, which a table may keep to skip the tuples of the
+     * other keys of the entry without touching their frames. The hash value must be non-negative.
+     */
+    default void insert(int entry, int hash, TuplePointer tuplePointer) throws HyracksDataException {
+        insert(entry, tuplePointer);
+    }
+
     void delete(int entry);
 
     boolean getTuplePointer(int entry, int offset, TuplePointer tuplePointer);
 
+    /**
+     * Gets the offset-th tuple pointer of the entry whose key may have the given hash value. The tables that do not
+     * keep the hash values return all the tuple pointers of the entry, so the caller still compares the keys.
+     */
+    default boolean getTuplePointer(int entry, int hash, int offset, TuplePointer tuplePointer) {
+        return getTuplePointer(entry, offset, tuplePointer);
+    }
+
     int getFrameCount();
 
     int getTupleCount();
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+
+/**
+ * An open-addressing table that keeps each tuple pointer in a slot of one flat int array together with its entry and
+ * the hash value of its key: entry, hash, fIndex, tIndex. The tuples of an entry are found by probing the slots
+ * linearly from the home slot of the entry, so a lookup reads consecutive memory instead of following the pointers
+ * of the entry chains, and the tuples whose hash value differs from the one looked up are skipped without touching
+ * their frames.
+ * The table doubles its slots when they are half used, so its size follows the number of tuples rather than the
+ * table size it is created with. A deleted slot is kept as a tombstone until the slots are rebuilt.
+ */
+public class LinearProbingHashTable implements ISerializableTable {
+
+    private static final int INT_SIZE = 4;
+    private static final int SLOT_SIZE = 4;
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+    // the hash value of a tuple inserted without one, which matches any hash value
+    private static final int NO_HASH = -1;
+    private static final int MIN_CAPACITY = 64;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 17;
+
+    private final int frameSize;
+    private final int initialCapacity;
+    private int[] slots;
+    private int mask;
+    private int tupleCount;
+    // the slots that are not empty, including the tombstones
+    private int usedSlots;
+
+    // the last tuple pointer found, so that iterating over the tuples of an entry continues from its slot
+    private int lastEntry = EMPTY;
+    private int lastHash;
+    private int lastOffset;
+    private int lastSlot;
+
+    public LinearProbingHashTable(int tableSize, IHyracksFrameMgrContext ctx) {
+        this.frameSize = ctx.getInitialFrameSize();
+        int capacity = MIN_CAPACITY;
+        while (capacity < MAX_INITIAL_CAPACITY && capacity < 2L * tableSize) {
+            capacity <<= 1;
+        }
+        this.initialCapacity = capacity;
+        allocate(capacity);
+    }
+
+    @Override
+    public void insert(int entry, TuplePointer tuplePointer) {
+        insert(entry, NO_HASH, tuplePointer);
+    }
+
+    @Override
+    public void insert(int entry, int hash, TuplePointer tuplePointer) {
+        int capacity = mask + 1;
+        if ((usedSlots + 1) * 2 > capacity) {
+            // grow unless the tombstones take most of the used slots
+            rehash(tupleCount * 4 > capacity ? capacity * 2 : capacity);
+        }
+        int slot = home(entry);
+        while (slots[slot * SLOT_SIZE] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        setSlot(slot, entry, hash, tuplePointer.frameIndex, tuplePointer.tupleIndex);
+        tupleCount++;
+        usedSlots++;
+        lastEntry = EMPTY;
+    }
+
+    @Override
+    public void delete(int entry) {
+        for (int slot = home(entry); slots[slot * SLOT_SIZE] != EMPTY; slot = (slot + 1) & mask) {
+            if (slots[slot * SLOT_SIZE] == entry) {
+                slots[slot * SLOT_SIZE] = DELETED;
+                tupleCount--;
+            }
+        }
+        lastEntry = EMPTY;
+    }
+
+    @Override
+    public boolean getTuplePointer(int entry, int offset, TuplePointer tuplePointer) {
+        return getTuplePointer(entry, NO_HASH, offset, tuplePointer);
+    }
+
+    @Override
+    public boolean getTuplePointer(int entry, int hash, int offset, TuplePointer tuplePointer) {
+        int slot;
+        int skip;
+        if (entry == lastEntry && hash == lastHash && offset == lastOffset + 1) {
+            slot = (lastSlot + 1) & mask;
+            skip = 0;
+        } else {
+            slot = home(entry);
+            skip = offset;
+        }
+        for (int s = slot * SLOT_SIZE; slots[s] != EMPTY; slot = (slot + 1) & mask, s = slot * SLOT_SIZE) {
+            if (slots[s] == entry && (hash == NO_HASH || slots[s + 1] == NO_HASH || slots[s + 1] == hash)) {
+                if (skip == 0) {
+                    tuplePointer.frameIndex = slots[s + 2];
+                    tuplePointer.tupleIndex = slots[s + 3];
+                    lastEntry = entry;
+                    lastHash = hash;
+                    lastOffset = offset;
+                    lastSlot = slot;
+                    return true;
+                }
+                skip--;
+            }
+        }
+        tuplePointer.frameIndex = -1;
+        tuplePointer.tupleIndex = -1;
+        return false;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return (int) (((long) slots.length * INT_SIZE + frameSize - 1) / frameSize);
+    }
+
+    @Override
+    public int getTupleCount() {
+        return tupleCount;
+    }
+
+    @Override
+    public int getTupleCount(int entry) {
+        int count = 0;
+        for (int slot = home(entry); slots[slot * SLOT_SIZE] != EMPTY; slot = (slot + 1) & mask) {
+            if (slots[slot * SLOT_SIZE] == entry) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(slots, 0, slots.length, EMPTY);
+        tupleCount = 0;
+        usedSlots = 0;
+        lastEntry = EMPTY;
+    }
+
+    @Override
+    public void close() {
+        allocate(initialCapacity);
+    }
+
+    private void allocate(int capacity) {
+        slots = new int[capacity * SLOT_SIZE];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+        tupleCount = 0;
+        usedSlots = 0;
+        lastEntry = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldSlots = slots;
+        // start after an empty slot, so that no run of slots wraps around and the tuples of an entry keep their order
+        int start = 0;
+        while (oldSlots[start] != EMPTY) {
+            start += SLOT_SIZE;
+        }
+        allocate(capacity);
+        for (int i = 0; i < oldSlots.length; i += SLOT_SIZE) {
+            int s = (start + i) % oldSlots.length;
+            int entry = oldSlots[s];
+            if (entry >= 0) {
+                int slot = home(entry);
+                while (slots[slot * SLOT_SIZE] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                setSlot(slot, entry, oldSlots[s + 1], oldSlots[s + 2], oldSlots[s + 3]);
+                tupleCount++;
+                usedSlots++;
+            }
+        }
+    }
+
+    private void setSlot(int slot, int entry, int hash, int frameIndex, int tupleIndex) {
+        int s = slot * SLOT_SIZE;
+        slots[s] = entry;
+        slots[s + 1] = hash;
+        slots[s + 2] = frameIndex;
+        slots[s + 3] = tupleIndex;
+    }
+
+    private int home(int entry) {
+        // the entries of a partitioned table are consecutive, so they are spread over the slots
+        int h = entry * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * The layout of the table of tuple pointers that the hash joins and the hash group-by build.
+ */
+public enum SerializableTableType {
+    /**
+     * The tuple pointers of an entry are chained in frames, see {@link SerializableHashTable}
+     */
+    CHAINED,
+    /**
+     * The tuple pointers are kept in linearly probed slots with the hash values of their keys, see
+     * {@link LinearProbingHashTable}
+     */
+    LINEAR_PROBING;
+
+    public ISerializableTable createTable(int tableSize, IHyracksFrameMgrContext ctx) throws HyracksDataException {
+        switch (this) {
+            case LINEAR_PROBING:
+                return new LinearProbingHashTable(tableSize, ctx);
+            case CHAINED:
+            default:
+                return new SerializableHashTable(tableSize, ctx);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BlockedBloomFilterTest {
+    private static final int NUM_KEYS = 100000;
+
+    @Test
+    public void testNoFalseNegatives() {
+        Random random = new Random(0);
+        int[] hashes = new int[NUM_KEYS];
+        BlockedBloomFilter filter = new BlockedBloomFilter(NUM_KEYS, 12);
+        for (int i = 0; i < NUM_KEYS; ++i) {
+            hashes[i] = random.nextInt();
+            filter.add(hashes[i]);
+        }
+        for (int hash : hashes) {
+            assertTrue(filter.mightContain(hash));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateOfCorrelatedHashes() {
+        // the hash values of one partition of a hash join, which share their remainder
+        int numPartitions = 64;
+        BlockedBloomFilter filter = new BlockedBloomFilter(NUM_KEYS, 12);
+        for (int i = 0; i < NUM_KEYS; ++i) {
+            filter.add(i * numPartitions);
+        }
+        int falsePositives = 0;
+        for (int i = NUM_KEYS; i < 2 * NUM_KEYS; ++i) {
+            if (filter.mightContain(i * numPartitions)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positive rate " + (double) falsePositives / NUM_KEYS, falsePositives < NUM_KEYS / 50);
+    }
+}
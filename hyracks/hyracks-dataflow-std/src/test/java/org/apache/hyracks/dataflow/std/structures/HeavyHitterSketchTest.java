@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HeavyHitterSketchTest {
+
+    @Test
+    public void testFindsHeavyHitters() {
+        Random random = new Random(0);
+        HeavyHitterSketch sketch = new HeavyHitterSketch(128);
+        int num = 100000;
+        for (int i = 0; i < num; i++) {
+            // 10% and 5% of the values are hot, the others are uniform
+            int r = random.nextInt(100);
+            if (r < 10) {
+                sketch.offer(7);
+            } else if (r < 15) {
+                sketch.offer(42);
+            } else {
+                sketch.offer(1000 + random.nextInt(1 << 20));
+            }
+        }
+        assertEquals(num, sketch.getNumOffered());
+        int[] heavyHitters = sketch.getHeavyHitters(num / 100);
+        Arrays.sort(heavyHitters);
+        assertArrayEquals(new int[] { 7, 42 }, heavyHitters);
+    }
+
+    @Test
+    public void testNoHeavyHittersInUniformValues() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(16);
+        for (int i = 0; i < 10000; i++) {
+            sketch.offer(i);
+        }
+        assertEquals(0, sketch.getHeavyHitters(2).length);
+        sketch.reset();
+        assertEquals(0, sketch.getNumOffered());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinearProbingHashTableTest {
+
+    LinearProbingHashTable lpTable;
+    final int NUM_PART = 101;
+    TuplePointer pointer = new TuplePointer(0, 0);
+    final int num = 1000;
+
+    @Before
+    public void setup() {
+        // a small table, so that the inserts rehash the slots
+        lpTable = new LinearProbingHashTable(8, new FrameManager(256));
+    }
+
+    @Test
+    public void testInsert() throws Exception {
+        for (int i = 0; i < num; i++) {
+            pointer.reset(i, i);
+            lpTable.insert(i % NUM_PART, pointer);
+        }
+        assertEquals(num, lpTable.getTupleCount());
+        assertGetValue();
+    }
+
+    @Test
+    public void testBatchDeletePartition() throws Exception {
+        testInsert();
+        for (int i = 0; i < NUM_PART; i++) {
+            lpTable.delete(i);
+            assertFalse(lpTable.getTuplePointer(i, 0, pointer));
+            assertEquals(0, lpTable.getTupleCount(i));
+
+            for (int j = i; j < num; j += NUM_PART) {
+                pointer.reset(j, j);
+                lpTable.insert(i, pointer);
+            }
+
+            assertGetValue();
+        }
+        assertEquals(num, lpTable.getTupleCount());
+    }
+
+    @Test
+    public void testHashFiltersTuplesOfEntry() throws Exception {
+        // two keys per entry, told apart by their hash values
+        for (int i = 0; i < num; i++) {
+            int hash = i % (2 * NUM_PART);
+            pointer.reset(i, i);
+            lpTable.insert(hash % NUM_PART, hash, pointer);
+        }
+        for (int hash = 0; hash < 2 * NUM_PART; hash++) {
+            int count = 0;
+            for (int i = 0; lpTable.getTuplePointer(hash % NUM_PART, hash, i, pointer); i++) {
+                assertEquals(hash, pointer.frameIndex % (2 * NUM_PART));
+                count++;
+            }
+            assertTrue(count == 4 || count == 5);
+            assertEquals(-1, pointer.frameIndex);
+        }
+        for (int i = 0; i < NUM_PART; i++) {
+            assertTrue(lpTable.getTupleCount(i) == 10 || lpTable.getTupleCount(i) == 9);
+        }
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        testInsert();
+        lpTable.reset();
+        assertEquals(0, lpTable.getTupleCount());
+        for (int i = 0; i < NUM_PART; i++) {
+            assertEquals(0, lpTable.getTupleCount(i));
+        }
+        testInsert();
+    }
+
+    private void assertGetValue() {
+        int loop = 0;
+        for (int i = 0; i < num; i++) {
+            assertTrue(lpTable.getTuplePointer(i % NUM_PART, loop, pointer));
+            assertTrue(pointer.frameIndex == i);
+            if (i % NUM_PART == NUM_PART - 1) {
+                loop++;
+            }
+        }
+        for (int i = 0; i < NUM_PART; i++) {
+            assertTrue(lpTable.getTupleCount(i) == 10 || lpTable.getTupleCount(i) == 9);
+        }
+    }
+}
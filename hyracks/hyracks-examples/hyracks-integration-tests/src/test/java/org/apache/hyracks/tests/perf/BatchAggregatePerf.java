@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.perf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.FloatSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.group.AggregateState;
+import org.apache.hyracks.dataflow.std.group.AggregateType;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.group.aggregators.AvgFieldGroupAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.preclustered.PreclusteredGroupWriter;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Computes sum, count and avg of an int field grouped by an int key, once with the per-tuple aggregation and once with
+ * the batch aggregation, and reports the average times. The preclustered group-by runs over groups of 1 to 32
+ * consecutive tuples and the hash group-by over a table of NUM_HASH_GROUPS groups that fits into memory.
+ */
+public class BatchAggregatePerf {
+    private static final int FRAME_SIZE = 32768;
+    private static final int NUM_RECORDS = 4000000;
+    private static final int NUM_HASH_GROUPS = 10000;
+    private static final int REPEATS = 5;
+
+    private static final int[] KEY_FIELDS = new int[] { 0 };
+    private static final RecordDescriptor IN_RECORD_DESC = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    private static final RecordDescriptor OUT_RECORD_DESC = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE, FloatSerializerDeserializer.INSTANCE });
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output times.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        List<ByteBuffer> clusteredFrames = generateRecords(ctx, true);
+        List<ByteBuffer> randomFrames = generateRecords(ctx, false);
+        for (int i = 0; i < 2; ++i) {
+            runPreclustered(ctx, clusteredFrames, false);
+            runPreclustered(ctx, clusteredFrames, true);
+            runHash(ctx, randomFrames, false);
+            runHash(ctx, randomFrames, true);
+        }
+    }
+
+    private static void runPreclustered(IHyracksTaskContext ctx, List<ByteBuffer> frames, boolean batch)
+            throws HyracksDataException {
+        IAggregatorDescriptorFactory aggregatorFactory = createAggregatorFactory(true);
+        if (!batch) {
+            aggregatorFactory = perTuple(aggregatorFactory);
+        }
+        long time = 0;
+        for (int r = 0; r < REPEATS; ++r) {
+            PreclusteredGroupWriter groupWriter = new PreclusteredGroupWriter(ctx, KEY_FIELDS,
+                    new IBinaryComparator[] {
+                            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator() },
+                    aggregatorFactory, IN_RECORD_DESC, OUT_RECORD_DESC, new NullWriter());
+            long start = System.nanoTime();
+            groupWriter.open();
+            for (ByteBuffer frame : frames) {
+                groupWriter.nextFrame(frame);
+            }
+            groupWriter.close();
+            time += System.nanoTime() - start;
+        }
+        report("PRECLUSTERED", batch, time);
+    }
+
+    private static void runHash(IHyracksTaskContext ctx, List<ByteBuffer> frames, boolean batch)
+            throws HyracksDataException {
+        FrameTupleAccessor accessor = new FrameTupleAccessor(IN_RECORD_DESC);
+        long time = 0;
+        for (int r = 0; r < REPEATS; ++r) {
+            ISpillableTable table = new HashSpillableTableFactory(
+                    new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE })
+                            .buildSpillableTable(ctx, NUM_HASH_GROUPS * 2, NUM_HASH_GROUPS * 32L, KEY_FIELDS,
+                                    new IBinaryComparator[] { PointableBinaryComparatorFactory
+                                            .of(IntegerPointable.FACTORY).createBinaryComparator() },
+                                    new IntegerNormalizedKeyComputerFactory().createNormalizedKeyComputer(),
+                                    createAggregatorFactory(false), IN_RECORD_DESC, OUT_RECORD_DESC, 64, 0);
+            long start = System.nanoTime();
+            for (ByteBuffer frame : frames) {
+                accessor.reset(frame);
+                if (batch) {
+                    if (table.insertBatch(accessor, 0) < accessor.getTupleCount()) {
+                        throw new HyracksDataException("The hash table is too small for the experiment");
+                    }
+                } else {
+                    for (int i = 0; i < accessor.getTupleCount(); ++i) {
+                        if (!table.insert(accessor, i)) {
+                            throw new HyracksDataException("The hash table is too small for the experiment");
+                        }
+                    }
+                }
+            }
+            table.flushFrames(0, new NullWriter(), AggregateType.FINAL);
+            time += System.nanoTime() - start;
+            table.close();
+        }
+        report("HASH", batch, time);
+    }
+
+    private static void report(String groupBy, boolean batch, long time) {
+        System.out.println(String.format("GROUP-BY: %-12s  AGGREGATION: %-9s  AVG TIME: %6dms", groupBy,
+                batch ? "BATCH" : "PER-TUPLE", time / REPEATS / 1000000));
+    }
+
+    private static IAggregatorDescriptorFactory createAggregatorFactory(boolean useObjectState) {
+        return new MultiFieldsAggregatorFactory(KEY_FIELDS,
+                new IFieldAggregateDescriptorFactory[] { new IntSumFieldAggregatorFactory(1, useObjectState),
+                        new CountFieldAggregatorFactory(useObjectState),
+                        new AvgFieldGroupAggregatorFactory(1, useObjectState) });
+    }
+
+    private static List<ByteBuffer> generateRecords(IHyracksTaskContext ctx, boolean clustered)
+            throws HyracksDataException {
+        Random random = new Random(0);
+        List<ByteBuffer> frames = new ArrayList<>();
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(IN_RECORD_DESC.getFieldCount());
+        FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        int key = 0;
+        int remaining = 0;
+        for (int i = 0; i < NUM_RECORDS; ++i) {
+            if (clustered) {
+                if (remaining == 0) {
+                    ++key;
+                    remaining = 1 + random.nextInt(32);
+                }
+                --remaining;
+            } else {
+                key = random.nextInt(NUM_HASH_GROUPS);
+            }
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, key);
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, random.nextInt(1000));
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frames.add(appender.getBuffer());
+                appender.reset(new VSizeFrame(ctx), true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        frames.add(appender.getBuffer());
+        return frames;
+    }
+
+    /**
+     * Hides the batch aggregation of the aggregators of a factory, so that they aggregate tuple by tuple.
+     */
+    private static IAggregatorDescriptorFactory perTuple(final IAggregatorDescriptorFactory factory) {
+        return new IAggregatorDescriptorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public IAggregatorDescriptor createAggregator(IHyracksTaskContext ctx,
+                    RecordDescriptor inRecordDescriptor, RecordDescriptor outRecordDescriptor, int[] keyFields,
+                    int[] keyFieldsInPartialResults, IFrameWriter writer) throws HyracksDataException {
+                final IAggregatorDescriptor aggregator = factory.createAggregator(ctx, inRecordDescriptor,
+                        outRecordDescriptor, keyFields, keyFieldsInPartialResults, writer);
+                return new IAggregatorDescriptor() {
+                    @Override
+                    public AggregateState createAggregateStates() {
+                        return aggregator.createAggregateStates();
+                    }
+
+                    @Override
+                    public void init(ArrayTupleBuilder tupleBuilder, IFrameTupleAccessor accessor, int tIndex,
+                            AggregateState state) throws HyracksDataException {
+                        aggregator.init(tupleBuilder, accessor, tIndex, state);
+                    }
+
+                    @Override
+                    public void reset() {
+                        aggregator.reset();
+                    }
+
+                    @Override
+                    public void aggregate(IFrameTupleAccessor accessor, int tIndex,
+                            IFrameTupleAccessor stateAccessor, int stateTupleIndex, AggregateState state)
+                            throws HyracksDataException {
+                        aggregator.aggregate(accessor, tIndex, stateAccessor, stateTupleIndex, state);
+                    }
+
+                    @Override
+                    public boolean outputPartialResult(ArrayTupleBuilder tupleBuilder,
+                            IFrameTupleAccessor stateAccessor, int tIndex, AggregateState state)
+                            throws HyracksDataException {
+                        return aggregator.outputPartialResult(tupleBuilder, stateAccessor, tIndex, state);
+                    }
+
+                    @Override
+                    public boolean outputFinalResult(ArrayTupleBuilder tupleBuilder, IFrameTupleAccessor stateAccessor,
+                            int tIndex, AggregateState state) throws HyracksDataException {
+                        return aggregator.outputFinalResult(tupleBuilder, stateAccessor, tIndex, state);
+                    }
+
+                    @Override
+                    public void close() {
+                        aggregator.close();
+                    }
+                };
+            }
+        };
+    }
+
+    private static class NullWriter implements IFrameWriter {
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.perf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.DoubleNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+import org.apache.hyracks.dataflow.std.sort.AbstractFrameSorter;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterMergeSort;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterQuickSort;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Sorts in memory the records of a lineitem-like table on multi-field keys, normalizing the first sort field only as
+ * before and normalizing all leading sort fields, and reports the sort times and the number of field comparator calls.
+ * The sort keys are (l_orderkey, l_linenumber), (l_shipmode, l_orderkey) and (l_extendedprice, l_orderkey).
+ */
+public class FrameSorterNormalizedKeyPerf {
+    private static final int FRAME_SIZE = 32768;
+    private static final int NUM_RECORDS = 2000000;
+    private static final int REPEATS = 5;
+    private static final String[] SHIP_MODES = { "AIR", "FOB", "MAIL", "RAIL", "REG AIR", "SHIP", "TRUCK" };
+
+    // l_orderkey, l_linenumber, l_shipmode, l_extendedprice
+    @SuppressWarnings("rawtypes")
+    private static final ISerializerDeserializer[] SERDES = new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+            new UTF8StringSerializerDeserializer(), DoubleSerializerDeserializer.INSTANCE };
+    private static final IBinaryComparatorFactory[] COMPARATOR_FACTORIES = new IBinaryComparatorFactory[] {
+            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY),
+            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY),
+            PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY),
+            PointableBinaryComparatorFactory.of(DoublePointable.FACTORY) };
+    private static final INormalizedKeyComputerFactory[] NORMALIZER_FACTORIES = new INormalizedKeyComputerFactory[] {
+            new IntegerNormalizedKeyComputerFactory(), new IntegerNormalizedKeyComputerFactory(),
+            new UTF8StringNormalizedKeyComputerFactory(), new DoubleNormalizedKeyComputerFactory() };
+
+    private static long comparisons;
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output times.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        RecordDescriptor recordDesc = new RecordDescriptor(SERDES);
+        List<ByteBuffer> frames = generateLineItems(ctx);
+        int[][] sortFieldsToTest = { { 0, 1 }, { 2, 0 }, { 3, 0 } };
+        for (int[] sortFields : sortFieldsToTest) {
+            for (int i = 0; i < 2; ++i) {
+                runExperiment(ctx, recordDesc, frames, sortFields, false, i == 0);
+                runExperiment(ctx, recordDesc, frames, sortFields, true, i == 0);
+            }
+        }
+    }
+
+    private static void runExperiment(IHyracksTaskContext ctx, RecordDescriptor recordDesc, List<ByteBuffer> frames,
+            int[] sortFields, boolean multiFieldKeys, boolean mergeSort) throws HyracksDataException {
+        IBinaryComparatorFactory[] comparatorFactories = new IBinaryComparatorFactory[sortFields.length];
+        INormalizedKeyComputerFactory[] normalizerFactories = new INormalizedKeyComputerFactory[sortFields.length];
+        for (int i = 0; i < sortFields.length; ++i) {
+            comparatorFactories[i] = countCalls(COMPARATOR_FACTORIES[sortFields[i]]);
+            normalizerFactories[i] = multiFieldKeys ? NORMALIZER_FACTORIES[sortFields[i]]
+                    : singleInt(NORMALIZER_FACTORIES[sortFields[i]]);
+        }
+        if (!multiFieldKeys) {
+            // the first field only, truncated to a single int
+            for (int i = 1; i < normalizerFactories.length; ++i) {
+                normalizerFactories[i] = null;
+            }
+        }
+
+        long sortTime = 0;
+        long calls = 0;
+        for (int r = 0; r < REPEATS; ++r) {
+            IFrameBufferManager bufferManager = new VariableFrameMemoryManager(
+                    new VariableFramePool(ctx, (frames.size() + 1) * FRAME_SIZE),
+                    FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT, frames.size() + 1));
+            AbstractFrameSorter sorter = mergeSort
+                    ? new FrameSorterMergeSort(ctx, bufferManager, sortFields, normalizerFactories,
+                            comparatorFactories, recordDesc, Integer.MAX_VALUE)
+                    : new FrameSorterQuickSort(ctx, bufferManager, sortFields, normalizerFactories,
+                            comparatorFactories, recordDesc, Integer.MAX_VALUE);
+            for (ByteBuffer frame : frames) {
+                sorter.insertFrame(frame);
+            }
+            comparisons = 0;
+            long start = System.nanoTime();
+            sorter.sort();
+            sortTime += System.nanoTime() - start;
+            calls += comparisons;
+            sorter.flush(new IFrameWriter() {
+                @Override
+                public void open() throws HyracksDataException {
+                }
+
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                }
+
+                @Override
+                public void fail() throws HyracksDataException {
+                }
+
+                @Override
+                public void close() throws HyracksDataException {
+                }
+            });
+            sorter.close();
+        }
+        StringBuilder fields = new StringBuilder();
+        for (int f : sortFields) {
+            fields.append(fields.length() == 0 ? "" : ",").append(f);
+        }
+        System.out.println(String.format("FIELDS: %-4s  %-10s  KEY: %-12s  AVG SORT TIME: %6dms  COMPARES: %10d",
+                fields, mergeSort ? "MERGESORT" : "QUICKSORT", multiFieldKeys ? "MULTI-FIELD" : "FIRST-FIELD",
+                sortTime / REPEATS / 1000000, calls / REPEATS));
+    }
+
+    private static List<ByteBuffer> generateLineItems(IHyracksTaskContext ctx) throws HyracksDataException {
+        Random random = new Random(0);
+        List<ByteBuffer> frames = new ArrayList<>();
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(SERDES.length);
+        FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        int orderKey = 0;
+        int lineNumber = 0;
+        int numLines = 0;
+        for (int i = 0; i < NUM_RECORDS; ++i) {
+            if (lineNumber == numLines) {
+                // one to seven line items per order, the orders in random order
+                orderKey = random.nextInt(NUM_RECORDS);
+                lineNumber = 0;
+                numLines = 1 + random.nextInt(7);
+            }
+            ++lineNumber;
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, orderKey);
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, lineNumber);
+            tb.addField(new UTF8StringSerializerDeserializer(), SHIP_MODES[random.nextInt(SHIP_MODES.length)]);
+            tb.addField(DoubleSerializerDeserializer.INSTANCE, (900 + random.nextInt(100000)) / 100.0);
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frames.add(appender.getBuffer());
+                appender.reset(new VSizeFrame(ctx), true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        frames.add(appender.getBuffer());
+        return frames;
+    }
+
+    private static IBinaryComparatorFactory countCalls(final IBinaryComparatorFactory factory) {
+        return new IBinaryComparatorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public IBinaryComparator createBinaryComparator() {
+                final IBinaryComparator comparator = factory.createBinaryComparator();
+                return new IBinaryComparator() {
+                    @Override
+                    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2)
+                            throws HyracksDataException {
+                        ++comparisons;
+                        return comparator.compare(b1, s1, l1, b2, s2, l2);
+                    }
+                };
+            }
+        };
+    }
+
+    private static INormalizedKeyComputerFactory singleInt(final INormalizedKeyComputerFactory factory) {
+        return new INormalizedKeyComputerFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public INormalizedKeyComputer createNormalizedKeyComputer() {
+                final INormalizedKeyComputer nkc = factory.createNormalizedKeyComputer();
+                return new INormalizedKeyComputer() {
+                    @Override
+                    public int normalize(byte[] bytes, int start, int length) {
+                        return nkc.normalize(bytes, start, length);
+                    }
+                };
+            }
+        };
+    }
+}
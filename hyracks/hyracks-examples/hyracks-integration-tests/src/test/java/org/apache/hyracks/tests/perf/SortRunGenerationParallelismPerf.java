@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.tests.perf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
+import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Generates the sorted runs of a lineitem-like table with the sequential merge sort and with the parallel merge sort
+ * at an increasing degree of parallelism, up to the number of available processors, and reports the average run
+ * generation time and the speedup over the sequential merge sort.
+ * The sort keys are (l_orderkey, l_linenumber), which the normalized keys decide, and (l_shipmode, l_orderkey), which
+ * needs the comparators for most comparisons.
+ */
+public class SortRunGenerationParallelismPerf {
+    private static final int FRAME_SIZE = 32768;
+    private static final int NUM_RECORDS = 4000000;
+    // the memory budget of the sort, in frames; the input takes several budgets so several runs are generated
+    private static final int FRAMES_LIMIT = 2048;
+    private static final int REPEATS = 5;
+    private static final String[] SHIP_MODES = { "AIR", "FOB", "MAIL", "RAIL", "REG AIR", "SHIP", "TRUCK" };
+
+    // l_orderkey, l_linenumber, l_shipmode
+    @SuppressWarnings("rawtypes")
+    private static final ISerializerDeserializer[] SERDES = new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+            new UTF8StringSerializerDeserializer() };
+    private static final IBinaryComparatorFactory[] COMPARATOR_FACTORIES = new IBinaryComparatorFactory[] {
+            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY),
+            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY),
+            PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY) };
+    private static final INormalizedKeyComputerFactory[] NORMALIZER_FACTORIES = new INormalizedKeyComputerFactory[] {
+            new IntegerNormalizedKeyComputerFactory(), new IntegerNormalizedKeyComputerFactory(),
+            new UTF8StringNormalizedKeyComputerFactory() };
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output times.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        RecordDescriptor recordDesc = new RecordDescriptor(SERDES);
+        List<ByteBuffer> frames = generateLineItems(ctx);
+        int processors = Runtime.getRuntime().availableProcessors();
+        int[][] sortFieldsToTest = { { 0, 1 }, { 2, 0 } };
+        for (int[] sortFields : sortFieldsToTest) {
+            long baseline = runExperiment(ctx, recordDesc, frames, sortFields, Algorithm.MERGE_SORT, 1);
+            for (int parallelism = 1; parallelism <= processors; parallelism *= 2) {
+                runExperiment(ctx, recordDesc, frames, sortFields, Algorithm.PARALLEL_MERGE_SORT, parallelism,
+                        baseline);
+            }
+            if (Integer.bitCount(processors) != 1) {
+                runExperiment(ctx, recordDesc, frames, sortFields, Algorithm.PARALLEL_MERGE_SORT, processors,
+                        baseline);
+            }
+        }
+    }
+
+    private static long runExperiment(IHyracksTaskContext ctx, RecordDescriptor recordDesc, List<ByteBuffer> frames,
+            int[] sortFields, Algorithm alg, int parallelism) throws HyracksDataException {
+        return runExperiment(ctx, recordDesc, frames, sortFields, alg, parallelism, -1);
+    }
+
+    private static long runExperiment(IHyracksTaskContext ctx, RecordDescriptor recordDesc, List<ByteBuffer> frames,
+            int[] sortFields, Algorithm alg, int parallelism, long baseline) throws HyracksDataException {
+        IBinaryComparatorFactory[] comparatorFactories = new IBinaryComparatorFactory[sortFields.length];
+        INormalizedKeyComputerFactory[] normalizerFactories = new INormalizedKeyComputerFactory[sortFields.length];
+        for (int i = 0; i < sortFields.length; ++i) {
+            comparatorFactories[i] = COMPARATOR_FACTORIES[sortFields[i]];
+            normalizerFactories[i] = NORMALIZER_FACTORIES[sortFields[i]];
+        }
+
+        long time = 0;
+        int numRuns = 0;
+        for (int r = 0; r < REPEATS; ++r) {
+            ExternalSortRunGenerator runGenerator = new ExternalSortRunGenerator(ctx, sortFields, normalizerFactories,
+                    comparatorFactories, recordDesc, alg, EnumFreeSlotPolicy.LAST_FIT, FRAMES_LIMIT,
+                    Integer.MAX_VALUE, parallelism);
+            long start = System.nanoTime();
+            runGenerator.open();
+            for (ByteBuffer frame : frames) {
+                runGenerator.nextFrame(frame);
+            }
+            runGenerator.close();
+            time += System.nanoTime() - start;
+            numRuns = runGenerator.getRuns().size();
+            // deletes the run files
+            for (GeneratedRunFileReader run : runGenerator.getRuns()) {
+                run.open();
+                run.close();
+            }
+            runGenerator.getSorter().close();
+        }
+        long avgTime = time / REPEATS / 1000000;
+        StringBuilder fields = new StringBuilder();
+        for (int f : sortFields) {
+            fields.append(fields.length() == 0 ? "" : ",").append(f);
+        }
+        System.out.println(String.format(
+                "FIELDS: %-4s  %-20s  THREADS: %3d  RUNS: %3d  AVG RUN GENERATION TIME: %6dms%s", fields, alg,
+                parallelism, numRuns, avgTime,
+                baseline > 0 ? String.format("  SPEEDUP: %.2f", (double) baseline / Math.max(1, avgTime)) : ""));
+        return avgTime;
+    }
+
+    private static List<ByteBuffer> generateLineItems(IHyracksTaskContext ctx) throws HyracksDataException {
+        Random random = new Random(0);
+        List<ByteBuffer> frames = new ArrayList<>();
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(SERDES.length);
+        FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        int orderKey = 0;
+        int lineNumber = 0;
+        int numLines = 0;
+        for (int i = 0; i < NUM_RECORDS; ++i) {
+            if (lineNumber == numLines) {
+                // one to seven line items per order, the orders in random order
+                orderKey = random.nextInt(NUM_RECORDS);
+                lineNumber = 0;
+                numLines = 1 + random.nextInt(7);
+            }
+            ++lineNumber;
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, orderKey);
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, lineNumber);
+            tb.addField(new UTF8StringSerializerDeserializer(), SHIP_MODES[random.nextInt(SHIP_MODES.length)]);
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frames.add(appender.getBuffer());
+                appender.reset(new VSizeFrame(ctx), true);
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+        frames.add(appender.getBuffer());
+        return frames;
+    }
+}
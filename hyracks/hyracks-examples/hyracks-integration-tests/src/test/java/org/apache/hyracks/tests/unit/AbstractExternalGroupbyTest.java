@@ -40,6 +40,7 @@ import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
 import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
@@ -55,6 +56,7 @@ import org.apache.hyracks.dataflow.std.group.aggregators.AvgFieldMergeAggregator
 import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
 import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
 import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.test.support.TestJobletContext;
 import org.apache.hyracks.test.support.TestUtils;
 
 public abstract class AbstractExternalGroupbyTest {
@@ -220,8 +222,17 @@ public abstract class AbstractExternalGroupbyTest {
             int minRecordSize, int maxRecordSize,
             Map<Integer, String> specialData)
             throws HyracksDataException {
+        testBuildAndMerge(tableSize, numFrames, frameSize, minDataSize, minRecordSize, maxRecordSize, specialData,
+                null);
+    }
+
+    protected void testBuildAndMerge(int tableSize, int numFrames, int frameSize, int minDataSize,
+            int minRecordSize, int maxRecordSize,
+            Map<Integer, String> specialData, IMemoryBroker memoryBroker)
+            throws HyracksDataException {
 
         IHyracksTaskContext ctx = TestUtils.create(frameSize);
+        ((TestJobletContext) ctx.getJobletContext()).setMemoryBroker(memoryBroker);
         initial(ctx, tableSize, numFrames);
         ArrayList<IFrame> input = new ArrayList<>();
         Map<Integer, String> keyValueMap = new HashMap<>();
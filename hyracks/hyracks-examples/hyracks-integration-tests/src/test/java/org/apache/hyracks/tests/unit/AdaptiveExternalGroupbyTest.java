@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
+import org.apache.hyracks.dataflow.common.data.marshalling.FloatSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.AvgFieldGroupAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.AvgFieldMergeAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.external.AdaptiveExternalGroupOperatorNodePushable;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.junit.Test;
+
+public class AdaptiveExternalGroupbyTest {
+
+    private static final int FRAME_SIZE = 256;
+
+    RecordDescriptor inRecordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, new UTF8StringSerializerDeserializer() });
+    RecordDescriptor outputRec = new RecordDescriptor(new ISerializerDeserializer[] {
+            new UTF8StringSerializerDeserializer(), IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE, FloatSerializerDeserializer.INSTANCE });
+
+    IBinaryComparatorFactory[] comparatorFactories = new IBinaryComparatorFactory[] {
+            PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY) };
+    INormalizedKeyComputerFactory normalizedKeyComputerFactory = new UTF8StringNormalizedKeyComputerFactory();
+
+    IAggregatorDescriptorFactory partialAggr = new MultiFieldsAggregatorFactory(
+            new IFieldAggregateDescriptorFactory[] { new IntSumFieldAggregatorFactory(0, false),
+                    new CountFieldAggregatorFactory(false), new AvgFieldGroupAggregatorFactory(0, false) });
+    IAggregatorDescriptorFactory mergeAggr = new MultiFieldsAggregatorFactory(
+            new IFieldAggregateDescriptorFactory[] { new IntSumFieldAggregatorFactory(1, false),
+                    new IntSumFieldAggregatorFactory(2, false), new AvgFieldMergeAggregatorFactory(3, false) });
+
+    int[] keyFields = new int[] { 1 };
+
+    InputFrameGenerator frameGenerator = new InputFrameGenerator(FRAME_SIZE);
+
+    @Test
+    public void testDistinctKeysAreStreamed() throws HyracksDataException {
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            records.add(new Object[] { i, "distinct" + i });
+        }
+        groupAndMerge(records, 4);
+    }
+
+    @Test
+    public void testRepeatedKeysAfterDistinctKeys() throws HyracksDataException {
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 999; i >= 0; i--) {
+            records.add(new Object[] { i, "key" + i });
+        }
+        for (int i = 0; i < 5000; i++) {
+            records.add(new Object[] { i, "key" + (i % 3) });
+        }
+        // the last distinct keys are streamed, so the repeated keys are output again
+        assertTrue(groupAndMerge(records, 4) > 0);
+    }
+
+    @Test
+    public void testRepeatedKeysSpilled() throws HyracksDataException {
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            records.add(new Object[] { i, "key" + (i % 300) });
+        }
+        groupAndMerge(records, 3);
+    }
+
+    /**
+     * Runs the adaptive group-by and merges its output by key, which must give the sum and the count of each key.
+     * Returns the number of output tuples beyond one per key.
+     */
+    private int groupAndMerge(List<Object[]> records, int numFrames) throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        AdaptiveExternalGroupOperatorNodePushable groupBy = new AdaptiveExternalGroupOperatorNodePushable(ctx,
+                this.hashCode(), 1001, numFrames * FRAME_SIZE, keyFields, numFrames, comparatorFactories,
+                normalizedKeyComputerFactory, partialAggr, mergeAggr, inRecordDesc, outputRec,
+                outputRec, new HashSpillableTableFactory(
+                        new IBinaryHashFunctionFamily[] { UTF8StringBinaryHashFunctionFamily.INSTANCE }));
+        MergingWriter writer = new MergingWriter();
+        groupBy.setOutputFrameWriter(0, writer, outputRec);
+        groupBy.open();
+        for (IFrame frame : frameGenerator.generateDataFrame(inRecordDesc, records)) {
+            groupBy.nextFrame(frame.getBuffer());
+        }
+        groupBy.close();
+
+        Map<String, int[]> expected = new HashMap<>();
+        for (Object[] record : records) {
+            int[] sumAndCount = expected.computeIfAbsent((String) record[1], k -> new int[2]);
+            sumAndCount[0] += (Integer) record[0];
+            sumAndCount[1]++;
+        }
+        assertEquals(expected.size(), writer.merged.size());
+        for (Map.Entry<String, int[]> e : expected.entrySet()) {
+            int[] actual = writer.merged.get(e.getKey());
+            assertEquals(e.getValue()[0], actual[0]);
+            assertEquals(e.getValue()[1], actual[1]);
+        }
+        return writer.numOfTuples - writer.merged.size();
+    }
+
+    private class MergingWriter implements IFrameWriter {
+        private final FrameTupleAccessor resultAccessor = new FrameTupleAccessor(outputRec);
+        private final Map<String, int[]> merged = new HashMap<>();
+        private int numOfTuples;
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            resultAccessor.reset(buffer);
+            ByteBufferInputStream bbis = new ByteBufferInputStream();
+            DataInputStream di = new DataInputStream(bbis);
+            Object[] outRecord = new Object[outputRec.getFieldCount()];
+            for (int tid = 0; tid < resultAccessor.getTupleCount(); tid++) {
+                for (int fid = 0; fid < outputRec.getFieldCount(); fid++) {
+                    bbis.setByteBuffer(resultAccessor.getBuffer(),
+                            resultAccessor.getAbsoluteFieldStartOffset(tid, fid));
+                    outRecord[fid] = outputRec.getFields()[fid].deserialize(di);
+                }
+                int[] sumAndCount = merged.computeIfAbsent((String) outRecord[0], k -> new int[2]);
+                sumAndCount[0] += (Integer) outRecord[1];
+                sumAndCount[1] += (Integer) outRecord[2];
+                numOfTuples++;
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
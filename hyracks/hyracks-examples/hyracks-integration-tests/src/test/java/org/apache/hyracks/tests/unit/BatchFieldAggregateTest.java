@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.group.AggregateState;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptor;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.AvgFieldGroupAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.junit.Test;
+
+/**
+ * Checks that the batch aggregation of the field aggregators gives the same states as aggregating tuple by tuple.
+ */
+public class BatchFieldAggregateTest {
+
+    private static final int FRAME_SIZE = 4096;
+    private static final int NUM_GROUPS = 7;
+
+    RecordDescriptor inRecordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    InputFrameGenerator frameGenerator = new InputFrameGenerator(FRAME_SIZE);
+
+    @Test
+    public void testSumIntoOneState() throws HyracksDataException {
+        testOneState(new IntSumFieldAggregatorFactory(1, false));
+        testOneState(new IntSumFieldAggregatorFactory(1, true));
+    }
+
+    @Test
+    public void testCountIntoOneState() throws HyracksDataException {
+        testOneState(new CountFieldAggregatorFactory(false));
+        testOneState(new CountFieldAggregatorFactory(true));
+    }
+
+    @Test
+    public void testAvgIntoOneState() throws HyracksDataException {
+        testOneState(new AvgFieldGroupAggregatorFactory(1, false));
+        testOneState(new AvgFieldGroupAggregatorFactory(1, true));
+    }
+
+    @Test
+    public void testSumIntoManyStates() throws HyracksDataException {
+        testManyStates(new IntSumFieldAggregatorFactory(1, false));
+    }
+
+    @Test
+    public void testCountIntoManyStates() throws HyracksDataException {
+        testManyStates(new CountFieldAggregatorFactory(false));
+    }
+
+    @Test
+    public void testAvgIntoManyStates() throws HyracksDataException {
+        testManyStates(new AvgFieldGroupAggregatorFactory(1, false));
+    }
+
+    private void testOneState(IFieldAggregateDescriptorFactory factory) throws HyracksDataException {
+        FrameTupleAccessor accessor = generateFrame();
+        IFieldAggregateDescriptor aggregator = factory.createAggregator(null, inRecordDesc, null);
+        int[] tIndexes = selectEveryOtherTuple(accessor);
+
+        AggregateState tupleState = aggregator.createState();
+        byte[] tupleData = init(aggregator, accessor, tupleState);
+        for (int tIndex : tIndexes) {
+            aggregator.aggregate(accessor, tIndex, aggregator.needsBinaryState() ? tupleData : null, 0,
+                    tupleState);
+        }
+
+        AggregateState batchState = aggregator.createState();
+        byte[] batchData = init(aggregator, accessor, batchState);
+        aggregator.aggregate(accessor, tIndexes, tIndexes.length, aggregator.needsBinaryState() ? batchData : null,
+                0, batchState);
+
+        assertArrayEquals(output(aggregator, tupleData, 0, tupleState), output(aggregator, batchData, 0, batchState));
+    }
+
+    private void testManyStates(IFieldAggregateDescriptorFactory factory) throws HyracksDataException {
+        FrameTupleAccessor accessor = generateFrame();
+        IFieldAggregateDescriptor aggregator = factory.createAggregator(null, inRecordDesc, null);
+        AggregateState state = aggregator.createState();
+        int[] tIndexes = selectEveryOtherTuple(accessor);
+
+        // one state per group, at different offsets of two buffers
+        byte[] initData = init(aggregator, accessor, state);
+        int stateLength = initData.length;
+        byte[][] tupleBuffers = new byte[][] { new byte[NUM_GROUPS * stateLength + 3],
+                new byte[NUM_GROUPS * stateLength] };
+        byte[][] batchBuffers = new byte[][] { new byte[NUM_GROUPS * stateLength + 3],
+                new byte[NUM_GROUPS * stateLength] };
+        int[] groupOffsets = new int[NUM_GROUPS];
+        for (int g = 0; g < NUM_GROUPS; g++) {
+            groupOffsets[g] = (g / 2) * stateLength + (g % 2 == 0 ? 3 : 0);
+            System.arraycopy(initData, 0, tupleBuffers[g % 2], groupOffsets[g], stateLength);
+            System.arraycopy(initData, 0, batchBuffers[g % 2], groupOffsets[g], stateLength);
+        }
+
+        byte[][] data = new byte[tIndexes.length][];
+        int[] offsets = new int[tIndexes.length];
+        for (int i = 0; i < tIndexes.length; i++) {
+            int g = groupOf(accessor, tIndexes[i]);
+            aggregator.aggregate(accessor, tIndexes[i], tupleBuffers[g % 2], groupOffsets[g], state);
+            data[i] = batchBuffers[g % 2];
+            offsets[i] = groupOffsets[g];
+        }
+        aggregator.aggregate(accessor, tIndexes, tIndexes.length, data, offsets, state);
+
+        for (int g = 0; g < NUM_GROUPS; g++) {
+            assertArrayEquals(output(aggregator, tupleBuffers[g % 2], groupOffsets[g], state),
+                    output(aggregator, batchBuffers[g % 2], groupOffsets[g], state));
+        }
+    }
+
+    private FrameTupleAccessor generateFrame() throws HyracksDataException {
+        Random random = new Random(17);
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            records.add(new Object[] { random.nextInt(NUM_GROUPS), random.nextInt(1000) - 500 });
+        }
+        List<IFrame> frames = frameGenerator.generateDataFrame(inRecordDesc, records);
+        FrameTupleAccessor accessor = new FrameTupleAccessor(inRecordDesc);
+        accessor.reset(frames.get(0).getBuffer());
+        return accessor;
+    }
+
+    private static int[] selectEveryOtherTuple(FrameTupleAccessor accessor) {
+        int[] tIndexes = new int[accessor.getTupleCount() / 2];
+        for (int i = 0; i < tIndexes.length; i++) {
+            tIndexes[i] = i * 2 + 1;
+        }
+        return tIndexes;
+    }
+
+    private static int groupOf(FrameTupleAccessor accessor, int tIndex) {
+        return accessor.getBuffer().getInt(accessor.getAbsoluteFieldStartOffset(tIndex, 0));
+    }
+
+    /**
+     * Initializes the state with the first tuple, and returns the binary state, which is empty for an object state.
+     */
+    private static byte[] init(IFieldAggregateDescriptor aggregator, FrameTupleAccessor accessor,
+            AggregateState state) throws HyracksDataException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        aggregator.init(accessor, 0, new DataOutputStream(bytes), state);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] output(IFieldAggregateDescriptor aggregator, byte[] data, int offset, AggregateState state)
+            throws HyracksDataException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        aggregator.outputPartialResult(new DataOutputStream(bytes), data, offset, state);
+        return bytes.toByteArray();
+    }
+}
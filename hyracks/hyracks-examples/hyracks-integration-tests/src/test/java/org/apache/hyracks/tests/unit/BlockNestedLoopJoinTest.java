@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.INullWriter;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.join.BlockNestedLoopJoin;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.junit.Test;
+
+public class BlockNestedLoopJoinTest {
+
+    private static final int NULL_VALUE = -1;
+    private static final int MODULUS = 7;
+
+    InputFrameGenerator frameGenerator = new InputFrameGenerator(256);
+    IHyracksTaskContext ctx = TestUtils.create(256);
+
+    RecordDescriptor inputRecordDescriptor = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    RecordDescriptor outRecordDescriptor = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    // a theta condition: the sum of the keys is a multiple of MODULUS
+    ITuplePairComparatorFactory comparatorFactory = taskCtx -> (IFrameTupleAccessor outerRef, int outerIndex,
+            IFrameTupleAccessor innerRef, int innerIndex) -> (getKey(outerRef, outerIndex) + getKey(innerRef,
+                    innerIndex)) % MODULUS;
+
+    @Test
+    public void testInnerJoinInMemory() throws Exception {
+        executeAndVerifyResult(200, 50, false, 32, 1);
+    }
+
+    @Test
+    public void testParallelInnerJoinInMemory() throws Exception {
+        executeAndVerifyResult(200, 50, false, 32, 4);
+    }
+
+    @Test
+    public void testParallelLeftOuterJoinInMemory() throws Exception {
+        executeAndVerifyResult(200, 50, true, 32, 4);
+    }
+
+    @Test
+    public void testParallelInnerJoinWithSpilledInner() throws Exception {
+        // the inner input takes many more frames than the join has
+        executeAndVerifyResult(300, 400, false, 16, 3);
+    }
+
+    @Test
+    public void testParallelLeftOuterJoinWithSpilledInner() throws Exception {
+        executeAndVerifyResult(300, 400, true, 16, 3);
+    }
+
+    private void executeAndVerifyResult(int outerSize, int innerSize, boolean isLeftOuter, int memSizeInFrames,
+            int parallelism) throws Exception {
+        List<Object[]> outer = generateRecordStream(outerSize, 1);
+        List<Object[]> inner = generateRecordStream(innerSize, 3);
+        List<String> answer = new ArrayList<>();
+        for (Object[] o : outer) {
+            boolean matchFound = false;
+            for (Object[] i : inner) {
+                if (((Integer) o[0] + (Integer) i[0]) % MODULUS == 0) {
+                    answer.add(toString(o[0], o[1], i[0], i[1]));
+                    matchFound = true;
+                }
+            }
+            if (!matchFound && isLeftOuter) {
+                answer.add(toString(o[0], o[1], NULL_VALUE, NULL_VALUE));
+            }
+        }
+
+        INullWriter[] nullWriters = null;
+        if (isLeftOuter) {
+            nullWriters = new INullWriter[] { BlockNestedLoopJoinTest::writeNull,
+                    BlockNestedLoopJoinTest::writeNull };
+        }
+        BlockNestedLoopJoin joiner = new BlockNestedLoopJoin(ctx, inputRecordDescriptor, inputRecordDescriptor,
+                comparatorFactory, null, memSizeInFrames, parallelism, isLeftOuter, nullWriters);
+        for (IFrame frame : frameGenerator.generateDataFrame(inputRecordDescriptor, inner)) {
+            joiner.cache(frame.getBuffer());
+        }
+        joiner.closeCache();
+        ResultCollector collector = new ResultCollector();
+        collector.open();
+        for (IFrame frame : frameGenerator.generateDataFrame(inputRecordDescriptor, outer)) {
+            joiner.join(frame.getBuffer(), collector);
+        }
+        joiner.closeJoin(collector);
+        collector.close();
+
+        // the threads of the join interleave their output, so only the multiset of the results is fixed
+        Collections.sort(answer);
+        Collections.sort(collector.results);
+        assertEquals(answer, collector.results);
+    }
+
+    private List<Object[]> generateRecordStream(int size, int keyStep) {
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            records.add(new Object[] { i * keyStep, i });
+        }
+        return records;
+    }
+
+    private static int getKey(IFrameTupleAccessor accessor, int tIndex) {
+        return IntegerPointable.getInteger(accessor.getBuffer().array(),
+                accessor.getAbsoluteFieldStartOffset(tIndex, 0));
+    }
+
+    private static String toString(Object... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (Object field : fields) {
+            sb.append(field).append(',');
+        }
+        return sb.toString();
+    }
+
+    private static void writeNull(DataOutput out) throws HyracksDataException {
+        try {
+            out.writeInt(NULL_VALUE);
+        } catch (IOException e) {
+            throw new HyracksDataException(e);
+        }
+    }
+
+    private class ResultCollector implements IFrameWriter {
+        private final FrameTupleAccessor frameAccessor = new FrameTupleAccessor(outRecordDescriptor);
+        private final List<String> results = new ArrayList<>();
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            frameAccessor.reset(buffer);
+            for (int tid = 0; tid < frameAccessor.getTupleCount(); tid++) {
+                Object[] fields = new Object[outRecordDescriptor.getFieldCount()];
+                for (int fid = 0; fid < fields.length; fid++) {
+                    DataInputStream dis = new DataInputStream(new ByteArrayInputStream(buffer.array(),
+                            frameAccessor.getAbsoluteFieldStartOffset(tid, fid),
+                            frameAccessor.getFieldLength(tid, fid)));
+                    fields[fid] = outRecordDescriptor.getFields()[fid].deserialize(dis);
+                }
+                results.add(BlockNestedLoopJoinTest.toString(fields));
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
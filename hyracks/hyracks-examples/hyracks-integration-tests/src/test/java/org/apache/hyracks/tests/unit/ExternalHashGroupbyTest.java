@@ -19,15 +19,21 @@
 
 package org.apache.hyracks.tests.unit;
 
+import static org.junit.Assert.assertEquals;
+
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
 import org.apache.hyracks.data.std.accessors.UTF8StringBinaryHashFunctionFamily;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputSourceOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
 import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
 import org.apache.hyracks.dataflow.std.group.external.ExternalGroupBuildOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.group.external.ExternalGroupWriteOperatorNodePushable;
+import org.apache.hyracks.test.support.CounterContext;
+import org.junit.Test;
 
 public class ExternalHashGroupbyTest extends AbstractExternalGroupbyTest {
     ExternalGroupBuildOperatorNodePushable buildOperator;
@@ -45,6 +51,16 @@ public class ExternalHashGroupbyTest extends AbstractExternalGroupbyTest {
                 finalAggrInPlace);
     }
 
+    @Test
+    public void testBuildAndMergeWithMemoryBroker() throws HyracksDataException {
+        // the table takes its frames from the broker at the build and gives them back once the merge is done
+        CounterContext counters = new CounterContext("joblet");
+        MemoryBroker memoryBroker = new MemoryBroker(8, MemoryBroker.DEFAULT_MAX_WAIT_MILLIS, counters);
+        testBuildAndMerge(1001, 3, 256, 256 * 4, 20, 50, null, memoryBroker);
+        assertEquals(3, counters.getCounter(MemoryBroker.GRANTED_FRAMES_COUNTER, false).get());
+        assertEquals(8, memoryBroker.getFreeFrames());
+    }
+
     @Override
     protected IFrameWriter getBuilder() {
         return buildOperator;
@@ -19,11 +19,20 @@
 
 package org.apache.hyracks.tests.unit;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.Algorithm;
 import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.junit.Test;
 
 public class ExternalSortRunGeneratorTest extends AbstractRunGeneratorTest {
 
@@ -33,4 +42,30 @@ public class ExternalSortRunGeneratorTest extends AbstractRunGeneratorTest {
         return new ExternalSortRunGenerator(ctx, SortFields, null, ComparatorFactories, RecordDesc,
                 Algorithm.MERGE_SORT, frameLimit);
     }
+
+    @Test
+    public void testReleaseMemory() throws HyracksDataException {
+        int pageSize = 512;
+        int frameLimit = 8;
+        IHyracksTaskContext ctx = testUtils.create(pageSize);
+        HashMap<Integer, String> keyValuePair = new HashMap<>();
+        List<IFrame> frameList = new ArrayList<>();
+        prepareData(ctx, frameList, pageSize * frameLimit * 2, pageSize / 8, pageSize / 8, null, keyValuePair);
+
+        AbstractSortRunGenerator runGenerator = getSortRunGenerator(ctx, frameLimit, keyValuePair.size());
+        runGenerator.open();
+        int half = frameList.size() / 2;
+        for (int i = 0; i < half; i++) {
+            runGenerator.nextFrame(frameList.get(i).getBuffer());
+        }
+        // the sorted frames are spilled and the sorter keeps one frame
+        assertEquals(frameLimit - 2, runGenerator.releaseMemory(frameLimit));
+        int runsAfterRelease = runGenerator.getRuns().size();
+        for (int i = half; i < frameList.size(); i++) {
+            runGenerator.nextFrame(frameList.get(i).getBuffer());
+        }
+        runGenerator.close();
+        assertTrue(runGenerator.getRuns().size() > runsAfterRelease + 1);
+        matchResult(ctx, runGenerator.getRuns(), keyValuePair);
+    }
 }
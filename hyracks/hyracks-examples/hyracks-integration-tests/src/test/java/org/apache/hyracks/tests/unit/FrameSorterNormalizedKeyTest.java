@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameDeserializer;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.DoubleNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
+import org.apache.hyracks.dataflow.std.buffermanager.FrameFreeSlotPolicyFactory;
+import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFrameMemoryManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VariableFramePool;
+import org.apache.hyracks.dataflow.std.sort.AbstractFrameSorter;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterMergeSort;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterParallelMergeSort;
+import org.apache.hyracks.dataflow.std.sort.FrameSorterQuickSort;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+/**
+ * Sorts records with many equal leading keys on several fields, with the normalized keys of all, some, or none of
+ * the sort fields, and checks the result against the order of the deserialized values.
+ * The parallel merge sort is also checked to keep the input order of equal records, as the sequential one does.
+ */
+public class FrameSorterNormalizedKeyTest {
+    static final int PAGE_SIZE = 4096;
+    static final int NUM_FRAMES = 256;
+    static final int NUM_RECORDS = 5000;
+    // enough records for the parallel merge sort to split them into PARALLELISM ranges
+    static final int NUM_PARALLEL_RECORDS = 100000;
+    static final int PARALLELISM = 4;
+    static final String[] MODES = { "", "A", "AIR", "AIRREG", "TRAIN", "TRUCK", "TRUCKS", "TRUCKSTOP",
+            "\u00e9t\u00e9" };
+
+    @SuppressWarnings("rawtypes")
+    static final ISerializerDeserializer[] SerDers = new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, new UTF8StringSerializerDeserializer(),
+            DoubleSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+    static final RecordDescriptor RecordDesc = new RecordDescriptor(SerDers);
+    static final IBinaryComparatorFactory[] FieldComparatorFactories = new IBinaryComparatorFactory[] {
+            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY),
+            PointableBinaryComparatorFactory.of(UTF8StringPointable.FACTORY),
+            PointableBinaryComparatorFactory.of(DoublePointable.FACTORY),
+            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+    static final INormalizedKeyComputerFactory[] FieldNormalizerFactories = new INormalizedKeyComputerFactory[] {
+            new IntegerNormalizedKeyComputerFactory(), new UTF8StringNormalizedKeyComputerFactory(),
+            new DoubleNormalizedKeyComputerFactory(), new IntegerNormalizedKeyComputerFactory() };
+
+    private final Random random = new Random(System.currentTimeMillis());
+
+    @Test
+    public void testDecisiveKeys() throws HyracksDataException {
+        testAllNormalizers(new int[] { 0, 3 });
+        testAllNormalizers(new int[] { 3, 0, 1 });
+        testAllNormalizers(new int[] { 2, 0 });
+    }
+
+    @Test
+    public void testNonDecisiveKeys() throws HyracksDataException {
+        testAllNormalizers(new int[] { 0, 1, 2, 3 });
+        testAllNormalizers(new int[] { 1, 0 });
+        testAllNormalizers(new int[] { 2, 1, 3 });
+        testAllNormalizers(new int[] { 0, 0, 2, 3 });
+    }
+
+    private void testAllNormalizers(int[] sortFields) throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+        List<Object[]> records = new ArrayList<>();
+        List<ByteBuffer> frames = prepareData(ctx, records, NUM_RECORDS);
+        List<Object[]> expected = new ArrayList<>(records);
+        Collections.sort(expected, getComparator(sortFields));
+
+        IBinaryComparatorFactory[] comparatorFactories = new IBinaryComparatorFactory[sortFields.length];
+        INormalizedKeyComputerFactory[] normalizerFactories = new INormalizedKeyComputerFactory[sortFields.length];
+        for (int i = 0; i < sortFields.length; ++i) {
+            comparatorFactories[i] = FieldComparatorFactories[sortFields[i]];
+            normalizerFactories[i] = FieldNormalizerFactories[sortFields[i]];
+        }
+        // without normalized keys, with the first one only, and with all of them
+        for (int numNormalizers = 0; numNormalizers <= sortFields.length; ++numNormalizers) {
+            INormalizedKeyComputerFactory[] factories = new INormalizedKeyComputerFactory[sortFields.length];
+            System.arraycopy(normalizerFactories, 0, factories, 0, numNormalizers);
+            for (int alg = 0; alg < 3; ++alg) {
+                IFrameBufferManager bufferManager = new VariableFrameMemoryManager(
+                        new VariableFramePool(ctx, NUM_FRAMES * PAGE_SIZE),
+                        FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT, NUM_FRAMES));
+                AbstractFrameSorter sorter;
+                if (alg == 0) {
+                    sorter = new FrameSorterQuickSort(ctx, bufferManager, sortFields, factories, comparatorFactories,
+                            RecordDesc, Integer.MAX_VALUE);
+                } else if (alg == 1) {
+                    sorter = new FrameSorterMergeSort(ctx, bufferManager, sortFields, factories, comparatorFactories,
+                            RecordDesc, Integer.MAX_VALUE);
+                } else {
+                    sorter = new FrameSorterParallelMergeSort(ctx, bufferManager, sortFields, factories,
+                            comparatorFactories, RecordDesc, Integer.MAX_VALUE, PARALLELISM);
+                }
+                for (ByteBuffer frame : frames) {
+                    assertTrue(sorter.insertFrame(frame));
+                }
+                sorter.sort();
+                List<Object[]> result = new ArrayList<>();
+                sorter.flush(new CollectingFrameWriter(result));
+                sorter.close();
+                assertSameOrder(expected, result, sortFields);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelMergeSortIsStable() throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+        List<Object[]> records = new ArrayList<>();
+        List<ByteBuffer> frames = prepareData(ctx, records, NUM_PARALLEL_RECORDS);
+        int[] sortFields = new int[] { 0, 1 };
+        List<Object[]> expected = new ArrayList<>(records);
+        Collections.sort(expected, getComparator(sortFields));
+
+        IFrameBufferManager bufferManager = new VariableFrameMemoryManager(
+                new VariableFramePool(ctx, (frames.size() + 1) * PAGE_SIZE),
+                FrameFreeSlotPolicyFactory.createFreeSlotPolicy(EnumFreeSlotPolicy.LAST_FIT, frames.size() + 1));
+        AbstractFrameSorter sorter = new FrameSorterParallelMergeSort(ctx, bufferManager, sortFields,
+                new INormalizedKeyComputerFactory[] { FieldNormalizerFactories[0], FieldNormalizerFactories[1] },
+                new IBinaryComparatorFactory[] { FieldComparatorFactories[0], FieldComparatorFactories[1] },
+                RecordDesc, Integer.MAX_VALUE, PARALLELISM);
+        // sort the same frames twice to reuse the pool and the buffers of the first sort
+        for (int i = 0; i < 2; ++i) {
+            sorter.reset();
+            for (ByteBuffer frame : frames) {
+                assertTrue(sorter.insertFrame(frame));
+            }
+            sorter.sort();
+            List<Object[]> result = new ArrayList<>();
+            sorter.flush(new CollectingFrameWriter(result));
+            // the records with equal sort fields keep their input order, so the other fields match as well
+            assertSameOrder(expected, result, new int[] { 0, 1, 2, 3 });
+        }
+        sorter.close();
+    }
+
+    private List<ByteBuffer> prepareData(IHyracksTaskContext ctx, List<Object[]> records, int numRecords)
+            throws HyracksDataException {
+        List<ByteBuffer> frames = new ArrayList<>();
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(RecordDesc.getFieldCount());
+        FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx), true);
+        for (int i = 0; i < numRecords; ++i) {
+            // few distinct values per field so that the later fields decide many comparisons
+            Object[] record = new Object[] { random.nextInt(10) - 5, MODES[random.nextInt(MODES.length)],
+                    (random.nextInt(7) - 3) / 2.0, random.nextInt(20) - 10 };
+            tb.reset();
+            for (int f = 0; f < record.length; ++f) {
+                tb.addField(SerDers[f], record[f]);
+            }
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frames.add(appender.getBuffer());
+                appender.reset(new VSizeFrame(ctx), true);
+                assertTrue(appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize()));
+            }
+            records.add(record);
+        }
+        frames.add(appender.getBuffer());
+        return frames;
+    }
+
+    private static Comparator<Object[]> getComparator(final int[] sortFields) {
+        return new Comparator<Object[]>() {
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            @Override
+            public int compare(Object[] o1, Object[] o2) {
+                for (int f : sortFields) {
+                    int c = ((Comparable) o1[f]).compareTo(o2[f]);
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+                return 0;
+            }
+        };
+    }
+
+    private static void assertSameOrder(List<Object[]> expected, List<Object[]> result, int[] sortFields) {
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            for (int f : sortFields) {
+                assertEquals("record " + i, expected.get(i)[f], result.get(i)[f]);
+            }
+        }
+    }
+
+    private static class CollectingFrameWriter implements IFrameWriter {
+        private final FrameDeserializer deserializer = new FrameDeserializer(RecordDesc);
+        private final List<Object[]> records;
+
+        CollectingFrameWriter(List<Object[]> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            deserializer.reset(buffer);
+            while (!deserializer.done()) {
+                records.add(deserializer.deserializeRecord());
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
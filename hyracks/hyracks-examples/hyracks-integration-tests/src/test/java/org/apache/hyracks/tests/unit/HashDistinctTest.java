@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.distinct.HashDistinct;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.junit.Test;
+
+public class HashDistinctTest {
+
+    private static final int FRAME_SIZE = 256;
+    private static final int TABLE_SIZE = 101;
+
+    InputFrameGenerator frameGenerator = new InputFrameGenerator(FRAME_SIZE);
+    IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+
+    RecordDescriptor inRecordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    @Test
+    public void testInMemory() throws Exception {
+        List<Object[]> input = generateRecordStream(300, 20);
+        ResultCollector collector = executeAndVerifyResult(input, 64, null);
+        // nothing is spilled, so every distinct tuple is output while the input is read
+        assertEquals(collector.results.size(), collector.resultsBeforeComplete);
+    }
+
+    @Test
+    public void testWithSpilledPartitions() throws Exception {
+        List<Object[]> input = generateRecordStream(3000, 700);
+        ResultCollector collector = executeAndVerifyResult(input, 6, null);
+        assertTrue(collector.resultsBeforeComplete > 0);
+        assertTrue(collector.resultsBeforeComplete < collector.results.size());
+    }
+
+    @Test
+    public void testAllDistinctWithSpilledPartitions() throws Exception {
+        executeAndVerifyResult(generateRecordStream(2000, Integer.MAX_VALUE), 5, null);
+    }
+
+    @Test
+    public void testProjectionWithSpilledPartitions() throws Exception {
+        executeAndVerifyResult(generateRecordStream(3000, 700), 6, new int[] { 1, 0 });
+    }
+
+    private ResultCollector executeAndVerifyResult(List<Object[]> input, int framesLimit, int[] projectFields)
+            throws HyracksDataException {
+        // the distinct outputs the first tuple of every key
+        Map<Integer, Object[]> firstOccurrences = new LinkedHashMap<>();
+        for (Object[] record : input) {
+            firstOccurrences.putIfAbsent((Integer) record[0], record);
+        }
+        List<String> answer = new ArrayList<>();
+        for (Object[] record : firstOccurrences.values()) {
+            answer.add(projectFields == null ? record[0] + "," + record[1] + ","
+                    : record[projectFields[0]] + "," + record[projectFields[1]] + ",");
+        }
+
+        HashDistinct distinct = new HashDistinct(ctx, inRecordDesc, new int[] { 0 },
+                new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE },
+                new IBinaryComparator[] {
+                        PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator() },
+                framesLimit, TABLE_SIZE, projectFields);
+        ResultCollector collector = new ResultCollector();
+        try {
+            for (IFrame frame : frameGenerator.generateDataFrame(inRecordDesc, input)) {
+                distinct.insert(frame.getBuffer(), collector);
+            }
+            distinct.flush(collector);
+            collector.resultsBeforeComplete = collector.results.size();
+            distinct.complete(collector);
+        } finally {
+            distinct.close();
+        }
+
+        Collections.sort(answer);
+        Collections.sort(collector.results);
+        assertEquals(answer, collector.results);
+        return collector;
+    }
+
+    private static List<Object[]> generateRecordStream(int size, int numKeys) {
+        Random random = new Random(size);
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            records.add(new Object[] { numKeys == Integer.MAX_VALUE ? i : random.nextInt(numKeys), i });
+        }
+        return records;
+    }
+
+    private class ResultCollector implements IFrameWriter {
+        private final FrameTupleAccessor frameAccessor = new FrameTupleAccessor(inRecordDesc);
+        private final List<String> results = new ArrayList<>();
+        private int resultsBeforeComplete;
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            frameAccessor.reset(buffer);
+            for (int tid = 0; tid < frameAccessor.getTupleCount(); tid++) {
+                StringBuilder sb = new StringBuilder();
+                for (int fid = 0; fid < frameAccessor.getFieldCount(); fid++) {
+                    sb.append(IntegerPointable.getInteger(buffer.array(),
+                            frameAccessor.getAbsoluteFieldStartOffset(tid, fid))).append(',');
+                }
+                results.add(sb.toString());
+            }
+        }
+
+        @Override
+        public void flush() throws HyracksDataException {
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
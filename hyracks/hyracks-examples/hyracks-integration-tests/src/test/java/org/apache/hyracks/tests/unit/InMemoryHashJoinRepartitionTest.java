@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.PointableBinaryHashFunctionFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFactory;
+import org.apache.hyracks.dataflow.common.data.partition.RepartitionComputerFactory;
+import org.apache.hyracks.dataflow.std.join.InMemoryHashJoin;
+import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableTableType;
+import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.junit.Test;
+
+/**
+ * Checks that the in-memory hash join of the Grace and hybrid hash joins, which partition the keys of a partition
+ * again with a {@link RepartitionComputerFactory}, spreads them over the entries of its table.
+ */
+public class InMemoryHashJoinRepartitionTest {
+
+    private static final int FRAME_SIZE = 32768;
+    // an even partition count, which made factor * Integer.MAX_VALUE partitions wrap around to -factor
+    private static final int NUM_PARTITIONS = 4;
+    private static final int TABLE_SIZE = 1009;
+    private static final int NUM_BUILD_KEYS = 5000;
+    // no entry should get more than a few times the average number of keys
+    private static final int MAX_ENTRY_TUPLES = 32;
+
+    InputFrameGenerator frameGenerator = new InputFrameGenerator(FRAME_SIZE);
+    IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+
+    RecordDescriptor recordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    @Test
+    public void testChainedTableSpread() throws Exception {
+        executeAndVerifySpread(SerializableTableType.CHAINED);
+    }
+
+    @Test
+    public void testLinearProbingTableSpread() throws Exception {
+        executeAndVerifySpread(SerializableTableType.LINEAR_PROBING);
+    }
+
+    private void executeAndVerifySpread(SerializableTableType tableType) throws Exception {
+        // the keys of one partition of the first partitioning, which are all multiples of NUM_PARTITIONS
+        List<Object[]> build = new ArrayList<>();
+        for (int i = 0; i < NUM_BUILD_KEYS; i++) {
+            build.add(new Object[] { i * NUM_PARTITIONS, i });
+        }
+        // every other probe key is a build key
+        List<Object[]> probe = new ArrayList<>();
+        for (int i = 0; i < 2 * NUM_BUILD_KEYS; i++) {
+            probe.add(new Object[] { i * NUM_PARTITIONS / 2, i });
+        }
+
+        ISerializableTable table = tableType.createTable(TABLE_SIZE, ctx);
+        InMemoryHashJoin joiner = new InMemoryHashJoin(ctx, TABLE_SIZE, new FrameTupleAccessor(recordDesc),
+                createRepartitioner(), new FrameTupleAccessor(recordDesc), createRepartitioner(),
+                new FrameTuplePairComparator(new int[] { 0 }, new int[] { 0 }, new IBinaryComparator[] {
+                        PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator() }),
+                false, null, table, null);
+        for (IFrame frame : frameGenerator.generateDataFrame(recordDesc, build)) {
+            ByteBuffer buffer = ctx.allocateFrame(frame.getFrameSize());
+            buffer.put(frame.getBuffer().array(), 0, frame.getFrameSize());
+            joiner.build(buffer);
+        }
+
+        int usedEntries = 0;
+        int maxEntryTuples = 0;
+        for (int entry = 0; entry < TABLE_SIZE; entry++) {
+            int entryTuples = table.getTupleCount(entry);
+            if (entryTuples > 0) {
+                usedEntries++;
+            }
+            maxEntryTuples = Math.max(maxEntryTuples, entryTuples);
+        }
+        assertTrue(usedEntries > TABLE_SIZE * 9 / 10);
+        assertTrue(maxEntryTuples <= MAX_ENTRY_TUPLES);
+
+        ResultCounter counter = new ResultCounter();
+        for (IFrame frame : frameGenerator.generateDataFrame(recordDesc, probe)) {
+            joiner.join(frame.getBuffer(), counter);
+        }
+        joiner.closeJoin(counter);
+        table.close();
+        assertEquals(NUM_BUILD_KEYS, counter.count);
+    }
+
+    private ITuplePartitionComputer createRepartitioner() {
+        return new RepartitionComputerFactory(NUM_PARTITIONS, new FieldHashPartitionComputerFactory(new int[] { 0 },
+                new IBinaryHashFunctionFactory[] { PointableBinaryHashFunctionFactory.of(IntegerPointable.FACTORY) }))
+                        .createPartitioner();
+    }
+
+    private static class ResultCounter implements IFrameWriter {
+        private final FrameTupleAccessor frameAccessor = new FrameTupleAccessor(new RecordDescriptor(
+                new ISerializerDeserializer[4]));
+        private int count;
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            frameAccessor.reset(buffer);
+            count += frameAccessor.getTupleCount();
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
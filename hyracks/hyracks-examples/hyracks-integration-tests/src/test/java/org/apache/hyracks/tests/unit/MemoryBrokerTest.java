@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IActivity;
+import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.sort.ExternalSortOperatorDescriptor;
+import org.apache.hyracks.test.support.CounterContext;
+import org.apache.hyracks.test.support.TestJobletContext;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.junit.Test;
+
+public class MemoryBrokerTest {
+
+    private static final int BUDGET_FRAMES = 32;
+    private static final long MAX_WAIT_MILLIS = 200;
+
+    private final CounterContext counters = new CounterContext("joblet");
+    private final MemoryBroker broker = new MemoryBroker(BUDGET_FRAMES, MAX_WAIT_MILLIS, counters);
+
+    @Test
+    public void testGrantAndClose() throws HyracksDataException {
+        IMemoryGrant sort = broker.acquire("sort", 2, 20);
+        assertEquals(20, sort.getFrames());
+        IMemoryGrant join = broker.acquire("join", 8, 20);
+        assertEquals(12, join.getFrames());
+        assertEquals(0, broker.getFreeFrames());
+
+        sort.close();
+        assertEquals(20, broker.getFreeFrames());
+        assertEquals(0, sort.getFrames());
+        join.close();
+        assertEquals(BUDGET_FRAMES, broker.getFreeFrames());
+        assertEquals(32, getCounter(MemoryBroker.GRANTED_FRAMES_COUNTER));
+        assertEquals(0, getCounter(MemoryBroker.REVOKED_FRAMES_COUNTER));
+    }
+
+    @Test
+    public void testRevokeFromTheLargestSurplus() throws HyracksDataException {
+        IMemoryGrant sort = broker.acquire("sort", 2, 24);
+        IMemoryGrant group = broker.acquire("group", 4, 8);
+
+        // the sort has 22 frames above its minimum, the group-by 4, so the sort gives up the 6 missing frames
+        Thread holder = releaseWhenRevoked(sort);
+        IMemoryGrant join = broker.acquire("join", 6, 16);
+        assertEquals(6, join.getFrames());
+        assertEquals(0, sort.getRevokedFrames());
+        assertEquals(18, sort.getFrames());
+        assertEquals(0, group.getRevokedFrames());
+        assertEquals(6, getCounter(MemoryBroker.REVOKED_FRAMES_COUNTER));
+        assertEquals(1, getCounter(MemoryBroker.WAITS_COUNTER));
+        assertEquals(0, getCounter(MemoryBroker.OVERCOMMITTED_FRAMES_COUNTER));
+        join(holder);
+    }
+
+    @Test
+    public void testNonRevocableGrant() throws HyracksDataException {
+        IMemoryGrant group = broker.acquire("group", 2, 24, false);
+        IMemoryGrant sort = broker.acquire("sort", 2, 8);
+
+        // the group-by has the largest surplus, but its frames cannot be revoked
+        Thread holder = releaseWhenRevoked(sort);
+        IMemoryGrant join = broker.acquire("join", 6, 16);
+        assertEquals(6, join.getFrames());
+        assertEquals(0, group.getRevokedFrames());
+        assertEquals(24, group.getFrames());
+        assertEquals(2, sort.getFrames());
+        assertEquals(0, getCounter(MemoryBroker.OVERCOMMITTED_FRAMES_COUNTER));
+        join(holder);
+    }
+
+    @Test
+    public void testGrantNoLongerRevocable() throws HyracksDataException {
+        IMemoryGrant join = broker.acquire("join", 4, 24);
+        IMemoryGrant sort = broker.acquire("sort", 2, 8);
+
+        // the join cannot release the frames revoked from it any more, so the sort is asked for them instead
+        Thread holder = releaseWhenRevoked(sort);
+        IMemoryGrant[] group = new IMemoryGrant[1];
+        Thread acquirer = new Thread(() -> {
+            try {
+                group[0] = broker.acquire("group", 6, 6);
+            } catch (HyracksDataException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        acquirer.start();
+        while (join.getRevokedFrames() == 0) {
+            Thread.yield();
+        }
+        join.setRevocable(false);
+        join(acquirer);
+        join(holder);
+        assertEquals(6, group[0].getFrames());
+        assertEquals(0, join.getRevokedFrames());
+        assertEquals(24, join.getFrames());
+        assertEquals(2, sort.getFrames());
+        assertEquals(6, getCounter(MemoryBroker.REVOKED_FRAMES_COUNTER));
+        assertEquals(0, getCounter(MemoryBroker.OVERCOMMITTED_FRAMES_COUNTER));
+    }
+
+    @Test
+    public void testOvercommitAfterTimeout() throws HyracksDataException {
+        IMemoryGrant sort = broker.acquire("sort", 2, BUDGET_FRAMES);
+
+        // nobody releases the revoked frames, the join gets its minimum after the wait anyway
+        long start = System.currentTimeMillis();
+        IMemoryGrant join = broker.acquire("join", 8, 16);
+        assertEquals(true, System.currentTimeMillis() - start >= MAX_WAIT_MILLIS);
+        assertEquals(8, join.getFrames());
+        assertEquals(8, sort.getRevokedFrames());
+        assertEquals(-8, broker.getFreeFrames());
+        assertEquals(8, getCounter(MemoryBroker.OVERCOMMITTED_FRAMES_COUNTER));
+
+        sort.release(sort.getRevokedFrames());
+        assertEquals(0, sort.getRevokedFrames());
+        assertEquals(0, broker.getFreeFrames());
+        join.close();
+        sort.close();
+        assertEquals(BUDGET_FRAMES, broker.getFreeFrames());
+    }
+
+    @Test
+    public void testGrow() throws HyracksDataException {
+        IMemoryGrant sort = broker.acquire("sort", 2, 24);
+        IMemoryGrant join = broker.acquire("join", 4, 24);
+        assertEquals(8, join.getFrames());
+        assertEquals(0, join.grow(16));
+
+        sort.close();
+        assertEquals(16, join.grow(16));
+        assertEquals(24, join.getFrames());
+        assertEquals(8, join.grow(16));
+        assertEquals(0, broker.getFreeFrames());
+        join.close();
+    }
+
+    @Test(expected = HyracksDataException.class)
+    public void testInvalidRequest() throws HyracksDataException {
+        broker.acquire("sort", 4, 2);
+    }
+
+    @Test
+    public void testFailedSortReleasesGrant() throws HyracksDataException {
+        RecordDescriptor recordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+                IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+        ExternalSortOperatorDescriptor sort = new ExternalSortOperatorDescriptor(new JobSpecification(), 16,
+                new int[] { 0 },
+                new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) },
+                recordDesc);
+        List<IActivity> activities = new ArrayList<>();
+        sort.contributeActivities(new IActivityGraphBuilder() {
+            @Override
+            public void addActivity(IOperatorDescriptor op, IActivity task) {
+                activities.add(task);
+            }
+
+            @Override
+            public void addBlockingEdge(IActivity blocker, IActivity blocked) {
+            }
+
+            @Override
+            public void addSourceEdge(int operatorInputIndex, IActivity task, int taskInputIndex) {
+            }
+
+            @Override
+            public void addTargetEdge(int operatorOutputIndex, IActivity task, int taskOutputIndex) {
+            }
+        });
+        IHyracksTaskContext ctx = TestUtils.create(256);
+        ((TestJobletContext) ctx.getJobletContext()).setMemoryBroker(broker);
+        IOperatorNodePushable sortPushable = activities.get(0).createPushRuntime(ctx, null, 0, 1);
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(new Object[] { 100 - i, i });
+        }
+
+        IFrameWriter sortWriter = sortPushable.getInputFrameWriter(0);
+        sortWriter.open();
+        assertEquals(BUDGET_FRAMES - 16, broker.getFreeFrames());
+        for (IFrame frame : new InputFrameGenerator(256).generateDataFrame(recordDesc, records)) {
+            sortWriter.nextFrame(frame.getBuffer());
+        }
+        sortWriter.fail();
+        sortWriter.close();
+        // the later acquisitions neither wait for nor overcommit the frames of the failed sort
+        assertEquals(BUDGET_FRAMES, broker.getFreeFrames());
+    }
+
+    private Thread releaseWhenRevoked(IMemoryGrant grant) {
+        Thread holder = new Thread(() -> {
+            while (grant.getRevokedFrames() == 0) {
+                Thread.yield();
+            }
+            grant.release(grant.getRevokedFrames());
+        });
+        holder.start();
+        return holder;
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long getCounter(String name) {
+        return counters.getCounter(name, false).get();
+    }
+}
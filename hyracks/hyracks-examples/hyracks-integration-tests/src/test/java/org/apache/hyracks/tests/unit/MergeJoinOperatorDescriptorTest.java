@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INullWriter;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.join.MergeJoinOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.MergeJoinOperatorDescriptor.MergeJoinOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.util.FrameTuplePairComparator;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.apache.hyracks.tests.util.MultiThreadTaskEmulator;
+import org.apache.hyracks.tests.util.OutputFrameVerifier;
+import org.junit.Test;
+
+public class MergeJoinOperatorDescriptorTest {
+
+    private static final int NULL_VALUE = -1;
+
+    IOperatorDescriptorRegistry mockRegistry = when(
+            mock(IOperatorDescriptorRegistry.class).createOperatorDescriptorId(any()))
+            .thenReturn(new OperatorDescriptorId(1)).getMock();
+    MultiThreadTaskEmulator multiThreadTaskEmulator = new MultiThreadTaskEmulator();
+    InputFrameGenerator frameGenerator = new InputFrameGenerator(256);
+    IHyracksTaskContext ctx = TestUtils.create(256);
+
+    RecordDescriptor inputRecordDescriptor = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    RecordDescriptor outRecordDescriptor = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    @Test
+    public void testNormalOperatorInitialization() {
+        MergeJoinOperatorDescriptor operatorDescriptor = new MergeJoinOperatorDescriptor(mockRegistry, 4,
+                new int[] { 0 }, new int[] { 0 },
+                new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) },
+                outRecordDescriptor);
+        assertEquals(2, operatorDescriptor.getInputArity());
+    }
+
+    @Test
+    public void testOneToOneInnerJoin() throws Exception {
+        executeAndVerifyResult(100, 1, 1, false, 8);
+    }
+
+    @Test
+    public void testManyToManyInnerJoin() throws Exception {
+        executeAndVerifyResult(100, 3, 4, false, 8);
+    }
+
+    @Test
+    public void testManyToManyLeftOuterJoin() throws Exception {
+        executeAndVerifyResult(100, 3, 4, true, 8);
+    }
+
+    @Test
+    public void testSpilledGroupJoin() throws Exception {
+        // a key of the right input takes many frames, but the join has only one frame for it
+        executeAndVerifyResult(10, 5, 200, true, 4);
+    }
+
+    /**
+     * Joins a left input that has leftDuplicates tuples of the keys divisible by 2 with a right input that has
+     * rightDuplicates tuples of the keys divisible by 3, for the keys from 0 to numKeys.
+     */
+    private void executeAndVerifyResult(int numKeys, int leftDuplicates, int rightDuplicates, boolean isLeftOuter,
+            int memSizeInFrames) throws Exception {
+        List<Object[]> left = generateRecordStream(numKeys, 2, leftDuplicates);
+        List<Object[]> right = generateRecordStream(numKeys, 3, rightDuplicates);
+        List<Object[]> answer = new ArrayList<>();
+        for (Object[] l : left) {
+            boolean matchFound = false;
+            for (Object[] r : right) {
+                if (l[0].equals(r[0])) {
+                    answer.add(new Object[] { l[0], l[1], r[0], r[1] });
+                    matchFound = true;
+                }
+            }
+            if (!matchFound && isLeftOuter) {
+                answer.add(new Object[] { l[0], l[1], NULL_VALUE, NULL_VALUE });
+            }
+        }
+
+        INullWriter[] nullWriters = null;
+        if (isLeftOuter) {
+            nullWriters = new INullWriter[] { MergeJoinOperatorDescriptorTest::writeNull,
+                    MergeJoinOperatorDescriptorTest::writeNull };
+        }
+        IBinaryComparator[] comparators = new IBinaryComparator[] {
+                PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY).createBinaryComparator() };
+        MergeJoinOperatorNodePushable pushable = new MergeJoinOperatorNodePushable(ctx, inputRecordDescriptor,
+                inputRecordDescriptor, new FrameTuplePairComparator(new int[] { 0 }, new int[] { 0 }, comparators),
+                memSizeInFrames, null, isLeftOuter, nullWriters);
+        assertEquals(2, pushable.getInputArity());
+
+        IFrameWriter[] writers = new IFrameWriter[] { pushable.getInputFrameWriter(0),
+                pushable.getInputFrameWriter(1) };
+        List<IFrame>[] inputFrames = new List[] { frameGenerator.generateDataFrame(inputRecordDescriptor, left),
+                frameGenerator.generateDataFrame(inputRecordDescriptor, right) };
+        pushable.setOutputFrameWriter(0, new OutputFrameVerifier(outRecordDescriptor, answer), outRecordDescriptor);
+        multiThreadTaskEmulator.runInParallel(writers, inputFrames);
+    }
+
+    private List<Object[]> generateRecordStream(int numKeys, int keyStep, int duplicates) {
+        List<Object[]> records = new ArrayList<>();
+        for (int key = 0; key < numKeys; key += keyStep) {
+            for (int d = 0; d < duplicates; d++) {
+                records.add(new Object[] { key, d });
+            }
+        }
+        return records;
+    }
+
+    private static void writeNull(DataOutput out) throws HyracksDataException {
+        try {
+            out.writeInt(NULL_VALUE);
+        } catch (IOException e) {
+            throw new HyracksDataException(e);
+        }
+    }
+}
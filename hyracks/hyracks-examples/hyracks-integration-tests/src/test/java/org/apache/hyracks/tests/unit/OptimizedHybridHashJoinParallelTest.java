@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.IActivity;
+import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.INullWriterFactory;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
+import org.apache.hyracks.api.resources.memory.IMemoryGrant;
+import org.apache.hyracks.control.nc.resources.memory.MemoryBroker;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.io.RunFileCompression;
+import org.apache.hyracks.dataflow.std.join.JoinComparatorFactory;
+import org.apache.hyracks.dataflow.std.join.OptimizedHybridHashJoinOperatorDescriptor;
+import org.apache.hyracks.test.support.CounterContext;
+import org.apache.hyracks.test.support.TestJobletContext;
+import org.apache.hyracks.test.support.TestTaskContext;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.tests.util.InputFrameGenerator;
+import org.junit.Test;
+
+/**
+ * Checks the results of the hybrid hash join when its spilled partitions are joined one at a time or by several
+ * threads, including with too little memory for most of them to be joined in memory.
+ */
+public class OptimizedHybridHashJoinParallelTest {
+
+    private static final int FRAME_SIZE = 256;
+    private static final int FRAME_LIMIT = 32;
+    // little enough for the spilled partitions to be joined by recursive and nested loop joins
+    private static final int SMALL_FRAME_LIMIT = 8;
+    private static final int NULL_VALUE = -1;
+
+    InputFrameGenerator frameGenerator = new InputFrameGenerator(FRAME_SIZE);
+
+    RecordDescriptor inRecordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+    RecordDescriptor outRecordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+
+    @Test
+    public void testSequentialInnerJoin() throws Exception {
+        executeAndVerifyResult(false, FRAME_LIMIT, 1);
+    }
+
+    @Test
+    public void testParallelInnerJoin() throws Exception {
+        executeAndVerifyResult(false, FRAME_LIMIT, 4);
+    }
+
+    @Test
+    public void testSequentialLeftOuterJoin() throws Exception {
+        executeAndVerifyResult(true, FRAME_LIMIT, 1);
+    }
+
+    @Test
+    public void testParallelLeftOuterJoin() throws Exception {
+        executeAndVerifyResult(true, FRAME_LIMIT, 4);
+    }
+
+    @Test
+    public void testAvailableProcessorsParallelInnerJoin() throws Exception {
+        executeAndVerifyResult(false, FRAME_LIMIT,
+                OptimizedHybridHashJoinOperatorDescriptor.AVAILABLE_PROCESSORS_PARALLELISM);
+    }
+
+    @Test
+    public void testInnerJoinWithLittleMemory() throws Exception {
+        executeAndVerifyResult(false, SMALL_FRAME_LIMIT, 1);
+    }
+
+    @Test
+    public void testLeftOuterJoinWithLittleMemory() throws Exception {
+        executeAndVerifyResult(true, SMALL_FRAME_LIMIT, 1);
+    }
+
+    @Test
+    public void testParallelInnerJoinWithMemoryBroker() throws Exception {
+        // another operator holds most of the budget during the build and releases it before the spilled
+        // partitions are joined
+        MemoryBroker memoryBroker = new MemoryBroker(FRAME_LIMIT, MemoryBroker.DEFAULT_MAX_WAIT_MILLIS,
+                new CounterContext("joblet"));
+        IMemoryGrant otherGrant = memoryBroker.acquire("other", FRAME_LIMIT - SMALL_FRAME_LIMIT, FRAME_LIMIT);
+        executeAndVerifyResult(false, FRAME_LIMIT, 4, memoryBroker, otherGrant);
+        assertEquals(FRAME_LIMIT, memoryBroker.getFreeFrames());
+    }
+
+    @Test
+    public void testInnerJoinReleasesRevokedFrames() throws Exception {
+        // another operator asks for frames while the join builds, which the join releases between two build frames
+        CounterContext brokerCounters = new CounterContext("joblet");
+        MemoryBroker memoryBroker = new MemoryBroker(FRAME_LIMIT, MemoryBroker.DEFAULT_MAX_WAIT_MILLIS,
+                brokerCounters);
+        IMemoryGrant[] otherGrant = new IMemoryGrant[1];
+        Thread other = new Thread(() -> {
+            try {
+                otherGrant[0] = memoryBroker.acquire("other", SMALL_FRAME_LIMIT, SMALL_FRAME_LIMIT);
+            } catch (HyracksDataException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        executeAndVerifyResult(false, FRAME_LIMIT, 4, memoryBroker, null, () -> {
+            other.start();
+            while (brokerCounters.getCounter(MemoryBroker.REVOKED_FRAMES_COUNTER, true).get() == 0) {
+                Thread.yield();
+            }
+        }, TestUtils.create(FRAME_SIZE));
+        other.join();
+        assertEquals(SMALL_FRAME_LIMIT, otherGrant[0].getFrames());
+        assertEquals(0, brokerCounters.getCounter(MemoryBroker.OVERCOMMITTED_FRAMES_COUNTER, true).get());
+        otherGrant[0].close();
+        assertEquals(FRAME_LIMIT, memoryBroker.getFreeFrames());
+    }
+
+    @Test
+    public void testParallelInnerJoinWithCompressedSpillFiles() throws Exception {
+        // the spilled partitions compress to a fraction of their frames, which must not be taken for their size
+        executeAndVerifyResult(false, FRAME_LIMIT, 4, null, null, null, TestUtils.create(FRAME_SIZE, true));
+    }
+
+    @Test
+    public void testParallelJoinCounters() throws Exception {
+        // the threads joining the spilled partitions update the counters the task looked up for them, as the counter
+        // context of a task is not thread-safe
+        IHyracksTaskContext taskCtx = TestUtils.create(FRAME_SIZE, true);
+        Thread taskThread = Thread.currentThread();
+        List<Thread> otherThreads = Collections.synchronizedList(new ArrayList<>());
+        IHyracksTaskContext ctx = new TestTaskContext((TestJobletContext) taskCtx.getJobletContext(),
+                taskCtx.getTaskAttemptId()) {
+            @Override
+            public ICounterContext getCounterContext() {
+                if (Thread.currentThread() != taskThread) {
+                    otherThreads.add(Thread.currentThread());
+                }
+                return super.getCounterContext();
+            }
+        };
+        executeAndVerifyResult(false, FRAME_LIMIT, 4, null, null, null, ctx);
+        assertTrue(otherThreads.toString(), otherThreads.isEmpty());
+        ICounterContext counters = ctx.getCounterContext();
+        long rawBytes = counters.getCounter(RunFileCompression.RAW_BYTES_COUNTER, false).get();
+        long compressedBytes = counters.getCounter(RunFileCompression.COMPRESSED_BYTES_COUNTER, false).get();
+        assertTrue(rawBytes > 0);
+        assertTrue(compressedBytes > 0);
+        assertEquals(compressedBytes * 100 / rawBytes,
+                counters.getCounter(RunFileCompression.RATIO_COUNTER, false).get());
+    }
+
+    private void executeAndVerifyResult(boolean isLeftOuter, int frameLimit, int parallelism) throws Exception {
+        executeAndVerifyResult(isLeftOuter, frameLimit, parallelism, null, null);
+    }
+
+    private void executeAndVerifyResult(boolean isLeftOuter, int frameLimit, int parallelism,
+            IMemoryBroker memoryBroker, IMemoryGrant otherGrant) throws Exception {
+        executeAndVerifyResult(isLeftOuter, frameLimit, parallelism, memoryBroker, otherGrant, null,
+                TestUtils.create(FRAME_SIZE));
+    }
+
+    private void executeAndVerifyResult(boolean isLeftOuter, int frameLimit, int parallelism,
+            IMemoryBroker memoryBroker, IMemoryGrant otherGrant, Runnable buildOpened, IHyracksTaskContext ctx)
+            throws Exception {
+        // the build input takes many more frames than the join has, so most of its partitions are spilled
+        List<Object[]> build = generateRecordStream(3000, 2000, 1);
+        List<Object[]> probe = generateRecordStream(4000, 2500, 2);
+        Map<Integer, List<Object[]>> buildByKey = new HashMap<>();
+        for (Object[] b : build) {
+            buildByKey.computeIfAbsent((Integer) b[0], k -> new ArrayList<>()).add(b);
+        }
+        List<String> answer = new ArrayList<>();
+        for (Object[] p : probe) {
+            List<Object[]> matches = buildByKey.get(p[0]);
+            if (matches != null) {
+                for (Object[] b : matches) {
+                    answer.add(p[0] + "," + p[1] + "," + b[0] + "," + b[1] + ",");
+                }
+            } else if (isLeftOuter) {
+                answer.add(p[0] + "," + p[1] + "," + NULL_VALUE + "," + NULL_VALUE + ",");
+            }
+        }
+
+        JobSpecification spec = new JobSpecification();
+        IBinaryComparatorFactory comparatorFactory = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+        INullWriterFactory nullWriterFactory = () -> OptimizedHybridHashJoinParallelTest::writeNull;
+        OptimizedHybridHashJoinOperatorDescriptor join = new OptimizedHybridHashJoinOperatorDescriptor(spec,
+                frameLimit, 300, 1.2, new int[] { 0 }, new int[] { 0 },
+                new IBinaryHashFunctionFamily[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE },
+                new IBinaryComparatorFactory[] { comparatorFactory }, outRecordDesc,
+                new JoinComparatorFactory(comparatorFactory, 0, 0), new JoinComparatorFactory(comparatorFactory, 0, 0),
+                null, isLeftOuter, isLeftOuter ? new INullWriterFactory[] { nullWriterFactory, nullWriterFactory }
+                        : null);
+        join.setSpilledPartitionParallelism(parallelism);
+        List<IActivity> activities = new ArrayList<>();
+        join.contributeActivities(new IActivityGraphBuilder() {
+            @Override
+            public void addActivity(IOperatorDescriptor op, IActivity task) {
+                activities.add(task);
+            }
+
+            @Override
+            public void addBlockingEdge(IActivity blocker, IActivity blocked) {
+            }
+
+            @Override
+            public void addSourceEdge(int operatorInputIndex, IActivity task, int taskInputIndex) {
+            }
+
+            @Override
+            public void addTargetEdge(int operatorOutputIndex, IActivity task, int taskOutputIndex) {
+            }
+        });
+        IRecordDescriptorProvider recordDescProvider = new IRecordDescriptorProvider() {
+            @Override
+            public RecordDescriptor getInputRecordDescriptor(ActivityId aid,
+                    int inputIndex) {
+                return inRecordDesc;
+            }
+
+            @Override
+            public RecordDescriptor getOutputRecordDescriptor(ActivityId aid,
+                    int outputIndex) {
+                return outRecordDesc;
+            }
+        };
+
+        ((TestJobletContext) ctx.getJobletContext()).setMemoryBroker(memoryBroker);
+        IOperatorNodePushable buildPushable = activities.get(0).createPushRuntime(ctx, recordDescProvider, 0, 1);
+        IOperatorNodePushable probePushable = activities.get(1).createPushRuntime(ctx, recordDescProvider, 0, 1);
+        ResultCollector collector = new ResultCollector();
+        probePushable.setOutputFrameWriter(0, collector, outRecordDesc);
+
+        IFrameWriter buildWriter = buildPushable.getInputFrameWriter(0);
+        buildWriter.open();
+        if (buildOpened != null) {
+            buildOpened.run();
+        }
+        for (IFrame frame : frameGenerator.generateDataFrame(inRecordDesc, build)) {
+            buildWriter.nextFrame(frame.getBuffer());
+        }
+        buildWriter.close();
+        if (otherGrant != null) {
+            otherGrant.close();
+        }
+        IFrameWriter probeWriter = probePushable.getInputFrameWriter(0);
+        probeWriter.open();
+        for (IFrame frame : frameGenerator.generateDataFrame(inRecordDesc, probe)) {
+            probeWriter.nextFrame(frame.getBuffer());
+        }
+        probeWriter.close();
+
+        // the threads interleave their output frames, so only the multiset of the results is fixed
+        Collections.sort(answer);
+        Collections.sort(collector.results);
+        assertEquals(answer, collector.results);
+    }
+
+    private static List<Object[]> generateRecordStream(int size, int numKeys, int seed) {
+        Random random = new Random(seed);
+        List<Object[]> records = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            records.add(new Object[] { random.nextInt(numKeys), i });
+        }
+        return records;
+    }
+
+    private static void writeNull(DataOutput out) throws HyracksDataException {
+        try {
+            out.writeInt(NULL_VALUE);
+        } catch (IOException e) {
+            throw new HyracksDataException(e);
+        }
+    }
+
+    private class ResultCollector implements IFrameWriter {
+        private final FrameTupleAccessor frameAccessor = new FrameTupleAccessor(outRecordDesc);
+        private final List<String> results = new ArrayList<>();
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            frameAccessor.reset(buffer);
+            for (int tid = 0; tid < frameAccessor.getTupleCount(); tid++) {
+                StringBuilder sb = new StringBuilder();
+                for (int fid = 0; fid < frameAccessor.getFieldCount(); fid++) {
+                    sb.append(IntegerPointable.getInteger(buffer.array(),
+                            frameAccessor.getAbsoluteFieldStartOffset(tid, fid))).append(',');
+                }
+                results.add(sb.toString());
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
@@ -55,6 +55,7 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
 import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
 import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
 import org.apache.hyracks.dataflow.std.sort.Algorithm;
 import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
@@ -271,6 +272,27 @@ public class RunMergingFrameReaderTest {
         return count;
     }
 
+    @Test
+    public void testManyRunsMergeWithNormalizedKey() throws HyracksDataException {
+        int pageSize = 128;
+        // not a power of two, so that the leaves of the loser tree are on two levels
+        int numRuns = 37;
+        int numFramesPerRun = 3;
+        int minRecordSize = pageSize / 10;
+        int maxRecordSize = pageSize / 8;
+
+        IHyracksTaskContext ctx = testUtils.create(pageSize);
+        List<Map<Integer, String>> keyValueMapList = new ArrayList<>(numRuns);
+        List<TestFrameReader> readerList = new ArrayList<>(numRuns);
+        List<IFrame> frameList = new ArrayList<>(numRuns);
+        prepareRandomInputRunList(ctx, pageSize, numRuns, numFramesPerRun, minRecordSize, maxRecordSize, readerList,
+                frameList, keyValueMapList);
+
+        RunMergingFrameReader reader = new RunMergingFrameReader(ctx, readerList, frameList, SortFields, Comparators,
+                new IntegerNormalizedKeyComputerFactory().createNormalizedKeyComputer(), RecordDesc);
+        testMergeSucceed(ctx, reader, keyValueMapList);
+    }
+
     @Test
     public void testOneLargeRunMerge() throws HyracksDataException {
         int pageSize = 64;
@@ -305,13 +327,30 @@ public class RunMergingFrameReaderTest {
 
     @Test
     public void testRunFileReader() throws HyracksDataException {
+        testRunFileReader(0, false);
+    }
+
+    @Test
+    public void testRunFileReaderWithReadAhead() throws HyracksDataException {
+        // smaller and larger than a frame, and not aligned to frames, so frames span the read-ahead buffers
+        testRunFileReader(100, false);
+        testRunFileReader(300, false);
+    }
+
+    @Test
+    public void testRunFileReaderWithCompression() throws HyracksDataException {
+        testRunFileReader(0, true);
+        testRunFileReader(100, true);
+    }
+
+    private void testRunFileReader(int readAheadSize, boolean compressSpillFiles) throws HyracksDataException {
         int pageSize = 128;
         int numRuns = 4;
         int numFramesPerRun = 4;
         int minRecordSize = pageSize / 10;
         int maxRecordSize = pageSize / 2;
 
-        IHyracksTaskContext ctx = testUtils.create(pageSize);
+        IHyracksTaskContext ctx = testUtils.create(pageSize, compressSpillFiles);
         ExternalSortRunGenerator runGenerator = new ExternalSortRunGenerator(ctx, SortFields, null, ComparatorFactories,
                 RecordDesc, Algorithm.MERGE_SORT, numFramesPerRun);
 
@@ -347,6 +386,7 @@ public class RunMergingFrameReaderTest {
 
         List<IFrameReader> runs = new ArrayList<>();
         for (GeneratedRunFileReader run : runGenerator.getRuns()) {
+            run.setReadAheadSize(readAheadSize);
             runs.add(run);
         }
         RunMergingFrameReader reader = new RunMergingFrameReader(ctx, runs, inFrame, SortFields, Comparators, null,
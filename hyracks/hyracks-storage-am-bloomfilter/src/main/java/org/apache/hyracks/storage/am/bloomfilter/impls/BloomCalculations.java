@@ -77,17 +77,55 @@ public class BloomCalculations {
      */
     private static final int[] optKPerBuckets = new int[probs.length];
 
+    /**
+     * The false positive rates of a blocked bloom filter, laid out like {@link #probs}. The keys hashed to a block
+     * follow a Poisson distribution, and a key is looked up in a standard filter of one block, so the rate is:
+     * sum over n of P(n keys in the block) * (1 - (1 - 1/B)^(k*n))^k, where B is the number of bits of a block.
+     */
+    static final double[][] blockedProbs = new double[probs.length][];
+
+    /**
+     * The optimal number of hashes of a blocked filter for a given number of bits per element.
+     */
+    private static final int[] optBlockedKPerBuckets = new int[probs.length];
+
     static {
         for (int i = 0; i < probs.length; i++) {
-            double min = Double.MAX_VALUE;
-            double[] prob = probs[i];
-            for (int j = 0; j < prob.length; j++) {
-                if (prob[j] < min) {
-                    min = prob[j];
-                    optKPerBuckets[i] = Math.max(minK, j);
-                }
+            optKPerBuckets[i] = optK(probs[i]);
+            blockedProbs[i] = new double[probs[i].length];
+            for (int j = 0; j < probs[i].length; j++) {
+                blockedProbs[i][j] = i == 0 || j == 0 ? 1.0 : blockedFalsePositiveRate(i, j);
+            }
+            optBlockedKPerBuckets[i] = optK(blockedProbs[i]);
+        }
+    }
+
+    private static int optK(double[] prob) {
+        double min = Double.MAX_VALUE;
+        int optK = minK;
+        for (int j = 0; j < prob.length; j++) {
+            if (prob[j] < min) {
+                min = prob[j];
+                optK = Math.max(minK, j);
+            }
+        }
+        return optK;
+    }
+
+    private static double blockedFalsePositiveRate(int bucketsPerElement, int k) {
+        int blockBits = BloomFilter.BLOCK_SIZE * Byte.SIZE;
+        double mean = blockBits / (double) bucketsPerElement;
+        double zeroProb = 1.0 - 1.0 / blockBits;
+        double rate = 0.0;
+        double poisson = Math.exp(-mean);
+        int maxKeys = (int) (mean + 10 * Math.sqrt(mean) + 10);
+        for (int n = 0; n <= maxKeys; n++) {
+            if (n > 0) {
+                poisson *= mean / n;
             }
+            rate += poisson * Math.pow(1.0 - Math.pow(zeroProb, (double) k * n), k);
         }
+        return rate;
     }
 
     /**
@@ -151,6 +189,44 @@ public class BloomCalculations {
         return new BloomFilterSpecification(K, bucketsPerElement);
     }
 
+    /**
+     * Like {@link #computeBloomSpec(int, double)}, but for a blocked bloom filter, whose false positive rate is a
+     * little higher for the same number of buckets per element. If the rate cannot be met, the specification with the
+     * lowest false positive rate within the maximum number of buckets is returned.
+     *
+     * @param maxBucketsPerElement
+     *            The maximum number of buckets available for the filter.
+     * @param maxFalsePosProb
+     *            The maximum tolerable false positive rate.
+     * @return A Bloom Specification for a blocked bloom filter.
+     */
+    public static BloomFilterSpecification computeBlockedBloomSpec(int maxBucketsPerElement, double maxFalsePosProb) {
+        assert maxBucketsPerElement >= 1;
+        assert maxBucketsPerElement <= probs.length - 1;
+        int bucketsPerElement = Math.min(minBuckets, maxBucketsPerElement);
+        int K = optBlockedKPerBuckets[bucketsPerElement];
+        while (blockedProbs[bucketsPerElement][K] > maxFalsePosProb && bucketsPerElement < maxBucketsPerElement) {
+            bucketsPerElement++;
+            K = optBlockedKPerBuckets[bucketsPerElement];
+        }
+        while (K > minK && blockedProbs[bucketsPerElement][K - 1] <= maxFalsePosProb) {
+            K--;
+        }
+        return new BloomFilterSpecification(K, bucketsPerElement);
+    }
+
+    /**
+     * Computes the specification of a standard or of a blocked bloom filter.
+     *
+     * @see #computeBloomSpec(int, double)
+     * @see #computeBlockedBloomSpec(int, double)
+     */
+    public static BloomFilterSpecification computeBloomSpec(int maxBucketsPerElement, double maxFalsePosProb,
+            boolean blocked) {
+        return blocked ? computeBlockedBloomSpec(maxBucketsPerElement, maxFalsePosProb)
+                : computeBloomSpec(maxBucketsPerElement, maxFalsePosProb);
+    }
+
     /**
      * Calculates the maximum number of buckets per element that this implementation
      * can support. Crucially, it will lower the bucket count if necessary to meet
@@ -39,11 +39,19 @@ public class BloomFilter {
     private final static int NUM_HASHES_USED_OFFSET = NUM_PAGES_OFFSET + 4; // 4
     private final static int NUM_ELEMENTS_OFFSET = NUM_HASHES_USED_OFFSET + 4; // 8
     private final static int NUM_BITS_OFFSET = NUM_ELEMENTS_OFFSET + 8; // 12
+    private final static int LAYOUT_OFFSET = NUM_BITS_OFFSET + 8; // 20
+
+    // Marks a blocked filter in the metadata page. Filters written before the layout was recorded are standard.
+    private final static int BLOCKED_LAYOUT = 0x424C4B31;
+    // The size in bytes of a block of the blocked layout, one cache line.
+    public final static int BLOCK_SIZE = 64;
+    private final static int NUM_BITS_PER_BLOCK = BLOCK_SIZE * Byte.SIZE;
 
     private final IBufferCache bufferCache;
     private final IFileMapProvider fileMapProvider;
     private final FileReference file;
     private final int[] keyFields;
+    private final boolean blocked;
     private int fileId = -1;
     private boolean isActivated = false;
 
@@ -51,17 +59,32 @@ public class BloomFilter {
     private int numHashes;
     private long numElements;
     private long numBits;
+    private boolean isBlockedLayout;
     private final int numBitsPerPage;
+    private final int numBlocksPerPage;
     private final static byte[] ZERO_BUFFER = new byte[131072]; // 128kb
     private final static long SEED = 0L;
 
     public BloomFilter(IBufferCache bufferCache, IFileMapProvider fileMapProvider, FileReference file, int[] keyFields)
             throws HyracksDataException {
+        this(bufferCache, fileMapProvider, file, keyFields, false);
+    }
+
+    /**
+     * @param blocked
+     *            whether the filters built by {@link #createBuilder(long, int, int)} use the blocked layout, where all
+     *            bits of a key lie in one {@link #BLOCK_SIZE} block, so that a lookup pins a single page and touches a
+     *            single cache line. Filters are read in the layout they were built with.
+     */
+    public BloomFilter(IBufferCache bufferCache, IFileMapProvider fileMapProvider, FileReference file, int[] keyFields,
+            boolean blocked) throws HyracksDataException {
         this.bufferCache = bufferCache;
         this.fileMapProvider = fileMapProvider;
         this.file = file;
         this.keyFields = keyFields;
+        this.blocked = blocked;
         this.numBitsPerPage = bufferCache.getPageSize() * Byte.SIZE;
+        this.numBlocksPerPage = bufferCache.getPageSize() / BLOCK_SIZE;
     }
 
     public int getFileId() {
@@ -79,6 +102,10 @@ public class BloomFilter {
         return numPages;
     }
 
+    public boolean isBlocked() {
+        return blocked;
+    }
+
     public long getNumElements() throws HyracksDataException {
         if (!isActivated) {
             throw new HyracksDataException("The bloom filter is not activated.");
@@ -91,6 +118,9 @@ public class BloomFilter {
             return false;
         }
         MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+        if (isBlockedLayout) {
+            return blockContains(hashes);
+        }
         for (int i = 0; i < numHashes; ++i) {
             long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
 
@@ -116,6 +146,44 @@ public class BloomFilter {
         return true;
     }
 
+    private boolean blockContains(long[] hashes) throws HyracksDataException {
+        long block = getBlock(hashes[0], numBits / NUM_BITS_PER_BLOCK);
+        // we increment the page id by one, since the metadata page id of the filter is 0.
+        ICachedPage page = bufferCache.pin(
+                BufferedFileHandle.getDiskPageId(fileId, (int) (block / numBlocksPerPage) + 1), false);
+        page.acquireReadLatch();
+        try {
+            ByteBuffer buffer = page.getBuffer();
+            int blockOffset = (int) (block % numBlocksPerPage) * BLOCK_SIZE;
+            long hash = hashes[1];
+            for (int i = 0; i < numHashes; ++i) {
+                int bit = getBlockBit(hash);
+                hash = nextBlockHash(hash);
+                if ((buffer.get(blockOffset + (bit >> 3)) & (1 << (bit & 0x07))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            page.releaseReadLatch();
+            bufferCache.unpin(page);
+        }
+    }
+
+    private static long getBlock(long hash, long numBlocks) {
+        return (hash & Long.MAX_VALUE) % numBlocks;
+    }
+
+    // The bits of a block are taken from the high bits of a sequence of hashes derived from the second half of the
+    // key's hash, since the low bits of a combination like h1 + i * h2 are too correlated within one block.
+    private static int getBlockBit(long hash) {
+        return (int) (hash >>> (Long.SIZE - 9)); // NUM_BITS_PER_BLOCK == 1 << 9
+    }
+
+    private static long nextBlockHash(long hash) {
+        return hash * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+    }
+
     private void prepareFile() throws HyracksDataException {
         boolean fileIsMapped = false;
         synchronized (fileMapProvider) {
@@ -161,6 +229,7 @@ public class BloomFilter {
             numHashes = 0;
             numElements = 0;
             numBits = 0;
+            isBlockedLayout = false;
             return;
         }
         ICachedPage metaPage = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, METADATA_PAGE_ID), false);
@@ -170,6 +239,7 @@ public class BloomFilter {
             numHashes = metaPage.getBuffer().getInt(NUM_HASHES_USED_OFFSET);
             numElements = metaPage.getBuffer().getLong(NUM_ELEMENTS_OFFSET);
             numBits = metaPage.getBuffer().getLong(NUM_BITS_OFFSET);
+            isBlockedLayout = metaPage.getBuffer().getInt(LAYOUT_OFFSET) == BLOCKED_LAYOUT;
         } finally {
             metaPage.releaseReadLatch();
             bufferCache.unpin(metaPage);
@@ -219,8 +289,20 @@ public class BloomFilter {
             queue = bufferCache.createFIFOQueue();
             this.numElements = numElements;
             this.numHashes = numHashes;
-            numBits = this.numElements * numBitsPerElement;
-            long tmp = (long) Math.ceil(numBits / (double) numBitsPerPage);
+            long tmp;
+            if (blocked) {
+                if (numBlocksPerPage == 0) {
+                    throw new HyracksDataException("Cannot create a blocked bloom filter with pages smaller than "
+                            + BLOCK_SIZE + " bytes.");
+                }
+                // blocks never straddle pages, so the filter is made of whole blocks
+                long numBlocks = (long) Math.ceil(this.numElements * numBitsPerElement / (double) NUM_BITS_PER_BLOCK);
+                numBits = numBlocks * NUM_BITS_PER_BLOCK;
+                tmp = (long) Math.ceil(numBlocks / (double) numBlocksPerPage);
+            } else {
+                numBits = this.numElements * numBitsPerElement;
+                tmp = (long) Math.ceil(numBits / (double) numBitsPerPage);
+            }
             if (tmp > Integer.MAX_VALUE) {
                 throw new HyracksDataException("Cannot create a bloom filter with his huge number of pages.");
             }
@@ -256,6 +338,7 @@ public class BloomFilter {
             metaDataPage.getBuffer().putInt(NUM_HASHES_USED_OFFSET, numHashes);
             metaDataPage.getBuffer().putLong(NUM_ELEMENTS_OFFSET, numElements);
             metaDataPage.getBuffer().putLong(NUM_BITS_OFFSET, numBits);
+            metaDataPage.getBuffer().putInt(LAYOUT_OFFSET, blocked ? BLOCKED_LAYOUT : 0);
         }
 
         @Override
@@ -265,6 +348,10 @@ public class BloomFilter {
                         "Cannot add elements to this filter since it is supposed to be empty (number of elements hint passed to the filter during construction was 0).");
             }
             MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+            if (blocked) {
+                addToBlock();
+                return;
+            }
             for (int i = 0; i < numHashes; ++i) {
                 long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
                 ICachedPage page = pages[((int) (hash / numBitsPerPage))];
@@ -278,6 +365,19 @@ public class BloomFilter {
             }
         }
 
+        private void addToBlock() {
+            long block = getBlock(hashes[0], numBits / NUM_BITS_PER_BLOCK);
+            ByteBuffer buffer = pages[(int) (block / numBlocksPerPage)].getBuffer();
+            int blockOffset = (int) (block % numBlocksPerPage) * BLOCK_SIZE;
+            long hash = hashes[1];
+            for (int i = 0; i < numHashes; ++i) {
+                int bit = getBlockBit(hash);
+                hash = nextBlockHash(hash);
+                int byteIndex = blockOffset + (bit >> 3);
+                buffer.put(byteIndex, (byte) (buffer.get(byteIndex) | (1 << (bit & 0x07))));
+            }
+        }
+
         @Override
         public void end() throws HyracksDataException, IndexException {
             allocateAndInitMetaDataPage();
@@ -290,6 +390,7 @@ public class BloomFilter {
             BloomFilter.this.numHashes = numHashes;
             BloomFilter.this.numElements = numElements;
             BloomFilter.this.numPages = numPages;
+            BloomFilter.this.isBlockedLayout = blocked;
         }
 
         @Override
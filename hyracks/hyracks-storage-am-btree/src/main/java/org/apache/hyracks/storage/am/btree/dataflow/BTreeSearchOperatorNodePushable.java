@@ -18,26 +18,42 @@
  */
 package org.apache.hyracks.storage.am.btree.dataflow;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchAccessor;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
 import org.apache.hyracks.storage.am.common.api.ITreeIndex;
 import org.apache.hyracks.storage.am.common.dataflow.AbstractTreeIndexOperatorDescriptor;
 import org.apache.hyracks.storage.am.common.dataflow.IndexSearchOperatorNodePushable;
+import org.apache.hyracks.storage.am.common.impls.BatchPointPredicate;
 import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
 import org.apache.hyracks.storage.am.common.tuples.PermutingFrameTupleReference;
 
+/**
+ * Searches a B-tree for the keys of every input tuple. When the keys are inclusive point keys on all the key fields
+ * of the index, e.g. in secondary-to-primary index lookups, frames whose keys are sorted are searched as a batch if
+ * the index supports it, see {@link IBatchPointSearchAccessor}.
+ */
 public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePushable {
     protected final boolean lowKeyInclusive;
     protected final boolean highKeyInclusive;
+    protected final int[] pointKeyFields;
 
     protected PermutingFrameTupleReference lowKey;
     protected PermutingFrameTupleReference highKey;
     protected MultiComparator lowKeySearchCmp;
     protected MultiComparator highKeySearchCmp;
 
+    protected IBatchPointSearchCursor batchCursor;
+    protected BatchPointPredicate batchPred;
+
     public BTreeSearchOperatorNodePushable(AbstractTreeIndexOperatorDescriptor opDesc, IHyracksTaskContext ctx,
             int partition, IRecordDescriptorProvider recordDescProvider, int[] lowKeyFields, int[] highKeyFields,
             boolean lowKeyInclusive, boolean highKeyInclusive, int[] minFilterFieldIndexes,
@@ -53,6 +69,99 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
             highKey = new PermutingFrameTupleReference();
             highKey.setFieldPermutation(highKeyFields);
         }
+        if (lowKey != null && lowKeyInclusive && highKeyInclusive && Arrays.equals(lowKeyFields, highKeyFields)
+                && minFilterKey == null && maxFilterKey == null) {
+            pointKeyFields = lowKeyFields;
+        } else {
+            pointKeyFields = null;
+        }
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        super.open();
+        batchCursor = createBatchCursor();
+        if (batchCursor != null) {
+            batchPred = new BatchPointPredicate(pointKeyFields, lowKeySearchCmp);
+        }
+    }
+
+    /**
+     * @return a cursor for batched point searches, or null to search the keys of every input tuple separately
+     */
+    protected IBatchPointSearchCursor createBatchCursor() {
+        if (pointKeyFields == null || !(indexAccessor instanceof IBatchPointSearchAccessor)
+                || !((IBatchPointSearchAccessor) indexAccessor).supportsBatchPointSearch()
+                || lowKeySearchCmp.getKeyFieldCount() != ((ITreeIndex) index).getComparatorFactories().length) {
+            return null;
+        }
+        return ((IBatchPointSearchAccessor) indexAccessor).createBatchPointSearchCursor();
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (batchCursor == null) {
+            super.nextFrame(buffer);
+            return;
+        }
+        accessor.reset(buffer);
+        int tupleCount = accessor.getTupleCount();
+        try {
+            if (tupleCount == 0) {
+                return;
+            }
+            batchCursor.reset();
+            if (!isSortedOnPointKeys(tupleCount)) {
+                super.nextFrame(buffer);
+                return;
+            }
+            cursor.reset();
+            batchPred.reset(accessor, 0, tupleCount);
+            ((IBatchPointSearchAccessor) indexAccessor).batchPointSearch(batchCursor, batchPred);
+            writeBatchSearchResults(tupleCount);
+        } catch (HyracksDataException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HyracksDataException(e);
+        }
+    }
+
+    private boolean isSortedOnPointKeys(int tupleCount) throws HyracksDataException {
+        for (int i = 1; i < tupleCount; i++) {
+            lowKey.reset(accessor, i - 1);
+            highKey.reset(accessor, i);
+            if (lowKeySearchCmp.compare(lowKey, highKey) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeBatchSearchResults(int tupleCount) throws Exception {
+        int nextTupleIndex = 0;
+        while (batchCursor.hasNext()) {
+            batchCursor.next();
+            int tupleIndex = batchCursor.getKeyIndex();
+            while (nextTupleIndex < tupleIndex) {
+                writeNoSearchResult(nextTupleIndex++);
+            }
+            writeSearchResult(tupleIndex, batchCursor.getTuple());
+            nextTupleIndex = tupleIndex + 1;
+        }
+        while (nextTupleIndex < tupleCount) {
+            writeNoSearchResult(nextTupleIndex++);
+        }
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (batchCursor != null) {
+                batchCursor.close();
+            }
+        } finally {
+            super.close();
+        }
     }
 
     @Override
@@ -25,6 +25,7 @@ import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
 import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndex;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
@@ -49,6 +50,12 @@ public class BTreeUpdateSearchOperatorNodePushable extends BTreeSearchOperatorNo
         return new BTreeRangeSearchCursor((IBTreeLeafFrame) cursorFrame, true);
     }
 
+    @Override
+    protected IBatchPointSearchCursor createBatchCursor() {
+        // The tuples are updated in place through the exclusive cursor.
+        return null;
+    }
+
     @Override
     protected void writeSearchResults(int tupleIndex) throws Exception {
         while (cursor.hasNext()) {
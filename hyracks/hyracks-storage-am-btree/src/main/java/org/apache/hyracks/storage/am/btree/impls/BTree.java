@@ -183,6 +183,9 @@ public class BTree extends AbstractTreeIndex {
         if (ctx.pred.getHighKeyComparator() == null) {
             ctx.pred.setHighKeyComparator(ctx.cmp);
         }
+        // the cursor reads ahead as soon as it is opened on a leaf
+        cursor.setBufferCache(bufferCache);
+        cursor.setFileId(fileId);
         // we use this loop to deal with possibly multiple operation restarts
         // due to ongoing structure modifications during the descent
         boolean repeatOp = true;
@@ -196,8 +199,6 @@ public class BTree extends AbstractTreeIndex {
             }
             repeatOp = false;
         }
-        cursor.setBufferCache(bufferCache);
-        cursor.setFileId(fileId);
     }
 
     private void unsetSmPages(BTreeOpContext ctx) throws HyracksDataException {
@@ -1132,6 +1133,166 @@ public class BTree extends AbstractTreeIndex {
             super.handleException();
         }
 
+        /**
+         * Creates a chain of leaves that another thread can load concurrently with this bulk loader, with keys greater
+         * than all the keys loaded before the chain is appended, see {@link #appendLeafChain(LeafChain)}.
+         */
+        public LeafChain createLeafChain() throws HyracksDataException {
+            return new LeafChain();
+        }
+
+        /**
+         * Appends the leaves of a loaded chain after the leaves loaded so far, and adds their separators to the
+         * interior nodes. The loading continues in the last leaf of the chain.
+         */
+        public void appendLeafChain(LeafChain chain) throws HyracksDataException {
+            if (chain.firstLeaf == null) {
+                return;
+            }
+            try {
+                NodeFrontier leafFrontier = nodeFrontiers.get(0);
+                leafFrame.setPage(leafFrontier.page);
+                int firstPageId;
+                if (leafFrame.getTupleCount() == 0) {
+                    // nothing was loaded yet, the chain starts at the page of the empty leaf
+                    firstPageId = leafFrontier.pageId;
+                    bufferCache.returnPage(leafFrontier.page, false);
+                } else {
+                    firstPageId = freePageManager.getFreePage(metaFrame);
+                    leafFrontier.lastTuple.resetByTupleIndex(leafFrame, leafFrame.getTupleCount() - 1);
+                    int splitKeySize = tupleWriter.bytesRequired(leafFrontier.lastTuple, 0, cmp.getKeyFieldCount());
+                    splitKey.initData(splitKeySize);
+                    tupleWriter.writeTupleFields(leafFrontier.lastTuple, 0, cmp.getKeyFieldCount(), splitKey
+                            .getBuffer().array(), 0);
+                    splitKey.getTuple().resetByTupleOffset(splitKey.getBuffer(), 0);
+                    splitKey.setLeftPage(leafFrontier.pageId);
+                    propagateBulk(1, pagesToWrite);
+                    ((IBTreeLeafFrame) leafFrame).setNextLeaf(firstPageId);
+                    queue.put(leafFrontier.page);
+                }
+                leafFrontier.page = null;
+                setPageDpid(chain.firstLeaf, firstPageId);
+
+                int leftPage = firstPageId;
+                for (int i = 0; i < chain.separators.size(); i++) {
+                    byte[] separator = chain.separators.get(i);
+                    splitKey.initData(separator.length);
+                    System.arraycopy(separator, 0, splitKey.getBuffer().array(), 0, separator.length);
+                    splitKey.getTuple().resetByTupleOffset(splitKey.getBuffer(), 0);
+                    splitKey.setLeftPage(leftPage);
+                    propagateBulk(1, pagesToWrite);
+                    leftPage = chain.leafPageIds.get(i);
+                }
+                for (ICachedPage c : pagesToWrite) {
+                    queue.put(c);
+                }
+                pagesToWrite.clear();
+                if (chain.lastLeaf != chain.firstLeaf) {
+                    queue.put(chain.firstLeaf);
+                }
+                leafFrontier.page = chain.lastLeaf;
+                leafFrontier.pageId = leftPage;
+                leafFrame.setPage(leafFrontier.page);
+                chain.firstLeaf = null;
+                chain.lastLeaf = null;
+            } catch (HyracksDataException | RuntimeException e) {
+                chain.abort();
+                handleException();
+                throw e;
+            }
+        }
+
+        /**
+         * A sequence of linked leaves loaded by a single thread. The first leaf gets its page id and the last leaf is
+         * written when the chain is appended to the bulk loader; the other leaves are written as soon as they are full.
+         * The input must be sorted, it is not verified.
+         */
+        public class LeafChain implements IIndexBulkLoader {
+            private final ITreeIndexFrame chainLeafFrame;
+            private final ITreeIndexFrame chainInteriorFrame;
+            private final ITreeIndexMetaDataFrame chainMetaFrame;
+            private final ITreeIndexTupleWriter chainTupleWriter;
+            private final ITreeIndexTupleReference lastTuple;
+            private final List<byte[]> separators = new ArrayList<byte[]>();
+            private final List<Integer> leafPageIds = new ArrayList<Integer>();
+            private ICachedPage firstLeaf;
+            private ICachedPage lastLeaf;
+
+            private LeafChain() {
+                chainLeafFrame = leafFrameFactory.createFrame();
+                chainLeafFrame.setMultiComparator(MultiComparator.create(cmpFactories));
+                chainInteriorFrame = interiorFrameFactory.createFrame();
+                chainMetaFrame = freePageManager.getMetaDataFrameFactory().createFrame();
+                chainTupleWriter = chainLeafFrame.getTupleWriter();
+                lastTuple = chainLeafFrame.createTupleReference();
+            }
+
+            @Override
+            public void add(ITupleReference tuple) throws IndexException, HyracksDataException {
+                try {
+                    int tupleSize = Math.max(chainLeafFrame.getBytesRequiredToWriteTuple(tuple),
+                            chainInteriorFrame.getBytesRequiredToWriteTuple(tuple));
+                    if (tupleSize > maxTupleSize) {
+                        throw new TreeIndexException("Space required for record (" + tupleSize
+                                + ") larger than maximum acceptable size (" + maxTupleSize + ")");
+                    }
+                    if (firstLeaf == null) {
+                        firstLeaf = bufferCache.confiscatePage(IBufferCache.INVALID_DPID);
+                        lastLeaf = firstLeaf;
+                        chainLeafFrame.setPage(lastLeaf);
+                        chainLeafFrame.initBuffer((byte) 0);
+                    }
+
+                    int spaceNeeded = chainTupleWriter.bytesRequired(tuple) + slotSize;
+                    int spaceUsed = chainLeafFrame.getBuffer().capacity() - chainLeafFrame.getTotalFreeSpace();
+                    if (spaceUsed + spaceNeeded > leafMaxBytes) {
+                        chainLeafFrame.compress();
+                        spaceUsed = chainLeafFrame.getBuffer().capacity() - chainLeafFrame.getTotalFreeSpace();
+                    }
+                    if (spaceUsed + spaceNeeded > leafMaxBytes) {
+                        lastTuple.resetByTupleIndex(chainLeafFrame, chainLeafFrame.getTupleCount() - 1);
+                        byte[] separator = new byte[chainTupleWriter.bytesRequired(lastTuple, 0,
+                                cmp.getKeyFieldCount())];
+                        chainTupleWriter.writeTupleFields(lastTuple, 0, cmp.getKeyFieldCount(), separator, 0);
+                        separators.add(separator);
+
+                        int pageId = freePageManager.getFreePage(chainMetaFrame);
+                        leafPageIds.add(pageId);
+                        ((IBTreeLeafFrame) chainLeafFrame).setNextLeaf(pageId);
+                        if (lastLeaf != firstLeaf) {
+                            queue.put(lastLeaf);
+                        }
+                        lastLeaf = bufferCache.confiscatePage(BufferedFileHandle.getDiskPageId(fileId, pageId));
+                        chainLeafFrame.setPage(lastLeaf);
+                        chainLeafFrame.initBuffer((byte) 0);
+                    }
+                    ((IBTreeLeafFrame) chainLeafFrame).insertSorted(tuple);
+                } catch (IndexException | HyracksDataException | RuntimeException e) {
+                    abort();
+                    throw e;
+                }
+            }
+
+            /**
+             * Does nothing, the pending leaves are written by {@link BTreeBulkLoader#appendLeafChain(LeafChain)}.
+             */
+            @Override
+            public void end() throws HyracksDataException {
+            }
+
+            @Override
+            public void abort() throws HyracksDataException {
+                if (lastLeaf != null && lastLeaf != firstLeaf) {
+                    bufferCache.returnPage(lastLeaf, false);
+                }
+                if (firstLeaf != null) {
+                    bufferCache.returnPage(firstLeaf, false);
+                }
+                firstLeaf = null;
+                lastLeaf = null;
+            }
+        }
+
         private void setPageDpid(ICachedPage page, int pageId){
             bufferCache.setPageDiskId(page, BufferedFileHandle.getDiskPageId(fileId,pageId));
         }
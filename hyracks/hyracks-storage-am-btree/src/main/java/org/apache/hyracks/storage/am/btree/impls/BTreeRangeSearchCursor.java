@@ -44,6 +44,8 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
     private final IBTreeLeafFrame frame;
     private final ITreeIndexTupleReference frameTuple;
     private final boolean exclusiveLatchNodes;
+    // leaves are read once (e.g. by a merge), so released leaves are advised as won't-need
+    private final boolean sequentialScan;
     private boolean isPageDirty;
 
     private IBufferCache bufferCache = null;
@@ -51,6 +53,7 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
 
     private ICachedPage page = null;
     private int pageId = -1; // This is used by the LSMRTree flush operation
+    private ICachedPage readAheadPage = null;
 
     private int tupleIndex = 0;
     private int stopTupleIndex;
@@ -74,9 +77,14 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
     private ITupleReference highKey;
 
     public BTreeRangeSearchCursor(IBTreeLeafFrame frame, boolean exclusiveLatchNodes) {
+        this(frame, exclusiveLatchNodes, false);
+    }
+
+    public BTreeRangeSearchCursor(IBTreeLeafFrame frame, boolean exclusiveLatchNodes, boolean sequentialScan) {
         this.frame = frame;
         this.frameTuple = frame.createTupleReference();
         this.exclusiveLatchNodes = exclusiveLatchNodes;
+        this.sequentialScan = sequentialScan;
         this.reusablePredicate = new RangePredicate();
         this.reconciliationTuple = new ArrayTupleReference();
     }
@@ -89,8 +97,12 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
             } else {
                 page.releaseReadLatch();
             }
+            if (sequentialScan) {
+                bufferCache.adviseWontNeed(page);
+            }
             bufferCache.unpin(page);
         }
+        releaseReadAheadPage();
 
         tupleIndex = 0;
         page = null;
@@ -125,6 +137,9 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
                 nextLeaf.acquireReadLatch();
                 page.releaseReadLatch();
             }
+            if (sequentialScan) {
+                bufferCache.adviseWontNeed(page);
+            }
             bufferCache.unpin(page);
 
             page = nextLeaf;
@@ -135,6 +150,35 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         } while (frame.getTupleCount() == 0 && nextLeafPage > 0);
     }
 
+    private void readAheadNextLeaf() throws HyracksDataException {
+        // only read ahead when the range continues past the current leaf
+        int nextLeafPage = frame.getNextLeaf();
+        if (nextLeafPage < 0 || stopTupleIndex < frame.getTupleCount() - 1 || isHighKeyLastInLeaf()) {
+            return;
+        }
+        readAheadPage = bufferCache.pinAsync(BufferedFileHandle.getDiskPageId(fileId, nextLeafPage));
+    }
+
+    /**
+     * @return true if the last tuple of the leaf is equal to an inclusive high key on all the key fields, such as
+     *         the key of an exact-match lookup, so that no tuple of the next leaf, whose keys are greater, is in range
+     */
+    private boolean isHighKeyLastInLeaf() throws HyracksDataException {
+        if (highKey == null || !pred.highKeyInclusive || originalKeyCmp == null
+                || highKeyCmp.getKeyFieldCount() < originalKeyCmp.getKeyFieldCount() || frame.getTupleCount() == 0) {
+            return false;
+        }
+        frameTuple.resetByTupleIndex(frame, frame.getTupleCount() - 1);
+        return highKeyCmp.compare(highKey, frameTuple) == 0;
+    }
+
+    private void releaseReadAheadPage() throws HyracksDataException {
+        if (readAheadPage != null) {
+            bufferCache.unpin(readAheadPage);
+            readAheadPage = null;
+        }
+    }
+
     @Override
     public boolean hasNext() throws HyracksDataException {
         int nextLeafPage;
@@ -142,11 +186,13 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
             nextLeafPage = frame.getNextLeaf();
             if (nextLeafPage >= 0) {
                 fetchNextLeafPage(nextLeafPage);
+                releaseReadAheadPage();
                 tupleIndex = 0;
                 stopTupleIndex = getHighKeyIndex();
                 if (stopTupleIndex < 0) {
                     return false;
                 }
+                readAheadNextLeaf();
             } else {
                 return false;
             }
@@ -254,6 +300,7 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
             }
             bufferCache.unpin(page);
         }
+        releaseReadAheadPage();
         accessor = ((BTreeCursorInitialState) initialState).getAccessor();
         searchCb = initialState.getSearchOperationCallback();
         originalKeyCmp = initialState.getOriginalKeyComparator();
@@ -288,6 +335,7 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
 
         tupleIndex = getLowKeyIndex();
         stopTupleIndex = getHighKeyIndex();
+        readAheadNextLeaf();
     }
 
     @Override
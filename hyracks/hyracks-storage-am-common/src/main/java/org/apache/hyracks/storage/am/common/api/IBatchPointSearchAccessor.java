@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.common.api;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.impls.BatchPointPredicate;
+
+/**
+ * An {@link IIndexAccessor} that can search a sorted batch of full keys at once, sharing the work that consecutive
+ * point searches would otherwise repeat, e.g. the root-to-leaf descents of keys that land on the same leaf.
+ */
+public interface IBatchPointSearchAccessor extends IIndexAccessor {
+    /**
+     * @return whether the index supports batched point searches, which callers check before calling
+     *         createBatchPointSearchCursor() or batchPointSearch()
+     */
+    public boolean supportsBatchPointSearch();
+
+    /**
+     * Creates a cursor appropriate for passing into batchPointSearch().
+     *
+     * @throws UnsupportedOperationException
+     *             If the index does not support batched point searches.
+     */
+    public IBatchPointSearchCursor createBatchPointSearchCursor();
+
+    /**
+     * Open the given cursor for a point search of every key of the given predicate. Each key is searched as if by
+     * search() with an inclusive point predicate on that key, including the search operation callback protocol.
+     *
+     * @param cursor
+     *            Cursor over the index entries matching the keys, in key order.
+     * @param searchPred
+     *            The keys to search, in ascending order.
+     * @throws HyracksDataException
+     *             If the BufferCache throws while un/pinning or un/latching.
+     * @throws IndexException
+     */
+    public void batchPointSearch(IBatchPointSearchCursor cursor, BatchPointPredicate searchPred)
+            throws HyracksDataException, IndexException;
+}
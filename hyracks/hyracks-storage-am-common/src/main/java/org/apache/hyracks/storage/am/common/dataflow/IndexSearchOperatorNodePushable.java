@@ -148,24 +148,33 @@ public abstract class IndexSearchOperatorNodePushable extends AbstractUnaryInput
         boolean matched = false;
         while (cursor.hasNext()) {
             matched = true;
-            tb.reset();
             cursor.next();
-            if (retainInput) {
-                frameTuple.reset(accessor, tupleIndex);
-                for (int i = 0; i < frameTuple.getFieldCount(); i++) {
-                    dos.write(frameTuple.getFieldData(i), frameTuple.getFieldStart(i), frameTuple.getFieldLength(i));
-                    tb.addFieldEndOffset();
-                }
-            }
-            ITupleReference tuple = cursor.getTuple();
-            for (int i = 0; i < tuple.getFieldCount(); i++) {
-                dos.write(tuple.getFieldData(i), tuple.getFieldStart(i), tuple.getFieldLength(i));
+            writeSearchResult(tupleIndex, cursor.getTuple());
+        }
+
+        if (!matched) {
+            writeNoSearchResult(tupleIndex);
+        }
+    }
+
+    protected void writeSearchResult(int tupleIndex, ITupleReference tuple) throws Exception {
+        tb.reset();
+        if (retainInput) {
+            frameTuple.reset(accessor, tupleIndex);
+            for (int i = 0; i < frameTuple.getFieldCount(); i++) {
+                dos.write(frameTuple.getFieldData(i), frameTuple.getFieldStart(i), frameTuple.getFieldLength(i));
                 tb.addFieldEndOffset();
             }
-            FrameUtils.appendToWriter(writer, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
         }
+        for (int i = 0; i < tuple.getFieldCount(); i++) {
+            dos.write(tuple.getFieldData(i), tuple.getFieldStart(i), tuple.getFieldLength(i));
+            tb.addFieldEndOffset();
+        }
+        FrameUtils.appendToWriter(writer, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+    }
 
-        if (!matched && retainInput && retainNull) {
+    protected void writeNoSearchResult(int tupleIndex) throws Exception {
+        if (retainInput && retainNull) {
             FrameUtils.appendConcatToWriter(writer, appender, accessor, tupleIndex, nullTupleBuild.getFieldEndOffsets(),
                     nullTupleBuild.getByteArray(), 0, nullTupleBuild.getSize());
         }
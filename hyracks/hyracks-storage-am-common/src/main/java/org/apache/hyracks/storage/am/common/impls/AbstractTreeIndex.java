@@ -370,7 +370,7 @@ public abstract class AbstractTreeIndex implements ITreeIndex {
             // Unlatch and unpin pages that weren't in the queue to avoid leaking memory.
             for (NodeFrontier nodeFrontier : nodeFrontiers) {
                 ICachedPage frontierPage = nodeFrontier.page;
-                if (frontierPage.confiscated()) {
+                if (frontierPage != null && frontierPage.confiscated()) {
                     bufferCache.returnPage(frontierPage,false);
                 }
             }
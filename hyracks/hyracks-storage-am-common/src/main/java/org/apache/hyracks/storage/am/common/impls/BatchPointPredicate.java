@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.common.impls;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.common.tuples.PermutingFrameTupleReference;
+
+/**
+ * The search keys of a batch of point searches: the key fields of a range of consecutive tuples of a frame, which
+ * must be in ascending key order. The low key is the first key of the batch.
+ */
+public class BatchPointPredicate extends AbstractSearchPredicate {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final PermutingFrameTupleReference key;
+    protected final PermutingFrameTupleReference lowKey;
+    protected final MultiComparator cmp;
+    protected IFrameTupleAccessor accessor;
+    protected int startTupleIndex;
+    protected int numKeys;
+
+    /**
+     * @param keyFields
+     *            the fields of the frame tuples forming the search keys
+     * @param cmp
+     *            the comparator of the full keys of the index
+     */
+    public BatchPointPredicate(int[] keyFields, MultiComparator cmp) {
+        key = new PermutingFrameTupleReference(keyFields);
+        lowKey = new PermutingFrameTupleReference(keyFields);
+        this.cmp = cmp;
+    }
+
+    public void reset(IFrameTupleAccessor accessor, int startTupleIndex, int numKeys) {
+        this.accessor = accessor;
+        this.startTupleIndex = startTupleIndex;
+        this.numKeys = numKeys;
+        if (numKeys > 0) {
+            lowKey.reset(accessor, startTupleIndex);
+        }
+    }
+
+    public int getNumKeys() {
+        return numKeys;
+    }
+
+    /**
+     * @return the key at the given index in the batch, valid until the next call
+     */
+    public ITupleReference getKey(int keyIndex) {
+        key.reset(accessor, startTupleIndex + keyIndex);
+        return key;
+    }
+
+    @Override
+    public MultiComparator getLowKeyComparator() {
+        return cmp;
+    }
+
+    @Override
+    public MultiComparator getHighKeyComparator() {
+        return cmp;
+    }
+
+    @Override
+    public ITupleReference getLowKey() {
+        return numKeys > 0 ? lowKey : null;
+    }
+}
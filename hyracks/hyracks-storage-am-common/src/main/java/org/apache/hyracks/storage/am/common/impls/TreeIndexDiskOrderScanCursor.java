@@ -30,6 +30,8 @@ import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
+    // number of pages pinned ahead of the scan position, including the current one
+    private static final int READ_AHEAD_PAGES = 8;
 
     private int tupleIndex = 0;
     private int fileId = -1;
@@ -37,6 +39,8 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
     private int maxPageId = -1;
     private ICachedPage page = null;
     private IBufferCache bufferCache = null;
+    private final ICachedPage[] readAheadPages = new ICachedPage[READ_AHEAD_PAGES];
+    private int readAheadPageId = -1;
 
     private final ITreeIndexFrame frame;
     private final ITreeIndexTupleReference frameTuple;
@@ -49,8 +53,10 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
     @Override
     public void close() throws HyracksDataException {
         page.releaseReadLatch();
+        bufferCache.adviseWontNeed(page);
         bufferCache.unpin(page);
         page = null;
+        releaseReadAheadPages();
     }
 
     @Override
@@ -67,7 +73,9 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
         while ((frame.getLevel() != 0 || skipCurrent || frame.getTupleCount() == 0) && (currentPageId <= maxPageId)) {
             currentPageId++;
 
+            // every page is visited exactly once, don't let the scan flood the buffer cache
             page.releaseReadLatch();
+            bufferCache.adviseWontNeed(page);
             bufferCache.unpin(page);
 
             ICachedPage nextPage = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, currentPageId), false);
@@ -77,6 +85,7 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
             frame.setPage(page);
             tupleIndex = 0;
             skipCurrent = false;
+            readAhead();
         }
         if (currentPageId <= maxPageId) {
             return true;
@@ -85,6 +94,32 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
         }
     }
 
+    private void readAhead() throws HyracksDataException {
+        // the current page has been pinned by the scan, so its read-ahead pin can go
+        int slot = currentPageId % READ_AHEAD_PAGES;
+        if (readAheadPages[slot] != null) {
+            bufferCache.unpin(readAheadPages[slot]);
+            readAheadPages[slot] = null;
+        }
+        readAheadPageId = Math.max(readAheadPageId, currentPageId);
+        int lastPageId = Math.min(maxPageId, currentPageId + READ_AHEAD_PAGES - 1);
+        while (readAheadPageId < lastPageId) {
+            readAheadPageId++;
+            readAheadPages[readAheadPageId % READ_AHEAD_PAGES] = bufferCache.pinAsync(BufferedFileHandle
+                    .getDiskPageId(fileId, readAheadPageId));
+        }
+    }
+
+    private void releaseReadAheadPages() throws HyracksDataException {
+        for (int i = 0; i < READ_AHEAD_PAGES; i++) {
+            if (readAheadPages[i] != null) {
+                bufferCache.unpin(readAheadPages[i]);
+                readAheadPages[i] = null;
+            }
+        }
+        readAheadPageId = -1;
+    }
+
     @Override
     public boolean hasNext() throws HyracksDataException {
         if (currentPageId > maxPageId) {
@@ -115,9 +150,11 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
             page.releaseReadLatch();
             bufferCache.unpin(page);
         }
+        releaseReadAheadPages();
         page = initialState.getPage();
         tupleIndex = 0;
         frame.setPage(page);
+        readAhead();
         positionToNextLeaf(false);
     }
 
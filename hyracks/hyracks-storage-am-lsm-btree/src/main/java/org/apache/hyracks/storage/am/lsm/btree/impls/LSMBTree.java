@@ -21,23 +21,37 @@ package org.apache.hyracks.storage.am.lsm.btree.impls;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.data.std.primitive.IntegerPointable;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterFactory;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
-import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeBulkLoader;
+import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
 import org.apache.hyracks.storage.am.common.api.IIndexBulkLoader;
 import org.apache.hyracks.storage.am.common.api.IIndexCursor;
@@ -48,7 +62,9 @@ import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
 import org.apache.hyracks.storage.am.common.api.ITreeIndex;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
 import org.apache.hyracks.storage.am.common.api.IndexException;
 import org.apache.hyracks.storage.am.common.api.TreeIndexException;
 import org.apache.hyracks.storage.am.common.exceptions.TreeIndexDuplicateKeyException;
@@ -59,6 +75,7 @@ import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
 import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
 import org.apache.hyracks.storage.am.lsm.btree.tuples.LSMBTreeTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilterFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilterFrameFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
@@ -81,6 +98,9 @@ import org.apache.hyracks.storage.am.lsm.common.impls.LSMIndexSearchCursor;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMTreeIndexAccessor;
 import org.apache.hyracks.storage.am.lsm.common.impls.TreeIndexFactory;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.PageWriteThrottle;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 import org.apache.hyracks.storage.common.file.IFileMapProvider;
 
 public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
@@ -95,9 +115,15 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     protected final ITreeIndexFrameFactory insertLeafFrameFactory;
     protected final ITreeIndexFrameFactory deleteLeafFrameFactory;
     protected final IBinaryComparatorFactory[] cmpFactories;
+    // Only used to answer getInteriorFrameFactory() when the memory components are skip lists.
+    private final ITreeIndexFrameFactory interiorFrameFactory;
 
     private final boolean needKeyDupCheck;
     private final int[] btreeFields;
+    private final int mergeParallelism;
+
+    // Merges the key ranges of the parallel merges of all the LSM B-trees, except the first range of every merge.
+    private static final ExecutorService MERGE_RANGE_EXECUTOR = createMergeRangeExecutor();
 
     public LSMBTree(List<IVirtualBufferCache> virtualBufferCaches, ITreeIndexFrameFactory interiorFrameFactory,
             ITreeIndexFrameFactory insertLeafFrameFactory, ITreeIndexFrameFactory deleteLeafFrameFactory,
@@ -109,21 +135,75 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
             ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
             boolean durable) {
+        this(virtualBufferCaches, interiorFrameFactory, insertLeafFrameFactory, deleteLeafFrameFactory, fileManager,
+                diskBTreeFactory, bulkLoadBTreeFactory, bloomFilterFactory, filterFactory, filterFrameFactory,
+                filterManager, bloomFilterFalsePositiveRate, diskFileMapProvider, fieldCount, cmpFactories,
+                mergePolicy, opTracker, ioScheduler, ioOpCallback, needKeyDupCheck, btreeFields, filterFields,
+                durable, false);
+    }
+
+    /**
+     * @param skipListMemoryComponents
+     *            whether the memory components are lock-free skip lists instead of in-memory B-trees
+     */
+    public LSMBTree(List<IVirtualBufferCache> virtualBufferCaches, ITreeIndexFrameFactory interiorFrameFactory,
+            ITreeIndexFrameFactory insertLeafFrameFactory, ITreeIndexFrameFactory deleteLeafFrameFactory,
+            ILSMIndexFileManager fileManager, TreeIndexFactory<BTree> diskBTreeFactory,
+            TreeIndexFactory<BTree> bulkLoadBTreeFactory, BloomFilterFactory bloomFilterFactory,
+            ILSMComponentFilterFactory filterFactory, ILSMComponentFilterFrameFactory filterFrameFactory,
+            LSMComponentFilterManager filterManager, double bloomFilterFalsePositiveRate,
+            IFileMapProvider diskFileMapProvider, int fieldCount, IBinaryComparatorFactory[] cmpFactories,
+            ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
+            boolean durable, boolean skipListMemoryComponents) {
+        this(virtualBufferCaches, interiorFrameFactory, insertLeafFrameFactory, deleteLeafFrameFactory, fileManager,
+                diskBTreeFactory, bulkLoadBTreeFactory, bloomFilterFactory, filterFactory, filterFrameFactory,
+                filterManager, bloomFilterFalsePositiveRate, diskFileMapProvider, fieldCount, cmpFactories,
+                mergePolicy, opTracker, ioScheduler, ioOpCallback, needKeyDupCheck, btreeFields, filterFields,
+                durable, skipListMemoryComponents, 1);
+    }
+
+    /**
+     * @param mergeParallelism
+     *            the maximum number of key ranges a merge is split into and merged concurrently, see
+     *            {@link #merge(ILSMIOOperation)}
+     */
+    public LSMBTree(List<IVirtualBufferCache> virtualBufferCaches, ITreeIndexFrameFactory interiorFrameFactory,
+            ITreeIndexFrameFactory insertLeafFrameFactory, ITreeIndexFrameFactory deleteLeafFrameFactory,
+            ILSMIndexFileManager fileManager, TreeIndexFactory<BTree> diskBTreeFactory,
+            TreeIndexFactory<BTree> bulkLoadBTreeFactory, BloomFilterFactory bloomFilterFactory,
+            ILSMComponentFilterFactory filterFactory, ILSMComponentFilterFrameFactory filterFrameFactory,
+            LSMComponentFilterManager filterManager, double bloomFilterFalsePositiveRate,
+            IFileMapProvider diskFileMapProvider, int fieldCount, IBinaryComparatorFactory[] cmpFactories,
+            ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
+            boolean durable, boolean skipListMemoryComponents, int mergeParallelism) {
         super(virtualBufferCaches, diskBTreeFactory.getBufferCache(), fileManager, diskFileMapProvider,
                 bloomFilterFalsePositiveRate, mergePolicy, opTracker, ioScheduler, ioOpCallback, filterFrameFactory,
                 filterManager, filterFields, durable);
         this.insertLeafFrameFactory = insertLeafFrameFactory;
         this.deleteLeafFrameFactory = deleteLeafFrameFactory;
         this.cmpFactories = cmpFactories;
+        this.interiorFrameFactory = interiorFrameFactory;
         int i = 0;
         for (IVirtualBufferCache virtualBufferCache : virtualBufferCaches) {
-            LSMBTreeMemoryComponent mutableComponent = new LSMBTreeMemoryComponent(
-                    new BTree(virtualBufferCache, virtualBufferCache.getFileMapProvider(),
-                            new VirtualMetaDataPageManager(virtualBufferCache.getNumPages()), interiorFrameFactory,
-                            insertLeafFrameFactory, cmpFactories, fieldCount,
-                            new FileReference(new File(fileManager.getBaseDir() + "_virtual_" + i))),
-                    virtualBufferCache, i == 0 ? true : false,
-                    filterFactory == null ? null : filterFactory.createLSMComponentFilter());
+            FileReference virtualFileRef = new FileReference(new File(fileManager.getBaseDir() + "_virtual_" + i));
+            ILSMComponentFilter filter = filterFactory == null ? null : filterFactory.createLSMComponentFilter();
+            LSMBTreeMemoryComponent mutableComponent;
+            if (skipListMemoryComponents) {
+                mutableComponent = new LSMBTreeMemoryComponent(
+                        new SkipList(virtualBufferCache, virtualBufferCache.getFileMapProvider(),
+                                insertLeafFrameFactory, deleteLeafFrameFactory, cmpFactories, fieldCount,
+                                virtualFileRef),
+                        virtualBufferCache, i == 0 ? true : false, filter);
+            } else {
+                mutableComponent = new LSMBTreeMemoryComponent(
+                        new BTree(virtualBufferCache, virtualBufferCache.getFileMapProvider(),
+                                new VirtualMetaDataPageManager(virtualBufferCache.getNumPages()),
+                                interiorFrameFactory, insertLeafFrameFactory, cmpFactories, fieldCount,
+                                virtualFileRef),
+                        virtualBufferCache, i == 0 ? true : false, filter);
+            }
             memoryComponents.add(mutableComponent);
             ++i;
         }
@@ -132,6 +212,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 filterFactory);
         this.needKeyDupCheck = needKeyDupCheck;
         this.btreeFields = btreeFields;
+        this.mergeParallelism = mergeParallelism;
     }
 
     // Without memory components
@@ -147,10 +228,12 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         this.insertLeafFrameFactory = insertLeafFrameFactory;
         this.deleteLeafFrameFactory = deleteLeafFrameFactory;
         this.cmpFactories = cmpFactories;
+        this.interiorFrameFactory = interiorFrameFactory;
         componentFactory = new LSMBTreeDiskComponentFactory(diskBTreeFactory, bloomFilterFactory, null);
         bulkLoadComponentFactory = new LSMBTreeDiskComponentFactory(bulkLoadBTreeFactory, bloomFilterFactory, null);
         this.needKeyDupCheck = needKeyDupCheck;
         this.btreeFields = null;
+        this.mergeParallelism = 1;
     }
 
     @Override
@@ -186,6 +269,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             } catch (IndexException e) {
                 throw new HyracksDataException(e);
             }
+            mapDiskComponentFiles(component);
             immutableComponents.add(component);
         }
         isActivated = true;
@@ -239,7 +323,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         }
         for (ILSMComponent c : memoryComponents) {
             LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-            mutableComponent.getBTree().destroy();
+            mutableComponent.getIndex().destroy();
         }
         fileManager.deleteDirs();
     }
@@ -327,13 +411,13 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
         switch (ctx.getOperation()) {
             case PHYSICALDELETE:
-                ctx.currentMutableBTreeAccessor.delete(indexTuple);
+                getCurrentMutableAccessor(ctx).delete(indexTuple);
                 break;
             case INSERT:
                 insert(indexTuple, ctx);
                 break;
             default:
-                ctx.currentMutableBTreeAccessor.upsert(indexTuple);
+                getCurrentMutableAccessor(ctx).upsert(indexTuple);
                 break;
         }
         if (ctx.filterTuple != null) {
@@ -351,7 +435,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         predicate.setLowKey(tuple);
         if (needKeyDupCheck) {
             // first check the inmemory component
-            ctx.currentMutableBTreeAccessor.search(memCursor, predicate);
+            getCurrentMutableAccessor(ctx).search(memCursor, predicate);
             try {
                 if (memCursor.hasNext()) {
                     memCursor.next();
@@ -360,8 +444,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                         throw new TreeIndexDuplicateKeyException("Failed to insert key since key already exists.");
                     } else {
                         memCursor.close();
-                        ctx.currentMutableBTreeAccessor.upsertIfConditionElseInsert(tuple,
-                                AntimatterAwareTupleAcceptor.INSTANCE);
+                        upsertIfAntimatterElseInsert(tuple, ctx);
                         return true;
                     }
                 }
@@ -389,10 +472,27 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 ctx.getComponentHolder().add(0, firstComponent);
             }
         }
-        ctx.currentMutableBTreeAccessor.upsertIfConditionElseInsert(tuple, AntimatterAwareTupleAcceptor.INSTANCE);
+        upsertIfAntimatterElseInsert(tuple, ctx);
         return true;
     }
 
+    private static IIndexAccessor getCurrentMutableAccessor(LSMBTreeOpContext ctx) {
+        if (ctx.currentMutableSkipListAccessor != null) {
+            return ctx.currentMutableSkipListAccessor;
+        }
+        return ctx.currentMutableBTreeAccessor;
+    }
+
+    private static void upsertIfAntimatterElseInsert(ITupleReference tuple, LSMBTreeOpContext ctx)
+            throws HyracksDataException, TreeIndexException {
+        if (ctx.currentMutableSkipListAccessor != null) {
+            ctx.currentMutableSkipListAccessor.upsertIfConditionElseInsert(tuple,
+                    AntimatterAwareTupleAcceptor.INSTANCE);
+        } else {
+            ctx.currentMutableBTreeAccessor.upsertIfConditionElseInsert(tuple, AntimatterAwareTupleAcceptor.INSTANCE);
+        }
+    }
+
     @Override
     public void search(ILSMIndexOperationContext ictx, IIndexCursor cursor, ISearchPredicate pred)
             throws HyracksDataException, IndexException {
@@ -421,29 +521,33 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public ILSMComponent flush(ILSMIOOperation operation) throws HyracksDataException, IndexException {
         LSMBTreeFlushOperation flushOp = (LSMBTreeFlushOperation) operation;
         LSMBTreeMemoryComponent flushingComponent = (LSMBTreeMemoryComponent) flushOp.getFlushingComponent();
-        IIndexAccessor accessor = flushingComponent.getBTree().createAccessor(NoOpOperationCallback.INSTANCE,
+        IIndexAccessor accessor = flushingComponent.getIndex().createAccessor(NoOpOperationCallback.INSTANCE,
                 NoOpOperationCallback.INSTANCE);
 
         RangePredicate nullPred = new RangePredicate(null, null, true, true, null, null);
-        IIndexCursor countingCursor = ((BTreeAccessor) accessor).createCountingSearchCursor();
-        accessor.search(countingCursor, nullPred);
         long numElements = 0L;
-        try {
-            while (countingCursor.hasNext()) {
-                countingCursor.next();
-                ITupleReference countTuple = countingCursor.getTuple();
-                numElements = IntegerPointable.getInteger(countTuple.getFieldData(0), countTuple.getFieldStart(0));
+        if (flushingComponent.getSkipList() != null) {
+            numElements = flushingComponent.getSkipList().getTupleCount();
+        } else {
+            IIndexCursor countingCursor = ((BTreeAccessor) accessor).createCountingSearchCursor();
+            accessor.search(countingCursor, nullPred);
+            try {
+                while (countingCursor.hasNext()) {
+                    countingCursor.next();
+                    ITupleReference countTuple = countingCursor.getTuple();
+                    numElements = IntegerPointable.getInteger(countTuple.getFieldData(0),
+                            countTuple.getFieldStart(0));
+                }
+            } finally {
+                countingCursor.close();
             }
-        } finally {
-            countingCursor.close();
         }
 
-        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
-        BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBloomSpec(maxBucketsPerElement,
-                bloomFilterFalsePositiveRate);
-
         LSMBTreeDiskComponent component = createDiskComponent(componentFactory, flushOp.getBTreeFlushTarget(),
                 flushOp.getBloomFilterFlushTarget(), true);
+        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
+        BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBloomSpec(maxBucketsPerElement,
+                bloomFilterFalsePositiveRate, component.getBloomFilter().isBlocked());
         IIndexBulkLoader bulkLoader = component.getBTree().createBulkLoader(1.0f, false, numElements, false, true);
         IIndexBulkLoader builder = component.getBloomFilter().createBuilder(numElements, bloomFilterSpec.getNumHashes(),
                 bloomFilterSpec.getNumBucketsPerElements());
@@ -498,14 +602,23 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 callback, fileManager.getBaseDir()));
     }
 
+    /**
+     * Merges the components of the operation into one component. When the index has a merge parallelism greater than
+     * one and the components are large enough to have interior nodes, the key space is split at separators of their
+     * root nodes, see {@link #getMergeSplitKeys(List)}, and the ranges are merged concurrently into the merged
+     * component, see {@link #mergeRanges(LSMBTreeMergeOperation, List, IIndexBulkLoader, BTreeBulkLoader)}.
+     */
     @Override
     public ILSMComponent merge(ILSMIOOperation operation) throws HyracksDataException, IndexException {
         LSMBTreeMergeOperation mergeOp = (LSMBTreeMergeOperation) operation;
         ITreeIndexCursor cursor = mergeOp.getCursor();
-        RangePredicate rangePred = new RangePredicate(null, null, true, true, null, null);
         ILSMIndexOperationContext opCtx = ((LSMIndexSearchCursor) cursor).getOpCtx();
         opCtx.getComponentHolder().addAll(mergeOp.getMergingComponents());
-        search(opCtx, cursor, rangePred);
+        List<ITupleReference> splitKeys = getMergeSplitKeys(mergeOp.getMergingComponents());
+        if (splitKeys.isEmpty()) {
+            RangePredicate rangePred = new RangePredicate(null, null, true, true, null, null);
+            search(opCtx, cursor, rangePred);
+        }
         List<ILSMComponent> mergedComponents = mergeOp.getMergingComponents();
 
         long numElements = 0L;
@@ -513,26 +626,34 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             numElements += ((LSMBTreeDiskComponent) mergedComponents.get(i)).getBloomFilter().getNumElements();
         }
 
-        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
-        BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBloomSpec(maxBucketsPerElement,
-                bloomFilterFalsePositiveRate);
         LSMBTreeDiskComponent mergedComponent = createDiskComponent(componentFactory, mergeOp.getBTreeMergeTarget(),
                 mergeOp.getBloomFilterMergeTarget(), true);
+        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
+        BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBloomSpec(maxBucketsPerElement,
+                bloomFilterFalsePositiveRate, mergedComponent.getBloomFilter().isBlocked());
 
         IIndexBulkLoader bulkLoader = mergedComponent.getBTree().createBulkLoader(1.0f, false, numElements, false,
                 true);
         IIndexBulkLoader builder = mergedComponent.getBloomFilter().createBuilder(numElements,
                 bloomFilterSpec.getNumHashes(), bloomFilterSpec.getNumBucketsPerElements());
-        try {
-            while (cursor.hasNext()) {
-                cursor.next();
-                ITupleReference frameTuple = cursor.getTuple();
-                builder.add(frameTuple);
-                bulkLoader.add(frameTuple);
+        if (splitKeys.isEmpty()) {
+            try {
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    ITupleReference frameTuple = cursor.getTuple();
+                    builder.add(frameTuple);
+                    bulkLoader.add(frameTuple);
+                }
+            } finally {
+                cursor.close();
+                builder.end();
+            }
+        } else {
+            try {
+                mergeRanges(mergeOp, splitKeys, builder, (BTreeBulkLoader) bulkLoader);
+            } finally {
+                builder.end();
             }
-        } finally {
-            cursor.close();
-            builder.end();
         }
         if (mergedComponent.getLSMComponentFilter() != null) {
             List<ITupleReference> filterTuples = new ArrayList<ITupleReference>();
@@ -549,6 +670,196 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         return mergedComponent;
     }
 
+    private static ExecutorService createMergeRangeExecutor() {
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads, numThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "LSMBTree-merge-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Picks the keys that split the key space of a merge into at most mergeParallelism ranges of about the same size,
+     * among the separators of the root nodes of the merging components. Returns no keys when the merge should not be
+     * split, i.e. when the merge parallelism is one or when all the components fit in a single leaf.
+     */
+    private List<ITupleReference> getMergeSplitKeys(List<ILSMComponent> mergingComponents)
+            throws HyracksDataException {
+        List<ITupleReference> separators = new ArrayList<ITupleReference>();
+        if (mergeParallelism <= 1) {
+            return separators;
+        }
+        final MultiComparator cmp = MultiComparator.create(cmpFactories);
+        for (ILSMComponent component : mergingComponents) {
+            BTree btree = ((LSMBTreeDiskComponent) component).getBTree();
+            IBufferCache bufferCache = btree.getBufferCache();
+            ITreeIndexFrame interiorFrame = btree.getInteriorFrameFactory().createFrame();
+            interiorFrame.setMultiComparator(cmp);
+            ICachedPage rootNode = bufferCache.pin(
+                    BufferedFileHandle.getDiskPageId(btree.getFileId(), btree.getRootPageId()), false);
+            rootNode.acquireReadLatch();
+            try {
+                interiorFrame.setPage(rootNode);
+                if (interiorFrame.isInterior()) {
+                    ITreeIndexTupleReference separator = interiorFrame.createTupleReference();
+                    for (int i = 0; i < interiorFrame.getTupleCount(); i++) {
+                        separator.resetByTupleIndex(interiorFrame, i);
+                        separators.add(TupleUtils.copyTuple(separator));
+                    }
+                }
+            } finally {
+                rootNode.releaseReadLatch();
+                bufferCache.unpin(rootNode);
+            }
+        }
+        final HyracksDataException[] sortException = new HyracksDataException[1];
+        Collections.sort(separators, new Comparator<ITupleReference>() {
+            @Override
+            public int compare(ITupleReference a, ITupleReference b) {
+                try {
+                    return cmp.compare(a, b);
+                } catch (HyracksDataException e) {
+                    sortException[0] = e;
+                    return 0;
+                }
+            }
+        });
+        if (sortException[0] != null) {
+            throw sortException[0];
+        }
+
+        int numRanges = Math.min(mergeParallelism, separators.size() + 1);
+        List<ITupleReference> splitKeys = new ArrayList<ITupleReference>();
+        for (int i = 1; i < numRanges; i++) {
+            ITupleReference splitKey = separators.get(i * separators.size() / numRanges);
+            if (splitKeys.isEmpty() || cmp.compare(splitKeys.get(splitKeys.size() - 1), splitKey) < 0) {
+                splitKeys.add(splitKey);
+            }
+        }
+        return splitKeys;
+    }
+
+    /**
+     * Merges the key ranges delimited by the split keys concurrently into the merged component. The first range is
+     * loaded by the bulk loader itself and every other range into a chain of leaves of the same B-tree, which are then
+     * appended in key order, so that every page of the merged component is written once. The calling thread merges the
+     * first range and then the ranges that no thread of the pool has started yet. The ranges merged by the pool write
+     * through the page write throttle of the calling thread.
+     */
+    private void mergeRanges(LSMBTreeMergeOperation mergeOp, final List<ITupleReference> splitKeys,
+            final IIndexBulkLoader builder, BTreeBulkLoader bulkLoader) throws HyracksDataException, IndexException {
+        final List<ILSMComponent> mergingComponents = mergeOp.getMergingComponents();
+        final boolean returnDeletedTuples = ((LSMIndexSearchCursor) mergeOp.getCursor()).returnsDeletedTuples();
+        final PageWriteThrottle throttle = PageWriteThrottle.get();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final BTreeBulkLoader.LeafChain[] chains = new BTreeBulkLoader.LeafChain[splitKeys.size()];
+        for (int i = 0; i < chains.length; i++) {
+            chains[i] = bulkLoader.createLeafChain();
+        }
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>();
+        try {
+            for (int i = 0; i < chains.length; i++) {
+                final int range = i;
+                FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        if (failed.get()) {
+                            return null;
+                        }
+                        PageWriteThrottle previous = PageWriteThrottle.get();
+                        PageWriteThrottle.bind(throttle);
+                        try {
+                            mergeRange(mergingComponents, returnDeletedTuples, chains[range], builder,
+                                    splitKeys.get(range), range + 1 < splitKeys.size() ? splitKeys.get(range + 1)
+                                            : null);
+                        } finally {
+                            PageWriteThrottle.bind(previous);
+                        }
+                        return null;
+                    }
+                });
+                tasks.add(task);
+                MERGE_RANGE_EXECUTOR.execute(task);
+            }
+            Throwable failure = null;
+            try {
+                mergeRange(mergingComponents, returnDeletedTuples, bulkLoader, builder, null, splitKeys.get(0));
+            } catch (HyracksDataException | IndexException | RuntimeException e) {
+                failure = e;
+                failed.set(true);
+            }
+            // Wait for all the ranges, even after a failure, before their pages are returned.
+            boolean interrupted = false;
+            for (FutureTask<Void> task : tasks) {
+                // does nothing if a thread of the pool has started the range
+                task.run();
+                while (true) {
+                    try {
+                        task.get();
+                    } catch (ExecutionException e) {
+                        failure = failure == null ? e.getCause() : failure;
+                        failed.set(true);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        continue;
+                    }
+                    break;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? new InterruptedException() : failure;
+            }
+            if (failure instanceof HyracksDataException) {
+                throw (HyracksDataException) failure;
+            } else if (failure instanceof IndexException) {
+                throw (IndexException) failure;
+            } else if (failure != null) {
+                throw new HyracksDataException(failure);
+            }
+            for (int i = 0; i < chains.length; i++) {
+                bulkLoader.appendLeafChain(chains[i]);
+            }
+        } finally {
+            for (BTreeBulkLoader.LeafChain chain : chains) {
+                chain.abort();
+            }
+        }
+    }
+
+    private void mergeRange(List<ILSMComponent> mergingComponents, boolean returnDeletedTuples,
+            IIndexBulkLoader bulkLoader, IIndexBulkLoader builder, ITupleReference lowKey, ITupleReference highKey)
+                    throws HyracksDataException, IndexException {
+        LSMBTreeOpContext opCtx = createOpContext(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        opCtx.setOperation(IndexOperation.MERGE);
+        opCtx.getComponentHolder().addAll(mergingComponents);
+        ITreeIndexCursor cursor = new LSMBTreeRangeSearchCursor(opCtx, returnDeletedTuples);
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        search(opCtx, cursor, new RangePredicate(lowKey, highKey, false, true, cmp, cmp));
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference frameTuple = cursor.getTuple();
+                // the bloom filter builder is shared by all the ranges
+                synchronized (builder) {
+                    builder.add(frameTuple);
+                }
+                bulkLoader.add(frameTuple);
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
     protected LSMBTreeDiskComponent createDiskComponent(LSMBTreeDiskComponentFactory factory,
             FileReference btreeFileRef, FileReference bloomFilterFileRef, boolean createComponent)
                     throws HyracksDataException, IndexException {
@@ -589,6 +900,12 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         LSMBTreeDiskComponent component = (LSMBTreeDiskComponent) lsmComponent;
         markAsValidInternal(component.getBTree().getBufferCache(), component.getBloomFilter());
         markAsValidInternal(component.getBTree());
+        mapDiskComponentFiles(component);
+    }
+
+    private void mapDiskComponentFiles(LSMBTreeDiskComponent component) throws HyracksDataException {
+        mapDiskComponentFile(component.getBTree().getFileId());
+        mapDiskComponentFile(component.getBloomFilter().getFileId());
     }
 
     public class LSMBTreeBulkLoader implements IIndexBulkLoader {
@@ -616,10 +933,11 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                     verifyInput, numElementsHint, false, true);
 
             int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElementsHint);
+            BloomFilter bloomFilter = ((LSMBTreeDiskComponent) component).getBloomFilter();
             BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBloomSpec(maxBucketsPerElement,
-                    bloomFilterFalsePositiveRate);
-            builder = ((LSMBTreeDiskComponent) component).getBloomFilter().createBuilder(numElementsHint,
-                    bloomFilterSpec.getNumHashes(), bloomFilterSpec.getNumBucketsPerElements());
+                    bloomFilterFalsePositiveRate, bloomFilter.isBlocked());
+            builder = bloomFilter.createBuilder(numElementsHint, bloomFilterSpec.getNumHashes(),
+                    bloomFilterSpec.getNumBucketsPerElements());
 
             if (filterFields != null) {
                 indexTuple = new PermutingTupleReference(btreeFields);
@@ -732,6 +1050,16 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             return new LSMBTreeSearchCursor(ctx);
         }
 
+        @Override
+        public boolean supportsBatchPointSearch() {
+            return true;
+        }
+
+        @Override
+        public IBatchPointSearchCursor createBatchPointSearchCursor() {
+            return new LSMBTreeBatchPointSearchCursor(ctx);
+        }
+
         public MultiComparator getMultiComparator() {
             LSMBTreeOpContext concreteCtx = (LSMBTreeOpContext) ctx;
             return concreteCtx.cmp;
@@ -752,6 +1080,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public ITreeIndexFrameFactory getInteriorFrameFactory() {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) memoryComponents
                 .get(currentMutableComponentId.get());
+        if (mutableComponent.getSkipList() != null) {
+            return interiorFrameFactory;
+        }
         return mutableComponent.getBTree().getInteriorFrameFactory();
     }
 
@@ -759,6 +1090,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public int getFieldCount() {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) memoryComponents
                 .get(currentMutableComponentId.get());
+        if (mutableComponent.getSkipList() != null) {
+            return mutableComponent.getSkipList().getFieldCount();
+        }
         return mutableComponent.getBTree().getFieldCount();
     }
 
@@ -766,6 +1100,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public int getFileId() {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) memoryComponents
                 .get(currentMutableComponentId.get());
+        if (mutableComponent.getSkipList() != null) {
+            return mutableComponent.getSkipList().getFileId();
+        }
         return mutableComponent.getBTree().getFileId();
     }
 
@@ -773,6 +1110,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public IMetaDataPageManager getMetaManager() {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) memoryComponents
                 .get(currentMutableComponentId.get());
+        if (mutableComponent.getSkipList() != null) {
+            throw new UnsupportedOperationException("Skip list memory components are not paged trees.");
+        }
         return mutableComponent.getBTree().getMetaManager();
     }
 
@@ -780,6 +1120,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public ITreeIndexFrameFactory getLeafFrameFactory() {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) memoryComponents
                 .get(currentMutableComponentId.get());
+        if (mutableComponent.getSkipList() != null) {
+            return mutableComponent.getSkipList().getLeafFrameFactory();
+        }
         return mutableComponent.getBTree().getLeafFrameFactory();
     }
 
@@ -788,7 +1131,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         long size = 0;
         for (ILSMComponent c : memoryComponents) {
             LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-            IBufferCache virtualBufferCache = mutableComponent.getBTree().getBufferCache();
+            IBufferCache virtualBufferCache = mutableComponent.getIndex().getBufferCache();
             size += virtualBufferCache.getNumPages() * virtualBufferCache.getPageSize();
         }
         return size;
@@ -798,6 +1141,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public int getRootPageId() {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) memoryComponents
                 .get(currentMutableComponentId.get());
+        if (mutableComponent.getSkipList() != null) {
+            throw new UnsupportedOperationException("Skip list memory components are not paged trees.");
+        }
         return mutableComponent.getBTree().getRootPageId();
     }
 
@@ -850,9 +1196,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         }
         for (ILSMComponent c : memoryComponents) {
             LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-            ((IVirtualBufferCache) mutableComponent.getBTree().getBufferCache()).open();
-            mutableComponent.getBTree().create();
-            mutableComponent.getBTree().activate();
+            ((IVirtualBufferCache) mutableComponent.getIndex().getBufferCache()).open();
+            mutableComponent.getIndex().create();
+            mutableComponent.getIndex().activate();
         }
         memoryComponentsAllocated = true;
     }
@@ -876,7 +1222,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         if (memoryComponentsAllocated) {
             for (ILSMComponent c : memoryComponents) {
                 LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-                mutableComponent.getBTree().clear();
+                mutableComponent.getIndex().clear();
                 mutableComponent.reset();
             }
         }
@@ -886,7 +1232,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         if (memoryComponentsAllocated) {
             for (ILSMComponent c : memoryComponents) {
                 LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-                mutableComponent.getBTree().validate();
+                mutableComponent.getIndex().validate();
             }
         }
     }
@@ -895,9 +1241,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         if (memoryComponentsAllocated) {
             for (ILSMComponent c : memoryComponents) {
                 LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-                mutableComponent.getBTree().deactivate();
-                mutableComponent.getBTree().destroy();
-                ((IVirtualBufferCache) mutableComponent.getBTree().getBufferCache()).close();
+                mutableComponent.getIndex().deactivate();
+                mutableComponent.getIndex().destroy();
+                ((IVirtualBufferCache) mutableComponent.getIndex().getBufferCache()).close();
             }
             memoryComponentsAllocated = false;
         }
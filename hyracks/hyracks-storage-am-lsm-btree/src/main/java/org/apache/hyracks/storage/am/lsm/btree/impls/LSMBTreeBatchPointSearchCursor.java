@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.util.List;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.btree.api.IBTreeInteriorFrame;
+import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
+import org.apache.hyracks.storage.am.btree.impls.BTree;
+import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
+import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
+import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
+import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.impls.BatchPointPredicate;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.common.ophelpers.FindTupleMode;
+import org.apache.hyracks.storage.am.common.ophelpers.FindTupleNoExactMatchPolicy;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleReference;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * Searches the components of an LSM B-tree for a sorted batch of full keys, see {@link BatchPointPredicate}. The keys
+ * are searched in order, each one as {@link LSMBTreePointSearchCursor} would search it, but the bloom filter of every
+ * disk component is probed for the whole batch when the cursor is opened, and each disk component keeps the leaf of
+ * the previous key pinned so that the following keys on the same leaf are found without descending the tree again.
+ * The memory components are searched one key at a time.
+ */
+public class LSMBTreeBatchPointSearchCursor implements IBatchPointSearchCursor {
+
+    private final ILSMIndexOperationContext opCtx;
+    private final RangePredicate keyPredicate = new RangePredicate();
+    private final long[] hashes = new long[2];
+    private ILSMHarness lsmHarness;
+    private ISearchOperationCallback searchCallback;
+    private BatchPointPredicate predicate;
+    private MultiComparator cmp;
+    private int numKeys;
+    private int numComponents;
+    private boolean includeMutableComponent;
+    private IIndexAccessor[] memoryAccessors;
+    private ITreeIndexCursor[] memoryCursors;
+    private DiskComponentSearcher[] diskSearchers;
+    private boolean[] isDiskComponent;
+    private boolean[][] mayContain;
+    private int keyIndex;
+    private boolean foundTuple;
+    private boolean nextHasBeenCalled;
+    private ITupleReference frameTuple;
+
+    public LSMBTreeBatchPointSearchCursor(ILSMIndexOperationContext opCtx) {
+        this.opCtx = opCtx;
+    }
+
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        LSMBTreeCursorInitialState lsmInitialState = (LSMBTreeCursorInitialState) initialState;
+        List<ILSMComponent> operationalComponents = lsmInitialState.getOperationalComponents();
+        lsmHarness = lsmInitialState.getLSMHarness();
+        searchCallback = lsmInitialState.getSearchOperationCallback();
+        predicate = (BatchPointPredicate) lsmInitialState.getSearchPredicate();
+        cmp = predicate.getLowKeyComparator();
+        numKeys = predicate.getNumKeys();
+        numComponents = operationalComponents.size();
+        if (memoryAccessors == null || memoryAccessors.length != numComponents) {
+            memoryAccessors = new IIndexAccessor[numComponents];
+            memoryCursors = new ITreeIndexCursor[numComponents];
+            diskSearchers = new DiskComponentSearcher[numComponents];
+            isDiskComponent = new boolean[numComponents];
+            mayContain = new boolean[numComponents][];
+        }
+        includeMutableComponent = false;
+
+        for (int i = 0; i < numComponents; i++) {
+            ILSMComponent component = operationalComponents.get(i);
+            isDiskComponent[i] = component.getType() != LSMComponentType.MEMORY;
+            if (!isDiskComponent[i]) {
+                includeMutableComponent = true;
+                openMemoryComponent(i, (LSMBTreeMemoryComponent) component, lsmInitialState);
+                continue;
+            }
+            LSMBTreeDiskComponent diskComponent = (LSMBTreeDiskComponent) component;
+            if (diskSearchers[i] == null) {
+                diskSearchers[i] = new DiskComponentSearcher(lsmInitialState.getLeafFrameFactory());
+            }
+            diskSearchers[i].reset(diskComponent.getBTree(), cmp);
+            if (mayContain[i] == null || mayContain[i].length < numKeys) {
+                mayContain[i] = new boolean[numKeys];
+            }
+            BloomFilter bloomFilter = diskComponent.getBloomFilter();
+            for (int k = 0; k < numKeys; k++) {
+                mayContain[i][k] = bloomFilter.contains(predicate.getKey(k), hashes);
+            }
+        }
+        keyIndex = 0;
+        nextHasBeenCalled = false;
+        foundTuple = false;
+    }
+
+    private void openMemoryComponent(int i, LSMBTreeMemoryComponent component,
+            LSMBTreeCursorInitialState lsmInitialState) throws HyracksDataException {
+        SkipList skipList = component.getSkipList();
+        if (skipList != null) {
+            if (memoryAccessors[i] instanceof SkipList.SkipListAccessor) {
+                ((SkipList.SkipListAccessor) memoryAccessors[i]).reset(skipList, NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
+            } else {
+                memoryAccessors[i] = skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
+            }
+            if (memoryCursors[i] instanceof SkipListRangeSearchCursor) {
+                ((SkipListRangeSearchCursor) memoryCursors[i]).reset();
+            } else {
+                memoryCursors[i] = (ITreeIndexCursor) memoryAccessors[i].createSearchCursor(false);
+            }
+            return;
+        }
+        if (memoryCursors[i] instanceof BTreeRangeSearchCursor) {
+            ((BTreeRangeSearchCursor) memoryCursors[i]).reset();
+        } else {
+            IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
+            memoryCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
+        }
+        BTree btree = component.getBTree();
+        if (memoryAccessors[i] instanceof BTreeAccessor) {
+            ((BTreeAccessor) memoryAccessors[i]).reset(btree, NoOpOperationCallback.INSTANCE,
+                    NoOpOperationCallback.INSTANCE);
+        } else {
+            memoryAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        }
+    }
+
+    @Override
+    public boolean hasNext() throws HyracksDataException, IndexException {
+        if (nextHasBeenCalled) {
+            nextHasBeenCalled = false;
+            keyIndex++;
+        } else if (foundTuple) {
+            return true;
+        }
+        while (keyIndex < numKeys) {
+            if (search(predicate.getKey(keyIndex))) {
+                foundTuple = true;
+                return true;
+            }
+            keyIndex++;
+        }
+        return false;
+    }
+
+    private boolean search(ITupleReference key) throws HyracksDataException, IndexException {
+        keyPredicate.reset(key, key, true, true, cmp, cmp);
+        boolean reconciled = false;
+        for (int i = 0; i < numComponents; ++i) {
+            ITupleReference tuple;
+            if (isDiskComponent[i]) {
+                if (!mayContain[i][keyIndex]) {
+                    continue;
+                }
+                tuple = diskSearchers[i].find(key, cmp);
+            } else {
+                memoryCursors[i].reset();
+                memoryAccessors[i].search(memoryCursors[i], keyPredicate);
+                tuple = nextMemoryTuple(i);
+            }
+            if (tuple == null) {
+                continue;
+            }
+            // As in LSMBTreePointSearchCursor, the key rather than the tuple is locked by the search callback.
+            if (reconciled || searchCallback.proceed(key)) {
+                return accept(key, tuple);
+            }
+            if (i == 0 && includeMutableComponent) {
+                // unlatch/unpin
+                memoryCursors[i].reset();
+                searchCallback.reconcile(key);
+                reconciled = true;
+
+                // retraverse
+                memoryAccessors[i].search(memoryCursors[i], keyPredicate);
+                searchCallback.complete(key);
+                tuple = nextMemoryTuple(i);
+                if (tuple != null) {
+                    return accept(key, tuple);
+                }
+            } else {
+                searchCallback.reconcile(tuple);
+                searchCallback.complete(tuple);
+                frameTuple = tuple;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ITupleReference nextMemoryTuple(int i) throws HyracksDataException, IndexException {
+        if (memoryCursors[i].hasNext()) {
+            memoryCursors[i].next();
+            return memoryCursors[i].getTuple();
+        }
+        memoryCursors[i].close();
+        return null;
+    }
+
+    private boolean accept(ITupleReference key, ITupleReference tuple) throws HyracksDataException {
+        if (((ILSMTreeTupleReference) tuple).isAntimatter()) {
+            searchCallback.cancel(key);
+            return false;
+        }
+        frameTuple = tuple;
+        return true;
+    }
+
+    @Override
+    public void next() throws HyracksDataException {
+        nextHasBeenCalled = true;
+        foundTuple = false;
+    }
+
+    @Override
+    public int getKeyIndex() {
+        return keyIndex;
+    }
+
+    @Override
+    public ITupleReference getTuple() {
+        return frameTuple;
+    }
+
+    @Override
+    public void reset() throws HyracksDataException, IndexException {
+        close();
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        if (lsmHarness == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < numComponents; i++) {
+                if (isDiskComponent[i]) {
+                    diskSearchers[i].close();
+                } else if (memoryCursors[i] != null) {
+                    memoryCursors[i].close();
+                }
+            }
+        } finally {
+            ILSMHarness harness = lsmHarness;
+            lsmHarness = null;
+            nextHasBeenCalled = false;
+            foundTuple = false;
+            harness.endSearch(opCtx);
+        }
+    }
+
+    /**
+     * Finds keys in the B-tree of a disk component. Disk components are not modified, so a leaf found for a key stays
+     * valid for every following key that is not greater than its last tuple.
+     */
+    private static class DiskComponentSearcher {
+        private final IBTreeLeafFrame leafFrame;
+        private final ITreeIndexTupleReference frameTuple;
+        private final ITreeIndexTupleReference lastTuple;
+        private final RangePredicate descentPredicate = new RangePredicate();
+        private IBTreeInteriorFrame interiorFrame;
+        private BTree btree;
+        private IBufferCache bufferCache;
+        private int fileId;
+        private ICachedPage leaf;
+
+        DiskComponentSearcher(ITreeIndexFrameFactory leafFrameFactory) {
+            leafFrame = (IBTreeLeafFrame) leafFrameFactory.createFrame();
+            frameTuple = leafFrame.createTupleReference();
+            lastTuple = leafFrame.createTupleReference();
+        }
+
+        void reset(BTree btree, MultiComparator cmp) throws HyracksDataException {
+            close();
+            if (interiorFrame == null) {
+                interiorFrame = (IBTreeInteriorFrame) btree.getInteriorFrameFactory().createFrame();
+            }
+            leafFrame.setMultiComparator(cmp);
+            interiorFrame.setMultiComparator(cmp);
+            this.btree = btree;
+            bufferCache = btree.getBufferCache();
+            fileId = btree.getFileId();
+        }
+
+        ITupleReference find(ITupleReference key, MultiComparator cmp) throws HyracksDataException {
+            if (leaf != null) {
+                int tupleCount = leafFrame.getTupleCount();
+                if (tupleCount == 0) {
+                    releaseLeaf();
+                } else {
+                    lastTuple.resetByTupleIndex(leafFrame, tupleCount - 1);
+                    if (cmp.compare(key, lastTuple) > 0) {
+                        releaseLeaf();
+                    }
+                }
+            }
+            if (leaf == null) {
+                descend(key, cmp);
+            }
+            if (leafFrame.getTupleCount() == 0) {
+                return null;
+            }
+            int tupleIndex = leafFrame.findTupleIndex(key, frameTuple, cmp, FindTupleMode.EXACT,
+                    FindTupleNoExactMatchPolicy.HIGHER_KEY);
+            if (tupleIndex < 0) {
+                return null;
+            }
+            frameTuple.resetByTupleIndex(leafFrame, tupleIndex);
+            return frameTuple;
+        }
+
+        private void descend(ITupleReference key, MultiComparator cmp) throws HyracksDataException {
+            descentPredicate.reset(key, key, true, true, cmp, cmp);
+            ICachedPage node = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, btree.getRootPageId()),
+                    false);
+            node.acquireReadLatch();
+            try {
+                interiorFrame.setPage(node);
+                while (!interiorFrame.isLeaf()) {
+                    int childPageId = interiorFrame.getChildPageId(descentPredicate);
+                    ICachedPage child = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, childPageId), false);
+                    child.acquireReadLatch();
+                    node.releaseReadLatch();
+                    bufferCache.unpin(node);
+                    node = child;
+                    interiorFrame.setPage(node);
+                }
+            } catch (HyracksDataException e) {
+                node.releaseReadLatch();
+                bufferCache.unpin(node);
+                throw e;
+            }
+            leaf = node;
+            leafFrame.setPage(leaf);
+        }
+
+        private void releaseLeaf() throws HyracksDataException {
+            leaf.releaseReadLatch();
+            bufferCache.unpin(leaf);
+            leaf = null;
+        }
+
+        void close() throws HyracksDataException {
+            if (leaf != null) {
+                releaseLeaf();
+            }
+        }
+    }
+}
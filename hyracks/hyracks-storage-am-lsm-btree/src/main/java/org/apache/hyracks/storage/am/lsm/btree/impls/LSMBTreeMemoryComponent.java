@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.am.lsm.btree.impls;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
+import org.apache.hyracks.storage.am.common.api.IIndex;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractMemoryLSMComponent;
@@ -28,23 +29,47 @@ import org.apache.hyracks.storage.am.lsm.common.impls.AbstractMemoryLSMComponent
 public class LSMBTreeMemoryComponent extends AbstractMemoryLSMComponent {
 
     private final BTree btree;
+    private final SkipList skipList;
 
     public LSMBTreeMemoryComponent(BTree btree, IVirtualBufferCache vbc, boolean isActive, ILSMComponentFilter filter) {
         super(vbc, isActive, filter);
         this.btree = btree;
+        this.skipList = null;
     }
 
+    public LSMBTreeMemoryComponent(SkipList skipList, IVirtualBufferCache vbc, boolean isActive,
+            ILSMComponentFilter filter) {
+        super(vbc, isActive, filter);
+        this.btree = null;
+        this.skipList = skipList;
+    }
+
+    /**
+     * @return the in-memory B-tree, or null if the component is a skip list
+     */
     public BTree getBTree() {
         return btree;
     }
 
+    /**
+     * @return the skip list, or null if the component is an in-memory B-tree
+     */
+    public SkipList getSkipList() {
+        return skipList;
+    }
+
+    public IIndex getIndex() {
+        return skipList != null ? skipList : btree;
+    }
+
     @Override
     protected void reset() throws HyracksDataException {
         super.reset();
-        btree.deactivate();
-        btree.destroy();
-        btree.create();
-        btree.activate();
+        IIndex index = getIndex();
+        index.deactivate();
+        index.destroy();
+        index.create();
+        index.activate();
     }
 
 }
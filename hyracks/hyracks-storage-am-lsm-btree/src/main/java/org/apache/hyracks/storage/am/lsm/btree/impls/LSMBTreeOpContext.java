@@ -28,6 +28,7 @@ import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTreeOpContext;
 import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
 import org.apache.hyracks.storage.am.common.api.IModificationOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
@@ -51,6 +52,9 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     public BTreeOpContext[] mutableBTreeOpCtxs;
     public BTree.BTreeAccessor currentMutableBTreeAccessor;
     public BTreeOpContext currentMutableBTreeOpCtx;
+    // Set instead of the B-tree accessors when the memory components are skip lists.
+    public SkipList.SkipListAccessor[] mutableSkipListAccessors;
+    public SkipList.SkipListAccessor currentMutableSkipListAccessor;
     public IndexOperation op;
     public final MultiComparator cmp;
     public final MultiComparator bloomFilterCmp;
@@ -63,7 +67,7 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     public final MultiComparator filterCmp;
     public final PermutingTupleReference filterTuple;
     public ISearchPredicate searchPredicate;
-    public BTreeRangeSearchCursor memCursor;
+    public IIndexCursor memCursor;
     public LSMBTreeCursorInitialState searchInitialState;
     public LSMBTreePointSearchCursor insertSearchCursor;
 
@@ -72,20 +76,29 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
             ISearchOperationCallback searchCallback, int numBloomFilterKeyFields, int[] btreeFields, int[] filterFields,
             ILSMHarness lsmHarness) {
         LSMBTreeMemoryComponent c = (LSMBTreeMemoryComponent) mutableComponents.get(0);
-        IBinaryComparatorFactory cmpFactories[] = c.getBTree().getComparatorFactories();
+        IBinaryComparatorFactory cmpFactories[] = c.getSkipList() != null ? c.getSkipList().getComparatorFactories()
+                : c.getBTree().getComparatorFactories();
         if (cmpFactories[0] != null) {
-            this.cmp = MultiComparator.create(c.getBTree().getComparatorFactories());
+            this.cmp = MultiComparator.create(cmpFactories);
         } else {
             this.cmp = null;
         }
 
-        bloomFilterCmp = MultiComparator.create(c.getBTree().getComparatorFactories(), 0, numBloomFilterKeyFields);
+        bloomFilterCmp = MultiComparator.create(cmpFactories, 0, numBloomFilterKeyFields);
 
         mutableBTrees = new BTree[mutableComponents.size()];
         mutableBTreeAccessors = new BTree.BTreeAccessor[mutableComponents.size()];
         mutableBTreeOpCtxs = new BTreeOpContext[mutableComponents.size()];
+        if (c.getSkipList() != null) {
+            mutableSkipListAccessors = new SkipList.SkipListAccessor[mutableComponents.size()];
+        }
         for (int i = 0; i < mutableComponents.size(); i++) {
             LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) mutableComponents.get(i);
+            if (mutableSkipListAccessors != null) {
+                mutableSkipListAccessors[i] = mutableComponent.getSkipList().createAccessor(modificationCallback,
+                        NoOpOperationCallback.INSTANCE);
+                continue;
+            }
             mutableBTrees[i] = mutableComponent.getBTree();
             mutableBTreeAccessors[i] = (BTree.BTreeAccessor) mutableBTrees[i].createAccessor(modificationCallback,
                     NoOpOperationCallback.INSTANCE);
@@ -118,7 +131,9 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
             filterTuple = null;
         }
         searchPredicate = new RangePredicate(null, null, true, true, cmp, cmp);
-        if (insertLeafFrame != null) {
+        if (mutableSkipListAccessors != null) {
+            memCursor = mutableSkipListAccessors[0].createSearchCursor(false);
+        } else if (insertLeafFrame != null) {
             memCursor = new BTreeRangeSearchCursor(insertLeafFrame, false);
         }
 
@@ -134,11 +149,19 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     }
 
     public void setInsertMode() {
+        if (currentMutableSkipListAccessor != null) {
+            currentMutableSkipListAccessor.setInsertMode();
+            return;
+        }
         currentMutableBTreeOpCtx.leafFrame = insertLeafFrame;
         currentMutableBTreeOpCtx.leafFrameFactory = insertLeafFrameFactory;
     }
 
     public void setDeleteMode() {
+        if (currentMutableSkipListAccessor != null) {
+            currentMutableSkipListAccessor.setDeleteMode();
+            return;
+        }
         currentMutableBTreeOpCtx.leafFrame = deleteLeafFrame;
         currentMutableBTreeOpCtx.leafFrameFactory = deleteLeafFrameFactory;
     }
@@ -175,6 +198,9 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     public void setCurrentMutableComponentId(int currentMutableComponentId) {
         currentMutableBTreeAccessor = mutableBTreeAccessors[currentMutableComponentId];
         currentMutableBTreeOpCtx = mutableBTreeOpCtxs[currentMutableComponentId];
+        if (mutableSkipListAccessors != null) {
+            currentMutableSkipListAccessor = mutableSkipListAccessors[currentMutableComponentId];
+        }
         switch (op) {
             case SEARCH:
                 break;
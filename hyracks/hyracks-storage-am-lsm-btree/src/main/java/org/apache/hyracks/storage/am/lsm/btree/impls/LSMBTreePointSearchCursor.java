@@ -29,6 +29,7 @@ import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
 import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
+import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
@@ -45,13 +46,13 @@ import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 
 public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
 
-    private BTreeRangeSearchCursor[] rangeCursors;
+    private ITreeIndexCursor[] rangeCursors;
     private final ILSMIndexOperationContext opCtx;
     private ISearchOperationCallback searchCallback;
     private RangePredicate predicate;
     private boolean includeMutableComponent;
     private int numBTrees;
-    private BTreeAccessor[] btreeAccessors;
+    private IIndexAccessor[] btreeAccessors;
     private ILSMHarness lsmHarness;
     private boolean nextHasBeenCalled;
     private boolean foundTuple;
@@ -152,32 +153,52 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
         numBTrees = operationalComponents.size();
         if (rangeCursors == null || rangeCursors.length != numBTrees) {
             // object creation: should be relatively low
-            rangeCursors = new BTreeRangeSearchCursor[numBTrees];
-            btreeAccessors = new BTreeAccessor[numBTrees];
+            rangeCursors = new ITreeIndexCursor[numBTrees];
+            btreeAccessors = new IIndexAccessor[numBTrees];
         }
         includeMutableComponent = false;
 
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
             BTree btree;
+            if (component.getType() == LSMComponentType.MEMORY
+                    && ((LSMBTreeMemoryComponent) component).getSkipList() != null) {
+                includeMutableComponent = true;
+                SkipList skipList = ((LSMBTreeMemoryComponent) component).getSkipList();
+                if (btreeAccessors[i] instanceof SkipList.SkipListAccessor) {
+                    ((SkipList.SkipListAccessor) btreeAccessors[i]).reset(skipList, NoOpOperationCallback.INSTANCE,
+                            NoOpOperationCallback.INSTANCE);
+                } else {
+                    btreeAccessors[i] = skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                            NoOpOperationCallback.INSTANCE);
+                }
+                if (rangeCursors[i] instanceof SkipListRangeSearchCursor) {
+                    ((SkipListRangeSearchCursor) rangeCursors[i]).reset();
+                } else {
+                    rangeCursors[i] = (ITreeIndexCursor) btreeAccessors[i].createSearchCursor(false);
+                }
+                continue;
+            }
             if (component.getType() == LSMComponentType.MEMORY) {
                 includeMutableComponent = true;
                 // No need for a bloom filter for the in-memory BTree.
-                if (rangeCursors[i] == null || rangeCursors[i].isBloomFilterAware()) {
+                if (!(rangeCursors[i] instanceof BTreeRangeSearchCursor)
+                        || ((BTreeRangeSearchCursor) rangeCursors[i]).isBloomFilterAware()) {
                     // create a new one
                     IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
                     rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
                 } else {
                     // reset
-                    rangeCursors[i].reset();
+                    ((BTreeRangeSearchCursor) rangeCursors[i]).reset();
                 }
                 btree = ((LSMBTreeMemoryComponent) component).getBTree();
             } else {
-                if (rangeCursors[i] != null && rangeCursors[i].isBloomFilterAware()) {
+                if (rangeCursors[i] instanceof BTreeRangeSearchCursor
+                        && ((BTreeRangeSearchCursor) rangeCursors[i]).isBloomFilterAware()) {
                     // can re-use cursor
                     ((BloomFilterAwareBTreePointSearchCursor) rangeCursors[i])
                             .resetBloomFilter(((LSMBTreeDiskComponent) component).getBloomFilter());
-                    rangeCursors[i].reset();
+                    ((BTreeRangeSearchCursor) rangeCursors[i]).reset();
                 } else {
                     // create new cursor <should be relatively rare>
                     IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
@@ -186,12 +207,13 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
                 }
                 btree = ((LSMBTreeDiskComponent) component).getBTree();
             }
-            if (btreeAccessors[i] == null) {
-                btreeAccessors[i] = (BTreeAccessor) btree.createAccessor(NoOpOperationCallback.INSTANCE,
+            if (btreeAccessors[i] instanceof BTreeAccessor) {
+                // re-use
+                ((BTreeAccessor) btreeAccessors[i]).reset(btree, NoOpOperationCallback.INSTANCE,
                         NoOpOperationCallback.INSTANCE);
             } else {
-                // re-use
-                btreeAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
             }
         }
         nextHasBeenCalled = false;
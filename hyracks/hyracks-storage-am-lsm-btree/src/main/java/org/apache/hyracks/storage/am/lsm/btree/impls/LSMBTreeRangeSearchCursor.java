@@ -31,10 +31,12 @@ import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
 import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
+import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
 import org.apache.hyracks.storage.am.common.api.IIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
 import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
@@ -47,7 +49,7 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
 
     private ISearchOperationCallback searchCallback;
     private RangePredicate predicate;
-    private BTreeAccessor[] btreeAccessors;
+    private IIndexAccessor[] btreeAccessors;
     private ArrayTupleBuilder tupleBuilder;
     private boolean proceed = true;
 
@@ -195,15 +197,35 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         if (rangeCursors == null || rangeCursors.length != numBTrees) {
             // object creation: should be relatively low
             rangeCursors = new IIndexCursor[numBTrees];
-            btreeAccessors = new BTreeAccessor[numBTrees];
+            btreeAccessors = new IIndexAccessor[numBTrees];
         }
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
             BTree btree;
-            if (rangeCursors[i] == null) {
+            if (component.getType() == LSMComponentType.MEMORY
+                    && ((LSMBTreeMemoryComponent) component).getSkipList() != null) {
+                includeMutableComponent = true;
+                SkipList skipList = ((LSMBTreeMemoryComponent) component).getSkipList();
+                if (btreeAccessors[i] instanceof SkipList.SkipListAccessor) {
+                    ((SkipList.SkipListAccessor) btreeAccessors[i]).reset(skipList, NoOpOperationCallback.INSTANCE,
+                            NoOpOperationCallback.INSTANCE);
+                } else {
+                    btreeAccessors[i] = skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                            NoOpOperationCallback.INSTANCE);
+                }
+                if (rangeCursors[i] instanceof SkipListRangeSearchCursor) {
+                    rangeCursors[i].reset();
+                } else {
+                    rangeCursors[i] = btreeAccessors[i].createSearchCursor(false);
+                }
+                btreeAccessors[i].search(rangeCursors[i], searchPred);
+                continue;
+            }
+            if (!(rangeCursors[i] instanceof BTreeRangeSearchCursor)) {
                 // create, should be relatively rare
                 IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
-                rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
+                rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false,
+                        opCtx.getOperation() == IndexOperation.MERGE);
             } else {
                 // re-use
                 rangeCursors[i].reset();
@@ -215,12 +237,13 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
                 btree = ((LSMBTreeDiskComponent) component).getBTree();
             }
 
-            if (btreeAccessors[i] == null) {
-                btreeAccessors[i] = (BTreeAccessor) btree.createAccessor(NoOpOperationCallback.INSTANCE,
+            if (btreeAccessors[i] instanceof BTreeAccessor) {
+                // re-use
+                ((BTreeAccessor) btreeAccessors[i]).reset(btree, NoOpOperationCallback.INSTANCE,
                         NoOpOperationCallback.INSTANCE);
             } else {
-                // re-use
-                btreeAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
             }
             btreeAccessors[i].search(rangeCursors[i], searchPred);
         }
@@ -67,7 +67,7 @@ public class LSMBuddyBTreeMergeCursor extends LSMIndexSearchCursor {
 			ILSMComponent component = operationalComponents.get(i);
 			IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState
 					.getBuddyBTreeLeafFrameFactory().createFrame();
-			rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
+			rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false, true);
 			BTree buddyBtree = (BTree) ((LSMBTreeWithBuddyDiskComponent) component)
 					.getBuddyBTree();
 			btreeAccessors[i] = buddyBtree.createAccessor(
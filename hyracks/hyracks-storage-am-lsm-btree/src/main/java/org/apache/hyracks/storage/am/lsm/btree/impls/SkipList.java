@@ -0,0 +1,648 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.api.ITupleAcceptor;
+import org.apache.hyracks.storage.am.btree.exceptions.BTreeNotUpdateableException;
+import org.apache.hyracks.storage.am.btree.impls.UnconditionalTupleAcceptor;
+import org.apache.hyracks.storage.am.common.api.IIndex;
+import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
+import org.apache.hyracks.storage.am.common.api.IIndexBulkLoader;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
+import org.apache.hyracks.storage.am.common.api.IModificationOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriter;
+import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.api.TreeIndexException;
+import org.apache.hyracks.storage.am.common.exceptions.TreeIndexDuplicateKeyException;
+import org.apache.hyracks.storage.am.common.exceptions.TreeIndexNonExistentKeyException;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+
+/**
+ * A lock-free skip list that can replace the in-memory B-tree of an {@link LSMBTree} memory component.
+ * Tuples are written with the LSM B-tree tuple writers into pages of the component's virtual buffer cache, which
+ * every accessor uses as a private arena, and they are never moved afterwards. An update, an upsert or an
+ * antimatter delete writes a new version of the tuple and swings the node of its key to it, so writers never latch
+ * and the tuples handed out by a cursor stay valid until the component is reset after its flush.
+ * Nodes are only unlinked when the whole list is cleared: a physical delete leaves an empty node behind, which a
+ * later insert of the same key fills again.
+ * The nodes themselves live on the Java heap. Their estimated size is charged against the virtual buffer cache by
+ * taking pages that are left unused, so that the component becomes full when its tuples and nodes together reach
+ * the memory budget.
+ */
+public class SkipList implements IIndex {
+
+    static final long NO_TUPLE = -1L;
+
+    // Every node is also linked on the next level up with a probability of 1 / BRANCHING.
+    private static final int BRANCHING = 4;
+    private static final int MAX_HEIGHT = 16;
+    // Estimated heap size of a node: the node itself, its array of links and each link, assuming 8 byte references.
+    private static final int NODE_BYTES = 40;
+    private static final int LINKS_BYTES = 40;
+    private static final int LINK_BYTES = 8;
+
+    private final IVirtualBufferCache bufferCache;
+    private final IFileMapProvider fileMapProvider;
+    private final FileReference file;
+    private final ITreeIndexFrameFactory insertLeafFrameFactory;
+    private final ITreeIndexFrameFactory deleteLeafFrameFactory;
+    private final IBinaryComparatorFactory[] cmpFactories;
+    private final int fieldCount;
+
+    private final Object pageLock = new Object();
+    // Pages by arena page index. Only replaced under pageLock, always read without it.
+    private volatile ByteBuffer[] pages = new ByteBuffer[0];
+    private int numPages;
+    // Heap bytes of the nodes, and the pages taken from the buffer cache to account for them.
+    private final AtomicLong nodeBytes = new AtomicLong();
+    private volatile int chargedPages;
+    private final AtomicInteger height = new AtomicInteger(1);
+    private final AtomicLong tupleCount = new AtomicLong();
+    private volatile Node head = new Node(NO_TUPLE, MAX_HEIGHT);
+    // Incremented whenever the pages are given up, so that accessors drop the arena page they write into.
+    private volatile int generation;
+    private int fileId = -1;
+    private boolean isActive;
+
+    public SkipList(IVirtualBufferCache bufferCache, IFileMapProvider fileMapProvider,
+            ITreeIndexFrameFactory insertLeafFrameFactory, ITreeIndexFrameFactory deleteLeafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file) {
+        this.bufferCache = bufferCache;
+        this.fileMapProvider = fileMapProvider;
+        this.insertLeafFrameFactory = insertLeafFrameFactory;
+        this.deleteLeafFrameFactory = deleteLeafFrameFactory;
+        this.cmpFactories = cmpFactories;
+        this.fieldCount = fieldCount;
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void create() throws HyracksDataException {
+        if (isActive) {
+            throw new HyracksDataException("Failed to create the index since it is activated.");
+        }
+        mapFile();
+        initEmptyList();
+    }
+
+    @Override
+    public synchronized void activate() throws HyracksDataException {
+        if (isActive) {
+            throw new HyracksDataException("Failed to activate the index since it is already activated.");
+        }
+        mapFile();
+        bufferCache.openFile(fileId);
+        isActive = true;
+    }
+
+    private void mapFile() throws HyracksDataException {
+        synchronized (fileMapProvider) {
+            if (!fileMapProvider.isMapped(file)) {
+                bufferCache.createFile(file);
+            }
+            fileId = fileMapProvider.lookupFileId(file);
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws HyracksDataException {
+        if (!isActive) {
+            throw new HyracksDataException("Failed to clear the index since it is not activated.");
+        }
+        initEmptyList();
+    }
+
+    /**
+     * Drops all nodes. The pages of the file are kept in the virtual buffer cache and are handed out again in the
+     * same order, since pinning an existing page returns it.
+     */
+    private void initEmptyList() {
+        synchronized (pageLock) {
+            pages = new ByteBuffer[0];
+            numPages = 0;
+            chargedPages = 0;
+            generation++;
+        }
+        nodeBytes.set(0);
+        head = new Node(NO_TUPLE, MAX_HEIGHT);
+        height.set(1);
+        tupleCount.set(0);
+    }
+
+    @Override
+    public synchronized void deactivate() throws HyracksDataException {
+        if (isActive) {
+            bufferCache.closeFile(fileId);
+        }
+        isActive = false;
+    }
+
+    @Override
+    public synchronized void destroy() throws HyracksDataException {
+        if (isActive) {
+            throw new HyracksDataException("Failed to destroy the index since it is activated.");
+        }
+        if (fileId == -1) {
+            return;
+        }
+        initEmptyList();
+        bufferCache.deleteFile(fileId, false);
+        fileId = -1;
+    }
+
+    @Override
+    public SkipListAccessor createAccessor(IModificationOperationCallback modificationCallback,
+            ISearchOperationCallback searchCallback) {
+        return new SkipListAccessor(this, modificationCallback, searchCallback);
+    }
+
+    @Override
+    public void validate() throws HyracksDataException {
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        ITreeIndexTupleReference prevTuple = createTupleReference();
+        ITreeIndexTupleReference tuple = createTupleReference();
+        Node prev = null;
+        for (Node node = head.next(0); node != null; prev = node, node = node.next(0)) {
+            if (prev != null) {
+                resetTuple(prevTuple, prev.key);
+                resetTuple(tuple, node.key);
+                if (cmp.compare(prevTuple, tuple) >= 0) {
+                    throw new HyracksDataException("The keys of the skip list are not in strictly ascending order.");
+                }
+            }
+        }
+    }
+
+    @Override
+    public IVirtualBufferCache getBufferCache() {
+        return bufferCache;
+    }
+
+    @Override
+    public long getMemoryAllocationSize() {
+        return 0;
+    }
+
+    @Override
+    public IIndexBulkLoader createBulkLoader(float fillFactor, boolean verifyInput, long numElementsHint,
+            boolean checkIfEmptyIndex) throws IndexException {
+        throw new UnsupportedOperationException("Bulk loading is not supported by the skip list.");
+    }
+
+    @Override
+    public IIndexBulkLoader createBulkLoader(float fillFactor, boolean verifyInput, long numElementsHint,
+            boolean checkIfEmptyIndex, boolean appendOnly) throws IndexException {
+        throw new UnsupportedOperationException("Bulk loading is not supported by the skip list.");
+    }
+
+    @Override
+    public boolean hasMemoryComponents() {
+        return true;
+    }
+
+    public IBinaryComparatorFactory[] getComparatorFactories() {
+        return cmpFactories;
+    }
+
+    public ITreeIndexFrameFactory getLeafFrameFactory() {
+        return insertLeafFrameFactory;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public int getFileId() {
+        return fileId;
+    }
+
+    public FileReference getFileReference() {
+        return file;
+    }
+
+    /**
+     * @return the number of nodes, which includes the keys that were physically deleted after they were inserted
+     */
+    public long getTupleCount() {
+        return tupleCount.get();
+    }
+
+    ITreeIndexTupleReference createTupleReference() {
+        return insertLeafFrameFactory.getTupleWriterFactory().createTupleWriter().createTupleReference();
+    }
+
+    void resetTuple(ITreeIndexTupleReference tuple, long address) {
+        tuple.resetByTupleOffset(pages[(int) (address >>> 32)], (int) address);
+    }
+
+    private int compare(MultiComparator cmp, ITupleReference key, Node node, ITreeIndexTupleReference nodeTuple)
+            throws HyracksDataException {
+        resetTuple(nodeTuple, node.key);
+        return cmp.compare(key, nodeTuple);
+    }
+
+    /**
+     * Fills in the predecessors and successors of the key on every level and returns the node of the key, if any.
+     */
+    private Node find(ITupleReference key, MultiComparator cmp, Node[] preds, Node[] succs,
+            ITreeIndexTupleReference nodeTuple) throws HyracksDataException {
+        Node pred = head;
+        Node found = null;
+        int top = height.get();
+        for (int level = MAX_HEIGHT - 1; level >= top; level--) {
+            // If the list has grown since, linking a node on these levels fails and the key is looked up again.
+            preds[level] = pred;
+            succs[level] = null;
+        }
+        for (int level = top - 1; level >= 0; level--) {
+            Node curr = pred.next(level);
+            while (curr != null && curr != found) {
+                int c = compare(cmp, key, curr, nodeTuple);
+                if (c > 0) {
+                    pred = curr;
+                    curr = curr.next(level);
+                } else {
+                    if (c == 0) {
+                        found = curr;
+                    }
+                    break;
+                }
+            }
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+        return found;
+    }
+
+    /**
+     * @return the first node whose key is greater than (or equal to, if inclusive) the given key
+     */
+    Node findFirst(ITupleReference key, MultiComparator cmp, boolean inclusive, ITreeIndexTupleReference nodeTuple)
+            throws HyracksDataException {
+        Node pred = head;
+        if (key == null) {
+            return pred.next(0);
+        }
+        Node curr = null;
+        for (int level = height.get() - 1; level >= 0; level--) {
+            curr = pred.next(level);
+            while (curr != null) {
+                int c = compare(cmp, key, curr, nodeTuple);
+                if (c > 0 || (c == 0 && !inclusive)) {
+                    pred = curr;
+                    curr = curr.next(level);
+                } else {
+                    break;
+                }
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * Links a node that find() did not find between the given predecessors and successors, bottom up. Once the node
+     * is on the lowest level it is in the list, the upper levels only speed up later searches.
+     *
+     * @return false if the lowest level changed since find() and the caller has to look for the key again
+     */
+    private boolean link(Node node, ITupleReference key, MultiComparator cmp, Node[] preds, Node[] succs,
+            ITreeIndexTupleReference nodeTuple) throws HyracksDataException {
+        node.setNext(0, succs[0]);
+        if (!preds[0].casNext(0, succs[0], node)) {
+            return false;
+        }
+        tupleCount.incrementAndGet();
+        int nodeHeight = node.height();
+        charge(NODE_BYTES + LINKS_BYTES + nodeHeight * LINK_BYTES);
+        int listHeight = height.get();
+        while (nodeHeight > listHeight && !height.compareAndSet(listHeight, nodeHeight)) {
+            listHeight = height.get();
+        }
+        for (int level = 1; level < nodeHeight; level++) {
+            while (true) {
+                node.setNext(level, succs[level]);
+                if (preds[level].casNext(level, succs[level], node)) {
+                    break;
+                }
+                find(key, cmp, preds, succs, nodeTuple);
+            }
+        }
+        return true;
+    }
+
+    private static int randomHeight() {
+        int nodeHeight = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (nodeHeight < MAX_HEIGHT && random.nextInt(BRANCHING) == 0) {
+            nodeHeight++;
+        }
+        return nodeHeight;
+    }
+
+    /**
+     * Adds heap bytes of a node, and takes pages from the buffer cache until they cover all the nodes.
+     */
+    private void charge(int bytes) throws HyracksDataException {
+        long charged = nodeBytes.addAndGet(bytes);
+        long pageSize = bufferCache.getPageSize();
+        if (charged > chargedPages * pageSize) {
+            synchronized (pageLock) {
+                while (charged > chargedPages * pageSize) {
+                    allocatePage();
+                    chargedPages++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the next page of the file, for the arena of an accessor or to account for the nodes.
+     *
+     * @return the index of the page
+     */
+    private int allocatePage() throws HyracksDataException {
+        synchronized (pageLock) {
+            int pageIndex = numPages;
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageIndex), true);
+            bufferCache.unpin(page);
+            ByteBuffer[] newPages = Arrays.copyOf(pages, pageIndex + 1);
+            newPages[pageIndex] = page.getBuffer();
+            pages = newPages;
+            numPages++;
+            return pageIndex;
+        }
+    }
+
+    static final class Node {
+        private static final AtomicLongFieldUpdater<Node> TUPLE_UPDATER = AtomicLongFieldUpdater
+                .newUpdater(Node.class, "tuple");
+
+        // The address of the first version of the tuple. Its key fields are the same in every version.
+        final long key;
+        // The address of the current version of the tuple, or NO_TUPLE if the key was physically deleted.
+        volatile long tuple;
+        private final AtomicReferenceArray<Node> next;
+
+        Node(long address, int height) {
+            this.key = address;
+            this.tuple = address;
+            this.next = new AtomicReferenceArray<Node>(height);
+        }
+
+        int height() {
+            return next.length();
+        }
+
+        Node next(int level) {
+            return next.get(level);
+        }
+
+        void setNext(int level, Node node) {
+            next.set(level, node);
+        }
+
+        boolean casNext(int level, Node expect, Node update) {
+            return next.compareAndSet(level, expect, update);
+        }
+
+        boolean casTuple(long expect, long update) {
+            return TUPLE_UPDATER.compareAndSet(this, expect, update);
+        }
+    }
+
+    /**
+     * Accessors are not thread safe. Each one writes its tuples into its own arena page, so that concurrent
+     * writers only meet on the compare-and-swap of a node.
+     */
+    public static class SkipListAccessor implements IIndexAccessor {
+        private SkipList skipList;
+        private IModificationOperationCallback modificationCallback;
+        private final MultiComparator cmp;
+        private final ITreeIndexTupleWriter insertTupleWriter;
+        private final ITreeIndexTupleWriter deleteTupleWriter;
+        private ITreeIndexTupleWriter tupleWriter;
+        private final ITreeIndexTupleReference nodeTuple;
+        private final ITreeIndexTupleReference beforeTuple;
+        private final Node[] preds = new Node[MAX_HEIGHT];
+        private final Node[] succs = new Node[MAX_HEIGHT];
+
+        // The arena page this accessor writes into.
+        private int generation;
+        private ByteBuffer page;
+        private int pageIndex;
+        private int pageOffset;
+
+        public SkipListAccessor(SkipList skipList, IModificationOperationCallback modificationCallback,
+                ISearchOperationCallback searchCallback) {
+            this.skipList = skipList;
+            this.modificationCallback = modificationCallback;
+            this.cmp = MultiComparator.create(skipList.cmpFactories);
+            this.insertTupleWriter = skipList.insertLeafFrameFactory.getTupleWriterFactory().createTupleWriter();
+            this.deleteTupleWriter = skipList.deleteLeafFrameFactory.getTupleWriterFactory().createTupleWriter();
+            this.tupleWriter = insertTupleWriter;
+            this.nodeTuple = skipList.createTupleReference();
+            this.beforeTuple = skipList.createTupleReference();
+        }
+
+        /**
+         * Reuses the accessor for another skip list with the same comparators and tuple writers.
+         */
+        public void reset(SkipList skipList, IModificationOperationCallback modificationCallback,
+                ISearchOperationCallback searchCallback) {
+            if (this.skipList != skipList) {
+                this.skipList = skipList;
+                page = null;
+            }
+            this.modificationCallback = modificationCallback;
+        }
+
+        /**
+         * Writes the tuples of later modifications as matter.
+         */
+        public void setInsertMode() {
+            tupleWriter = insertTupleWriter;
+        }
+
+        /**
+         * Writes the tuples of later modifications as antimatter.
+         */
+        public void setDeleteMode() {
+            tupleWriter = deleteTupleWriter;
+        }
+
+        @Override
+        public void insert(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            put(tuple, false, null);
+        }
+
+        @Override
+        public void update(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            // As in the B-tree, only non-key fields can be updated.
+            if (skipList.fieldCount == cmp.getKeyFieldCount()) {
+                throw new BTreeNotUpdateableException("Cannot perform updates when the entire tuple forms the key.");
+            }
+            put(tuple, true, null);
+        }
+
+        @Override
+        public void upsert(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            upsertIfConditionElseInsert(tuple, UnconditionalTupleAcceptor.INSTANCE);
+        }
+
+        public void upsertIfConditionElseInsert(ITupleReference tuple, ITupleAcceptor acceptor)
+                throws HyracksDataException, TreeIndexException {
+            put(tuple, false, acceptor);
+        }
+
+        /**
+         * Writes the tuple into the arena and makes it the current version of its key.
+         *
+         * @param mustExist
+         *            whether the key has to be present, as for an update
+         * @param acceptor
+         *            decides whether an existing version may be replaced, or null if it may not
+         */
+        private void put(ITupleReference tuple, boolean mustExist, ITupleAcceptor acceptor)
+                throws HyracksDataException, TreeIndexException {
+            long address = write(tuple);
+            modificationCallback.before(tuple);
+            try {
+                Node node = null;
+                while (true) {
+                    Node found = skipList.find(tuple, cmp, preds, succs, nodeTuple);
+                    if (found == null) {
+                        if (mustExist) {
+                            throw new TreeIndexNonExistentKeyException(
+                                    "Trying to update a tuple with a nonexistent key in the skip list.");
+                        }
+                        if (node == null) {
+                            node = new Node(address, randomHeight());
+                        }
+                        if (skipList.link(node, tuple, cmp, preds, succs, nodeTuple)) {
+                            modificationCallback.found(null, tuple);
+                            return;
+                        }
+                        continue;
+                    }
+                    long before = found.tuple;
+                    if (before == NO_TUPLE) {
+                        if (mustExist) {
+                            throw new TreeIndexNonExistentKeyException(
+                                    "Trying to update a tuple with a nonexistent key in the skip list.");
+                        }
+                        if (found.casTuple(NO_TUPLE, address)) {
+                            modificationCallback.found(null, tuple);
+                            return;
+                        }
+                        continue;
+                    }
+                    skipList.resetTuple(beforeTuple, before);
+                    if (!mustExist && (acceptor == null || !acceptor.accept(beforeTuple))) {
+                        throw new TreeIndexDuplicateKeyException("Failed to insert key since key already exists.");
+                    }
+                    if (found.casTuple(before, address)) {
+                        modificationCallback.found(beforeTuple, tuple);
+                        return;
+                    }
+                }
+            } catch (TreeIndexException e) {
+                // Nobody can see the tuple, so its space goes back to the arena.
+                if ((int) (address >>> 32) == pageIndex) {
+                    pageOffset = (int) address;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Physically deletes the key, leaving its node empty.
+         */
+        @Override
+        public void delete(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            modificationCallback.before(tuple);
+            while (true) {
+                Node found = skipList.find(tuple, cmp, preds, succs, nodeTuple);
+                long before = found == null ? NO_TUPLE : found.tuple;
+                if (before == NO_TUPLE) {
+                    throw new TreeIndexNonExistentKeyException(
+                            "Trying to delete a tuple with a nonexistent key in the skip list.");
+                }
+                if (found.casTuple(before, NO_TUPLE)) {
+                    skipList.resetTuple(beforeTuple, before);
+                    modificationCallback.found(beforeTuple, tuple);
+                    return;
+                }
+            }
+        }
+
+        private long write(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            int tupleSize = tupleWriter.bytesRequired(tuple);
+            int pageSize = skipList.bufferCache.getPageSize();
+            if (tupleSize > pageSize) {
+                throw new TreeIndexException("Space required for record (" + tupleSize
+                        + ") larger than maximum acceptable size (" + pageSize + ")");
+            }
+            if (page == null || generation != skipList.generation || pageOffset + tupleSize > pageSize) {
+                generation = skipList.generation;
+                pageIndex = skipList.allocatePage();
+                page = skipList.pages[pageIndex];
+                pageOffset = 0;
+            }
+            int tupleOffset = pageOffset;
+            pageOffset += tupleWriter.writeTuple(tuple, page.array(), tupleOffset);
+            return ((long) pageIndex << 32) | tupleOffset;
+        }
+
+        @Override
+        public SkipListRangeSearchCursor createSearchCursor(boolean exclusive) {
+            return new SkipListRangeSearchCursor(skipList.createTupleReference());
+        }
+
+        @Override
+        public void search(IIndexCursor cursor, ISearchPredicate searchPred) throws HyracksDataException {
+            SkipListRangeSearchCursor skipListCursor = (SkipListRangeSearchCursor) cursor;
+            skipListCursor.setSkipList(skipList, cmp);
+            skipListCursor.open(null, searchPred);
+        }
+
+        public MultiComparator getMultiComparator() {
+            return cmp;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
+import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+
+/**
+ * Walks the lowest level of a {@link SkipList} from the low key of a range predicate to its high key, skipping
+ * the keys that were physically deleted. Nothing is latched or pinned, since the tuples never move until the skip
+ * list is cleared.
+ */
+public class SkipListRangeSearchCursor implements ITreeIndexCursor {
+
+    private final ITreeIndexTupleReference tuple;
+    private SkipList skipList;
+    private MultiComparator cmp;
+    private SkipList.Node node;
+    private ITupleReference highKey;
+    private MultiComparator highKeyCmp;
+    private boolean highKeyInclusive;
+
+    public SkipListRangeSearchCursor(ITreeIndexTupleReference tuple) {
+        this.tuple = tuple;
+    }
+
+    void setSkipList(SkipList skipList, MultiComparator cmp) {
+        this.skipList = skipList;
+        this.cmp = cmp;
+    }
+
+    /**
+     * @param initialState
+     *            ignored, the skip list to search is set by its accessor
+     */
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        RangePredicate pred = (RangePredicate) searchPred;
+        MultiComparator lowKeyCmp = pred.getLowKeyComparator() == null ? cmp : pred.getLowKeyComparator();
+        highKeyCmp = pred.getHighKeyComparator() == null ? cmp : pred.getHighKeyComparator();
+        highKey = pred.getHighKey();
+        highKeyInclusive = pred.isHighKeyInclusive();
+        node = skipList.findFirst(pred.getLowKey(), lowKeyCmp, pred.isLowKeyInclusive(), tuple);
+    }
+
+    @Override
+    public boolean hasNext() throws HyracksDataException {
+        while (node != null) {
+            long address = node.tuple;
+            if (address != SkipList.NO_TUPLE) {
+                skipList.resetTuple(tuple, address);
+                if (highKey != null) {
+                    int c = highKeyCmp.compare(highKey, tuple);
+                    if (c < 0 || (c == 0 && !highKeyInclusive)) {
+                        node = null;
+                        return false;
+                    }
+                }
+                return true;
+            }
+            node = node.next(0);
+        }
+        return false;
+    }
+
+    @Override
+    public void next() throws HyracksDataException {
+        node = node.next(0);
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        node = null;
+    }
+
+    @Override
+    public void reset() throws HyracksDataException {
+        node = null;
+    }
+
+    @Override
+    public ITupleReference getTuple() {
+        return tuple;
+    }
+
+    @Override
+    public ICachedPage getPage() {
+        return null;
+    }
+
+    @Override
+    public void setBufferCache(IBufferCache bufferCache) {
+        // do nothing
+    }
+
+    @Override
+    public void setFileId(int fileId) {
+        // do nothing
+    }
+
+    @Override
+    public boolean exclusiveLatchNodes() {
+        return false;
+    }
+
+    @Override
+    public void markCurrentTupleAsUpdated() throws HyracksDataException {
+        throw new HyracksDataException("Updating tuples is not supported with this cursor.");
+    }
+}
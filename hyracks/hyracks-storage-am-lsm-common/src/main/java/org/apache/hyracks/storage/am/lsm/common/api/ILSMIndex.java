@@ -26,6 +26,7 @@ import org.apache.hyracks.storage.am.common.api.IIndex;
 import org.apache.hyracks.storage.am.common.api.IModificationOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMHarness;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMIOStatistics;
 
 /**
  * Methods to be implemented by an LSM index, which are called from {@link LSMHarness}.
@@ -57,4 +58,9 @@ public interface ILSMIndex extends IIndex {
      * @return true if the index is durable. Otherwise false.
      */
     public boolean isDurable();
+
+    /**
+     * @return the sizes of the disk components written by the flushes and merges of the index
+     */
+    public LSMIOStatistics getIOStatistics();
 }
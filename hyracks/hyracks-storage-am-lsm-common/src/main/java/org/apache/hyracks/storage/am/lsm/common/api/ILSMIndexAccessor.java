@@ -22,7 +22,7 @@ import java.util.List;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
-import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchAccessor;
 import org.apache.hyracks.storage.am.common.api.IndexException;
 
 /**
@@ -31,8 +31,10 @@ import org.apache.hyracks.storage.am.common.api.IndexException;
  * An {@link ILSMIndexAccessor} is not thread safe, but different {@link ILSMIndexAccessor}s
  * can concurrently operate on the same {@link ILSMIndex} (i.e., the {@link ILSMIndex} must allow
  * concurrent operations).
+ * Indexes whose accessors support batched point searches search a sorted batch of keys in one walk over their
+ * components.
  */
-public interface ILSMIndexAccessor extends IIndexAccessor {
+public interface ILSMIndexAccessor extends IBatchPointSearchAccessor {
     public void scheduleFlush(ILSMIOOperationCallback callback) throws HyracksDataException;
 
     public void scheduleMerge(ILSMIOOperationCallback callback, List<ILSMComponent> components)
@@ -47,6 +47,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTracker;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.am.lsm.common.api.LSMOperationType;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.MappedFileBufferCache;
 import org.apache.hyracks.storage.common.file.IFileMapProvider;
 
 public abstract class AbstractLSMIndex implements ILSMIndexInternal {
@@ -75,6 +76,7 @@ public abstract class AbstractLSMIndex implements ILSMIndexInternal {
     protected boolean isActivated;
     protected final AtomicBoolean[] flushRequests;
     protected boolean memoryComponentsAllocated = false;
+    protected final LSMIOStatistics ioStatistics = new LSMIOStatistics();
 
     public AbstractLSMIndex(List<IVirtualBufferCache> virtualBufferCaches, IBufferCache diskBufferCache,
             ILSMIndexFileManager fileManager, IFileMapProvider diskFileMapProvider, double bloomFilterFalsePositiveRate,
@@ -150,6 +152,16 @@ public abstract class AbstractLSMIndex implements ILSMIndexInternal {
         }
     }
 
+    /**
+     * Serves the pages of a file of a validated disk component from a read-only memory mapping if the index was
+     * created with a {@link MappedFileBufferCache} as its disk buffer cache.
+     */
+    protected void mapDiskComponentFile(int fileId) throws HyracksDataException {
+        if (diskBufferCache instanceof MappedFileBufferCache) {
+            ((MappedFileBufferCache) diskBufferCache).mapFile(fileId);
+        }
+    }
+
     @Override
     public void addComponent(ILSMComponent c) throws HyracksDataException {
         diskComponents.add(0, c);
@@ -169,6 +181,11 @@ public abstract class AbstractLSMIndex implements ILSMIndexInternal {
         ((AbstractMemoryLSMComponent) memoryComponents.get(currentMutableComponentId.get())).setActive();
     }
 
+    @Override
+    public LSMIOStatistics getIOStatistics() {
+        return ioStatistics;
+    }
+
     @Override
     public List<ILSMComponent> getImmutableComponents() {
         return diskComponents;
@@ -242,6 +242,8 @@ public class LSMHarness implements ILSMHarness {
                             // newComponent is null if the flush op. was not performed.
                             if (newComponent != null) {
                                 lsmIndex.addComponent(newComponent);
+                                lsmIndex.getIOStatistics()
+                                        .flushed(((AbstractDiskLSMComponent) newComponent).getComponentSize());
                                 if (replicationEnabled) {
                                     componentsToBeReplicated.clear();
                                     componentsToBeReplicated.add(newComponent);
@@ -254,6 +256,8 @@ public class LSMHarness implements ILSMHarness {
                             // newComponent is null if the merge op. was not performed.
                             if (newComponent != null) {
                                 lsmIndex.subsumeMergedComponents(newComponent, ctx.getComponentHolder());
+                                lsmIndex.getIOStatistics()
+                                        .merged(((AbstractDiskLSMComponent) newComponent).getComponentSize());
                                 if (replicationEnabled) {
                                     componentsToBeReplicated.clear();
                                     componentsToBeReplicated.add(newComponent);
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the disk components written by the flushes and merges of an LSM index and their sizes. The bytes written by
+ * a flush or a merge are the size of the disk component it creates, so the write amplification of the index is the
+ * ratio of all the bytes written to the bytes written by flushes.
+ */
+public class LSMIOStatistics {
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedBytes = new AtomicLong();
+    private final AtomicLong mergeCount = new AtomicLong();
+    private final AtomicLong mergedBytes = new AtomicLong();
+
+    public void flushed(long componentSize) {
+        flushCount.incrementAndGet();
+        flushedBytes.addAndGet(componentSize);
+    }
+
+    public void merged(long componentSize) {
+        mergeCount.incrementAndGet();
+        mergedBytes.addAndGet(componentSize);
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFlushedBytes() {
+        return flushedBytes.get();
+    }
+
+    public long getMergeCount() {
+        return mergeCount.get();
+    }
+
+    public long getMergedBytes() {
+        return mergedBytes.get();
+    }
+
+    /**
+     * @return the bytes written by flushes and merges per byte written by flushes, or 0 if nothing was flushed yet
+     */
+    public double getWriteAmplification() {
+        long flushed = flushedBytes.get();
+        if (flushed == 0) {
+            return 0;
+        }
+        return (double) (flushed + mergedBytes.get()) / flushed;
+    }
+
+    @Override
+    public String toString() {
+        return "flushes: " + flushCount.get() + " (" + flushedBytes.get() + " bytes), merges: " + mergeCount.get()
+                + " (" + mergedBytes.get() + " bytes), write amplification: " + getWriteAmplification();
+    }
+}
@@ -23,9 +23,11 @@ import java.util.List;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.common.api.IIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
 import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.impls.BatchPointPredicate;
 import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
@@ -100,6 +102,29 @@ public abstract class LSMTreeIndexAccessor implements ILSMIndexAccessorInternal
         lsmHarness.search(ctx, cursor, searchPred);
     }
 
+    @Override
+    public boolean supportsBatchPointSearch() {
+        return false;
+    }
+
+    @Override
+    public IBatchPointSearchCursor createBatchPointSearchCursor() {
+        throw new UnsupportedOperationException("Batch point search not supported by this index.");
+    }
+
+    @Override
+    public void batchPointSearch(IBatchPointSearchCursor cursor, BatchPointPredicate searchPred)
+            throws HyracksDataException, IndexException {
+        // Modifications reuse the context's search predicate as a point predicate, so it must not keep the batch.
+        ISearchPredicate pointPred = ctx.getSearchPredicate();
+        ctx.setOperation(IndexOperation.SEARCH);
+        try {
+            lsmHarness.search(ctx, cursor, searchPred);
+        } finally {
+            ctx.setSearchPredicate(pointPred);
+        }
+    }
+
     @Override
     public void flush(ILSMIOOperation operation) throws HyracksDataException, IndexException {
         lsmHarness.flush(ctx, operation);
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+
+/**
+ * A leveled merge policy. Level 1 holds up to level1-max-component-size bytes and every following level holds
+ * level-size-ratio times more than the previous one. The level of a disk component is the smallest level it fits in.
+ * Apart from the newest components, which are either flushed (level 0) or the level 1 component, there is at most one
+ * component per level and older components are at deeper levels:
+ * <ul>
+ * <li>once more than level0-component-count components of level 1 or less are the newest components, they are
+ * merged into a new level 1 component</li>
+ * <li>whenever a component is not older than a component at its level or a deeper one, the two of them are merged,
+ * which pushes the data of a full level into the next one</li>
+ * </ul>
+ * A lookup reads the level 0 components and one component per level, while every byte is rewritten up to
+ * level-size-ratio times per level.
+ * Since a disk component covers the whole key range of the index, a level is made of a single component rather
+ * than of components partitioned by key range.
+ */
+public class LeveledMergePolicy implements ILSMMergePolicy {
+
+    private int level0ComponentCount;
+    private long level1MaxComponentSize;
+    private double levelSizeRatio;
+
+    @Override
+    public void diskComponentAdded(final ILSMIndex index, boolean fullMergeIsRequested) throws HyracksDataException,
+            IndexException {
+        List<ILSMComponent> immutableComponents = index.getImmutableComponents();
+        for (ILSMComponent c : immutableComponents) {
+            if (c.getState() != ComponentState.READABLE_UNWRITABLE) {
+                return;
+            }
+        }
+        if (fullMergeIsRequested) {
+            ILSMIndexAccessor accessor = (ILSMIndexAccessor) index.createAccessor(NoOpOperationCallback.INSTANCE,
+                    NoOpOperationCallback.INSTANCE);
+            accessor.scheduleFullMerge(index.getIOOperationCallback());
+            return;
+        }
+        int numComponents = immutableComponents.size();
+        int[] levels = new int[numComponents];
+        for (int i = 0; i < numComponents; i++) {
+            levels[i] = getLevel(((AbstractDiskLSMComponent) immutableComponents.get(i)).getComponentSize());
+        }
+        // The components are ordered from newest to oldest.
+        int level1End = 0;
+        while (level1End < numComponents && levels[level1End] == 1) {
+            level1End++;
+        }
+        if (level1End > level0ComponentCount) {
+            scheduleMerge(index, immutableComponents.subList(0, level1End));
+            return;
+        }
+        for (int i = Math.max(level1End, 1); i < numComponents; i++) {
+            if (levels[i - 1] >= levels[i]) {
+                scheduleMerge(index, immutableComponents.subList(i - 1, i + 1));
+                return;
+            }
+        }
+    }
+
+    private int getLevel(long componentSize) {
+        int level = 1;
+        double levelMaxSize = level1MaxComponentSize;
+        while (componentSize > levelMaxSize) {
+            levelMaxSize *= levelSizeRatio;
+            level++;
+        }
+        return level;
+    }
+
+    private static void scheduleMerge(ILSMIndex index, List<ILSMComponent> mergableComponents)
+            throws HyracksDataException, IndexException {
+        ILSMIndexAccessor accessor = (ILSMIndexAccessor) index.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        accessor.scheduleMerge(index.getIOOperationCallback(), mergableComponents);
+    }
+
+    @Override
+    public void configure(Map<String, String> properties) {
+        level0ComponentCount = Integer.parseInt(properties.get("level0-component-count"));
+        level1MaxComponentSize = Long.parseLong(properties.get("level1-max-component-size"));
+        levelSizeRatio = Double.parseDouble(properties.get("level-size-ratio"));
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOSchedulerCounters;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation.LSMIOOpertionType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
+import org.apache.hyracks.storage.common.buffercache.PageWriteThrottle;
+
+/**
+ * An asynchronous scheduler that protects the foreground work of a node from its merges:
+ * - flushes run as soon as they are scheduled, serially per index as in {@link AsynchronousScheduler},
+ * - a merge waits until no flush runs on any of the devices it writes to and fewer than the configured number of
+ * merges run on each of them,
+ * - the page writes of the merges are limited to a rate per device, and
+ * - merges can be paused while the foreground load is high, see {@link #pauseMerges()}.
+ */
+public class PrioritizedIOScheduler implements ILSMIOOperationScheduler, IIOSchedulerCounters {
+    private final ExecutorService executor;
+    private final int maxMergesPerDevice;
+    private final long mergeBurstBytes;
+    private long mergeBytesPerSecond;
+
+    private final Map<IODeviceHandle, DeviceState> devices = new HashMap<IODeviceHandle, DeviceState>();
+    private final Map<String, ILSMIOOperation> runningFlushOperations = new HashMap<String, ILSMIOOperation>();
+    private final Map<String, PriorityQueue<ILSMIOOperation>> waitingFlushOperations = new HashMap<String, PriorityQueue<ILSMIOOperation>>();
+    private final LinkedList<ILSMIOOperation> waitingMerges = new LinkedList<ILSMIOOperation>();
+    private boolean paused;
+
+    private final AtomicLong throttleTime = new AtomicLong();
+
+    /**
+     * @param maxMergesPerDevice
+     *            the maximum number of merges writing to a device at the same time
+     * @param mergeBytesPerSecond
+     *            the rate at which the merges write to a device, or a non-positive value for no limit
+     * @param mergeBurstBytes
+     *            the number of bytes the merges can write to a device at once without being slowed down
+     */
+    public PrioritizedIOScheduler(ThreadFactory threadFactory, int maxMergesPerDevice, long mergeBytesPerSecond,
+            long mergeBurstBytes) {
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+        this.maxMergesPerDevice = maxMergesPerDevice;
+        this.mergeBytesPerSecond = mergeBytesPerSecond;
+        this.mergeBurstBytes = mergeBurstBytes;
+    }
+
+    @Override
+    public synchronized void scheduleOperation(ILSMIOOperation operation) throws HyracksDataException {
+        if (operation.getIOOpertionType() == LSMIOOpertionType.MERGE) {
+            waitingMerges.add(operation);
+            dispatchMerges();
+        } else {
+            String id = operation.getIndexUniqueIdentifier();
+            if (runningFlushOperations.containsKey(id)) {
+                PriorityQueue<ILSMIOOperation> q = waitingFlushOperations.get(id);
+                if (q == null) {
+                    q = new PriorityQueue<ILSMIOOperation>();
+                    waitingFlushOperations.put(id, q);
+                }
+                q.offer(operation);
+            } else {
+                startFlush(operation);
+            }
+        }
+    }
+
+    /**
+     * Stop the merges from writing and from being started, until {@link #resumeMerges()} is called.
+     */
+    public synchronized void pauseMerges() {
+        paused = true;
+    }
+
+    public synchronized void resumeMerges() {
+        paused = false;
+        notifyAll();
+        dispatchMerges();
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Change the rate at which the merges write to each device.
+     */
+    public synchronized void setMergeBytesPerSecond(long mergeBytesPerSecond) {
+        this.mergeBytesPerSecond = mergeBytesPerSecond;
+        for (DeviceState device : devices.values()) {
+            device.mergeBandwidth.setRate(mergeBytesPerSecond);
+        }
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        int depth = waitingMerges.size();
+        for (PriorityQueue<ILSMIOOperation> q : waitingFlushOperations.values()) {
+            depth += q.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public long getThrottleTime() {
+        return TimeUnit.NANOSECONDS.toMillis(throttleTime.get());
+    }
+
+    private void startFlush(final ILSMIOOperation operation) {
+        runningFlushOperations.put(operation.getIndexUniqueIdentifier(), operation);
+        for (IODeviceHandle dev : operation.getWriteDevices()) {
+            getDevice(dev).runningFlushes++;
+        }
+        executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                try {
+                    return operation.call();
+                } finally {
+                    flushCompleted(operation);
+                }
+            }
+        });
+    }
+
+    private synchronized void flushCompleted(ILSMIOOperation operation) throws HyracksDataException {
+        for (IODeviceHandle dev : operation.getWriteDevices()) {
+            getDevice(dev).runningFlushes--;
+        }
+        String id = operation.getIndexUniqueIdentifier();
+        runningFlushOperations.remove(id);
+        PriorityQueue<ILSMIOOperation> q = waitingFlushOperations.get(id);
+        if (q != null) {
+            ILSMIOOperation next = q.poll();
+            if (q.isEmpty()) {
+                waitingFlushOperations.remove(id);
+            }
+            if (next != null) {
+                startFlush(next);
+            }
+        }
+        dispatchMerges();
+    }
+
+    private void dispatchMerges() {
+        if (paused) {
+            return;
+        }
+        Iterator<ILSMIOOperation> it = waitingMerges.iterator();
+        while (it.hasNext()) {
+            ILSMIOOperation operation = it.next();
+            if (canStartMerge(operation)) {
+                it.remove();
+                startMerge(operation);
+            }
+        }
+    }
+
+    private boolean canStartMerge(ILSMIOOperation operation) {
+        for (IODeviceHandle dev : operation.getWriteDevices()) {
+            DeviceState device = getDevice(dev);
+            if (device.runningFlushes > 0 || device.runningMerges >= maxMergesPerDevice) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void startMerge(final ILSMIOOperation operation) {
+        final TokenBucket[] bandwidths = new TokenBucket[operation.getWriteDevices().size()];
+        int i = 0;
+        for (IODeviceHandle dev : operation.getWriteDevices()) {
+            DeviceState device = getDevice(dev);
+            device.runningMerges++;
+            bandwidths[i++] = device.mergeBandwidth;
+        }
+        executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                PageWriteThrottle.bind(new MergeWriteThrottle(bandwidths));
+                try {
+                    return operation.call();
+                } finally {
+                    PageWriteThrottle.unbind();
+                    mergeCompleted(operation);
+                }
+            }
+        });
+    }
+
+    private synchronized void mergeCompleted(ILSMIOOperation operation) {
+        for (IODeviceHandle dev : operation.getWriteDevices()) {
+            getDevice(dev).runningMerges--;
+        }
+        dispatchMerges();
+    }
+
+    private synchronized void awaitResume() throws InterruptedException {
+        while (paused) {
+            wait();
+        }
+    }
+
+    private DeviceState getDevice(IODeviceHandle dev) {
+        DeviceState device = devices.get(dev);
+        if (device == null) {
+            device = new DeviceState(new TokenBucket(mergeBytesPerSecond, mergeBurstBytes));
+            devices.put(dev, device);
+        }
+        return device;
+    }
+
+    private static class DeviceState {
+        private final TokenBucket mergeBandwidth;
+        private int runningFlushes;
+        private int runningMerges;
+
+        private DeviceState(TokenBucket mergeBandwidth) {
+            this.mergeBandwidth = mergeBandwidth;
+        }
+    }
+
+    /**
+     * Holds back the page writes of a merge while the merges are paused and while they exceed the rate of the devices
+     * the merge writes to.
+     */
+    private class MergeWriteThrottle extends PageWriteThrottle {
+        private final TokenBucket[] bandwidths;
+
+        private MergeWriteThrottle(TokenBucket[] bandwidths) {
+            this.bandwidths = bandwidths;
+        }
+
+        @Override
+        protected void beforeWrite(int numBytes) throws HyracksDataException {
+            long start = System.nanoTime();
+            try {
+                awaitResume();
+                for (TokenBucket bandwidth : bandwidths) {
+                    bandwidth.acquire(numBytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HyracksDataException(e);
+            } finally {
+                throttleTime.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
+}
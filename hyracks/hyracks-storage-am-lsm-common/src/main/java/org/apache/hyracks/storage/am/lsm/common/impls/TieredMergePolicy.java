@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+
+/**
+ * A size-tiered merge policy. A tier is a sequence of consecutive disk components whose sizes are all within
+ * tier-size-ratio of each other. Whenever a tier holds tier-component-count components, they are merged into one
+ * component, which belongs to a tier of larger components. Every byte is rewritten once per tier, so the write
+ * amplification grows with the logarithm of the data size in base tier-component-count, while a lookup reads up to
+ * tier-component-count - 1 components per tier. Components larger than max-mergable-component-size are never merged.
+ */
+public class TieredMergePolicy implements ILSMMergePolicy {
+
+    private int tierComponentCount;
+    private double tierSizeRatio;
+    private long maxMergableComponentSize;
+
+    @Override
+    public void diskComponentAdded(final ILSMIndex index, boolean fullMergeIsRequested) throws HyracksDataException,
+            IndexException {
+        List<ILSMComponent> immutableComponents = index.getImmutableComponents();
+        for (ILSMComponent c : immutableComponents) {
+            if (c.getState() != ComponentState.READABLE_UNWRITABLE) {
+                return;
+            }
+        }
+        if (fullMergeIsRequested) {
+            ILSMIndexAccessor accessor = (ILSMIndexAccessor) index.createAccessor(NoOpOperationCallback.INSTANCE,
+                    NoOpOperationCallback.INSTANCE);
+            accessor.scheduleFullMerge(index.getIOOperationCallback());
+            return;
+        }
+        // Look at the components from newest to oldest, so that the tiers of the smallest components are merged first.
+        int tierStart = 0;
+        long minSize = Long.MAX_VALUE;
+        long maxSize = 0;
+        for (int i = 0; i < immutableComponents.size(); i++) {
+            long componentSize = ((AbstractDiskLSMComponent) immutableComponents.get(i)).getComponentSize();
+            if (componentSize > maxMergableComponentSize) {
+                tierStart = i + 1;
+                minSize = Long.MAX_VALUE;
+                maxSize = 0;
+                continue;
+            }
+            minSize = Math.min(minSize, componentSize);
+            maxSize = Math.max(maxSize, componentSize);
+            if (maxSize > tierSizeRatio * minSize) {
+                // The component starts a new tier.
+                tierStart = i;
+                minSize = componentSize;
+                maxSize = componentSize;
+            }
+            if (i - tierStart + 1 >= tierComponentCount) {
+                ILSMIndexAccessor accessor = (ILSMIndexAccessor) index.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
+                accessor.scheduleMerge(index.getIOOperationCallback(),
+                        immutableComponents.subList(tierStart, i + 1));
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void configure(Map<String, String> properties) {
+        tierComponentCount = Integer.parseInt(properties.get("tier-component-count"));
+        tierSizeRatio = Double.parseDouble(properties.get("tier-size-ratio"));
+        maxMergableComponentSize = Long.parseLong(properties.get("max-mergable-component-size"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of a stream of bytes. The bucket holds up to a burst of bytes and refills at the configured rate;
+ * a caller that takes more bytes than the bucket holds leaves it in debt and sleeps until the debt is paid, so that
+ * concurrent callers share the rate.
+ */
+public class TokenBucket {
+    private final long capacity;
+    private long bytesPerSecond;
+    private double tokens;
+    private long lastRefillTime;
+
+    /**
+     * @param bytesPerSecond
+     *            the rate, or a non-positive value for no limit
+     * @param capacity
+     *            the number of bytes that can be taken at once without waiting
+     */
+    public TokenBucket(long bytesPerSecond, long capacity) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * Take bytes from the bucket, waiting until the rate allows it.
+     *
+     * @return the time waited, in nanoseconds
+     */
+    public long acquire(long numBytes) throws InterruptedException {
+        long waitTime;
+        synchronized (this) {
+            if (bytesPerSecond <= 0) {
+                return 0;
+            }
+            refill();
+            tokens -= numBytes;
+            if (tokens >= 0) {
+                return 0;
+            }
+            waitTime = (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+        }
+        long start = System.nanoTime();
+        TimeUnit.NANOSECONDS.sleep(waitTime);
+        return System.nanoTime() - start;
+    }
+
+    public synchronized void setRate(long bytesPerSecond) {
+        refill();
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public synchronized long getRate() {
+        return bytesPerSecond;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (bytesPerSecond > 0) {
+            tokens = Math.min(capacity,
+                    tokens + (double) (now - lastRefillTime) * bytesPerSecond / TimeUnit.SECONDS.toNanos(1));
+        } else {
+            tokens = capacity;
+        }
+        lastRefillTime = now;
+    }
+}
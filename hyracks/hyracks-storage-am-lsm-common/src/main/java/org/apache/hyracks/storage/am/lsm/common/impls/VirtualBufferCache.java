@@ -214,6 +214,11 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         return page;
     }
 
+    @Override
+    public ICachedPage pinAsync(long dpid) throws HyracksDataException {
+        return pin(dpid, false);
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
     }
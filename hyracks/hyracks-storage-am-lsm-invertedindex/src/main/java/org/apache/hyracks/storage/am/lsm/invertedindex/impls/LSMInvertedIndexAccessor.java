@@ -22,9 +22,11 @@ import java.util.List;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.common.api.IIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
 import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.impls.BatchPointPredicate;
 import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
@@ -81,6 +83,22 @@ public class LSMInvertedIndexAccessor implements ILSMIndexAccessorInternal, IInv
         return new LSMInvertedIndexSearchCursor();
     }
 
+    @Override
+    public boolean supportsBatchPointSearch() {
+        return false;
+    }
+
+    @Override
+    public IBatchPointSearchCursor createBatchPointSearchCursor() {
+        throw new UnsupportedOperationException("Batch point search not supported by lsm inverted index.");
+    }
+
+    @Override
+    public void batchPointSearch(IBatchPointSearchCursor cursor, BatchPointPredicate searchPred)
+            throws HyracksDataException, IndexException {
+        throw new UnsupportedOperationException("Batch point search not supported by lsm inverted index.");
+    }
+
     @Override
     public void scheduleFlush(ILSMIOOperationCallback callback) throws HyracksDataException {
         ctx.setOperation(IndexOperation.FLUSH);
@@ -58,6 +58,7 @@ public class AsyncFIFOPageQueueManager implements Runnable {
 
         @Override
         public void put(ICachedPage page) throws HyracksDataException {
+            PageWriteThrottle.throttle(bufferCache.getPageSize());
             try {
                 if(!poisoned.get()) {
                     queue.put(page);
@@ -20,11 +20,16 @@ package org.apache.hyracks.storage.common.buffercache;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -45,17 +50,22 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     private static final int MIN_CLEANED_COUNT_DIFF = 3;
     private static final int PIN_MAX_WAIT_TIME = 50;
+    private static final int READ_AHEAD_THREADS = 4;
+    private static final int MAX_PENDING_READ_AHEADS = 256;
+    private static final int READ_AHEAD_KEEP_ALIVE_SECS = 60;
     public static final boolean DEBUG = false;
 
     private final int pageSize;
     private final int maxOpenFiles;
     final IIOManager ioManager;
     private final CacheBucket[] pageMap;
-    private final IPageReplacementStrategy pageReplacementStrategy;
+    final IPageReplacementStrategy pageReplacementStrategy;
     private final IPageCleanerPolicy pageCleanerPolicy;
     private final IFileMapManager fileMapManager;
     private final CleanerThread cleanerThread;
-    private final Map<Integer, BufferedFileHandle> fileInfoMap;
+    private final Executor executor;
+    private final ThreadPoolExecutor readAheadExecutor;
+    final Map<Integer, BufferedFileHandle> fileInfoMap;
     private final Set<Integer> virtualFiles;
     private final AsyncFIFOPageQueueManager fifoWriter;
     //DEBUG
@@ -64,7 +74,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private HashMap<CachedPage, StackTraceElement[]> confiscatedPagesOwner;
     private ConcurrentHashMap<CachedPage, StackTraceElement[]> pinnedPageOwner;
     //!DEBUG
-    private IIOReplicationManager ioReplicationManager;
+    IIOReplicationManager ioReplicationManager;
     public List<ICachedPageInternal> cachedPages = new ArrayList<ICachedPageInternal>();
 
     private boolean closed;
@@ -72,11 +82,23 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     public BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
             IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
             ThreadFactory threadFactory) {
+        this(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager, maxOpenFiles, threadFactory,
+                new HashMap<Integer, BufferedFileHandle>(),
+                pageReplacementStrategy.getMaxAllowedNumPages() * MAP_FACTOR + 1);
+    }
+
+    /**
+     * Constructor for subclasses that maintain their own page table. A pageMapSize of 0 disables the
+     * bucketed page map, in which case every method touching it must be overridden.
+     */
+    protected BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
+            IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
+            ThreadFactory threadFactory, Map<Integer, BufferedFileHandle> fileInfoMap, int pageMapSize) {
         this.ioManager = ioManager;
         this.pageSize = pageReplacementStrategy.getPageSize();
         this.maxOpenFiles = maxOpenFiles;
         pageReplacementStrategy.setBufferCache(this);
-        pageMap = new CacheBucket[pageReplacementStrategy.getMaxAllowedNumPages() * MAP_FACTOR + 1];
+        pageMap = new CacheBucket[pageMapSize];
         for (int i = 0; i < pageMap.length; ++i) {
             pageMap[i] = new CacheBucket();
         }
@@ -84,11 +106,15 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         this.pageCleanerPolicy = pageCleanerPolicy;
         this.fileMapManager = fileMapManager;
 
-        Executor executor = Executors.newCachedThreadPool(threadFactory);
-        fileInfoMap = new HashMap<Integer, BufferedFileHandle>();
+        executor = Executors.newCachedThreadPool(threadFactory);
+        this.fileInfoMap = fileInfoMap;
         virtualFiles = new HashSet<Integer>();
         cleanerThread = new CleanerThread();
         executor.execute(cleanerThread);
+        // read-aheads get their own threads, and are dropped rather than queued without bound
+        readAheadExecutor = new ThreadPoolExecutor(READ_AHEAD_THREADS, READ_AHEAD_THREADS, READ_AHEAD_KEEP_ALIVE_SECS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(MAX_PENDING_READ_AHEADS), threadFactory);
+        readAheadExecutor.allowCoreThreadTimeOut(true);
         closed = false;
 
         fifoWriter = new AsyncFIFOPageQueueManager(this);
@@ -164,6 +190,107 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         return cPage;
     }
 
+    @Override
+    public ICachedPage pinAsync(long dpid) throws HyracksDataException {
+        CachedPage cPage = findPage(dpid, false);
+        pageReplacementStrategy.notifyCachePageAccess(cPage);
+        if (!cPage.valid) {
+            ReadAheadPin pin = null;
+            synchronized (cPage) {
+                if (!cPage.valid && cPage.pendingRead == null) {
+                    pin = new ReadAheadPin(cPage);
+                    cPage.pendingRead = pin;
+                }
+            }
+            if (pin != null) {
+                try {
+                    readAheadExecutor.execute(pin);
+                    return pin;
+                } catch (RejectedExecutionException e) {
+                    // too many reads are pending, pin() reads the page when it is needed
+                    synchronized (cPage) {
+                        cPage.pendingRead = null;
+                    }
+                }
+            }
+        }
+        return cPage;
+    }
+
+    /**
+     * The pin taken by pinAsync() on a page whose read it scheduled, which is also the read itself. The read is
+     * skipped if the page was read by pin() in the meantime, or if this pin was released before the reader got
+     * to it. Unpinning any other pin of the page leaves the read alone.
+     */
+    private class ReadAheadPin implements ICachedPage, Runnable {
+        private final CachedPage cPage;
+
+        ReadAheadPin(CachedPage cPage) {
+            this.cPage = cPage;
+        }
+
+        @Override
+        public ByteBuffer getBuffer() {
+            return cPage.getBuffer();
+        }
+
+        @Override
+        public void acquireReadLatch() {
+            cPage.acquireReadLatch();
+        }
+
+        @Override
+        public void releaseReadLatch() {
+            cPage.releaseReadLatch();
+        }
+
+        @Override
+        public void acquireWriteLatch() {
+            cPage.acquireWriteLatch();
+        }
+
+        @Override
+        public void releaseWriteLatch(boolean markDirty) {
+            cPage.releaseWriteLatch(markDirty);
+        }
+
+        @Override
+        public boolean confiscated() {
+            return cPage.confiscated();
+        }
+
+        @Override
+        public IQueueInfo getQueueInfo() {
+            return cPage.getQueueInfo();
+        }
+
+        @Override
+        public void setQueueInfo(IQueueInfo queueInfo) {
+            cPage.setQueueInfo(queueInfo);
+        }
+
+        @Override
+        public void run() {
+            synchronized (cPage) {
+                if (cPage.pendingRead != this) {
+                    return;
+                }
+                cPage.pendingRead = null;
+                if (!cPage.valid) {
+                    try {
+                        read(cPage);
+                        cPage.valid = true;
+                    } catch (HyracksDataException e) {
+                        // leave the page invalid, pin() will retry the read and report the failure
+                        if (LOGGER.isLoggable(Level.WARNING)) {
+                            LOGGER.log(Level.WARNING, "Asynchronous read of page " + cPage.dpid + " failed", e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException {
         // Calling the pinSanityCheck should be used only for debugging, since
@@ -212,9 +339,9 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         return virtPage.confiscated.get();
     }
 
-    private CachedPage findPage(long dpid, boolean virtual) throws HyracksDataException {
+    CachedPage findPage(long dpid, boolean virtual) throws HyracksDataException {
         while (true) {
-            int startCleanedCount = cleanerThread.cleanedCount;
+            int startCleanedCount = getCleanedCount();
 
             CachedPage cPage = null;
             /*
@@ -417,27 +544,39 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     return victim;
                 }
             }
-            synchronized (cleanerThread) {
-                pageCleanerPolicy.notifyVictimNotFound(cleanerThread);
-            }
-            // Heuristic optimization. Check whether the cleaner thread has
-            // cleaned pages since we did our last pin attempt.
-            if (cleanerThread.cleanedCount - startCleanedCount > MIN_CLEANED_COUNT_DIFF) {
-                // Don't go to sleep and wait for notification from the cleaner,
-                // just try to pin again immediately.
-                continue;
-            }
-            synchronized (cleanerThread.cleanNotification) {
-                try {
-                    cleanerThread.cleanNotification.wait(PIN_MAX_WAIT_TIME);
-                } catch (InterruptedException e) {
-                    // Do nothing
-                }
+            awaitCleanerProgress(startCleanedCount);
+        }
+    }
+
+    int getCleanedCount() {
+        return cleanerThread.cleanedCount;
+    }
+
+    /**
+     * Called when no victim could be found. Kicks the cleaner thread and waits (bounded) for it to
+     * clean pages, unless it has already cleaned some since startCleanedCount was sampled.
+     */
+    void awaitCleanerProgress(int startCleanedCount) throws HyracksDataException {
+        synchronized (cleanerThread) {
+            pageCleanerPolicy.notifyVictimNotFound(cleanerThread);
+        }
+        // Heuristic optimization. Check whether the cleaner thread has
+        // cleaned pages since we did our last pin attempt.
+        if (cleanerThread.cleanedCount - startCleanedCount > MIN_CLEANED_COUNT_DIFF) {
+            // Don't go to sleep and wait for notification from the cleaner,
+            // just try to pin again immediately.
+            return;
+        }
+        synchronized (cleanerThread.cleanNotification) {
+            try {
+                cleanerThread.cleanNotification.wait(PIN_MAX_WAIT_TIME);
+            } catch (InterruptedException e) {
+                // Do nothing
             }
         }
     }
 
-    private String dumpState() {
+    String dumpState() {
         StringBuilder buffer = new StringBuilder();
         buffer.append("Buffer cache state\n");
         buffer.append("Page Size: ").append(pageSize).append('\n');
@@ -505,7 +644,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         return true;
     }
 
-    private boolean canFindValidCachedPage(long dpid){
+    boolean canFindValidCachedPage(long dpid){
         int hash = hash(dpid);
         CachedPage cPage = null;
         CacheBucket bucket = pageMap[hash];
@@ -567,7 +706,19 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         if(DEBUG){
             pinnedPageOwner.remove(page);
         }
-        ((CachedPage) page).pinCount.decrementAndGet();
+        CachedPage cPage;
+        if (page instanceof ReadAheadPin) {
+            cPage = ((ReadAheadPin) page).cPage;
+            // cancel the read if it has not started yet, or wait for it to finish before the page can be evicted
+            synchronized (cPage) {
+                if (cPage.pendingRead == page) {
+                    cPage.pendingRead = null;
+                }
+            }
+        } else {
+            cPage = (CachedPage) page;
+        }
+        cPage.pinCount.decrementAndGet();
     }
 
     private int hash(long dpid) {
@@ -682,6 +833,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     @Override
     public void close() {
         closed = true;
+        readAheadExecutor.shutdownNow();
         fifoWriter.destroyQueue();
         synchronized (cleanerThread) {
             cleanerThread.shutdownStart = true;
@@ -784,7 +936,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
-    private void sweepAndFlush(int fileId, boolean flushDirtyPages) throws HyracksDataException {
+    void sweepAndFlush(int fileId, boolean flushDirtyPages) throws HyracksDataException {
         for (int i = 0; i < pageMap.length; ++i) {
             final CacheBucket bucket = pageMap[i];
             bucket.bucketLock.lock();
@@ -816,7 +968,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         }
     }
 
-    private boolean invalidateIfFileIdMatch(int fileId, CachedPage cPage, boolean flushDirtyPages)
+    boolean invalidateIfFileIdMatch(int fileId, CachedPage cPage, boolean flushDirtyPages)
             throws HyracksDataException {
         if (BufferedFileHandle.getFileId(cPage.dpid) == fileId) {
             int pinCount = -1;
@@ -982,7 +1134,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     @Override
     public ICachedPage confiscatePage(long dpid) throws HyracksDataException {
         while (true) {
-            int startCleanedCount = cleanerThread.cleanedCount;
+            int startCleanedCount = getCleanedCount();
             ICachedPage returnPage = null;
             CachedPage victim = (CachedPage) pageReplacementStrategy.findVictim();
             if (victim != null) {
@@ -1069,23 +1221,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 return returnPage;
             }
             // no page available to confiscate. try kicking the cleaner thread.
-            synchronized (cleanerThread) {
-                pageCleanerPolicy.notifyVictimNotFound(cleanerThread);
-            }
-            // Heuristic optimization. Check whether the cleaner thread has
-            // cleaned pages since we did our last pin attempt.
-            if (cleanerThread.cleanedCount - startCleanedCount > MIN_CLEANED_COUNT_DIFF) {
-                // Don't go to sleep and wait for notification from the cleaner,
-                // just try to pin again immediately.
-                continue;
-            }
-            synchronized (cleanerThread.cleanNotification) {
-                try {
-                    cleanerThread.cleanNotification.wait(PIN_MAX_WAIT_TIME);
-                } catch (InterruptedException e) {
-                    // Do nothing
-                }
-            }
+            awaitCleanerProgress(startCleanedCount);
         }
     }
 
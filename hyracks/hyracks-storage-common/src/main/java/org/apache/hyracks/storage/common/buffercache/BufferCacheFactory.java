@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.replication.IIOReplicationManager;
+import org.apache.hyracks.storage.common.file.IFileMapManager;
+
+/**
+ * Creates the buffer cache implementation named by the NC's -buffer-cache-type option and the page
+ * replacement strategy named by its -buffer-cache-replacement-policy option.
+ */
+public class BufferCacheFactory {
+    public static final String DEFAULT = "default";
+    public static final String LOCK_FREE = "lock-free";
+
+    public static final String CLOCK = "clock";
+    public static final String TWO_QUEUE = "2q";
+
+    private BufferCacheFactory() {
+    }
+
+    public static BufferCache createBufferCache(String type, IIOManager ioManager,
+            IPageReplacementStrategy pageReplacementStrategy, IPageCleanerPolicy pageCleanerPolicy,
+            IFileMapManager fileMapManager, int maxOpenFiles, ThreadFactory threadFactory,
+            IIOReplicationManager ioReplicationManager) {
+        if (type == null || DEFAULT.equals(type)) {
+            return new BufferCache(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager,
+                    maxOpenFiles, threadFactory, ioReplicationManager);
+        } else if (LOCK_FREE.equals(type)) {
+            return new LockFreeBufferCache(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager,
+                    maxOpenFiles, threadFactory, ioReplicationManager);
+        }
+        throw new IllegalArgumentException("Unknown buffer cache type: " + type);
+    }
+
+    public static IPageReplacementStrategy createPageReplacementStrategy(String policy,
+            ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages) {
+        if (policy == null || CLOCK.equals(policy)) {
+            return new ClockPageReplacementStrategy(allocator, pageSize, maxAllowedNumPages);
+        } else if (TWO_QUEUE.equals(policy)) {
+            return new TwoQueuePageReplacementStrategy(allocator, pageSize, maxAllowedNumPages);
+        }
+        throw new IllegalArgumentException("Unknown page replacement policy: " + policy);
+    }
+}
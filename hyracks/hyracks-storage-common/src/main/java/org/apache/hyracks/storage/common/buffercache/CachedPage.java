@@ -37,6 +37,8 @@ public class CachedPage implements ICachedPageInternal {
     volatile long dpid; // disk page id (composed of file id and page id)
     CachedPage next;
     volatile boolean valid;
+    // read issued by pinAsync() that has not run yet, guarded by the page's monitor
+    volatile Runnable pendingRead;
     final AtomicBoolean confiscated;
     private IQueueInfo queueInfo;
 
@@ -87,6 +87,13 @@ public class DebugBufferCache implements IBufferCache {
         return page;
     }
 
+    @Override
+    public ICachedPage pinAsync(long dpid) throws HyracksDataException {
+        ICachedPage page = bufferCache.pinAsync(dpid);
+        pinCount.addAndGet(1);
+        return page;
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
         bufferCache.unpin(page);
@@ -44,6 +44,15 @@ public interface IBufferCache {
 
     public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException;
 
+    /**
+     * Pins a page without waiting for it to be read from disk. If the page is not cached, its read is handed
+     * to the buffer cache's read-ahead executor, or skipped if too many reads are pending. Pinning the page
+     * again with {@link #pin(long, boolean)} returns once the page has been read. Unpinning the returned pin
+     * cancels the read if it has not started yet, while other pins of the page leave it alone, so the returned
+     * page must only be unpinned. This is meant for read-ahead by sequential scans.
+     */
+    public ICachedPage pinAsync(long dpid) throws HyracksDataException;
+
     public void unpin(ICachedPage page) throws HyracksDataException;
 
     public void flushDirtyPage(ICachedPage page) throws HyracksDataException;
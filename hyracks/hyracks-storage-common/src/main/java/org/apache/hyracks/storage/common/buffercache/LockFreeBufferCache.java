@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.replication.IIOReplicationManager;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapManager;
+
+/**
+ * A buffer cache whose pin/tryPin hit path takes no locks.
+ * Pages are looked up in a {@link LockFreePageTable} and pinned optimistically, open file handles are kept
+ * in a concurrent map so that read-side lookups skip the fileInfoMap monitor, and cached pages are indexed
+ * by cpid in an array instead of a synchronized list. File lifecycle operations (open, close, delete) keep
+ * the synchronization of {@link BufferCache}.
+ */
+public class LockFreeBufferCache extends BufferCache {
+    private final LockFreePageTable pageTable;
+    private final AtomicReferenceArray<ICachedPageInternal> pages;
+
+    public LockFreeBufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
+            IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
+            ThreadFactory threadFactory) {
+        super(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager, maxOpenFiles, threadFactory,
+                new ConcurrentHashMap<Integer, BufferedFileHandle>(), 0);
+        pageTable = new LockFreePageTable(pageReplacementStrategy.getMaxAllowedNumPages());
+        pages = new AtomicReferenceArray<ICachedPageInternal>(pageReplacementStrategy.getMaxAllowedNumPages());
+    }
+
+    //this constructor is used when replication is enabled to pass the IIOReplicationManager
+    public LockFreeBufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
+            IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
+            ThreadFactory threadFactory, IIOReplicationManager ioReplicationManager) {
+        this(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager, maxOpenFiles, threadFactory);
+        this.ioReplicationManager = ioReplicationManager;
+    }
+
+    @Override
+    public ICachedPage tryPin(long dpid) throws HyracksDataException {
+        CachedPage cPage = pageTable.pin(dpid);
+        if (cPage != null) {
+            pageReplacementStrategy.notifyCachePageAccess(cPage);
+        }
+        return cPage;
+    }
+
+    @Override
+    CachedPage findPage(long dpid, boolean virtual) throws HyracksDataException {
+        while (true) {
+            int startCleanedCount = getCleanedCount();
+            CachedPage cPage = pageTable.pin(dpid);
+            if (cPage != null) {
+                return cPage;
+            }
+            CachedPage victim = (CachedPage) pageReplacementStrategy.findVictim();
+            if (victim != null) {
+                cPage = pageTable.install(victim, dpid);
+                if (cPage != null) {
+                    return cPage;
+                }
+                // The victim got pinned by someone else; look for another one.
+                continue;
+            }
+            awaitCleanerProgress(startCleanedCount);
+        }
+    }
+
+    @Override
+    public ICachedPage confiscatePage(long dpid) throws HyracksDataException {
+        while (true) {
+            int startCleanedCount = getCleanedCount();
+            CachedPage victim = (CachedPage) pageReplacementStrategy.findVictim();
+            if (victim != null) {
+                boolean detached;
+                if (victim.dpid < 0) {
+                    detached = victim.pinCount.get() == 1;
+                    if (!detached) {
+                        victim.pinCount.decrementAndGet();
+                    }
+                } else {
+                    detached = pageTable.detach(victim);
+                }
+                if (detached) {
+                    victim.dpid = dpid;
+                    victim.confiscated.set(true);
+                    return victim;
+                }
+                continue;
+            }
+            // no page available to confiscate. try kicking the cleaner thread.
+            awaitCleanerProgress(startCleanedCount);
+        }
+    }
+
+    @Override
+    public void returnPage(ICachedPage page, boolean reinsert) {
+        CachedPage cPage = (CachedPage) page;
+        if (!page.confiscated()) {
+            return;
+        }
+        if (reinsert) {
+            cPage.reset(cPage.dpid);
+            cPage.valid = true;
+            pageTable.put(cPage);
+        } else {
+            cPage.invalidate();
+        }
+        cPage.pinCount.decrementAndGet();
+        pageReplacementStrategy.adviseWontNeed(cPage);
+    }
+
+    @Override
+    void sweepAndFlush(int fileId, boolean flushDirtyPages) throws HyracksDataException {
+        List<CachedPage> removed = pageTable.removeFile(fileId);
+        for (CachedPage cPage : removed) {
+            invalidateIfFileIdMatch(fileId, cPage, flushDirtyPages);
+        }
+    }
+
+    @Override
+    boolean canFindValidCachedPage(long dpid) {
+        return pageTable.contains(dpid);
+    }
+
+    @Override
+    String dumpState() {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("Buffer cache state\n");
+        buffer.append("Page Size: ").append(getPageSize()).append('\n');
+        buffer.append("Number of physical pages: ").append(getNumPages()).append('\n');
+        buffer.append("Page table capacity: ").append(pageTable.capacity()).append('\n');
+        buffer.append("Page Table:\n");
+        buffer.append("cpid -> [fileId:pageId, pinCount, valid/invalid, confiscated/physical, dirty/clean]\n");
+        List<CachedPage> snapshot = pageTable.snapshot();
+        for (CachedPage cp : snapshot) {
+            buffer.append("      ").append(cp.cpid).append(" -> [").append(BufferedFileHandle.getFileId(cp.dpid))
+                    .append(':').append(BufferedFileHandle.getPageId(cp.dpid)).append(", ")
+                    .append(cp.pinCount.get()).append(", ").append(cp.valid ? "valid" : "invalid").append(", ")
+                    .append(cp.confiscated.get() ? "confiscated" : "physical").append(", ")
+                    .append(cp.dirty.get() ? "dirty" : "clean").append("]\n");
+        }
+        buffer.append("Number of cached pages: ").append(snapshot.size()).append('\n');
+        return buffer.toString();
+    }
+
+    @Override
+    BufferedFileHandle getFileInfo(int fileId) throws HyracksDataException {
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
+        if (fInfo == null) {
+            throw new HyracksDataException("No such file mapped");
+        }
+        return fInfo;
+    }
+
+    @Override
+    public void force(int fileId, boolean metadata) throws HyracksDataException {
+        ioManager.sync(getFileInfo(fileId).getFileHandle(), metadata);
+    }
+
+    @Override
+    public int getFileReferenceCount(int fileId) {
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
+        return fInfo != null ? fInfo.getReferenceCount() : 0;
+    }
+
+    @Override
+    public int getNumPagesOfFile(int fileId) throws HyracksDataException {
+        BufferedFileHandle fInfo = fileInfoMap.get(fileId);
+        if (fInfo == null) {
+            throw new HyracksDataException("No such file mapped for fileId:" + fileId);
+        }
+        return (int) (ioManager.getSize(fInfo.getFileHandle()) / getPageSize());
+    }
+
+    @Override
+    public ICachedPageInternal getPage(int cpid) {
+        return pages.get(cpid);
+    }
+
+    @Override
+    public void addPage(ICachedPageInternal page) {
+        super.addPage(page);
+        pages.set(page.getCachedPageId(), page);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * Open-addressing (linear probing) dpid -> CachedPage table.
+ * Lookups take no locks: a reader finds the slot, optimistically increments the pin count and then
+ * re-validates the dpid. All structural changes (insert, remove, re-keying a victim) are serialized by a
+ * single writer lock; they happen only on the miss path, which is dominated by disk I/O anyway.
+ * A writer that re-keys a page first swings its pin count from 1 to {@link #EVICTING}, so a concurrent
+ * optimistic pin either happens before (and makes the writer back off) or observes a negative count and
+ * fails. Deletion uses backward shifting instead of tombstones; a reader racing with a shift may miss an
+ * entry, which is detected through the modification stamp and retried.
+ */
+class LockFreePageTable {
+    static final int EVICTING = Integer.MIN_VALUE / 2;
+
+    private final AtomicReferenceArray<CachedPage> slots;
+    private final int mask;
+    private final ReentrantLock writeLock;
+    // Odd while a structural change is in progress, even otherwise.
+    private final AtomicInteger stamp;
+
+    LockFreePageTable(int numPages) {
+        int capacity = Integer.highestOneBit(Math.max(numPages, 1) * 2 - 1) << 1;
+        slots = new AtomicReferenceArray<CachedPage>(capacity);
+        mask = capacity - 1;
+        writeLock = new ReentrantLock();
+        stamp = new AtomicInteger();
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    private int home(long dpid) {
+        long h = dpid * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Pins and returns the page mapped to dpid, or returns null if no such page is cached.
+     */
+    CachedPage pin(long dpid) {
+        while (true) {
+            int startStamp = stamp.get();
+            int idx = home(dpid);
+            for (int probes = 0; probes <= mask; ++probes, idx = (idx + 1) & mask) {
+                CachedPage cPage = slots.get(idx);
+                if (cPage == null) {
+                    break;
+                }
+                if (cPage.dpid != dpid) {
+                    continue;
+                }
+                if (tryPin(cPage, dpid)) {
+                    return cPage;
+                }
+                // The page is being re-keyed. Treat it as a miss; the miss path re-checks under the write lock.
+                return null;
+            }
+            if ((startStamp & 1) == 0 && stamp.get() == startStamp) {
+                return null;
+            }
+            Thread.yield();
+        }
+    }
+
+    private static boolean tryPin(CachedPage cPage, long dpid) {
+        if (cPage.pinCount.incrementAndGet() > 0 && cPage.dpid == dpid) {
+            return true;
+        }
+        cPage.pinCount.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Maps dpid to the pinned victim unless another page already holds dpid, in which case that winner is
+     * pinned and returned and the victim's pin is released. Returns null if the victim was pinned by someone
+     * else in the meantime; the caller must then pick a new victim.
+     */
+    CachedPage install(CachedPage victim, long dpid) {
+        writeLock.lock();
+        try {
+            int winnerIdx = find(dpid);
+            if (winnerIdx >= 0) {
+                CachedPage winner = slots.get(winnerIdx);
+                winner.pinCount.incrementAndGet();
+                victim.pinCount.decrementAndGet();
+                return winner;
+            }
+            if (victim.dpid < 0) {
+                victim.reset(dpid);
+                beginUpdate();
+                try {
+                    insert(victim);
+                } finally {
+                    endUpdate();
+                }
+                return victim;
+            }
+            if (!victim.pinCount.compareAndSet(1, EVICTING)) {
+                victim.pinCount.decrementAndGet();
+                return null;
+            }
+            beginUpdate();
+            try {
+                remove(victim);
+                victim.reset(dpid);
+                insert(victim);
+            } finally {
+                endUpdate();
+                victim.pinCount.addAndGet(1 - EVICTING);
+            }
+            return victim;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Unmaps a pinned victim so that it can be confiscated. Returns false if the victim was pinned by
+     * someone else in the meantime.
+     */
+    boolean detach(CachedPage victim) {
+        writeLock.lock();
+        try {
+            if (!victim.pinCount.compareAndSet(1, EVICTING)) {
+                victim.pinCount.decrementAndGet();
+                return false;
+            }
+            beginUpdate();
+            try {
+                remove(victim);
+                victim.dpid = -1;
+            } finally {
+                endUpdate();
+                victim.pinCount.addAndGet(1 - EVICTING);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Maps the page under its current dpid, replacing any page previously mapped to it.
+     */
+    void put(CachedPage cPage) {
+        writeLock.lock();
+        try {
+            beginUpdate();
+            try {
+                int idx = find(cPage.dpid);
+                if (idx >= 0) {
+                    slots.set(idx, cPage);
+                } else {
+                    insert(cPage);
+                }
+            } finally {
+                endUpdate();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    boolean contains(long dpid) {
+        writeLock.lock();
+        try {
+            return find(dpid) >= 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Unmaps and returns all pages belonging to fileId.
+     */
+    List<CachedPage> removeFile(int fileId) {
+        List<CachedPage> removed = new ArrayList<CachedPage>();
+        writeLock.lock();
+        try {
+            for (int i = 0; i <= mask; ++i) {
+                CachedPage cPage = slots.get(i);
+                if (cPage != null && BufferedFileHandle.getFileId(cPage.dpid) == fileId) {
+                    removed.add(cPage);
+                }
+            }
+            beginUpdate();
+            try {
+                for (CachedPage cPage : removed) {
+                    remove(cPage);
+                }
+            } finally {
+                endUpdate();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a snapshot of the mapped pages for diagnostics.
+     */
+    List<CachedPage> snapshot() {
+        List<CachedPage> pages = new ArrayList<CachedPage>();
+        writeLock.lock();
+        try {
+            for (int i = 0; i <= mask; ++i) {
+                CachedPage cPage = slots.get(i);
+                if (cPage != null) {
+                    pages.add(cPage);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return pages;
+    }
+
+    private void beginUpdate() {
+        stamp.incrementAndGet();
+    }
+
+    private void endUpdate() {
+        stamp.incrementAndGet();
+    }
+
+    // Must hold writeLock.
+    private int find(long dpid) {
+        int idx = home(dpid);
+        for (int probes = 0; probes <= mask; ++probes, idx = (idx + 1) & mask) {
+            CachedPage cPage = slots.get(idx);
+            if (cPage == null) {
+                return -1;
+            }
+            if (cPage.dpid == dpid) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    // Must hold writeLock and be inside beginUpdate()/endUpdate().
+    private void insert(CachedPage cPage) {
+        int idx = home(cPage.dpid);
+        for (int probes = 0; probes <= mask; ++probes, idx = (idx + 1) & mask) {
+            if (slots.get(idx) == null) {
+                slots.set(idx, cPage);
+                return;
+            }
+        }
+        throw new IllegalStateException("Page table is full");
+    }
+
+    // Must hold writeLock and be inside beginUpdate()/endUpdate(). The page's dpid must still be the one it
+    // was inserted under.
+    private void remove(CachedPage cPage) {
+        int idx = home(cPage.dpid);
+        int probes = 0;
+        while (slots.get(idx) != cPage) {
+            if (slots.get(idx) == null || ++probes > mask) {
+                // Not mapped, e.g. shadowed by a later put() of the same dpid.
+                return;
+            }
+            idx = (idx + 1) & mask;
+        }
+        // Backward-shift deletion (Knuth, Algorithm R).
+        int hole = idx;
+        int next = (hole + 1) & mask;
+        while (true) {
+            CachedPage moved = slots.get(next);
+            if (moved == null) {
+                break;
+            }
+            int movedHome = home(moved.dpid);
+            boolean stays = hole <= next ? (hole < movedHome && movedHome <= next)
+                    : (hole < movedHome || movedHome <= next);
+            if (!stays) {
+                slots.set(hole, moved);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots.set(hole, null);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.replication.IIOReplicationManager;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+
+/**
+ * A buffer cache that serves the pages of files registered with {@link #mapFile(int)} from a read-only memory
+ * mapping of the file instead of from the buffer cache it wraps. Everything else is delegated.
+ * Only files that are never modified again, such as validated LSM disk components, may be mapped. Their pages do
+ * not occupy buffer cache pages, so reading them puts no eviction pressure on the rest of the cache.
+ * Tuple references access page contents through ByteBuffer.array(), so a pinned page is a pooled heap buffer
+ * that the mapped page is copied into rather than the mapping itself.
+ */
+public class MappedFileBufferCache implements IBufferCache {
+    private static final long MAX_REGION_SIZE = 1L << 30;
+    private static final int MAX_FREE_PAGES = 256;
+
+    private final IBufferCache bufferCache;
+    private final IFileMapProvider fileMapProvider;
+    private final int pageSize;
+    private final Map<Integer, MappedFile> mappedFiles;
+    private final ConcurrentLinkedQueue<MappedPage> freePages;
+    private final AtomicInteger numFreePages;
+
+    public MappedFileBufferCache(IBufferCache bufferCache, IFileMapProvider fileMapProvider) {
+        this.bufferCache = bufferCache;
+        this.fileMapProvider = fileMapProvider;
+        this.pageSize = bufferCache.getPageSize();
+        mappedFiles = new ConcurrentHashMap<Integer, MappedFile>();
+        freePages = new ConcurrentLinkedQueue<MappedPage>();
+        numFreePages = new AtomicInteger();
+    }
+
+    private static class MappedFile {
+        final MappedByteBuffer[] regions;
+        final int pagesPerRegion;
+        final int numPages;
+
+        MappedFile(MappedByteBuffer[] regions, int pagesPerRegion, int numPages) {
+            this.regions = regions;
+            this.pagesPerRegion = pagesPerRegion;
+            this.numPages = numPages;
+        }
+    }
+
+    /**
+     * Maps an open file that will not be modified anymore. Its pages are read from the mapping until the file is
+     * closed for the last time, deleted, or unmapped.
+     */
+    public void mapFile(int fileId) throws HyracksDataException {
+        FileReference fileRef = fileMapProvider.lookupFileName(fileId);
+        int pagesPerRegion = (int) (MAX_REGION_SIZE / pageSize);
+        try (RandomAccessFile raf = new RandomAccessFile(fileRef.getFile(), "r")) {
+            FileChannel channel = raf.getChannel();
+            int numPages = (int) (channel.size() / pageSize);
+            MappedByteBuffer[] regions = new MappedByteBuffer[(numPages + pagesPerRegion - 1) / pagesPerRegion];
+            for (int i = 0; i < regions.length; i++) {
+                long start = (long) i * pagesPerRegion * pageSize;
+                long size = Math.min((long) pagesPerRegion, numPages - (long) i * pagesPerRegion) * pageSize;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            }
+            // the mapping stays valid after the channel is closed
+            mappedFiles.put(fileId, new MappedFile(regions, pagesPerRegion, numPages));
+        } catch (IOException e) {
+            throw new HyracksDataException(e);
+        }
+    }
+
+    public void unmapFile(int fileId) {
+        mappedFiles.remove(fileId);
+    }
+
+    public boolean isMapped(int fileId) {
+        return mappedFiles.containsKey(fileId);
+    }
+
+    public int getNumMappedFiles() {
+        return mappedFiles.size();
+    }
+
+    private ICachedPage pinMapped(long dpid) {
+        MappedFile file = mappedFiles.get(BufferedFileHandle.getFileId(dpid));
+        if (file == null) {
+            return null;
+        }
+        int pageId = BufferedFileHandle.getPageId(dpid);
+        if (pageId < 0 || pageId >= file.numPages) {
+            return null;
+        }
+        MappedPage page = freePages.poll();
+        if (page == null) {
+            page = new MappedPage(pageSize);
+        } else {
+            numFreePages.decrementAndGet();
+        }
+        page.dpid = dpid;
+        ByteBuffer region = file.regions[pageId / file.pagesPerRegion].duplicate();
+        int offset = (pageId % file.pagesPerRegion) * pageSize;
+        region.limit(offset + pageSize);
+        region.position(offset);
+        ByteBuffer buffer = page.getBuffer();
+        buffer.clear();
+        buffer.put(region);
+        buffer.clear();
+        return page;
+    }
+
+    @Override
+    public ICachedPage tryPin(long dpid) throws HyracksDataException {
+        ICachedPage page = pinMapped(dpid);
+        return page != null ? page : bufferCache.tryPin(dpid);
+    }
+
+    @Override
+    public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException {
+        ICachedPage page = newPage ? null : pinMapped(dpid);
+        return page != null ? page : bufferCache.pin(dpid, newPage);
+    }
+
+    @Override
+    public ICachedPage pinAsync(long dpid) throws HyracksDataException {
+        ICachedPage page = pinMapped(dpid);
+        return page != null ? page : bufferCache.pinAsync(dpid);
+    }
+
+    @Override
+    public void unpin(ICachedPage page) throws HyracksDataException {
+        if (page instanceof MappedPage) {
+            if (numFreePages.incrementAndGet() <= MAX_FREE_PAGES) {
+                freePages.offer((MappedPage) page);
+            } else {
+                numFreePages.decrementAndGet();
+            }
+            return;
+        }
+        bufferCache.unpin(page);
+    }
+
+    @Override
+    public void flushDirtyPage(ICachedPage page) throws HyracksDataException {
+        if (!(page instanceof MappedPage)) {
+            bufferCache.flushDirtyPage(page);
+        }
+    }
+
+    @Override
+    public void adviseWontNeed(ICachedPage page) {
+        if (!(page instanceof MappedPage)) {
+            bufferCache.adviseWontNeed(page);
+        }
+    }
+
+    @Override
+    public void createFile(FileReference fileRef) throws HyracksDataException {
+        bufferCache.createFile(fileRef);
+    }
+
+    @Override
+    public int createMemFile() throws HyracksDataException {
+        return bufferCache.createMemFile();
+    }
+
+    @Override
+    public void openFile(int fileId) throws HyracksDataException {
+        bufferCache.openFile(fileId);
+    }
+
+    @Override
+    public void closeFile(int fileId) throws HyracksDataException {
+        bufferCache.closeFile(fileId);
+        if (bufferCache.getFileReferenceCount(fileId) == 0) {
+            unmapFile(fileId);
+        }
+    }
+
+    @Override
+    public void deleteFile(int fileId, boolean flushDirtyPages) throws HyracksDataException {
+        unmapFile(fileId);
+        bufferCache.deleteFile(fileId, flushDirtyPages);
+    }
+
+    @Override
+    public void deleteMemFile(int fileId) throws HyracksDataException {
+        bufferCache.deleteMemFile(fileId);
+    }
+
+    @Override
+    public ICachedPage confiscatePage(long dpid) throws HyracksDataException {
+        return bufferCache.confiscatePage(dpid);
+    }
+
+    @Override
+    public void returnPage(ICachedPage page) {
+        bufferCache.returnPage(page);
+    }
+
+    @Override
+    public void returnPage(ICachedPage page, boolean reinsert) {
+        bufferCache.returnPage(page, reinsert);
+    }
+
+    @Override
+    public void force(int fileId, boolean metadata) throws HyracksDataException {
+        bufferCache.force(fileId, metadata);
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public int getNumPages() {
+        return bufferCache.getNumPages();
+    }
+
+    @Override
+    public int getNumPagesOfFile(int fileId) throws HyracksDataException {
+        return bufferCache.getNumPagesOfFile(fileId);
+    }
+
+    @Override
+    public int getFileReferenceCount(int fileId) {
+        return bufferCache.getFileReferenceCount(fileId);
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        mappedFiles.clear();
+        bufferCache.close();
+    }
+
+    @Override
+    public IFIFOPageQueue createFIFOQueue() {
+        return bufferCache.createFIFOQueue();
+    }
+
+    @Override
+    public void finishQueue() {
+        bufferCache.finishQueue();
+    }
+
+    @Override
+    public void copyPage(ICachedPage src, ICachedPage dst) {
+        if (src instanceof MappedPage) {
+            System.arraycopy(src.getBuffer().array(), 0, dst.getBuffer().array(), 0, pageSize);
+            return;
+        }
+        bufferCache.copyPage(src, dst);
+    }
+
+    @Override
+    public void setPageDiskId(ICachedPage page, long dpid) {
+        bufferCache.setPageDiskId(page, dpid);
+    }
+
+    @Override
+    public boolean isReplicationEnabled() {
+        return bufferCache.isReplicationEnabled();
+    }
+
+    @Override
+    public IIOReplicationManager getIOReplicationManager() {
+        return bufferCache.getIOReplicationManager();
+    }
+
+    @Override
+    public void purgeHandle(int fileId) throws HyracksDataException {
+        unmapFile(fileId);
+        bufferCache.purgeHandle(fileId);
+    }
+}
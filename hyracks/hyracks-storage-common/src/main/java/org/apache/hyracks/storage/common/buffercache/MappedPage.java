@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only page of a memory-mapped file, handed out by {@link MappedFileBufferCache}.
+ * The page is never modified nor evicted, so latching is a no-op and write latches are refused.
+ */
+class MappedPage implements ICachedPage {
+    private final ByteBuffer buffer;
+    long dpid;
+
+    MappedPage(int pageSize) {
+        buffer = ByteBuffer.allocate(pageSize);
+    }
+
+    @Override
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void acquireReadLatch() {
+    }
+
+    @Override
+    public void releaseReadLatch() {
+    }
+
+    @Override
+    public void acquireWriteLatch() {
+        throw new IllegalStateException("Page " + dpid + " belongs to an immutable mapped file");
+    }
+
+    @Override
+    public void releaseWriteLatch(boolean markDirty) {
+        throw new IllegalStateException("Page " + dpid + " belongs to an immutable mapped file");
+    }
+
+    @Override
+    public boolean confiscated() {
+        return false;
+    }
+
+    @Override
+    public IQueueInfo getQueueInfo() {
+        return null;
+    }
+
+    @Override
+    public void setQueueInfo(IQueueInfo queueInfo) {
+        throw new IllegalStateException("Page " + dpid + " belongs to an immutable mapped file");
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Slows down the page writes of a thread through {@link IFIFOPageQueue}s. A throttle is bound to the thread that
+ * writes, so that the writes of a background operation, e.g. an LSM merge, can be limited without limiting the other
+ * writers of the buffer cache.
+ */
+public abstract class PageWriteThrottle {
+    private static final ThreadLocal<PageWriteThrottle> THROTTLE = new ThreadLocal<PageWriteThrottle>();
+
+    /**
+     * Bind a throttle to the current thread, until {@link #unbind()} is called.
+     */
+    public static void bind(PageWriteThrottle throttle) {
+        THROTTLE.set(throttle);
+    }
+
+    public static void unbind() {
+        THROTTLE.remove();
+    }
+
+    /**
+     * @return the throttle bound to the current thread, or null, e.g. to bind it to the helper threads of the thread
+     */
+    public static PageWriteThrottle get() {
+        return THROTTLE.get();
+    }
+
+    /**
+     * Called before the current thread writes a page, blocks as long as the throttle bound to the thread decides.
+     *
+     * @param numBytes
+     *            the number of bytes about to be written
+     */
+    public static void throttle(int numBytes) throws HyracksDataException {
+        PageWriteThrottle throttle = THROTTLE.get();
+        if (throttle != null) {
+            throttle.beforeWrite(numBytes);
+        }
+    }
+
+    protected abstract void beforeWrite(int numBytes) throws HyracksDataException;
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scan-resistant, CLOCK-based approximation of 2Q.
+ * Pages enter the cache on probation. A probationary page that is accessed again while it is resident, or
+ * whose dpid is re-read shortly after being evicted from probation (it is remembered in a bounded ghost
+ * queue), becomes hot. The clock hand evicts probationary pages at their first visit and only demotes hot
+ * pages once the hot set exceeds its share of the cache, so a large scan or merge cycles through the
+ * probationary pages without displacing the hot set. adviseWontNeed() sends a page back to probation and
+ * is used by scans as an access-pattern hint.
+ */
+public class TwoQueuePageReplacementStrategy implements IPageReplacementStrategy {
+    private static final int MAX_UNSUCCESSFUL_CYCLE_COUNT = 3;
+    public static final double DEFAULT_HOT_FRACTION = 0.75;
+    public static final double DEFAULT_GHOST_FRACTION = 0.5;
+
+    private IBufferCacheInternal bufferCache;
+    private final AtomicInteger clockPtr;
+    private final ICacheMemoryAllocator allocator;
+    private final AtomicInteger numPages;
+    private final AtomicInteger cpIdCounter;
+    private final AtomicInteger numHotPages;
+    private final int pageSize;
+    private final int maxAllowedNumPages;
+    private final int maxHotPages;
+    private final int maxGhostEntries;
+    private final LinkedHashSet<Long> ghosts;
+
+    public TwoQueuePageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages) {
+        this(allocator, pageSize, maxAllowedNumPages, DEFAULT_HOT_FRACTION, DEFAULT_GHOST_FRACTION);
+    }
+
+    public TwoQueuePageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages,
+            double hotFraction, double ghostFraction) {
+        this.allocator = allocator;
+        this.pageSize = pageSize;
+        this.maxAllowedNumPages = maxAllowedNumPages;
+        this.maxHotPages = (int) (maxAllowedNumPages * hotFraction);
+        this.maxGhostEntries = (int) (maxAllowedNumPages * ghostFraction);
+        this.clockPtr = new AtomicInteger(0);
+        this.numPages = new AtomicInteger(0);
+        this.cpIdCounter = new AtomicInteger(0);
+        this.numHotPages = new AtomicInteger(0);
+        this.ghosts = new LinkedHashSet<Long>();
+    }
+
+    private static class PageState {
+        final AtomicBoolean referenced = new AtomicBoolean();
+        final AtomicBoolean hot = new AtomicBoolean();
+        // set until the access that brought the page into the cache
+        volatile boolean fresh;
+    }
+
+    @Override
+    public Object createPerPageStrategyObject(int cpid) {
+        return new PageState();
+    }
+
+    @Override
+    public void setBufferCache(IBufferCacheInternal bufferCache) {
+        this.bufferCache = bufferCache;
+    }
+
+    @Override
+    public void notifyCachePageReset(ICachedPageInternal cPage) {
+        PageState state = getPerPageObject(cPage);
+        state.referenced.set(false);
+        state.fresh = true;
+        demote(state);
+        long dpid = cPage.getDiskPageId();
+        if (dpid >= 0 && removeGhost(dpid)) {
+            // re-referenced shortly after being evicted from probation
+            promote(state);
+        }
+    }
+
+    @Override
+    public void notifyCachePageAccess(ICachedPageInternal cPage) {
+        PageState state = getPerPageObject(cPage);
+        if (state.fresh) {
+            state.fresh = false;
+            return;
+        }
+        if (!state.hot.get()) {
+            promote(state);
+        }
+        state.referenced.set(true);
+    }
+
+    @Override
+    public void adviseWontNeed(ICachedPageInternal cPage) {
+        PageState state = getPerPageObject(cPage);
+        demote(state);
+        state.referenced.set(false);
+    }
+
+    @Override
+    public ICachedPageInternal findVictim() {
+        ICachedPageInternal cachedPage = null;
+        if (numPages.get() >= maxAllowedNumPages) {
+            cachedPage = findVictimByEviction();
+        } else {
+            cachedPage = allocatePage();
+        }
+        return cachedPage;
+    }
+
+    private ICachedPageInternal findVictimByEviction() {
+        //check if we're starved from confiscation
+        assert (maxAllowedNumPages > 0);
+        int startClockPtr = clockPtr.get();
+        int cycleCount = 0;
+        do {
+            ICachedPageInternal cPage = bufferCache.getPage(clockPtr.get());
+            PageState state = getPerPageObject(cPage);
+            if (!state.referenced.compareAndSet(true, false)) {
+                if (state.hot.get()) {
+                    /*
+                     * Hot pages are demoted when the hot set outgrew its share. After two revolutions
+                     * without a probationary victim, we fall back to plain CLOCK and evict hot pages too.
+                     */
+                    if (numHotPages.get() > maxHotPages) {
+                        demote(state);
+                    } else if (cycleCount > 1) {
+                        demote(state);
+                        if (cPage.pinIfGoodVictim()) {
+                            return cPage;
+                        }
+                    }
+                } else if (cPage.pinIfGoodVictim()) {
+                    addGhost(cPage.getDiskPageId());
+                    return cPage;
+                }
+            }
+            advanceClock();
+            if (clockPtr.get() == startClockPtr) {
+                ++cycleCount;
+            }
+        } while (cycleCount < MAX_UNSUCCESSFUL_CYCLE_COUNT);
+        return null;
+    }
+
+    @Override
+    public int getNumPages() {
+        return numPages.get();
+    }
+
+    private ICachedPageInternal allocatePage() {
+        CachedPage cPage = new CachedPage(cpIdCounter.getAndIncrement(), allocator.allocate(pageSize, 1)[0], this);
+        bufferCache.addPage(cPage);
+        numPages.incrementAndGet();
+        if (cPage.pinIfGoodVictim()) {
+            return cPage;
+        }
+        return null;
+    }
+
+    private int advanceClock() {
+        boolean clockInDial = false;
+        int newClockPtr = 0;
+        do {
+            int currClockPtr = clockPtr.get();
+            newClockPtr = (currClockPtr + 1) % numPages.get();
+            clockInDial = clockPtr.compareAndSet(currClockPtr, newClockPtr);
+        } while (!clockInDial);
+        return newClockPtr;
+    }
+
+    private void promote(PageState state) {
+        if (state.hot.compareAndSet(false, true)) {
+            numHotPages.incrementAndGet();
+        }
+    }
+
+    private void demote(PageState state) {
+        if (state.hot.compareAndSet(true, false)) {
+            numHotPages.decrementAndGet();
+        }
+    }
+
+    private void addGhost(long dpid) {
+        if (dpid < 0 || maxGhostEntries <= 0) {
+            return;
+        }
+        synchronized (ghosts) {
+            ghosts.add(dpid);
+            if (ghosts.size() > maxGhostEntries) {
+                Iterator<Long> eldest = ghosts.iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private boolean removeGhost(long dpid) {
+        synchronized (ghosts) {
+            return ghosts.remove(dpid);
+        }
+    }
+
+    private PageState getPerPageObject(ICachedPageInternal cPage) {
+        return (PageState) cPage.getReplacementStrategyObject();
+    }
+
+    public int getNumHotPages() {
+        return numHotPages.get();
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public int getMaxAllowedNumPages() {
+        return maxAllowedNumPages;
+    }
+}
@@ -29,6 +29,7 @@ import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.api.resources.IDeallocatable;
+import org.apache.hyracks.api.resources.memory.IMemoryBroker;
 import org.apache.hyracks.control.nc.io.IOManager;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 import org.apache.hyracks.control.nc.resources.memory.FrameManager;
@@ -39,6 +40,8 @@ public class TestJobletContext implements IHyracksJobletContext {
     private final FrameManager frameManger;
     private JobId jobId;
     private WorkspaceFileFactory fileFactory;
+    private boolean compressSpillFiles;
+    private IMemoryBroker memoryBroker;
 
     public TestJobletContext(int frameSize, INCApplicationContext appContext, JobId jobId) throws HyracksException {
         this.frameSize = frameSize;
@@ -126,4 +129,22 @@ public class TestJobletContext implements IHyracksJobletContext {
         return this.getClass().getClassLoader();
     }
 
+    @Override
+    public boolean isCompressSpillFiles() {
+        return compressSpillFiles;
+    }
+
+    public void setCompressSpillFiles(boolean compressSpillFiles) {
+        this.compressSpillFiles = compressSpillFiles;
+    }
+
+    @Override
+    public IMemoryBroker getMemoryBroker() {
+        return memoryBroker;
+    }
+
+    public void setMemoryBroker(IMemoryBroker memoryBroker) {
+        this.memoryBroker = memoryBroker;
+    }
+
 }
@@ -24,12 +24,14 @@ import java.util.concurrent.ThreadFactory;
 import org.apache.hyracks.api.application.INCApplicationContext;
 import org.apache.hyracks.api.application.IStateDumpHandler;
 import org.apache.hyracks.api.context.IHyracksRootContext;
+import org.apache.hyracks.api.io.IIOSchedulerCounters;
 import org.apache.hyracks.api.job.IJobSerializerDeserializerContainer;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.api.lifecycle.LifeCycleComponentManager;
 import org.apache.hyracks.api.messages.IMessageBroker;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
 import org.apache.hyracks.api.service.IControllerService;
+import org.apache.hyracks.storage.common.buffercache.BufferCacheFactory;
 
 public class TestNCApplicationContext implements INCApplicationContext {
     private final ILifeCycleComponentManager lccm;
@@ -130,8 +132,22 @@ public class TestNCApplicationContext implements INCApplicationContext {
     public void setStateDumpHandler(IStateDumpHandler handler) {
     }
 
+    @Override
+    public void setIOSchedulerCounters(IIOSchedulerCounters counters) {
+    }
+
     @Override
     public IControllerService getControllerService() {
         return null;
     }
+
+    @Override
+    public String getBufferCacheType() {
+        return BufferCacheFactory.DEFAULT;
+    }
+
+    @Override
+    public String getBufferCacheReplacementPolicy() {
+        return BufferCacheFactory.CLOCK;
+    }
 }
@@ -30,8 +30,7 @@ import org.apache.hyracks.api.io.IODeviceHandle;
 import org.apache.hyracks.control.nc.io.IOManager;
 import org.apache.hyracks.storage.am.common.api.IIndexLifecycleManager;
 import org.apache.hyracks.storage.am.common.dataflow.IndexLifecycleManager;
-import org.apache.hyracks.storage.common.buffercache.BufferCache;
-import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.BufferCacheFactory;
 import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
 import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
@@ -57,6 +56,8 @@ public class TestStorageManagerComponentHolder {
     private static int pageSize;
     private static int numPages;
     private static int maxOpenFiles;
+    private static String bufferCacheType;
+    private static String replacementPolicy;
     private final static ThreadFactory threadFactory = new ThreadFactory() {
         public Thread newThread(Runnable r) {
             return new Thread(r);
@@ -64,9 +65,20 @@ public class TestStorageManagerComponentHolder {
     };
 
     public static void init(int pageSize, int numPages, int maxOpenFiles) {
+        init(pageSize, numPages, maxOpenFiles, BufferCacheFactory.DEFAULT);
+    }
+
+    public static void init(int pageSize, int numPages, int maxOpenFiles, String bufferCacheType) {
+        init(pageSize, numPages, maxOpenFiles, bufferCacheType, BufferCacheFactory.CLOCK);
+    }
+
+    public static void init(int pageSize, int numPages, int maxOpenFiles, String bufferCacheType,
+            String replacementPolicy) {
         TestStorageManagerComponentHolder.pageSize = pageSize;
         TestStorageManagerComponentHolder.numPages = numPages;
         TestStorageManagerComponentHolder.maxOpenFiles = maxOpenFiles;
+        TestStorageManagerComponentHolder.bufferCacheType = bufferCacheType;
+        TestStorageManagerComponentHolder.replacementPolicy = replacementPolicy;
         bufferCache = null;
         fileMapProvider = null;
         localResourceRepository = null;
@@ -83,10 +95,12 @@ public class TestStorageManagerComponentHolder {
     public synchronized static IBufferCache getBufferCache(IHyracksTaskContext ctx) {
         if (bufferCache == null) {
             ICacheMemoryAllocator allocator = new HeapBufferAllocator();
-            IPageReplacementStrategy prs = new ClockPageReplacementStrategy(allocator, pageSize, numPages);
+            IPageReplacementStrategy prs = BufferCacheFactory.createPageReplacementStrategy(replacementPolicy,
+                    allocator, pageSize, numPages);
             IFileMapProvider fileMapProvider = getFileMapProvider(ctx);
-            bufferCache = new BufferCache(ctx.getIOManager(), prs, new DelayPageCleanerPolicy(1000),
-                    (IFileMapManager) fileMapProvider, maxOpenFiles, threadFactory);
+            bufferCache = BufferCacheFactory.createBufferCache(bufferCacheType, ctx.getIOManager(), prs,
+                    new DelayPageCleanerPolicy(1000), (IFileMapManager) fileMapProvider, maxOpenFiles, threadFactory,
+                    null);
         }
         return bufferCache;
     }
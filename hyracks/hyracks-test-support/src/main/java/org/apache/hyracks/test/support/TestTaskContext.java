@@ -41,6 +41,7 @@ import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 public class TestTaskContext implements IHyracksTaskContext {
     private final TestJobletContext jobletContext;
     private final TaskAttemptId taskId;
+    private final CounterContext counterContext;
     private WorkspaceFileFactory fileFactory;
 
     private Map<Object, IStateObject> stateObjectMap = new HashMap<>();
@@ -48,6 +49,7 @@ public class TestTaskContext implements IHyracksTaskContext {
     public TestTaskContext(TestJobletContext jobletContext, TaskAttemptId taskId) {
         this.jobletContext = jobletContext;
         this.taskId = taskId;
+        counterContext = new CounterContext(jobletContext.getJobId() + "." + taskId);
         fileFactory = new WorkspaceFileFactory(this, (IOManager) getIOManager());
     }
 
@@ -100,7 +102,7 @@ public class TestTaskContext implements IHyracksTaskContext {
 
     @Override
     public ICounterContext getCounterContext() {
-        return new CounterContext(jobletContext.getJobId() + "." + taskId);
+        return counterContext;
     }
 
     @Override
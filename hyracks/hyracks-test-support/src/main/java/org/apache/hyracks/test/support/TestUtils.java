@@ -30,10 +30,15 @@ import org.apache.hyracks.api.job.JobId;
 
 public class TestUtils {
     public static IHyracksTaskContext create(int frameSize) {
+        return create(frameSize, false);
+    }
+
+    public static IHyracksTaskContext create(int frameSize, boolean compressSpillFiles) {
         try {
             IHyracksRootContext rootCtx = new TestRootContext();
             INCApplicationContext appCtx = new TestNCApplicationContext(rootCtx, null);
             TestJobletContext jobletCtx = new TestJobletContext(frameSize, appCtx, new JobId(0));
+            jobletCtx.setCompressSpillFiles(compressSpillFiles);
             TaskAttemptId tid = new TaskAttemptId(new TaskId(new ActivityId(new OperatorDescriptorId(0), 0), 0), 0);
             IHyracksTaskContext taskCtx = new TestTaskContext(jobletCtx, tid);
             return taskCtx;
@@ -168,4 +168,67 @@ public class BloomFilterTest extends AbstractBloomFilterTest {
         bf.deactivate();
         bf.destroy();
     }
+
+    @Test
+    public void blockedFalsePositiveRateTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING BLOCKED BLOOM FILTER");
+        }
+
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        int numElements = 10000;
+        int[] keyFields = { 0 };
+
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileMapProvider(), harness.getFileReference(),
+                keyFields, true);
+
+        double acceptanleFalsePositiveRate = 0.01;
+        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
+        BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBlockedBloomSpec(maxBucketsPerElement,
+                acceptanleFalsePositiveRate);
+        // a blocked filter needs more bits than a standard filter for the same rate
+        Assert.assertTrue(bloomFilterSpec.getNumBucketsPerElements() >= BloomCalculations
+                .computeBloomSpec(maxBucketsPerElement, acceptanleFalsePositiveRate).getNumBucketsPerElements());
+
+        bf.create();
+        bf.activate();
+        IIndexBulkLoader builder = bf.createBuilder(numElements, bloomFilterSpec.getNumHashes(),
+                bloomFilterSpec.getNumBucketsPerElements());
+
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+
+        // even keys are inserted, odd keys are not
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i, i);
+            builder.add(tuple);
+        }
+        builder.end();
+
+        long[] hashes = new long[2];
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i, i);
+            Assert.assertTrue(bf.contains(tuple, hashes));
+        }
+
+        // the layout is read back from the filter's metadata
+        bf.deactivate();
+        bf = new BloomFilter(bufferCache, harness.getFileMapProvider(), harness.getFileReference(), keyFields);
+        bf.activate();
+        int falsePositives = 0;
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i, i);
+            Assert.assertTrue(bf.contains(tuple, hashes));
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i + 1, i);
+            if (bf.contains(tuple, hashes)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("false positive rate too high: " + falsePositives,
+                falsePositives <= 2 * acceptanleFalsePositiveRate * numElements);
+
+        bf.deactivate();
+        bf.destroy();
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.bloomfilter.perf;
+
+import java.util.Enumeration;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
+import org.apache.hyracks.storage.am.bloomfilter.util.BloomFilterTestHarness;
+import org.apache.hyracks.storage.am.common.api.IIndexBulkLoader;
+import org.apache.hyracks.storage.common.buffercache.DebugBufferCache;
+
+/**
+ * Compares the standard and the blocked bloom filter layouts: bits per element, measured false positive rate,
+ * page pins per lookup and lookup throughput, for keys that are in the filter and for keys that are not.
+ */
+public class BloomFilterProbePerf {
+    private static final int PAGE_SIZE = 32768;
+    private static final int NUM_PAGES = 1000;
+    private static final int NUM_ELEMENTS = 1000000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int REPEATS = 3;
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output times.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        for (int i = 0; i < REPEATS; i++) {
+            runExperiment(false);
+            runExperiment(true);
+        }
+    }
+
+    private static void runExperiment(boolean blocked) throws Exception {
+        BloomFilterTestHarness harness = new BloomFilterTestHarness(PAGE_SIZE, NUM_PAGES, Integer.MAX_VALUE, 32768);
+        harness.setUp();
+        DebugBufferCache bufferCache = new DebugBufferCache(harness.getBufferCache());
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileMapProvider(), harness.getFileReference(),
+                new int[] { 0 }, blocked);
+        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(NUM_ELEMENTS);
+        BloomFilterSpecification spec = BloomCalculations.computeBloomSpec(maxBucketsPerElement,
+                FALSE_POSITIVE_RATE, blocked);
+        bf.create();
+        bf.activate();
+        IIndexBulkLoader builder = bf.createBuilder(NUM_ELEMENTS, spec.getNumHashes(),
+                spec.getNumBucketsPerElements());
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(1);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i);
+            builder.add(tuple);
+        }
+        builder.end();
+
+        long[] hashes = new long[2];
+        System.out.println((blocked ? "BLOCKED" : "STANDARD") + "  BITS PER ELEMENT: "
+                + spec.getNumBucketsPerElements() + "  HASHES: " + spec.getNumHashes() + "  PAGES: "
+                + bf.getNumPages());
+        for (int present = 1; present >= 0; present--) {
+            bufferCache.resetCounters();
+            int positives = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < NUM_ELEMENTS; i++) {
+                TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i + 1 - present);
+                if (bf.contains(tuple, hashes)) {
+                    positives++;
+                }
+            }
+            long time = System.nanoTime() - start;
+            System.out.println(String.format("  %-7s  POSITIVES: %7.4f  PINS PER LOOKUP: %5.2f  LOOKUPS/S: %10.0f",
+                    present == 1 ? "PRESENT" : "ABSENT", positives / (double) NUM_ELEMENTS,
+                    bufferCache.getPinCount() / (double) NUM_ELEMENTS, NUM_ELEMENTS / (time / 1e9)));
+        }
+        bf.deactivate();
+        bf.destroy();
+        harness.tearDown();
+    }
+}
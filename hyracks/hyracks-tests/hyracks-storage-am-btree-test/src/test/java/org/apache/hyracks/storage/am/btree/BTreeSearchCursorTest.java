@@ -22,10 +22,13 @@ package org.apache.hyracks.storage.am.btree;
 import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Random;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.apache.hyracks.storage.am.common.api.*;
@@ -51,6 +54,7 @@ import org.apache.hyracks.storage.am.btree.exceptions.BTreeException;
 import org.apache.hyracks.storage.am.btree.frames.BTreeNSMInteriorFrameFactory;
 import org.apache.hyracks.storage.am.btree.frames.BTreeNSMLeafFrameFactory;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
+import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeBulkLoader;
 import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.btree.util.AbstractBTreeTest;
@@ -299,6 +303,166 @@ public class BTreeSearchCursorTest extends AbstractBTreeTest {
         btree.destroy();
     }
 
+    @Test
+    public void pointSearchReadAheadTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING READ-AHEAD OF RANGE SEARCH CURSOR ON POINT SEARCHES");
+        }
+
+        // counts the asynchronous reads of the next leaves
+        AtomicInteger readAheads = new AtomicInteger();
+        IBufferCache harnessBufferCache = harness.getBufferCache();
+        IBufferCache bufferCache = (IBufferCache) Proxy.newProxyInstance(IBufferCache.class.getClassLoader(),
+                new Class<?>[] { IBufferCache.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("pinAsync")) {
+                        readAheads.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(harnessBufferCache, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        // declare keys
+        int keyFieldCount = 1;
+        IBinaryComparatorFactory[] cmpFactories = new IBinaryComparatorFactory[keyFieldCount];
+        cmpFactories[0] = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+
+        ITreeIndexFrameFactory leafFrameFactory = new BTreeNSMLeafFrameFactory(tupleWriterFactory);
+        ITreeIndexFrameFactory interiorFrameFactory = new BTreeNSMInteriorFrameFactory(tupleWriterFactory);
+
+        IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) leafFrameFactory.createFrame();
+
+        IMetaDataPageManager freePageManager = new LinkedMetaDataPageManager(bufferCache, metaFrameFactory);
+
+        BTree btree = new BTree(bufferCache, harness.getFileMapProvider(), freePageManager, interiorFrameFactory,
+                leafFrameFactory, cmpFactories, fieldCount, harness.getFileReference());
+        btree.create();
+        btree.activate();
+
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldCount);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+
+        ITreeIndexAccessor indexAccessor = btree.createAccessor(TestOperationCallback.INSTANCE,
+                TestOperationCallback.INSTANCE);
+
+        // enough keys for many leaves, so that some leaves end with a searched key
+        int numKeys = 2000;
+        for (int i = 0; i < numKeys; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            tuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+            indexAccessor.insert(tuple);
+        }
+
+        // the exact-match searches never move to the next leaf
+        for (int i = 0; i < numKeys; i++) {
+            Assert.assertEquals(1, countResults(indexAccessor, leafFrame, createRangePredicate(i, i, true, true)));
+        }
+        Assert.assertEquals(0, readAheads.get());
+
+        // a range across the leaves still reads them ahead
+        Assert.assertEquals(numKeys,
+                countResults(indexAccessor, leafFrame, createRangePredicate(0, numKeys - 1, true, true)));
+        Assert.assertTrue(readAheads.get() > 0);
+
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    @Test
+    public void leafChainBulkLoadTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING BULK LOAD WITH LEAF CHAINS LOADED CONCURRENTLY");
+        }
+
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        // declare keys
+        int keyFieldCount = 1;
+        IBinaryComparatorFactory[] cmpFactories = new IBinaryComparatorFactory[keyFieldCount];
+        cmpFactories[0] = PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY);
+
+        ITreeIndexFrameFactory leafFrameFactory = new BTreeNSMLeafFrameFactory(tupleWriterFactory);
+        ITreeIndexFrameFactory interiorFrameFactory = new BTreeNSMInteriorFrameFactory(tupleWriterFactory);
+
+        IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) leafFrameFactory.createFrame();
+
+        IMetaDataPageManager freePageManager = new LinkedMetaDataPageManager(bufferCache, metaFrameFactory);
+
+        BTree btree = new BTree(bufferCache, harness.getFileMapProvider(), freePageManager, interiorFrameFactory,
+                leafFrameFactory, cmpFactories, fieldCount, harness.getFileReference());
+        BTreeBulkLoader bulkLoader = (BTreeBulkLoader) btree.createBulkLoader(1.0f, false, 0L, false, true);
+
+        // nothing is loaded before the first chain, and the second chain stays empty
+        int[][] chainKeys = { { 0, 1000 }, { 1000, 1000 }, { 1000, 3000 } };
+        BTreeBulkLoader.LeafChain[] chains = new BTreeBulkLoader.LeafChain[chainKeys.length];
+        Thread[] threads = new Thread[chainKeys.length];
+        Exception[] failures = new Exception[chainKeys.length];
+        for (int i = 0; i < chains.length; i++) {
+            chains[i] = bulkLoader.createLeafChain();
+            final int chain = i;
+            threads[i] = new Thread(() -> {
+                ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldCount);
+                ArrayTupleReference tuple = new ArrayTupleReference();
+                try {
+                    for (int key = chainKeys[chain][0]; key < chainKeys[chain][1]; key++) {
+                        TupleUtils.createIntegerTuple(tupleBuilder, tuple, key, key);
+                        tuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+                        chains[chain].add(tuple);
+                    }
+                } catch (Exception e) {
+                    failures[chain] = e;
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < chains.length; i++) {
+            threads[i].join();
+            Assert.assertNull(failures[i]);
+            bulkLoader.appendLeafChain(chains[i]);
+        }
+
+        // the loading continues in the last leaf of the last chain
+        int numKeys = 3100;
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldCount);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int key = 3000; key < numKeys; key++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, key, key);
+            tuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+            bulkLoader.add(tuple);
+        }
+        bulkLoader.end();
+
+        btree.validate();
+        ITreeIndexAccessor indexAccessor = btree.createAccessor(TestOperationCallback.INSTANCE,
+                TestOperationCallback.INSTANCE);
+        Assert.assertEquals(numKeys,
+                countResults(indexAccessor, leafFrame, createRangePredicate(0, numKeys - 1, true, true)));
+        for (int i = 0; i < numKeys; i++) {
+            Assert.assertEquals(1, countResults(indexAccessor, leafFrame, createRangePredicate(i, i, true, true)));
+        }
+
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    private int countResults(ITreeIndexAccessor indexAccessor, IBTreeLeafFrame leafFrame, RangePredicate rangePred)
+            throws Exception {
+        ITreeIndexCursor rangeCursor = new BTreeRangeSearchCursor(leafFrame, false);
+        int count = 0;
+        try {
+            indexAccessor.search(rangeCursor, rangePred);
+            while (rangeCursor.hasNext()) {
+                rangeCursor.next();
+                count++;
+            }
+        } finally {
+            rangeCursor.close();
+        }
+        return count;
+    }
+
     public RangePredicate createRangePredicate(int lk, int hk, boolean lowKeyInclusive, boolean highKeyInclusive)
             throws HyracksDataException {
 
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.comm.FixedSizeFrame;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.util.SerdeUtils;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
+import org.apache.hyracks.storage.am.common.impls.BatchPointPredicate;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeUtils;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallback;
+
+@SuppressWarnings("rawtypes")
+public class LSMBTreeBatchPointSearchTest {
+
+    private static final ISerializerDeserializer[] FIELD_SERDES = { IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE };
+    private static final ISerializerDeserializer[] KEY_SERDES = { IntegerSerializerDeserializer.INSTANCE };
+    private static final int NUM_FLUSHES = 5;
+    private static final int NUM_TUPLES_PER_FLUSH = 2000;
+    private static final int MAX_KEY = 20000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int FRAME_SIZE = 32768;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+
+    @Before
+    public void setUp() throws HyracksException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void btreeMemoryComponentTest() throws Exception {
+        runTest(false);
+    }
+
+    @Test
+    public void skipListMemoryComponentTest() throws Exception {
+        runTest(true);
+    }
+
+    private void runTest(boolean skipListMemoryComponents) throws Exception {
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(FIELD_SERDES);
+        IBinaryComparatorFactory[] cmpFactories = SerdeUtils.serdesToComparatorFactories(FIELD_SERDES, 1);
+        LSMBTree lsmBTree = LSMBTreeUtils.createLSMTree(harness.getVirtualBufferCaches(), harness.getFileReference(),
+                harness.getDiskBufferCache(), harness.getDiskFileMapProvider(), typeTraits, cmpFactories,
+                new int[] { 0 }, harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(),
+                harness.getOperationTracker(), harness.getIOScheduler(), harness.getIOOperationCallback(), false, null,
+                null, null, null, true, false, skipListMemoryComponents);
+        lsmBTree.create();
+        lsmBTree.activate();
+        ILSMIndexAccessor accessor = lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(FIELD_SERDES.length);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        Random rnd = new Random(50);
+        TreeMap<Integer, Integer> expectedValues = new TreeMap<Integer, Integer>();
+        // The last batch of modifications stays in the memory component.
+        for (int i = 0; i < NUM_FLUSHES; i++) {
+            for (int j = 0; j < NUM_TUPLES_PER_FLUSH; j++) {
+                int key = rnd.nextInt(MAX_KEY);
+                TupleUtils.createIntegerTuple(tupleBuilder, tuple, key, i);
+                if (rnd.nextInt(10) == 0) {
+                    accessor.delete(tuple);
+                    expectedValues.remove(key);
+                } else {
+                    accessor.upsert(tuple);
+                    expectedValues.put(key, i);
+                }
+            }
+            if (i < NUM_FLUSHES - 1) {
+                accessor.scheduleFlush(NoOpIOOperationCallback.INSTANCE);
+            }
+        }
+
+        List<Integer> searchKeys = new ArrayList<Integer>();
+        for (int key = 0; key < MAX_KEY; key += 1 + rnd.nextInt(3)) {
+            searchKeys.add(key);
+            if (rnd.nextInt(20) == 0) {
+                searchKeys.add(key);
+            }
+        }
+        Assert.assertTrue(accessor.supportsBatchPointSearch());
+        IBatchPointSearchCursor cursor = accessor.createBatchPointSearchCursor();
+        BatchPointPredicate predicate = new BatchPointPredicate(new int[] { 0 }, MultiComparator.create(cmpFactories));
+        FixedSizeFrame frame = new FixedSizeFrame(ByteBuffer.allocate(FRAME_SIZE));
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        FrameTupleAccessor frameAccessor = new FrameTupleAccessor(new RecordDescriptor(KEY_SERDES));
+        ArrayTupleBuilder keyBuilder = new ArrayTupleBuilder(KEY_SERDES.length);
+        ArrayTupleReference keyTuple = new ArrayTupleReference();
+        for (int start = 0; start < searchKeys.size(); start += BATCH_SIZE) {
+            int numKeys = Math.min(BATCH_SIZE, searchKeys.size() - start);
+            appender.reset(frame, true);
+            for (int k = 0; k < numKeys; k++) {
+                TupleUtils.createIntegerTuple(keyBuilder, keyTuple, searchKeys.get(start + k));
+                Assert.assertTrue(appender.append(keyBuilder.getFieldEndOffsets(), keyBuilder.getByteArray(), 0,
+                        keyBuilder.getSize()));
+            }
+            frameAccessor.reset(frame.getBuffer());
+            predicate.reset(frameAccessor, 0, numKeys);
+            cursor.reset();
+            accessor.batchPointSearch(cursor, predicate);
+            try {
+                int nextKeyIndex = 0;
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    int keyIndex = cursor.getKeyIndex();
+                    Assert.assertTrue(keyIndex >= nextKeyIndex);
+                    for (; nextKeyIndex < keyIndex; nextKeyIndex++) {
+                        Assert.assertNull(expectedValues.get(searchKeys.get(start + nextKeyIndex)));
+                    }
+                    int key = searchKeys.get(start + keyIndex);
+                    ITupleReference result = cursor.getTuple();
+                    Assert.assertEquals(key, getInteger(result, 0));
+                    Assert.assertEquals(expectedValues.get(key).intValue(), getInteger(result, 1));
+                    nextKeyIndex = keyIndex + 1;
+                }
+                for (; nextKeyIndex < numKeys; nextKeyIndex++) {
+                    Assert.assertNull(expectedValues.get(searchKeys.get(start + nextKeyIndex)));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        // Modifications through the same accessor still see a point predicate.
+        TupleUtils.createIntegerTuple(tupleBuilder, tuple, MAX_KEY, NUM_FLUSHES);
+        accessor.insert(tuple);
+        IIndexCursor pointCursor = accessor.createSearchCursor(false);
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        accessor.search(pointCursor, new RangePredicate(tuple, tuple, true, true, cmp, cmp));
+        try {
+            Assert.assertTrue(pointCursor.hasNext());
+            pointCursor.next();
+            Assert.assertEquals(NUM_FLUSHES, getInteger(pointCursor.getTuple(), 1));
+        } finally {
+            pointCursor.close();
+        }
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+
+    private static int getInteger(ITupleReference tuple, int field) {
+        return IntegerPointable.getInteger(tuple.getFieldData(field), tuple.getFieldStart(field));
+    }
+}
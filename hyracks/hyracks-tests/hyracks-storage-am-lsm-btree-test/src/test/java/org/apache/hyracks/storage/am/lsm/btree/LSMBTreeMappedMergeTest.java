@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.storage.am.btree.OrderedIndexTestContext;
+import org.apache.hyracks.storage.am.btree.OrderedIndexTestUtils;
+import org.apache.hyracks.storage.am.btree.frames.BTreeLeafFrameType;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallback;
+import org.apache.hyracks.storage.common.buffercache.MappedFileBufferCache;
+
+/**
+ * Runs the merge tests with disk components read from memory mappings of their files.
+ */
+@SuppressWarnings("rawtypes")
+public class LSMBTreeMappedMergeTest extends LSMBTreeMergeTestDriver {
+
+    public LSMBTreeMappedMergeTest() {
+        super(LSMBTreeTestHarness.LEAF_FRAMES_TO_TEST);
+    }
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+
+    @Before
+    public void setUp() throws HyracksException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Override
+    protected OrderedIndexTestContext createTestContext(ISerializerDeserializer[] fieldSerdes, int numKeys,
+            BTreeLeafFrameType leafType) throws Exception {
+        return LSMBTreeTestContext.create(harness.getVirtualBufferCaches(), harness.getFileReference(),
+                harness.getDiskBufferCache(), harness.getDiskFileMapProvider(), fieldSerdes, numKeys,
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallback(), true);
+    }
+
+    @Override
+    protected Random getRandom() {
+        return harness.getRandom();
+    }
+
+    @Test
+    public void mappedComponentLifecycleTest() throws Exception {
+        OrderedIndexTestUtils testUtils = new OrderedIndexTestUtils();
+        ISerializerDeserializer[] fieldSerdes = { IntegerSerializerDeserializer.INSTANCE,
+                IntegerSerializerDeserializer.INSTANCE };
+        OrderedIndexTestContext ctx = createTestContext(fieldSerdes, 1, BTreeLeafFrameType.REGULAR_NSM);
+        LSMBTree lsmTree = (LSMBTree) ctx.getIndex();
+        MappedFileBufferCache bufferCache = (MappedFileBufferCache) lsmTree.getBufferCache();
+        lsmTree.create();
+        lsmTree.activate();
+
+        // each disk component maps its B-tree and its bloom filter
+        testUtils.bulkLoadIntTuples(ctx, 1000, getRandom());
+        Assert.assertEquals(2, bufferCache.getNumMappedFiles());
+        testUtils.insertIntTuples(ctx, 1000, getRandom());
+        lsmTree.deactivate();
+        Assert.assertEquals(0, bufferCache.getNumMappedFiles());
+        lsmTree.activate();
+        Assert.assertEquals(4, bufferCache.getNumMappedFiles());
+        testUtils.checkPointSearches(ctx);
+
+        ILSMIndexAccessor accessor = (ILSMIndexAccessor) ctx.getIndexAccessor();
+        accessor.scheduleMerge(NoOpIOOperationCallback.INSTANCE, lsmTree.getImmutableComponents());
+        Assert.assertEquals(2, bufferCache.getNumMappedFiles());
+        testUtils.checkPointSearches(ctx);
+        testUtils.checkScan(ctx);
+        testUtils.checkDiskOrderScan(ctx);
+
+        lsmTree.deactivate();
+        lsmTree.destroy();
+        Assert.assertEquals(0, bufferCache.getNumMappedFiles());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.util.SerdeUtils;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.config.AccessMethodTestsConfig;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeUtils;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMIOStatistics;
+import org.apache.hyracks.storage.am.lsm.common.impls.LeveledMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.impls.TieredMergePolicy;
+
+@SuppressWarnings("rawtypes")
+public class LSMBTreeMergePolicyTest {
+
+    private static final ISerializerDeserializer[] FIELD_SERDES = { IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE };
+    private static final int NUM_FLUSHES = 40;
+    private static final int NUM_TUPLES_PER_FLUSH = 100;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+
+    @Before
+    public void setUp() throws HyracksException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void tieredMergePolicyTest() throws Exception {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put("tier-component-count", "3");
+        properties.put("tier-size-ratio", "2");
+        properties.put("max-mergable-component-size", String.valueOf(Long.MAX_VALUE));
+        ILSMMergePolicy mergePolicy = new TieredMergePolicy();
+        mergePolicy.configure(properties);
+        runTest(mergePolicy);
+    }
+
+    @Test
+    public void leveledMergePolicyTest() throws Exception {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put("level0-component-count", "2");
+        // A flushed component takes about 10 pages.
+        properties.put("level1-max-component-size",
+                String.valueOf(40 * AccessMethodTestsConfig.LSM_BTREE_DISK_PAGE_SIZE));
+        properties.put("level-size-ratio", "4");
+        ILSMMergePolicy mergePolicy = new LeveledMergePolicy();
+        mergePolicy.configure(properties);
+        runTest(mergePolicy);
+    }
+
+    private void runTest(ILSMMergePolicy mergePolicy) throws Exception {
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(FIELD_SERDES);
+        IBinaryComparatorFactory[] cmpFactories = SerdeUtils.serdesToComparatorFactories(FIELD_SERDES, 1);
+        LSMBTree lsmBTree = LSMBTreeUtils.createLSMTree(harness.getVirtualBufferCaches(), harness.getFileReference(),
+                harness.getDiskBufferCache(), harness.getDiskFileMapProvider(), typeTraits, cmpFactories,
+                new int[] { 0 }, harness.getBoomFilterFalsePositiveRate(), mergePolicy, harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallback(), false, null, null, null, null, true);
+        lsmBTree.create();
+        lsmBTree.activate();
+        ILSMIndexAccessor accessor = lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(FIELD_SERDES.length);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        Random rnd = new Random(50);
+        TreeSet<Integer> expectedKeys = new TreeSet<Integer>();
+        int maxComponentCount = 0;
+        for (int i = 0; i < NUM_FLUSHES; i++) {
+            for (int j = 0; j < NUM_TUPLES_PER_FLUSH; j++) {
+                int key = rnd.nextInt(NUM_FLUSHES * NUM_TUPLES_PER_FLUSH);
+                TupleUtils.createIntegerTuple(tupleBuilder, tuple, key, i);
+                accessor.upsert(tuple);
+                expectedKeys.add(key);
+            }
+            accessor.scheduleFlush(NoOpIOOperationCallback.INSTANCE);
+            maxComponentCount = Math.max(maxComponentCount, lsmBTree.getImmutableComponents().size());
+        }
+
+        LSMIOStatistics statistics = lsmBTree.getIOStatistics();
+        Assert.assertEquals(NUM_FLUSHES, statistics.getFlushCount());
+        Assert.assertTrue(statistics.getMergeCount() > 0);
+        Assert.assertTrue(statistics.getWriteAmplification() > 1);
+        Assert.assertTrue(maxComponentCount < NUM_FLUSHES / 2);
+        // The merge policy has nothing left to merge.
+        long mergeCount = statistics.getMergeCount();
+        mergePolicy.diskComponentAdded(lsmBTree, false);
+        Assert.assertEquals(mergeCount, statistics.getMergeCount());
+
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        accessor.search(cursor, new RangePredicate(null, null, true, true, null, null));
+        try {
+            for (int expectedKey : expectedKeys) {
+                Assert.assertTrue(cursor.hasNext());
+                cursor.next();
+                Assert.assertEquals(expectedKey, IntegerPointable.getInteger(cursor.getTuple().getFieldData(0),
+                        cursor.getTuple().getFieldStart(0)));
+            }
+            Assert.assertFalse(cursor.hasNext());
+        } finally {
+            cursor.close();
+        }
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.util.SerdeUtils;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMLeafFrameFactory;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
+import org.apache.hyracks.storage.am.common.exceptions.TreeIndexDuplicateKeyException;
+import org.apache.hyracks.storage.am.common.exceptions.TreeIndexNonExistentKeyException;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.btree.impls.AntimatterAwareTupleAcceptor;
+import org.apache.hyracks.storage.am.lsm.btree.impls.SkipList;
+import org.apache.hyracks.storage.am.lsm.btree.tuples.LSMBTreeTupleReference;
+import org.apache.hyracks.storage.am.lsm.btree.tuples.LSMBTreeTupleWriterFactory;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
+
+@SuppressWarnings("rawtypes")
+public class SkipListTest {
+
+    private static final ISerializerDeserializer[] FIELD_SERDES = { IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE };
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+    private IVirtualBufferCache virtualBufferCache;
+    private SkipList skipList;
+
+    @Before
+    public void setUp() throws HyracksException {
+        harness.setUp();
+        virtualBufferCache = harness.getVirtualBufferCaches().get(0);
+        virtualBufferCache.open();
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(FIELD_SERDES);
+        IBinaryComparatorFactory[] cmpFactories = SerdeUtils.serdesToComparatorFactories(FIELD_SERDES, 1);
+        skipList = new SkipList(virtualBufferCache, virtualBufferCache.getFileMapProvider(),
+                new BTreeNSMLeafFrameFactory(new LSMBTreeTupleWriterFactory(typeTraits, 1, false)),
+                new BTreeNSMLeafFrameFactory(new LSMBTreeTupleWriterFactory(typeTraits, 1, true)), cmpFactories,
+                typeTraits.length, new FileReference(new File(harness.getFileReference().getFile().getPath()
+                        + "_skiplist")));
+        skipList.create();
+        skipList.activate();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        skipList.deactivate();
+        skipList.destroy();
+        virtualBufferCache.close();
+        harness.tearDown();
+    }
+
+    @Test
+    public void modificationTest() throws Exception {
+        SkipList.SkipListAccessor accessor = skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(FIELD_SERDES.length);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        int[] expectedValues = new int[101];
+        for (int i = 0; i < 100; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, (i * 37) % 100, i);
+            accessor.insert(tuple);
+            expectedValues[(i * 37) % 100] = i;
+        }
+
+        TupleUtils.createIntegerTuple(tupleBuilder, tuple, 5, 0);
+        try {
+            accessor.insert(tuple);
+            Assert.fail("Inserted a duplicate key.");
+        } catch (TreeIndexDuplicateKeyException e) {
+            // expected
+        }
+        accessor.delete(tuple);
+        try {
+            accessor.delete(tuple);
+            Assert.fail("Deleted a nonexistent key.");
+        } catch (TreeIndexNonExistentKeyException e) {
+            // expected
+        }
+        // the node of the deleted key is filled again
+        TupleUtils.createIntegerTuple(tupleBuilder, tuple, 5, 500);
+        accessor.insert(tuple);
+        expectedValues[5] = 500;
+        TupleUtils.createIntegerTuple(tupleBuilder, tuple, 7, 700);
+        accessor.update(tuple);
+        expectedValues[7] = 700;
+        TupleUtils.createIntegerTuple(tupleBuilder, tuple, 100, 1000);
+        try {
+            accessor.update(tuple);
+            Assert.fail("Updated a nonexistent key.");
+        } catch (TreeIndexNonExistentKeyException e) {
+            // expected
+        }
+        accessor.upsert(tuple);
+        expectedValues[100] = 1000;
+        Assert.assertEquals(101, skipList.getTupleCount());
+        skipList.validate();
+
+        List<int[]> scan = search(accessor, null, null);
+        Assert.assertEquals(expectedValues.length, scan.size());
+        for (int i = 0; i < expectedValues.length; i++) {
+            Assert.assertEquals(i, scan.get(i)[0]);
+            Assert.assertEquals(expectedValues[i], scan.get(i)[1]);
+        }
+        List<int[]> range = search(accessor, 10, 20);
+        Assert.assertEquals(11, range.size());
+        Assert.assertEquals(10, range.get(0)[0]);
+        Assert.assertEquals(20, range.get(10)[0]);
+    }
+
+    @Test
+    public void antimatterTest() throws Exception {
+        SkipList.SkipListAccessor accessor = skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(FIELD_SERDES.length);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        TupleUtils.createIntegerTuple(tupleBuilder, tuple, 1, 10);
+        accessor.insert(tuple);
+
+        accessor.setDeleteMode();
+        accessor.upsert(tuple);
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        accessor.search(cursor, new RangePredicate(null, null, true, true, null, null));
+        Assert.assertTrue(cursor.hasNext());
+        cursor.next();
+        Assert.assertTrue(((LSMBTreeTupleReference) cursor.getTuple()).isAntimatter());
+        cursor.close();
+
+        // an antimatter tuple is replaced by an insert, as in the memory component of the LSM B-tree
+        accessor.setInsertMode();
+        TupleUtils.createIntegerTuple(tupleBuilder, tuple, 1, 11);
+        accessor.upsertIfConditionElseInsert(tuple, AntimatterAwareTupleAcceptor.INSTANCE);
+        try {
+            accessor.upsertIfConditionElseInsert(tuple, AntimatterAwareTupleAcceptor.INSTANCE);
+            Assert.fail("Replaced a tuple that is not antimatter.");
+        } catch (TreeIndexDuplicateKeyException e) {
+            // expected
+        }
+        List<int[]> scan = search(accessor, null, null);
+        Assert.assertEquals(1, scan.size());
+        Assert.assertEquals(11, scan.get(0)[1]);
+    }
+
+    @Test
+    public void nodeOverheadTest() throws Exception {
+        SkipList.SkipListAccessor accessor = skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(FIELD_SERDES.length);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        long budget = (long) virtualBufferCache.getNumPages() * virtualBufferCache.getPageSize();
+        int numTuples = 0;
+        while (!virtualBufferCache.isFull() && numTuples < budget) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, numTuples, numTuples);
+            accessor.insert(tuple);
+            numTuples++;
+        }
+        // the tuples take a few bytes of the pages each, but their nodes take more than 80 bytes of heap
+        Assert.assertTrue(virtualBufferCache.isFull());
+        Assert.assertTrue("inserted " + numTuples + " tuples", numTuples * 80L <= budget);
+        Assert.assertEquals(numTuples, search(accessor, null, null).size());
+    }
+
+    @Test
+    public void concurrentInsertTest() throws Exception {
+        final int numThreads = 8;
+        final int numTuplesPerThread = 5000;
+        Thread[] threads = new Thread[numThreads];
+        final Exception[] failures = new Exception[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int threadId = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        SkipList.SkipListAccessor accessor = skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                                NoOpOperationCallback.INSTANCE);
+                        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(FIELD_SERDES.length);
+                        ArrayTupleReference tuple = new ArrayTupleReference();
+                        // the threads interleave their keys, and every key is upserted by two threads
+                        for (int i = 0; i < numTuplesPerThread; i++) {
+                            int key = i * numThreads / 2 + threadId / 2;
+                            TupleUtils.createIntegerTuple(tupleBuilder, tuple, key, key);
+                            accessor.upsert(tuple);
+                        }
+                    } catch (Exception e) {
+                        failures[threadId] = e;
+                    }
+                }
+            };
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Exception failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        int numKeys = numTuplesPerThread * numThreads / 2;
+        Assert.assertEquals(numKeys, skipList.getTupleCount());
+        skipList.validate();
+        List<int[]> scan = search(skipList.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE), null, null);
+        Assert.assertEquals(numKeys, scan.size());
+        for (int i = 0; i < numKeys; i++) {
+            Assert.assertEquals(i, scan.get(i)[0]);
+            Assert.assertEquals(i, scan.get(i)[1]);
+        }
+    }
+
+    private static List<int[]> search(SkipList.SkipListAccessor accessor, Integer lowKey, Integer highKey)
+            throws Exception {
+        ITupleReference low = lowKey == null ? null : TupleUtils.createIntegerTuple(lowKey);
+        ITupleReference high = highKey == null ? null : TupleUtils.createIntegerTuple(highKey);
+        RangePredicate pred = new RangePredicate(low, high, true, true, null, null);
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        List<int[]> results = new ArrayList<int[]>();
+        accessor.search(cursor, pred);
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference tuple = cursor.getTuple();
+                results.add(new int[] { IntegerPointable.getInteger(tuple.getFieldData(0), tuple.getFieldStart(0)),
+                        IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1)) });
+            }
+        } finally {
+            cursor.close();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.lsm.btree.perf;
+
+import java.util.Enumeration;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.storage.am.btree.OrderedIndexTestUtils;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+
+/**
+ * Compares point searches and scans over LSM B-tree disk components that are read through the buffer cache with
+ * the same searches over disk components that are read from memory mappings of their files.
+ * The disk components are several times larger than the buffer cache.
+ */
+@SuppressWarnings("rawtypes")
+public class MappedDiskComponentPerf {
+    private static final int NUM_COMPONENTS = 4;
+    private static final int TUPLES_PER_COMPONENT = 50000;
+    private static final int REPEATS = 5;
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output times.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        runExperiment(false);
+        runExperiment(true);
+    }
+
+    private static void runExperiment(boolean mapDiskComponents) throws Exception {
+        LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+        harness.setUp();
+        ISerializerDeserializer[] fieldSerdes = { IntegerSerializerDeserializer.INSTANCE,
+                IntegerSerializerDeserializer.INSTANCE };
+        LSMBTreeTestContext ctx = LSMBTreeTestContext.create(harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), harness.getDiskFileMapProvider(),
+                fieldSerdes, 1, harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(),
+                harness.getOperationTracker(), harness.getIOScheduler(), harness.getIOOperationCallback(),
+                mapDiskComponents);
+        LSMBTree lsmTree = (LSMBTree) ctx.getIndex();
+        lsmTree.create();
+        lsmTree.activate();
+        OrderedIndexTestUtils testUtils = new OrderedIndexTestUtils();
+        for (int i = 0; i < NUM_COMPONENTS; i++) {
+            testUtils.bulkLoadIntTuples(ctx, TUPLES_PER_COMPONENT, harness.getRandom());
+        }
+
+        System.out.println("MAPPED: " + mapDiskComponents);
+        System.out.println("BUFFER CACHE PAGES: " + harness.getDiskNumPages());
+        System.out.println("DISK COMPONENTS: " + lsmTree.getImmutableComponents().size());
+        long searchTime = 0;
+        long scanTime = 0;
+        for (int i = 0; i < REPEATS; i++) {
+            long start = System.currentTimeMillis();
+            testUtils.checkPointSearches(ctx);
+            long end = System.currentTimeMillis();
+            testUtils.checkScan(ctx);
+            scanTime += System.currentTimeMillis() - end;
+            searchTime += end - start;
+        }
+        System.out.println("AVG POINT SEARCH TIME: " + (searchTime / REPEATS) + "ms");
+        System.out.println("AVG SCAN TIME: " + (scanTime / REPEATS) + "ms");
+        System.out.println("-------------------------------");
+
+        lsmTree.deactivate();
+        lsmTree.destroy();
+        harness.tearDown();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.util.SerdeUtils;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeUtils;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
+import org.apache.hyracks.storage.am.lsm.common.impls.ConstantMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMIOStatistics;
+import org.apache.hyracks.storage.am.lsm.common.impls.LeveledMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.impls.PrefixMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.SynchronousScheduler;
+import org.apache.hyracks.storage.am.lsm.common.impls.ThreadCountingTracker;
+import org.apache.hyracks.storage.am.lsm.common.impls.TieredMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.VirtualBufferCache;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Replays an ingest trace into an LSM B-tree once per merge policy and reports the write amplification of the
+ * policy, from the bytes written by its flushes and merges, and its read amplification, as the number of disk
+ * components a lookup has to read after each flush.
+ * The trace is a file with one integer key per line, given as the first argument. Without a trace, time series keys
+ * that mostly arrive in order are generated. The second argument is the number of keys between two flushes.
+ * The sizes the policies are configured with are multiples of the size of a flushed component, which is measured
+ * with the first policy, the one that does not merge.
+ */
+@SuppressWarnings("rawtypes")
+public class MergePolicySimulation {
+
+    private static final ISerializerDeserializer[] FIELD_SERDES = { IntegerSerializerDeserializer.INSTANCE,
+            IntegerSerializerDeserializer.INSTANCE };
+    private static final int PAGE_SIZE = 8192;
+    private static final int DISK_NUM_PAGES = 4096;
+    private static final int MAX_OPEN_FILES = Integer.MAX_VALUE;
+    private static final int HYRACKS_FRAME_SIZE = 32768;
+    // An upper bound of the bytes a tuple takes in a memory component, including the unused space of its page.
+    private static final int MAX_TUPLE_FOOTPRINT = 64;
+
+    private final static SimpleDateFormat simpleDateFormat = new SimpleDateFormat("ddMMyy-hhmmssSS");
+    private final static String sep = System.getProperty("file.separator");
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+        int[] trace = args.length > 0 ? readTrace(args[0]) : generateTrace(1000000, 0.05, 10000, 50);
+        int flushInterval = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        SimulationResult noMerge = simulate(new NoMergePolicy(), trace, flushInterval);
+        print("no-merge", noMerge);
+        long flushSize = Math.max(1, noMerge.statistics.getFlushedBytes() / noMerge.statistics.getFlushCount());
+
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put("num-components", "5");
+        print("constant", simulate(configure(new ConstantMergePolicy(), properties), trace, flushInterval));
+
+        properties.clear();
+        properties.put("max-mergable-component-size", String.valueOf(64 * flushSize));
+        properties.put("max-tolerance-component-count", "5");
+        print("prefix", simulate(configure(new PrefixMergePolicy(), properties), trace, flushInterval));
+
+        properties.clear();
+        properties.put("tier-component-count", "4");
+        properties.put("tier-size-ratio", "2");
+        properties.put("max-mergable-component-size", String.valueOf(Long.MAX_VALUE));
+        print("tiered", simulate(configure(new TieredMergePolicy(), properties), trace, flushInterval));
+
+        properties.clear();
+        properties.put("level0-component-count", "4");
+        properties.put("level1-max-component-size", String.valueOf(4 * flushSize));
+        properties.put("level-size-ratio", "10");
+        print("leveled", simulate(configure(new LeveledMergePolicy(), properties), trace, flushInterval));
+    }
+
+    private static ILSMMergePolicy configure(ILSMMergePolicy mergePolicy, Map<String, String> properties) {
+        mergePolicy.configure(properties);
+        return mergePolicy;
+    }
+
+    public static SimulationResult simulate(ILSMMergePolicy mergePolicy, int[] trace, int flushInterval)
+            throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(HYRACKS_FRAME_SIZE);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, DISK_NUM_PAGES, MAX_OPEN_FILES);
+        IBufferCache diskBufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider diskFileMapProvider = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        // The memory components are large enough to never fill up between two flushes.
+        List<IVirtualBufferCache> virtualBufferCaches = new ArrayList<IVirtualBufferCache>();
+        for (int i = 0; i < 2; i++) {
+            virtualBufferCaches.add(new VirtualBufferCache(new HeapBufferAllocator(), PAGE_SIZE,
+                    flushInterval * MAX_TUPLE_FOOTPRINT / PAGE_SIZE + 16));
+        }
+        FileReference file = new FileReference(new File(System.getProperty("java.io.tmpdir") + sep
+                + "merge_policy_simulation_" + simpleDateFormat.format(new Date()) + sep));
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(FIELD_SERDES);
+        IBinaryComparatorFactory[] cmpFactories = SerdeUtils.serdesToComparatorFactories(FIELD_SERDES, 1);
+        LSMBTree lsmBTree = LSMBTreeUtils.createLSMTree(virtualBufferCaches, file, diskBufferCache,
+                diskFileMapProvider, typeTraits, cmpFactories, new int[] { 0 }, 0.01, mergePolicy,
+                new ThreadCountingTracker(), SynchronousScheduler.INSTANCE, NoOpIOOperationCallback.INSTANCE, false,
+                null, null, null, null, true);
+        lsmBTree.create();
+        lsmBTree.activate();
+        ILSMIndexAccessor accessor = lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(FIELD_SERDES.length);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        SimulationResult result = new SimulationResult();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < trace.length; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, trace[i], i);
+            accessor.upsert(tuple);
+            if ((i + 1) % flushInterval == 0 || i + 1 == trace.length) {
+                accessor.scheduleFlush(NoOpIOOperationCallback.INSTANCE);
+                result.componentCountAdded(lsmBTree.getImmutableComponents().size());
+            }
+        }
+        result.time = System.currentTimeMillis() - start;
+        result.statistics = lsmBTree.getIOStatistics();
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+        diskBufferCache.close();
+        return result;
+    }
+
+    private static void print(String policyName, SimulationResult result) {
+        System.out.println(policyName + ": " + result);
+    }
+
+    private static int[] readTrace(String fileName) throws IOException {
+        int[] trace = new int[1024];
+        int size = 0;
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (size == trace.length) {
+                    int[] newTrace = new int[trace.length * 2];
+                    System.arraycopy(trace, 0, newTrace, 0, size);
+                    trace = newTrace;
+                }
+                trace[size++] = Integer.parseInt(line);
+            }
+        } finally {
+            reader.close();
+        }
+        int[] result = new int[size];
+        System.arraycopy(trace, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * Generates the timestamps of a time series: each key is later than the previous one, except for a fraction of
+     * late arrivals that go back up to maxLateness and can update the tuple of an existing key.
+     */
+    public static int[] generateTrace(int numKeys, double lateFraction, int maxLateness, int seed) {
+        Random rnd = new Random(seed);
+        int[] trace = new int[numKeys];
+        int timestamp = 0;
+        for (int i = 0; i < numKeys; i++) {
+            timestamp += 1 + rnd.nextInt(10);
+            if (rnd.nextDouble() < lateFraction) {
+                trace[i] = Math.max(0, timestamp - rnd.nextInt(maxLateness));
+            } else {
+                trace[i] = timestamp;
+            }
+        }
+        return trace;
+    }
+
+    public static class SimulationResult {
+        private LSMIOStatistics statistics;
+        private long time;
+        private long componentCountSum;
+        private int maxComponentCount;
+        private int numSamples;
+
+        private void componentCountAdded(int componentCount) {
+            componentCountSum += componentCount;
+            maxComponentCount = Math.max(maxComponentCount, componentCount);
+            numSamples++;
+        }
+
+        public LSMIOStatistics getStatistics() {
+            return statistics;
+        }
+
+        public double getAverageComponentCount() {
+            return numSamples == 0 ? 0 : (double) componentCountSum / numSamples;
+        }
+
+        public int getMaxComponentCount() {
+            return maxComponentCount;
+        }
+
+        @Override
+        public String toString() {
+            return statistics + ", read amplification: " + getAverageComponentCount() + " components on average, "
+                    + maxComponentCount + " at most, time: " + time + "ms";
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation.LSMIOOpertionType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.impls.PrioritizedIOScheduler;
+import org.apache.hyracks.storage.common.buffercache.PageWriteThrottle;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrioritizedIOSchedulerTest {
+    private static final long WAIT_MILLIS = 200;
+    private static final int PAGE_SIZE = 8192;
+
+    private final IODeviceHandle dev1 = new IODeviceHandle(new File("dev1"), ".");
+    private final IODeviceHandle dev2 = new IODeviceHandle(new File("dev2"), ".");
+
+    @Test
+    public void flushBeforeMergeTest() throws Exception {
+        PrioritizedIOScheduler scheduler = new PrioritizedIOScheduler(Executors.defaultThreadFactory(), 2, 0, 0);
+        TestOperation flush = new TestOperation("index1", LSMIOOpertionType.FLUSH, dev1, 0);
+        TestOperation merge = new TestOperation("index2", LSMIOOpertionType.MERGE, dev1, 0);
+        scheduler.scheduleOperation(flush);
+        Assert.assertTrue(flush.awaitStart());
+        scheduler.scheduleOperation(merge);
+        Assert.assertFalse(merge.awaitStart());
+        Assert.assertEquals(1, scheduler.getQueueDepth());
+
+        flush.release();
+        Assert.assertTrue(merge.awaitStart());
+        Assert.assertEquals(0, scheduler.getQueueDepth());
+        merge.release();
+        Assert.assertTrue(merge.awaitEnd());
+    }
+
+    @Test
+    public void mergesPerDeviceTest() throws Exception {
+        PrioritizedIOScheduler scheduler = new PrioritizedIOScheduler(Executors.defaultThreadFactory(), 1, 0, 0);
+        TestOperation merge1 = new TestOperation("index1", LSMIOOpertionType.MERGE, dev1, 0);
+        TestOperation merge2 = new TestOperation("index2", LSMIOOpertionType.MERGE, dev1, 0);
+        TestOperation merge3 = new TestOperation("index3", LSMIOOpertionType.MERGE, dev2, 0);
+        scheduler.scheduleOperation(merge1);
+        scheduler.scheduleOperation(merge2);
+        scheduler.scheduleOperation(merge3);
+        Assert.assertTrue(merge1.awaitStart());
+        Assert.assertTrue(merge3.awaitStart());
+        Assert.assertFalse(merge2.awaitStart());
+
+        merge1.release();
+        Assert.assertTrue(merge2.awaitStart());
+        merge2.release();
+        merge3.release();
+        Assert.assertTrue(merge2.awaitEnd());
+        Assert.assertTrue(merge3.awaitEnd());
+    }
+
+    @Test
+    public void pauseResumeTest() throws Exception {
+        PrioritizedIOScheduler scheduler = new PrioritizedIOScheduler(Executors.defaultThreadFactory(), 2, 0, 0);
+        TestOperation running = new TestOperation("index1", LSMIOOpertionType.MERGE, dev1, 1);
+        scheduler.scheduleOperation(running);
+        Assert.assertTrue(running.awaitStart());
+
+        // A paused scheduler neither starts merges nor lets the running ones write.
+        scheduler.pauseMerges();
+        TestOperation waiting = new TestOperation("index2", LSMIOOpertionType.MERGE, dev1, 0);
+        scheduler.scheduleOperation(waiting);
+        running.release();
+        Assert.assertFalse(running.awaitEnd());
+        Assert.assertFalse(waiting.awaitStart());
+
+        scheduler.resumeMerges();
+        Assert.assertTrue(running.awaitEnd());
+        Assert.assertTrue(waiting.awaitStart());
+        waiting.release();
+        Assert.assertTrue(waiting.awaitEnd());
+        Assert.assertTrue(scheduler.getThrottleTime() >= WAIT_MILLIS);
+    }
+
+    @Test
+    public void mergeBandwidthTest() throws Exception {
+        long bytesPerSecond = 1024 * 1024;
+        int numPages = 48;
+        PrioritizedIOScheduler scheduler = new PrioritizedIOScheduler(Executors.defaultThreadFactory(), 2,
+                bytesPerSecond, 8 * PAGE_SIZE);
+        TestOperation merge = new TestOperation("index1", LSMIOOpertionType.MERGE, dev1, numPages);
+        long start = System.nanoTime();
+        merge.release();
+        scheduler.scheduleOperation(merge);
+        Assert.assertTrue(merge.awaitEnd());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Everything after the burst is written at the rate.
+        long expectedMillis = (numPages - 8) * PAGE_SIZE * 1000L / bytesPerSecond;
+        Assert.assertTrue(elapsedMillis >= expectedMillis * 9 / 10);
+        Assert.assertTrue(scheduler.getThrottleTime() >= expectedMillis * 9 / 10);
+    }
+
+    private static class TestOperation implements ILSMIOOperation {
+        private final String indexId;
+        private final LSMIOOpertionType type;
+        private final Set<IODeviceHandle> devices;
+        private final int numPages;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final CountDownLatch ended = new CountDownLatch(1);
+
+        TestOperation(String indexId, LSMIOOpertionType type, IODeviceHandle device, int numPages) {
+            this.indexId = indexId;
+            this.type = type;
+            this.devices = Collections.singleton(device);
+            this.numPages = numPages;
+        }
+
+        boolean awaitStart() throws InterruptedException {
+            return started.await(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        boolean awaitEnd() throws InterruptedException {
+            return ended.await(WAIT_MILLIS * 10, TimeUnit.MILLISECONDS);
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        @Override
+        public Boolean call() throws HyracksDataException {
+            started.countDown();
+            try {
+                released.await();
+                for (int i = 0; i < numPages; i++) {
+                    PageWriteThrottle.throttle(PAGE_SIZE);
+                }
+            } catch (InterruptedException e) {
+                throw new HyracksDataException(e);
+            }
+            ended.countDown();
+            return true;
+        }
+
+        @Override
+        public Set<IODeviceHandle> getReadDevices() {
+            return devices;
+        }
+
+        @Override
+        public Set<IODeviceHandle> getWriteDevices() {
+            return devices;
+        }
+
+        @Override
+        public ILSMIOOperationCallback getCallback() {
+            return null;
+        }
+
+        @Override
+        public String getIndexUniqueIdentifier() {
+            return indexId;
+        }
+
+        @Override
+        public LSMIOOpertionType getIOOpertionType() {
+            return type;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.junit.Test;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.storage.common.buffercache.BufferCacheFactory;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
@@ -47,15 +48,23 @@ public class BufferCacheTest {
     protected static final String tmpDir = System.getProperty("java.io.tmpdir");
     protected static final String sep = System.getProperty("file.separator");
 
-    private static final int PAGE_SIZE = 256;
-    private static final int NUM_PAGES = 10;
-    private static final int MAX_OPEN_FILES = 20;
+    protected static final int PAGE_SIZE = 256;
+    protected static final int NUM_PAGES = 10;
+    protected static final int MAX_OPEN_FILES = 20;
     private static final int HYRACKS_FRAME_SIZE = PAGE_SIZE;
-    private IHyracksTaskContext ctx = TestUtils.create(HYRACKS_FRAME_SIZE);
+    protected IHyracksTaskContext ctx = TestUtils.create(HYRACKS_FRAME_SIZE);
 
     private static final Random rnd = new Random(50);
 
-    private String getFileName() {
+    protected String getBufferCacheType() {
+        return BufferCacheFactory.DEFAULT;
+    }
+
+    protected String getReplacementPolicy() {
+        return BufferCacheFactory.CLOCK;
+    }
+
+    protected String getFileName() {
         String fileName = tmpDir + sep + simpleDateFormat.format(new Date()) + openedFiles.size();
         openedFiles.add(fileName);
         return fileName;
@@ -63,7 +72,8 @@ public class BufferCacheTest {
 
     @Test
     public void simpleOpenPinCloseTest() throws HyracksDataException {
-        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, getBufferCacheType(),
+                getReplacementPolicy());
         IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
         IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
         String fileName = getFileName();
@@ -144,7 +154,8 @@ public class BufferCacheTest {
 
     @Test
     public void simpleMaxOpenFilesTest() throws HyracksDataException {
-        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, getBufferCacheType(),
+                getReplacementPolicy());
         IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
         IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
 
@@ -202,7 +213,8 @@ public class BufferCacheTest {
 
     @Test
     public void contentCheckingMaxOpenFilesTest() throws HyracksDataException {
-        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, getBufferCacheType(),
+                getReplacementPolicy());
         IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
         IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
 
@@ -319,6 +331,132 @@ public class BufferCacheTest {
         bufferCache.close();
     }
 
+    @Test
+    public void asyncPinTest() throws HyracksDataException {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, getBufferCacheType(),
+                getReplacementPolicy());
+        IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        FileReference file = new FileReference(new File(getFileName()));
+        bufferCache.createFile(file);
+        int fileId = fmp.lookupFileId(file);
+        bufferCache.openFile(fileId);
+
+        int numFilePages = 4 * NUM_PAGES;
+        for (int i = 0; i < numFilePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            try {
+                page.getBuffer().putInt(0, i);
+            } finally {
+                page.releaseWriteLatch(true);
+            }
+            bufferCache.flushDirtyPage(page);
+            bufferCache.unpin(page);
+        }
+
+        // read the file with a read-ahead window, like a sequential scan
+        int window = NUM_PAGES / 2;
+        ICachedPage[] readAheadPages = new ICachedPage[window];
+        for (int start = 0; start < numFilePages; start += window) {
+            for (int i = 0; i < window; i++) {
+                readAheadPages[i] = bufferCache.pinAsync(BufferedFileHandle.getDiskPageId(fileId, start + i));
+            }
+            for (int i = 0; i < window; i++) {
+                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, start + i), false);
+                page.acquireReadLatch();
+                try {
+                    Assert.assertEquals(start + i, page.getBuffer().getInt(0));
+                } finally {
+                    page.releaseReadLatch();
+                    bufferCache.unpin(page);
+                }
+                bufferCache.unpin(readAheadPages[i]);
+            }
+        }
+
+        // pages released before they were used must still read back correctly
+        for (int i = 0; i < numFilePages; i++) {
+            bufferCache.unpin(bufferCache.pinAsync(BufferedFileHandle.getDiskPageId(fileId, i)));
+        }
+        for (int i = 0; i < numFilePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+            page.acquireReadLatch();
+            try {
+                Assert.assertEquals(i, page.getBuffer().getInt(0));
+            } finally {
+                page.releaseReadLatch();
+                bufferCache.unpin(page);
+            }
+        }
+
+        bufferCache.closeFile(fileId);
+        bufferCache.deleteFile(fileId, false);
+        bufferCache.close();
+    }
+
+    @Test
+    public void asyncPinSurvivesOtherUnpinTest() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, getBufferCacheType(),
+                getReplacementPolicy());
+        IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        FileReference file = new FileReference(new File(getFileName()));
+        bufferCache.createFile(file);
+        int fileId = fmp.lookupFileId(file);
+        bufferCache.openFile(fileId);
+
+        int numFilePages = 4 * NUM_PAGES;
+        int magic = 0x5eed0000;
+        for (int i = 0; i < numFilePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            try {
+                page.getBuffer().putInt(0, magic + i);
+            } finally {
+                page.releaseWriteLatch(true);
+            }
+            bufferCache.flushDirtyPage(page);
+            bufferCache.unpin(page);
+        }
+
+        // find a page whose read is scheduled, and let another holder pin and release it before the read runs
+        int checked = 0;
+        for (int i = 0; i < numFilePages; i++) {
+            long dpid = BufferedFileHandle.getDiskPageId(fileId, i);
+            ICachedPage readAheadPage = bufferCache.pinAsync(dpid);
+            ICachedPage otherPage = bufferCache.tryPin(dpid);
+            if (otherPage == readAheadPage) {
+                // the page was cached, no read was scheduled
+                bufferCache.unpin(otherPage);
+                bufferCache.unpin(readAheadPage);
+                continue;
+            }
+            synchronized (otherPage) {
+                bufferCache.unpin(otherPage);
+            }
+            // the read-ahead must still read the page, without anyone calling pin()
+            long deadline = System.currentTimeMillis() + 10000;
+            int value;
+            do {
+                synchronized (otherPage) {
+                    value = otherPage.getBuffer().getInt(0);
+                }
+                if (value != magic + i) {
+                    Thread.sleep(1);
+                }
+            } while (value != magic + i && System.currentTimeMillis() < deadline);
+            Assert.assertEquals(magic + i, value);
+            bufferCache.unpin(readAheadPage);
+            checked++;
+        }
+        Assert.assertTrue(checked > 0);
+
+        bufferCache.closeFile(fileId);
+        bufferCache.deleteFile(fileId, false);
+        bufferCache.close();
+    }
+
     @AfterClass
     public static void cleanup() throws Exception {
         for (String s : openedFiles) {
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOFuture;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.control.nc.io.IOCounters;
+import org.apache.hyracks.control.nc.io.IOEngineFactory;
+import org.apache.hyracks.control.nc.io.IOManager;
+
+public class IOManagerTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 64;
+    private static final int QUEUE_DEPTH = 16;
+
+    @Test
+    public void executorEngineTest() throws Exception {
+        runAsyncReadWrite(IOEngineFactory.EXECUTOR);
+    }
+
+    @Test
+    public void vectoredEngineTest() throws Exception {
+        IOCounters counters = runAsyncReadWrite(IOEngineFactory.VECTORED);
+        Assert.assertTrue("no requests were coalesced", counters.getCoalescedRequests() > 0);
+        Assert.assertTrue(counters.getOperations() < counters.getRequests());
+    }
+
+    private IOCounters runAsyncReadWrite(String ioEngine) throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        File dir = new File(System.getProperty("java.io.tmpdir"));
+        List<IODeviceHandle> devices = new ArrayList<IODeviceHandle>();
+        devices.add(new IODeviceHandle(dir, "."));
+        IOManager ioManager = new IOManager(devices, executor, ioEngine, QUEUE_DEPTH);
+        File f = File.createTempFile("ioManagerTest", ".dat", dir);
+        f.deleteOnExit();
+        IFileHandle fHandle = ioManager.open(new FileReference(f), IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            // write the even pages, then the odd pages, so that the writes of each round are not adjacent
+            List<IIOFuture> futures = new ArrayList<IIOFuture>();
+            for (int round = 0; round < 2; round++) {
+                for (int i = round; i < NUM_PAGES; i += 2) {
+                    futures.add(ioManager.asyncWrite(fHandle, (long) i * PAGE_SIZE, page(i)));
+                }
+                for (IIOFuture future : futures) {
+                    Assert.assertEquals(PAGE_SIZE, future.synchronize());
+                }
+                futures.clear();
+            }
+
+            ByteBuffer[] buffers = new ByteBuffer[NUM_PAGES];
+            for (int i = 0; i < NUM_PAGES; i++) {
+                buffers[i] = ByteBuffer.allocate(PAGE_SIZE);
+                futures.add(ioManager.asyncRead(fHandle, (long) i * PAGE_SIZE, buffers[i]));
+            }
+            for (int i = 0; i < NUM_PAGES; i++) {
+                Assert.assertEquals(PAGE_SIZE, futures.get(i).synchronize());
+                buffers[i].flip();
+                Assert.assertEquals(page(i), buffers[i]);
+            }
+
+            // reads past the end of the file
+            IIOFuture partial = ioManager.asyncRead(fHandle, (long) NUM_PAGES * PAGE_SIZE - PAGE_SIZE / 2,
+                    ByteBuffer.allocate(PAGE_SIZE));
+            IIOFuture eof = ioManager.asyncRead(fHandle, (long) NUM_PAGES * PAGE_SIZE + PAGE_SIZE / 2,
+                    ByteBuffer.allocate(PAGE_SIZE));
+            Assert.assertEquals(PAGE_SIZE / 2, partial.synchronize());
+            Assert.assertEquals(-1, eof.synchronize());
+            Assert.assertEquals(2 * NUM_PAGES + 2, ioManager.getCounters().getRequests());
+            Assert.assertEquals(0, ioManager.getCounters().getQueueDepth());
+        } finally {
+            ioManager.close(fHandle);
+            executor.shutdownNow();
+            f.delete();
+        }
+        return ioManager.getCounters();
+    }
+
+    private static ByteBuffer page(int pageId) {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        while (buffer.hasRemaining()) {
+            buffer.putInt(pageId);
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
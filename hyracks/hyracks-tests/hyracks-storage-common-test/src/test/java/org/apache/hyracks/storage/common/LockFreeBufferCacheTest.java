@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.storage.common.buffercache.BufferCacheFactory;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+
+public class LockFreeBufferCacheTest extends BufferCacheTest {
+    private static final int NUM_THREADS = 8;
+    private static final int FILE_PAGES = 4 * NUM_PAGES;
+    private static final int PINS_PER_THREAD = 20000;
+
+    @Override
+    protected String getBufferCacheType() {
+        return BufferCacheFactory.LOCK_FREE;
+    }
+
+    @Test
+    public void concurrentPinUnpinTest() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, getBufferCacheType());
+        final IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        FileReference file = new FileReference(new File(getFileName()));
+        bufferCache.createFile(file);
+        final int fileId = fmp.lookupFileId(file);
+        bufferCache.openFile(fileId);
+
+        // stamp every page with its page id; the file is larger than the cache, so pins evict each other
+        for (int i = 0; i < FILE_PAGES; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            try {
+                page.getBuffer().putInt(0, i);
+            } finally {
+                page.releaseWriteLatch(true);
+                bufferCache.unpin(page);
+            }
+        }
+
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[NUM_THREADS];
+        for (int t = 0; t < NUM_THREADS; t++) {
+            final long seed = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    try {
+                        for (int i = 0; i < PINS_PER_THREAD; i++) {
+                            int pageId = random.nextInt(FILE_PAGES);
+                            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId),
+                                    false);
+                            page.acquireReadLatch();
+                            try {
+                                if (page.getBuffer().getInt(0) != pageId) {
+                                    failures.incrementAndGet();
+                                }
+                            } finally {
+                                page.releaseReadLatch();
+                                bufferCache.unpin(page);
+                            }
+                        }
+                    } catch (HyracksDataException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, failures.get());
+
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.storage.common.buffercache.BufferCacheFactory;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+
+public class TwoQueueBufferCacheTest extends BufferCacheTest {
+    private static final int NUM_HOT_PAGES = 3;
+    private static final int FILE_PAGES = 6 * NUM_PAGES;
+
+    @Override
+    protected String getReplacementPolicy() {
+        return BufferCacheFactory.TWO_QUEUE;
+    }
+
+    @Test
+    public void scanResistanceTest() throws HyracksDataException {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, getBufferCacheType(),
+                getReplacementPolicy());
+        IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        FileReference file = new FileReference(new File(getFileName()));
+        bufferCache.createFile(file);
+        int fileId = fmp.lookupFileId(file);
+        bufferCache.openFile(fileId);
+
+        for (int i = 0; i < FILE_PAGES; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            try {
+                page.getBuffer().putInt(0, i);
+            } finally {
+                page.releaseWriteLatch(true);
+            }
+            bufferCache.flushDirtyPage(page);
+            bufferCache.unpin(page);
+        }
+
+        // touch the hot pages twice so that they leave probation
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < NUM_HOT_PAGES; i++) {
+                bufferCache.unpin(bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false));
+            }
+        }
+
+        // one scan with the won't-need hint and one without, both much larger than the cache
+        for (int round = 0; round < 2; round++) {
+            for (int i = NUM_HOT_PAGES; i < FILE_PAGES; i++) {
+                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+                page.acquireReadLatch();
+                try {
+                    Assert.assertEquals(i, page.getBuffer().getInt(0));
+                } finally {
+                    page.releaseReadLatch();
+                }
+                if (round == 0) {
+                    bufferCache.adviseWontNeed(page);
+                }
+                bufferCache.unpin(page);
+            }
+        }
+
+        // the scans must not have displaced the hot pages
+        for (int i = 0; i < NUM_HOT_PAGES; i++) {
+            ICachedPage page = bufferCache.tryPin(BufferedFileHandle.getDiskPageId(fileId, i));
+            Assert.assertNotNull("hot page " + i + " was evicted by a scan", page);
+            bufferCache.unpin(page);
+        }
+
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+    }
+}
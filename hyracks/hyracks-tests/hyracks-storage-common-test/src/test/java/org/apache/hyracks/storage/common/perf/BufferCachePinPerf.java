@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.perf;
+
+import java.io.File;
+import java.util.Enumeration;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.storage.common.buffercache.BufferCacheFactory;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Multi-threaded pin/unpin throughput of the default and the lock-free buffer cache.
+ * Usage: BufferCachePinPerf [maxThreads] [pinsPerThread]
+ */
+public class BufferCachePinPerf {
+    private static final int PAGE_SIZE = 4096;
+    private static final int NUM_PAGES = 4096;
+    private static final int MAX_OPEN_FILES = 10;
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output times.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int pinsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        String[] types = new String[] { BufferCacheFactory.DEFAULT, BufferCacheFactory.LOCK_FREE };
+
+        // hot working set (all hits) and a working set twice the cache size (hits and evictions)
+        int[] fileSizes = new int[] { NUM_PAGES / 2, NUM_PAGES * 2 };
+        for (int filePages : fileSizes) {
+            System.out.println("FILE PAGES: " + filePages + ", CACHE PAGES: " + NUM_PAGES);
+            for (int numThreads = 1; numThreads <= maxThreads; numThreads *= 2) {
+                for (String type : types) {
+                    long ops = (long) numThreads * pinsPerThread;
+                    long time = runExperiment(type, filePages, numThreads, pinsPerThread);
+                    System.out.println(String.format("%-10s THREADS: %3d  TIME: %6dms  THROUGHPUT: %10.0f pins/s",
+                            type, numThreads, time, ops * 1000.0 / Math.max(time, 1)));
+                }
+            }
+            System.out.println("-------------------------------");
+        }
+    }
+
+    private static long runExperiment(String type, final int filePages, int numThreads, final int pinsPerThread)
+            throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, type);
+        final IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        File f = File.createTempFile("bufferCachePinPerf", ".dat");
+        f.deleteOnExit();
+        FileReference file = new FileReference(f);
+        bufferCache.createFile(file);
+        final int fileId = fmp.lookupFileId(file);
+        bufferCache.openFile(fileId);
+        for (int i = 0; i < filePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            page.acquireWriteLatch();
+            page.getBuffer().putInt(0, i);
+            page.releaseWriteLatch(true);
+            bufferCache.flushDirtyPage(page);
+            bufferCache.unpin(page);
+        }
+
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads + 1);
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final long seed = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    try {
+                        barrier.await();
+                        for (int i = 0; i < pinsPerThread; i++) {
+                            long dpid = BufferedFileHandle.getDiskPageId(fileId, random.nextInt(filePages));
+                            ICachedPage page = bufferCache.pin(dpid, false);
+                            page.acquireReadLatch();
+                            page.releaseReadLatch();
+                            bufferCache.unpin(page);
+                        }
+                        barrier.await();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        barrier.await();
+        long start = System.currentTimeMillis();
+        barrier.await();
+        long end = System.currentTimeMillis();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+        f.delete();
+        return end - start;
+    }
+}
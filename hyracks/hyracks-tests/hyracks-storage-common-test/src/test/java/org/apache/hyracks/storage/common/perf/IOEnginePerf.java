@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.perf;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOFuture;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.control.nc.io.IOCounters;
+import org.apache.hyracks.control.nc.io.IOEngineFactory;
+import org.apache.hyracks.control.nc.io.IOManager;
+
+/**
+ * Compares the asynchronous IO engines of the IOManager on two workloads:
+ * a run file, written frame by frame and read back with a window of outstanding reads, and a buffer cache
+ * flush, where batches of dirty pages, partly adjacent, are written back in no particular order.
+ * Usage: IOEnginePerf [ioDevicePath]
+ */
+public class IOEnginePerf {
+    private static final int FRAME_SIZE = 32768;
+    private static final int RUN_FILE_FRAMES = 4096;
+    private static final int PAGE_SIZE = 4096;
+    private static final int FILE_PAGES = 32768;
+    private static final int FLUSH_BATCH = 256;
+    private static final int NUM_FLUSHES = 128;
+    private static final int OUTSTANDING_REQUESTS = 32;
+    private static final int QUEUE_DEPTH = 64;
+    private static final int REPETITIONS = 3;
+
+    public static void main(String[] args) throws Exception {
+        File dir = new File(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        String[] engines = new String[] { IOEngineFactory.EXECUTOR, IOEngineFactory.VECTORED };
+        for (int r = 0; r < REPETITIONS; r++) {
+            for (String engine : engines) {
+                runExperiment(dir, engine);
+            }
+        }
+    }
+
+    private static void runExperiment(File dir, String engine) throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        List<IODeviceHandle> devices = new ArrayList<IODeviceHandle>();
+        devices.add(new IODeviceHandle(dir, "."));
+        IOManager ioManager = new IOManager(devices, executor, engine, QUEUE_DEPTH);
+        try {
+            long time = runFile(ioManager, dir);
+            report(engine, "RUN FILE", (long) RUN_FILE_FRAMES * FRAME_SIZE * 2, time, ioManager.getCounters());
+            ioManager.getCounters().reset();
+            time = bufferCacheFlush(ioManager, dir);
+            report(engine, "FLUSH", (long) NUM_FLUSHES * FLUSH_BATCH * PAGE_SIZE, time, ioManager.getCounters());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long runFile(IOManager ioManager, File dir) throws Exception {
+        File f = File.createTempFile("ioEnginePerfRun", ".waf", dir);
+        f.deleteOnExit();
+        IFileHandle fHandle = ioManager.open(new FileReference(f), IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        ByteBuffer[] frames = new ByteBuffer[OUTSTANDING_REQUESTS];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = ByteBuffer.allocate(FRAME_SIZE);
+        }
+        IIOFuture[] futures = new IIOFuture[OUTSTANDING_REQUESTS];
+        long start = System.nanoTime();
+        for (int i = 0; i < RUN_FILE_FRAMES; i++) {
+            int slot = i % OUTSTANDING_REQUESTS;
+            if (futures[slot] != null) {
+                futures[slot].synchronize();
+            }
+            frames[slot].clear();
+            frames[slot].putInt(0, i);
+            futures[slot] = ioManager.asyncWrite(fHandle, (long) i * FRAME_SIZE, frames[slot]);
+        }
+        for (int i = 0; i < OUTSTANDING_REQUESTS; i++) {
+            futures[i].synchronize();
+            futures[i] = null;
+        }
+        for (int i = 0; i < RUN_FILE_FRAMES + OUTSTANDING_REQUESTS; i++) {
+            int slot = i % OUTSTANDING_REQUESTS;
+            if (futures[slot] != null) {
+                futures[slot].synchronize();
+                if (frames[slot].getInt(0) != i - OUTSTANDING_REQUESTS) {
+                    throw new IllegalStateException("Wrong frame read back at " + (i - OUTSTANDING_REQUESTS));
+                }
+                futures[slot] = null;
+            }
+            if (i < RUN_FILE_FRAMES) {
+                frames[slot].clear();
+                futures[slot] = ioManager.asyncRead(fHandle, (long) i * FRAME_SIZE, frames[slot]);
+            }
+        }
+        long time = System.nanoTime() - start;
+        ioManager.close(fHandle);
+        f.delete();
+        return time;
+    }
+
+    private static long bufferCacheFlush(IOManager ioManager, File dir) throws Exception {
+        File f = File.createTempFile("ioEnginePerfFlush", ".dat", dir);
+        f.deleteOnExit();
+        IFileHandle fHandle = ioManager.open(new FileReference(f), IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        Random random = new Random(17);
+        ByteBuffer[] pages = new ByteBuffer[FLUSH_BATCH];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = ByteBuffer.allocate(PAGE_SIZE);
+        }
+        List<Integer> dirtyPages = new ArrayList<Integer>();
+        IIOFuture[] futures = new IIOFuture[FLUSH_BATCH];
+        long start = System.nanoTime();
+        for (int flush = 0; flush < NUM_FLUSHES; flush++) {
+            // dirty pages come in short runs, like the leaves of a bulk-loaded or updated key range
+            dirtyPages.clear();
+            while (dirtyPages.size() < FLUSH_BATCH) {
+                int first = random.nextInt(FILE_PAGES);
+                int length = 1 + random.nextInt(8);
+                for (int p = first; p < first + length && dirtyPages.size() < FLUSH_BATCH; p++) {
+                    dirtyPages.add(p);
+                }
+            }
+            // the cleaner finds dirty pages in cache order, not file order
+            Collections.shuffle(dirtyPages, random);
+            for (int i = 0; i < FLUSH_BATCH; i++) {
+                pages[i].clear();
+                pages[i].putInt(0, dirtyPages.get(i));
+                futures[i] = ioManager.asyncWrite(fHandle, (long) dirtyPages.get(i) * PAGE_SIZE, pages[i]);
+            }
+            for (int i = 0; i < FLUSH_BATCH; i++) {
+                futures[i].synchronize();
+            }
+        }
+        long time = System.nanoTime() - start;
+        ioManager.close(fHandle);
+        f.delete();
+        return time;
+    }
+
+    private static void report(String engine, String workload, long bytes, long nanos, IOCounters counters) {
+        double seconds = nanos / 1e9;
+        System.out.println(String.format("%-8s %-8s  TIME: %6dms  THROUGHPUT: %7.1fMB/s  %s", engine, workload,
+                nanos / 1000000, bytes / seconds / (1024 * 1024), counters));
+    }
+}
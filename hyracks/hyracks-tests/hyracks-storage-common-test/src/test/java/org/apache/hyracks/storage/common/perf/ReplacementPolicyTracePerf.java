@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.storage.common.buffercache.BufferCacheFactory;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Replays a page access trace against the buffer cache with each replacement policy and reports hit ratios.
+ * A trace has one access per line: "L pageId" for a point lookup and "S pageId" for a page read by a scan or
+ * merge. If the trace file does not exist, a mixed workload of skewed lookups interleaved with large scans is
+ * generated and written to it, so that the same trace can be replayed later.
+ * Usage: ReplacementPolicyTracePerf [traceFile]
+ */
+public class ReplacementPolicyTracePerf {
+    private static final int PAGE_SIZE = 1024;
+    private static final int NUM_PAGES = 1024;
+    private static final int MAX_OPEN_FILES = 10;
+
+    private static final int FILE_PAGES = 16 * NUM_PAGES;
+    private static final int LOOKUP_PAGES = 2 * NUM_PAGES;
+    private static final int NUM_LOOKUPS = 200000;
+    private static final int LOOKUPS_BETWEEN_SCANS = 20000;
+    private static final int SCAN_PAGES = 4 * NUM_PAGES;
+
+    private static final char LOOKUP = 'L';
+    private static final char SCAN = 'S';
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        File traceFile;
+        if (args.length > 0) {
+            traceFile = new File(args[0]);
+        } else {
+            traceFile = File.createTempFile("replacementPolicyTrace", ".txt");
+            traceFile.delete();
+            traceFile.deleteOnExit();
+        }
+        if (!traceFile.exists()) {
+            generateTrace(traceFile);
+        }
+        List<long[]> trace = readTrace(traceFile);
+        System.out.println("TRACE: " + traceFile + ", ACCESSES: " + trace.size() + ", CACHE PAGES: " + NUM_PAGES);
+
+        String[] policies = new String[] { BufferCacheFactory.CLOCK, BufferCacheFactory.TWO_QUEUE };
+        for (String policy : policies) {
+            for (boolean hints : new boolean[] { false, true }) {
+                runExperiment(policy, hints, trace);
+            }
+        }
+    }
+
+    private static void generateTrace(File traceFile) throws IOException {
+        Random random = new Random(17);
+        int nextScanStart = LOOKUP_PAGES;
+        try (PrintWriter out = new PrintWriter(new FileWriter(traceFile))) {
+            for (int i = 0; i < NUM_LOOKUPS; i++) {
+                // skewed towards the low page ids, like the upper levels and hot leaves of an index
+                double r = random.nextDouble();
+                out.println(LOOKUP + " " + (int) (LOOKUP_PAGES * r * r));
+                if ((i + 1) % LOOKUPS_BETWEEN_SCANS == 0) {
+                    for (int j = 0; j < SCAN_PAGES; j++) {
+                        out.println(SCAN + " " + nextScanStart);
+                        nextScanStart = nextScanStart + 1 < FILE_PAGES ? nextScanStart + 1 : LOOKUP_PAGES;
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<long[]> readTrace(File traceFile) throws IOException {
+        List<long[]> trace = new ArrayList<long[]>();
+        try (BufferedReader in = new BufferedReader(new FileReader(traceFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                trace.add(new long[] { line.charAt(0), Long.parseLong(line.substring(1).trim()) });
+            }
+        }
+        return trace;
+    }
+
+    private static void runExperiment(String policy, boolean hints, List<long[]> trace) throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES, BufferCacheFactory.DEFAULT,
+                policy);
+        IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        File f = File.createTempFile("replacementPolicyTracePerf", ".dat");
+        f.deleteOnExit();
+        FileReference file = new FileReference(f);
+        bufferCache.createFile(file);
+        int fileId = fmp.lookupFileId(file);
+        bufferCache.openFile(fileId);
+        int filePages = 0;
+        for (long[] access : trace) {
+            filePages = (int) Math.max(filePages, access[1] + 1);
+        }
+        for (int i = 0; i < filePages; i++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), true);
+            bufferCache.flushDirtyPage(page);
+            bufferCache.adviseWontNeed(page);
+            bufferCache.unpin(page);
+        }
+
+        long lookups = 0;
+        long lookupHits = 0;
+        long scans = 0;
+        long scanHits = 0;
+        long start = System.currentTimeMillis();
+        for (long[] access : trace) {
+            long dpid = BufferedFileHandle.getDiskPageId(fileId, (int) access[1]);
+            boolean scan = access[0] == SCAN;
+            ICachedPage page = bufferCache.tryPin(dpid);
+            boolean hit = page != null;
+            if (!hit) {
+                page = bufferCache.pin(dpid, false);
+            }
+            if (scan) {
+                scans++;
+                scanHits += hit ? 1 : 0;
+                if (hints) {
+                    bufferCache.adviseWontNeed(page);
+                }
+            } else {
+                lookups++;
+                lookupHits += hit ? 1 : 0;
+            }
+            bufferCache.unpin(page);
+        }
+        long time = System.currentTimeMillis() - start;
+        bufferCache.closeFile(fileId);
+        bufferCache.close();
+        f.delete();
+
+        System.out.println(String.format(
+                "%-6s HINTS: %-5s  LOOKUP HIT RATIO: %6.2f%%  SCAN HIT RATIO: %6.2f%%  OVERALL: %6.2f%%  TIME: %6dms",
+                policy, hints, 100.0 * lookupHits / Math.max(lookups, 1), 100.0 * scanHits / Math.max(scans, 1),
+                100.0 * (lookupHits + scanHits) / Math.max(lookups + scans, 1), time));
+    }
+}